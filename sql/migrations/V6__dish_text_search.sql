@@ -0,0 +1,14 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE dishes
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('italian', coalesce(name, '')), 'A') ||
+            setweight(to_tsvector('italian', coalesce(description, '')), 'B')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_dishes_search_vector
+    ON dishes USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_dishes_name_trgm
+    ON dishes USING GIN (LOWER(name) gin_trgm_ops);
@@ -0,0 +1,17 @@
+-- Copia su DB dei carrelli, scritta in differita dall'applicazione.
+CREATE TABLE IF NOT EXISTS carts (
+    user_id    INT       PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    user_id    INT           NOT NULL REFERENCES carts(user_id) ON DELETE CASCADE,
+    dish_id    INT           NOT NULL REFERENCES dishes(id) ON DELETE CASCADE,
+    position   INT           NOT NULL,
+    quantity   INT           NOT NULL CHECK (quantity > 0),
+    unit_price NUMERIC(10,2) NOT NULL CHECK (unit_price >= 0),
+    PRIMARY KEY (user_id, dish_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created_at
+    ON orders(customer_id, created_at);
@@ -0,0 +1,108 @@
+-- Occupazione dei tavoli: una riga per tavolo, giorno e slot di ogni prenotazione attiva.
+-- La chiave primaria impedisce le doppie prenotazioni senza lock per giorno/slot:
+-- assegnazioni su tavoli diversi procedono in parallelo, un conflitto fallisce subito (23505).
+CREATE TABLE IF NOT EXISTS table_bookings (
+    table_id       INT  NOT NULL REFERENCES tables(id) ON DELETE CASCADE,
+    booking_date   DATE NOT NULL,
+    slot_id        INT  NOT NULL REFERENCES slots(id) ON DELETE CASCADE,
+    reservation_id INT  NOT NULL REFERENCES reservations(id) ON DELETE CASCADE,
+    PRIMARY KEY (table_id, booking_date, slot_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_table_bookings_reservation
+    ON table_bookings(reservation_id);
+
+INSERT INTO table_bookings(table_id, booking_date, slot_id, reservation_id)
+SELECT mt.table_id, r.reservation_date, r.slot_id, r.id
+FROM merge_tables mt
+JOIN reservations r ON r.id = mt.reservation_id
+WHERE r.status NOT IN ('CANCELED', 'NO_SHOW', 'COMPLETED')
+ON CONFLICT DO NOTHING;
+
+-- Modalità ADVISORY (default): lock per giorno/slot come in V2; il controllo è la chiave primaria
+-- di table_bookings (niente più EXISTS su merge_tables), l'errore resta quello di V2.
+-- Modalità OCCUPANCY (dineup.table_locking = 'occupancy' nella transazione): il trigger non fa nulla,
+-- l'applicazione scrive le righe di table_bookings nella stessa transazione.
+CREATE OR REPLACE FUNCTION prevent_double_table_booking()
+RETURNS TRIGGER AS $$
+DECLARE
+    booking_date   DATE;
+    booking_slot   INT;
+    booking_status VARCHAR;
+BEGIN
+    IF current_setting('dineup.table_locking', true) = 'occupancy' THEN
+        RETURN NEW;
+    END IF;
+
+    IF TG_OP = 'UPDATE' THEN
+        IF NEW.reservation_id = OLD.reservation_id AND NEW.table_id = OLD.table_id THEN
+            RETURN NEW;
+        END IF;
+        DELETE FROM table_bookings
+        WHERE reservation_id = OLD.reservation_id AND table_id = OLD.table_id;
+    END IF;
+
+    SELECT reservation_date, slot_id, status
+    INTO booking_date, booking_slot, booking_status
+    FROM reservations
+    WHERE id = NEW.reservation_id;
+
+    IF booking_status IN ('CANCELED', 'NO_SHOW', 'COMPLETED') THEN
+        RETURN NEW;
+    END IF;
+
+    -- Serializza le assegnazioni concorrenti relative allo stesso giorno/slot.
+    PERFORM pg_advisory_xact_lock(
+        hashtextextended(booking_date::TEXT || ':' || booking_slot::TEXT, 0)
+    );
+
+    INSERT INTO table_bookings(table_id, booking_date, slot_id, reservation_id)
+    VALUES (NEW.table_id, booking_date, booking_slot, NEW.reservation_id)
+    ON CONFLICT DO NOTHING;
+
+    IF NOT FOUND THEN
+        RAISE EXCEPTION
+            'Table % is already booked for % in slot %',
+            NEW.table_id, booking_date, booking_slot;
+    END IF;
+
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Un'assegnazione rimossa libera il tavolo.
+CREATE OR REPLACE FUNCTION release_table_booking()
+RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM table_bookings
+    WHERE reservation_id = OLD.reservation_id AND table_id = OLD.table_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS release_table_booking ON merge_tables;
+CREATE TRIGGER release_table_booking
+AFTER DELETE ON merge_tables
+FOR EACH ROW
+EXECUTE FUNCTION release_table_booking();
+
+-- Prenotazione chiusa: tavoli liberi; spostata: l'occupazione la segue (e fallisce se il tavolo è preso).
+CREATE OR REPLACE FUNCTION sync_table_bookings()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.status IN ('CANCELED', 'NO_SHOW', 'COMPLETED') THEN
+        DELETE FROM table_bookings WHERE reservation_id = NEW.id;
+    ELSIF NEW.reservation_date <> OLD.reservation_date OR NEW.slot_id <> OLD.slot_id THEN
+        UPDATE table_bookings
+        SET booking_date = NEW.reservation_date, slot_id = NEW.slot_id
+        WHERE reservation_id = NEW.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS sync_table_bookings ON reservations;
+CREATE TRIGGER sync_table_bookings
+AFTER UPDATE OF status, reservation_date, slot_id ON reservations
+FOR EACH ROW
+EXECUTE FUNCTION sync_table_bookings();
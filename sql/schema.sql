@@ -1,5 +1,7 @@
 -- SCHEMA DINEUP - PostgreSQL
 
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- 1) USERS
 CREATE TABLE users (
                        id SERIAL PRIMARY KEY,
@@ -27,7 +29,11 @@ CREATE TABLE dishes (
                         description TEXT,
                         price       NUMERIC(10,2) NOT NULL CHECK (price >= 0),
                         active      BOOLEAN       DEFAULT TRUE,
-                        category_id INT REFERENCES categories(id) ON DELETE SET NULL
+                        category_id INT REFERENCES categories(id) ON DELETE SET NULL,
+                        search_vector tsvector GENERATED ALWAYS AS (
+                            setweight(to_tsvector('italian', coalesce(name, '')), 'A') ||
+                            setweight(to_tsvector('italian', coalesce(description, '')), 'B')
+                        ) STORED
 );
 
 -- 4) TABLES (tavoli fisici)
@@ -114,34 +120,73 @@ CREATE TABLE merge_tables (
                               FOREIGN KEY (table_id)       REFERENCES tables(id)
 );
 
+-- 11) CARTS (copia dei carrelli in memoria, scritta in differita)
+CREATE TABLE carts (
+                       user_id    INT       PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+                       updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE cart_items (
+                            user_id    INT           NOT NULL REFERENCES carts(user_id) ON DELETE CASCADE,
+                            dish_id    INT           NOT NULL REFERENCES dishes(id) ON DELETE CASCADE,
+                            position   INT           NOT NULL,
+                            quantity   INT           NOT NULL CHECK (quantity > 0),
+                            unit_price NUMERIC(10,2) NOT NULL CHECK (unit_price >= 0),
+                            PRIMARY KEY (user_id, dish_id)
+);
+
+-- 12) TABLE_BOOKINGS (occupazione dei tavoli per giorno e slot delle prenotazioni attive)
+CREATE TABLE table_bookings (
+                                table_id       INT  NOT NULL REFERENCES tables(id) ON DELETE CASCADE,
+                                booking_date   DATE NOT NULL,
+                                slot_id        INT  NOT NULL REFERENCES slots(id) ON DELETE CASCADE,
+                                reservation_id INT  NOT NULL REFERENCES reservations(id) ON DELETE CASCADE,
+                                PRIMARY KEY (table_id, booking_date, slot_id)
+);
+
 -- Impedisce che lo stesso tavolo venga assegnato a due prenotazioni attive
 -- nello stesso giorno e slot, anche in presenza di richieste concorrenti.
+-- Modalità ADVISORY (default): lock per giorno/slot, il controllo è la chiave primaria di table_bookings.
+-- Modalità OCCUPANCY (dineup.table_locking = 'occupancy' nella transazione): il trigger non fa nulla,
+-- l'applicazione scrive le righe di table_bookings nella stessa transazione.
 CREATE OR REPLACE FUNCTION prevent_double_table_booking()
 RETURNS TRIGGER AS $$
 DECLARE
-    booking_date DATE;
-    booking_slot INT;
+    booking_date   DATE;
+    booking_slot   INT;
+    booking_status VARCHAR;
 BEGIN
-    SELECT reservation_date, slot_id
-    INTO booking_date, booking_slot
+    IF current_setting('dineup.table_locking', true) = 'occupancy' THEN
+        RETURN NEW;
+    END IF;
+
+    IF TG_OP = 'UPDATE' THEN
+        IF NEW.reservation_id = OLD.reservation_id AND NEW.table_id = OLD.table_id THEN
+            RETURN NEW;
+        END IF;
+        DELETE FROM table_bookings
+        WHERE reservation_id = OLD.reservation_id AND table_id = OLD.table_id;
+    END IF;
+
+    SELECT reservation_date, slot_id, status
+    INTO booking_date, booking_slot, booking_status
     FROM reservations
     WHERE id = NEW.reservation_id;
 
+    IF booking_status IN ('CANCELED', 'NO_SHOW', 'COMPLETED') THEN
+        RETURN NEW;
+    END IF;
+
     -- Serializza le assegnazioni concorrenti relative allo stesso giorno/slot.
     PERFORM pg_advisory_xact_lock(
         hashtextextended(booking_date::TEXT || ':' || booking_slot::TEXT, 0)
     );
 
-    IF EXISTS (
-        SELECT 1
-        FROM merge_tables mt
-        JOIN reservations r ON r.id = mt.reservation_id
-        WHERE mt.table_id = NEW.table_id
-          AND mt.reservation_id <> NEW.reservation_id
-          AND r.reservation_date = booking_date
-          AND r.slot_id = booking_slot
-          AND r.status NOT IN ('CANCELED', 'NO_SHOW', 'COMPLETED')
-    ) THEN
+    INSERT INTO table_bookings(table_id, booking_date, slot_id, reservation_id)
+    VALUES (NEW.table_id, booking_date, booking_slot, NEW.reservation_id)
+    ON CONFLICT DO NOTHING;
+
+    IF NOT FOUND THEN
         RAISE EXCEPTION
             'Table % is already booked for % in slot %',
             NEW.table_id, booking_date, booking_slot;
@@ -157,8 +202,58 @@ ON merge_tables
 FOR EACH ROW
 EXECUTE FUNCTION prevent_double_table_booking();
 
+-- Un'assegnazione rimossa libera il tavolo.
+CREATE OR REPLACE FUNCTION release_table_booking()
+RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM table_bookings
+    WHERE reservation_id = OLD.reservation_id AND table_id = OLD.table_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER release_table_booking
+AFTER DELETE ON merge_tables
+FOR EACH ROW
+EXECUTE FUNCTION release_table_booking();
+
+-- Prenotazione chiusa: tavoli liberi; spostata: l'occupazione la segue (e fallisce se il tavolo è preso).
+CREATE OR REPLACE FUNCTION sync_table_bookings()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.status IN ('CANCELED', 'NO_SHOW', 'COMPLETED') THEN
+        DELETE FROM table_bookings WHERE reservation_id = NEW.id;
+    ELSIF NEW.reservation_date <> OLD.reservation_date OR NEW.slot_id <> OLD.slot_id THEN
+        UPDATE table_bookings
+        SET booking_date = NEW.reservation_date, slot_id = NEW.slot_id
+        WHERE reservation_id = NEW.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER sync_table_bookings
+AFTER UPDATE OF status, reservation_date, slot_id ON reservations
+FOR EACH ROW
+EXECUTE FUNCTION sync_table_bookings();
+
 CREATE INDEX idx_reservations_date_slot_status
     ON reservations(reservation_date, slot_id, status);
 
 CREATE INDEX idx_merge_tables_table_reservation
     ON merge_tables(table_id, reservation_id);
+
+CREATE INDEX idx_table_bookings_reservation
+    ON table_bookings(reservation_id);
+
+CREATE INDEX idx_orders_created_at
+    ON orders(created_at);
+
+CREATE INDEX idx_orders_customer_created_at
+    ON orders(customer_id, created_at);
+
+CREATE INDEX idx_dishes_search_vector
+    ON dishes USING GIN (search_vector);
+
+CREATE INDEX idx_dishes_name_trgm
+    ON dishes USING GIN (LOWER(name) gin_trgm_ops);
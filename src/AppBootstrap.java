@@ -8,43 +8,103 @@ import Controller.CustomerProfileController;
 import Controller.OwnerController;
 import Controller.StaffController;
 import ORM.*;
+import Server.ApiRoutes;
+import Server.HttpApiServer;
 import ServiceLayer.*;
 
+import java.sql.SQLException;
+import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class AppBootstrap {
 
+    private static final int SEARCH_THREADS = 6;
+    private static final String DURABLE_CARTS_PROPERTY = "dineup.carts.durable";
+    private static final String DURABLE_CARTS_ENV = "DINEUP_CARTS_DURABLE";
+    private static final String BCRYPT_COST_PROPERTY = "dineup.auth.bcryptCost";
+    private static final String BCRYPT_COST_ENV = "DINEUP_BCRYPT_COST";
+    private static final String TABLE_LOCKING_PROPERTY = "dineup.reservations.tableLocking";
+    private static final String TABLE_LOCKING_ENV = "DINEUP_TABLE_LOCKING";
+    private static final String ALLOCATION_CACHE_PROPERTY = "dineup.reservations.allocationCacheSize";
+    private static final String ALLOCATION_CACHE_ENV = "DINEUP_ALLOCATION_CACHE_SIZE";
+
     private AppBootstrap() {
     }
 
     public static Components build(Scanner scanner) {
+        Controllers controllers = wire();
+
+        AuthCLI authCLI = new AuthCLI(controllers.auth(), scanner);
+        CustomerCLI customerCLI = new CustomerCLI(controllers.customer(), controllers.customerProfile(), scanner);
+        OwnerCLI ownerCLI = new OwnerCLI(controllers.owner(), scanner);
+        StaffCLI staffCLI = new StaffCLI(controllers.staff(), scanner);
+
+        return new Components(authCLI, customerCLI, ownerCLI, staffCLI);
+    }
+
+    /**
+     * Gli stessi controller della CLI esposti come API JSON su HTTP; il server va avviato con start().
+     */
+    public static HttpApiServer buildServer(HttpApiServer.Settings settings) {
+        Controllers controllers = wire();
+
+        HttpApiServer server = new HttpApiServer(controllers.auth(), settings);
+        ApiRoutes.register(server, controllers.auth(), controllers.customer(), controllers.staff(), controllers.owner());
+        return server;
+    }
+
+    private static Controllers wire() {
         UserDAO userDAO = new UserDAO();
         CategoryDAO categoryDAO = new CategoryDAO();
         DishDAO dishDAO = new DishDAO();
         TableDAO tableDAO = new TableDAO();
         SlotDAO slotDAO = new SlotDAO();
-        ReservationDAO reservationDAO = new ReservationDAO();
+        ReservationDAO reservationDAO = new ReservationDAO(tableLocking());
         NotificationDAO notificationDAO = new NotificationDAO();
         OrderDAO orderDAO = new OrderDAO();
 
-        AuthService authService = new AuthService(userDAO);
+        NotificationOutbox notificationOutbox = new NotificationOutbox(notificationDAO);
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(notificationOutbox::close, "dineup-notification-drain"));
+
+        // condiviso: il profilo chiude o aggiorna le sessioni aperte dal login
+        SessionStore sessionStore = new SessionStore();
+        AuthService authService = new AuthService(userDAO, new PasswordHasher(passwordHasherSettings()), sessionStore);
         AuthController authController = new AuthController(authService);
 
-        MenuQueryService menuQueryService = new MenuQueryService(dishDAO, categoryDAO);
+        DishSearchIndex dishSearchIndex = new DishSearchIndex(dishDAO, categoryDAO);
+        CachedMenuQueryService menuQueryService = new CachedMenuQueryService(dishDAO, categoryDAO, dishSearchIndex);
         CartService cartService = new CartService();
+        if (durableCartsEnabled()) {
+            startCartWriteBehind(cartService);
+        }
         OrderService orderService = new OrderService(orderDAO);
-        TableAllocationService tableAllocationService = new TableAllocationService();
+        TableAllocationService tableAllocationService = new TableAllocationService(
+                new SeatCountAllocationEngine(), allocationSettings());
+        TableAvailabilityIndex availabilityIndex = new TableAvailabilityIndex(reservationDAO, tableDAO);
+        CapacityProfileService capacityProfiles = new CapacityProfileService(tableDAO);
         ReservationService reservationService = new ReservationService(
                 reservationDAO,
                 tableDAO,
                 slotDAO,
-                notificationDAO,
-                tableAllocationService);
+                notificationOutbox,
+                tableAllocationService,
+                availabilityIndex,
+                capacityProfiles);
         OwnerAdminService ownerAdminService = new OwnerAdminService(dishDAO, categoryDAO, tableDAO, slotDAO);
-        ProfileService profileService = new ProfileService(userDAO);
-        StaffOperationService staffOperationService = new StaffOperationService(orderDAO, reservationService, notificationDAO);
+        ownerAdminService.addTableLayoutListener(availabilityIndex);
+        ownerAdminService.addTableLayoutListener(capacityProfiles);
+        ownerAdminService.addMenuChangeListener(menuQueryService);
+        ownerAdminService.addMenuChangeListener(dishSearchIndex);
+        ProfileService profileService = new ProfileService(userDAO, sessionStore);
+        StaffOperationService staffOperationService = new StaffOperationService(orderDAO, userDAO, reservationService,
+                notificationOutbox);
         NotificationService notificationService = new NotificationService(notificationDAO);
-        SearchService searchService = new SearchService(menuQueryService, orderService, reservationService);
+        SearchService searchService = new SearchService(menuQueryService, orderService, reservationService,
+                newSearchExecutor(), SearchService.Settings.defaults());
 
         CustomerController customerController = new CustomerController(
                 menuQueryService,
@@ -53,15 +113,97 @@ public final class AppBootstrap {
                 reservationService,
                 notificationService);
         CustomerProfileController customerProfileController = new CustomerProfileController(profileService);
-        OwnerController ownerController = new OwnerController(ownerAdminService, menuQueryService, searchService, notificationService);
+        OwnerController ownerController = new OwnerController(ownerAdminService, menuQueryService, searchService,
+                notificationService, capacityProfiles);
         StaffController staffController = new StaffController(staffOperationService, searchService, notificationService);
 
-        AuthCLI authCLI = new AuthCLI(authController, scanner);
-        CustomerCLI customerCLI = new CustomerCLI(customerController, customerProfileController, scanner);
-        OwnerCLI ownerCLI = new OwnerCLI(ownerController, scanner);
-        StaffCLI staffCLI = new StaffCLI(staffController, scanner);
+        return new Controllers(authController, customerController, customerProfileController,
+                ownerController, staffController);
+    }
 
-        return new Components(authCLI, customerCLI, ownerCLI, staffCLI);
+    private static boolean durableCartsEnabled() {
+        String value = readSetting(DURABLE_CARTS_PROPERTY, DURABLE_CARTS_ENV);
+        return value != null && Boolean.parseBoolean(value);
+    }
+
+    private static PasswordHasher.Settings passwordHasherSettings() {
+        String cost = readSetting(BCRYPT_COST_PROPERTY, BCRYPT_COST_ENV);
+        if (cost == null) {
+            return PasswordHasher.Settings.defaults();
+        }
+        try {
+            return PasswordHasher.Settings.withCost(Integer.parseInt(cost));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid BCrypt cost '" + cost + "', using default: " + e.getMessage());
+            return PasswordHasher.Settings.defaults();
+        }
+    }
+
+    private static TableAllocationService.Settings allocationSettings() {
+        String size = readSetting(ALLOCATION_CACHE_PROPERTY, ALLOCATION_CACHE_ENV);
+        if (size == null) {
+            return TableAllocationService.Settings.defaults();
+        }
+        try {
+            return new TableAllocationService.Settings(Integer.parseInt(size));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid allocation cache size '" + size + "', using default: " + e.getMessage());
+            return TableAllocationService.Settings.defaults();
+        }
+    }
+
+    // OCCUPANCY richiede la migrazione V8 (tabella table_bookings)
+    private static ReservationDAO.TableLocking tableLocking() {
+        String mode = readSetting(TABLE_LOCKING_PROPERTY, TABLE_LOCKING_ENV);
+        if (mode == null) {
+            return ReservationDAO.TableLocking.ADVISORY;
+        }
+        try {
+            return ReservationDAO.TableLocking.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown table locking mode '" + mode + "', using ADVISORY");
+            return ReservationDAO.TableLocking.ADVISORY;
+        }
+    }
+
+    // proprietà di sistema (-D) con precedenza sulla variabile d'ambiente
+    private static String readSetting(String property, String env) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(env);
+        }
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // ripristina i carrelli salvati; senza le tabelle della V7 si resta con i soli carrelli in memoria
+    private static void startCartWriteBehind(CartService cartService) {
+        CartWriteBehind cartWriteBehind = new CartWriteBehind(new CartDAO(), cartService);
+        try {
+            int restored = cartWriteBehind.recover();
+            System.out.println("Carrelli ripristinati: " + restored);
+        } catch (SQLException e) {
+            System.err.println("Cart recovery failed, carts will not be persisted: " + e.getMessage());
+            cartWriteBehind.close();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(cartWriteBehind::close, "dineup-cart-flush"));
+    }
+
+    // thread di piattaforma (il progetto compila per Java 17); ogni ramo tiene al più una connessione del pool
+    private static ExecutorService newSearchExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(SEARCH_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "dineup-search-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record Controllers(AuthController auth,
+                               CustomerController customer,
+                               CustomerProfileController customerProfile,
+                               OwnerController owner,
+                               StaffController staff) {
     }
 
     public record Components(AuthCLI authCLI,
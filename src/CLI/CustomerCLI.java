@@ -14,6 +14,7 @@ import DomainModel.user.User;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -47,7 +48,8 @@ public class CustomerCLI {
             System.out.println("10) Profilo");
             System.out.println("11) Mostra notifiche");
             System.out.println("12) Mostra notifiche non lette");
-            System.out.println("13) Segna notifica come letta");
+            System.out.println("13) Segna notifiche come lette");
+            System.out.println("14) Segna tutte le notifiche come lette");
             System.out.println("0) Logout");
             System.out.print("Scelta: ");
 
@@ -65,7 +67,8 @@ public class CustomerCLI {
                 case "10" -> profileMenu(user);
                 case "11" -> handleShowNotifications(user, false);
                 case "12" -> handleShowNotifications(user, true);
-                case "13" -> handleMarkNotificationAsRead();
+                case "13" -> handleMarkNotificationAsRead(user);
+                case "14" -> handleMarkAllNotificationsAsRead(user);
                 case "0" -> {
                     System.out.println("Logout effettuato.\n");
                     return;
@@ -167,16 +170,30 @@ public class CustomerCLI {
         }
     }
 
-    private void handleMarkNotificationAsRead() {
-        Integer notificationId = readInt("ID notifica: ");
-        if (notificationId == null) return;
+    private void handleMarkNotificationAsRead(User user) {
+        List<Integer> notificationIds = readIntList("ID notifiche (separati da virgola): ");
+        if (notificationIds == null) return;
         try {
-            customerController.markNotificationAsRead(notificationId);
-            System.out.println("Notifica segnata come letta");
+            if (notificationIds.size() == 1) {
+                customerController.markNotificationAsRead(notificationIds.get(0));
+                System.out.println("Notifica segnata come letta");
+            } else {
+                int updated = customerController.markNotificationsAsRead(user, notificationIds);
+                System.out.println("Notifiche segnate come lette: " + updated);
+            }
         } catch (Exception e) {
             System.err.println("Errore aggiornamento notifica: " + e.getMessage());
         }
     }
+
+    private void handleMarkAllNotificationsAsRead(User user) {
+        try {
+            int updated = customerController.markAllNotificationsAsRead(user);
+            System.out.println("Notifiche segnate come lette: " + updated);
+        } catch (Exception e) {
+            System.err.println("Errore aggiornamento notifiche: " + e.getMessage());
+        }
+    }
     private void profileMenu(User user) {
         while (true) {
             System.out.println("--- Profilo ---");
@@ -320,6 +337,25 @@ public class CustomerCLI {
         }
     }
 
+    private List<Integer> readIntList(String prompt) {
+        System.out.print(prompt);
+        String raw = scanner.nextLine().trim();
+        if (raw.isBlank()) {
+            System.out.println("Valore obbligatorio\n");
+            return null;
+        }
+        List<Integer> values = new ArrayList<>();
+        try {
+            for (String part : raw.split(",")) {
+                values.add(Integer.parseInt(part.trim()));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Inserire numeri validi separati da virgola\n");
+            return null;
+        }
+        return values;
+    }
+
     private LocalDate readDate(String data) {
         System.out.print(data);
         String raw = scanner.nextLine().trim();
@@ -18,6 +18,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -103,14 +104,16 @@ public class OwnerCLI {
             System.out.println("--- Notifiche owner ---");
             System.out.println("1) Mostra tutte");
             System.out.println("2) Mostra non lette");
-            System.out.println("3) Segna come letta");
+            System.out.println("3) Segna come lette");
+            System.out.println("4) Segna tutte come lette");
             System.out.println("0) Indietro");
             System.out.print("Scelta: ");
             String c = scanner.nextLine().trim();
             switch (c) {
                 case "1" -> handleShowNotifications(user, false);
                 case "2" -> handleShowNotifications(user, true);
-                case "3" -> handleMarkNotificationAsRead();
+                case "3" -> handleMarkNotificationAsRead(user);
+                case "4" -> handleMarkAllNotificationsAsRead(user);
                 case "0" -> { return; }
                 default -> System.out.println("Scelta non valida.");
             }
@@ -382,10 +385,29 @@ public class OwnerCLI {
         }
     }
 
-    private void handleMarkNotificationAsRead() {
-        Integer notificationId = readInt("ID notifica: ");
-        if (notificationId == null) return;
-        try { ownerController.markNotificationAsRead(notificationId); System.out.println("Notifica segnata come letta"); } catch (Exception e) { System.err.println("Errore aggiornamento notifica: " + e.getMessage()); }
+    private void handleMarkNotificationAsRead(User user) {
+        List<Integer> notificationIds = readIntList("ID notifiche (separati da virgola): ");
+        if (notificationIds == null) return;
+        try {
+            if (notificationIds.size() == 1) {
+                ownerController.markNotificationAsRead(notificationIds.get(0));
+                System.out.println("Notifica segnata come letta");
+            } else {
+                int updated = ownerController.markNotificationsAsRead(user.getId(), notificationIds);
+                System.out.println("Notifiche segnate come lette: " + updated);
+            }
+        } catch (Exception e) {
+            System.err.println("Errore aggiornamento notifica: " + e.getMessage());
+        }
+    }
+
+    private void handleMarkAllNotificationsAsRead(User user) {
+        try {
+            int updated = ownerController.markAllNotificationsAsRead(user.getId());
+            System.out.println("Notifiche segnate come lette: " + updated);
+        } catch (Exception e) {
+            System.err.println("Errore aggiornamento notifiche: " + e.getMessage());
+        }
     }
 
     private void showMenuOverview() {
@@ -412,6 +434,9 @@ public class OwnerCLI {
                             + " posti:" + table.getSeats()
                             + " joinable:" + table.isJoinable()
                             + " disponibile:" + table.isAvailable()));
+            ownerController.getCapacityProfile().ifPresent(profile -> System.out.println(
+                    "Gruppo massimo ospitabile: " + profile.maxPartySize() + " persone"
+                            + " (a un solo tavolo: " + profile.maxSingleTable() + ")"));
         } catch (SQLException e) {
             System.err.println("Impossibile caricare i tavoli: " + e.getMessage());
         }
@@ -509,6 +534,25 @@ public class OwnerCLI {
         }
     }
 
+    private List<Integer> readIntList(String prompt) {
+        System.out.print(prompt);
+        String raw = scanner.nextLine().trim();
+        if (raw.isBlank()) {
+            System.out.println("Valore obbligatorio\n");
+            return null;
+        }
+        List<Integer> values = new ArrayList<>();
+        try {
+            for (String part : raw.split(",")) {
+                values.add(Integer.parseInt(part.trim()));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Inserire numeri validi separati da virgola\n");
+            return null;
+        }
+        return values;
+    }
+
     private Integer readOptionalInt(String prompt) {
         System.out.print(prompt);
         String raw = scanner.nextLine().trim();
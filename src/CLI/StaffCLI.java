@@ -11,9 +11,11 @@ import DomainModel.user.User;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.StringJoiner;
 
 public class StaffCLI {
 
@@ -44,7 +46,8 @@ public class StaffCLI {
             System.out.println("8) Cerca prenotazioni");
             System.out.println("9) Mostra notifiche");
             System.out.println("10) Mostra notifiche non lette");
-            System.out.println("11) Segna notifica come letta");
+            System.out.println("11) Segna notifiche come lette");
+            System.out.println("12) Segna tutte le notifiche come lette");
             System.out.println("0) Logout");
             System.out.print("Scelta: ");
             String choice = scanner.nextLine().trim();
@@ -59,7 +62,8 @@ public class StaffCLI {
                 case "8" -> handleSearchReservations();
                 case "9" -> handleShowNotifications(user, false);
                 case "10" -> handleShowNotifications(user, true);
-                case "11" -> handleMarkNotificationAsRead();
+                case "11" -> handleMarkNotificationAsRead(user);
+                case "12" -> handleMarkAllNotificationsAsRead(user);
                 case "0" -> {
                     System.out.println("Logout effettuato.\n");
                     return;
@@ -109,7 +113,7 @@ public class StaffCLI {
         LocalDate date = readDate("Data (YYYY-MM-DD): ");
         if (date == null) return;
         try {
-            printReservationsForDate(date, staffController.getReservations(date));
+            printReservationsForDate(date, staffController.getReservations(date, true));
         } catch (SQLException e) {
             System.err.println("Impossibile caricare le prenotazioni: " + e.getMessage());
         }
@@ -181,6 +185,25 @@ public class StaffCLI {
         }
     }
 
+    private List<Integer> readIntList(String prompt) {
+        System.out.print(prompt);
+        String raw = scanner.nextLine().trim();
+        if (raw.isBlank()) {
+            System.out.println("Valore obbligatorio\n");
+            return null;
+        }
+        List<Integer> values = new ArrayList<>();
+        try {
+            for (String part : raw.split(",")) {
+                values.add(Integer.parseInt(part.trim()));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Inserire numeri validi separati da virgola\n");
+            return null;
+        }
+        return values;
+    }
+
     private Integer readOptionalInt(String prompt) {
         System.out.print(prompt);
         String raw = scanner.nextLine().trim();
@@ -271,10 +294,29 @@ public class StaffCLI {
         }
     }
 
-    private void handleMarkNotificationAsRead() {
-        Integer notificationId = readInt("ID notifica: ");
-        if (notificationId == null) return;
-        try { staffController.markNotificationAsRead(notificationId); System.out.println("Notifica segnata come letta"); } catch (Exception e) { System.err.println("Errore aggiornamento notifica: " + e.getMessage()); }
+    private void handleMarkNotificationAsRead(User user) {
+        List<Integer> notificationIds = readIntList("ID notifiche (separati da virgola): ");
+        if (notificationIds == null) return;
+        try {
+            if (notificationIds.size() == 1) {
+                staffController.markNotificationAsRead(notificationIds.get(0));
+                System.out.println("Notifica segnata come letta");
+            } else {
+                int updated = staffController.markNotificationsAsRead(user.getId(), notificationIds);
+                System.out.println("Notifiche segnate come lette: " + updated);
+            }
+        } catch (Exception e) {
+            System.err.println("Errore aggiornamento notifica: " + e.getMessage());
+        }
+    }
+
+    private void handleMarkAllNotificationsAsRead(User user) {
+        try {
+            int updated = staffController.markAllNotificationsAsRead(user.getId());
+            System.out.println("Notifiche segnate come lette: " + updated);
+        } catch (Exception e) {
+            System.err.println("Errore aggiornamento notifiche: " + e.getMessage());
+        }
     }
 
     private void showKitchenQueue() {
@@ -320,7 +362,17 @@ public class StaffCLI {
                 "#" + reservation.getId()
                         + " ospiti:" + reservation.getNumberOfGuests()
                         + " slot:" + reservation.getTimeSlot().getStartTime()
-                        + " stato:" + reservation.getStatus()));
+                        + " stato:" + reservation.getStatus()
+                        + " tavoli:" + tableNumbers(reservation)));
+    }
+
+    private static String tableNumbers(Reservation reservation) {
+        if (reservation.getTables().isEmpty()) {
+            return "-";
+        }
+        StringJoiner numbers = new StringJoiner(",");
+        reservation.getTables().forEach(assignment -> numbers.add(String.valueOf(assignment.getTable().getNumber())));
+        return numbers.toString();
     }
 
     private void printOrders(List<Order> orders) {
@@ -2,6 +2,7 @@ package Controller;
 
 import DomainModel.user.User;
 import ServiceLayer.AuthService;
+import ServiceLayer.SessionStore;
 
 import java.sql.SQLException;
 import java.util.Optional;
@@ -18,6 +19,18 @@ public class AuthController {
         return authService.authenticate(email, password);
     }
 
+    public Optional<SessionStore.Session> openSession(String email, String password) throws SQLException {
+        return authService.openSession(email, password);
+    }
+
+    public Optional<User> resolveSession(String token) {
+        return authService.resolveSession(token);
+    }
+
+    public void logout(String token) {
+        authService.closeSession(token);
+    }
+
     public User registerCustomer(String username,
                                  String email,
                                  String password,
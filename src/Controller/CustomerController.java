@@ -92,6 +92,10 @@ public class CustomerController {
         return reservationService.listCustomerReservations(user);
     }
 
+    public List<Reservation> listReservations(User user, boolean withTables) throws SQLException {
+        return reservationService.listCustomerReservations(user, withTables);
+    }
+
     public List<Notification> getNotifications(User user,
                                                boolean unreadOnly) throws SQLException {
         return notificationService.listNotificationsForUser(user.getId(), unreadOnly);
@@ -101,6 +105,14 @@ public class CustomerController {
         notificationService.markAsRead(notificationId);
     }
 
+    public int markNotificationsAsRead(User user, List<Integer> notificationIds) throws SQLException {
+        return notificationService.markAsRead(user.getId(), notificationIds);
+    }
+
+    public int markAllNotificationsAsRead(User user) throws SQLException {
+        return notificationService.markAllAsRead(user.getId());
+    }
+
     public List<Slot> getAvailableSlots() throws SQLException {
         return reservationService.listOpenSlots();
     }
@@ -16,6 +16,7 @@ import DomainModel.search.OrderSearchParameters;
 import DomainModel.search.ReservationSearchParameters;
 import DomainModel.search.SearchCriteria;
 import DomainModel.valueObject.Money;
+import ServiceLayer.CapacityProfileService;
 import ServiceLayer.MenuQueryService;
 import ServiceLayer.NotificationService;
 import ServiceLayer.OwnerAdminService;
@@ -27,6 +28,7 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class OwnerController {
 
@@ -34,15 +36,25 @@ public class OwnerController {
     private final MenuQueryService menuQueryService;
     private final SearchService searchService;
     private final NotificationService notificationService;
+    private final CapacityProfileService capacityProfiles;
 
     public OwnerController(OwnerAdminService ownerAdminService,
                            MenuQueryService menuQueryService,
                            SearchService searchService,
                            NotificationService notificationService) {
+        this(ownerAdminService, menuQueryService, searchService, notificationService, null);
+    }
+
+    public OwnerController(OwnerAdminService ownerAdminService,
+                           MenuQueryService menuQueryService,
+                           SearchService searchService,
+                           NotificationService notificationService,
+                           CapacityProfileService capacityProfiles) {
         this.ownerAdminService = ownerAdminService;
         this.menuQueryService = menuQueryService;
         this.searchService = searchService;
         this.notificationService = notificationService;
+        this.capacityProfiles = capacityProfiles;
     }
 
     public List<Notification> getNotifications(int userId, boolean unreadOnly) throws SQLException {
@@ -53,6 +65,14 @@ public class OwnerController {
         notificationService.markAsRead(notificationId);
     }
 
+    public int markNotificationsAsRead(int userId, List<Integer> notificationIds) throws SQLException {
+        return notificationService.markAsRead(userId, notificationIds);
+    }
+
+    public int markAllNotificationsAsRead(int userId) throws SQLException {
+        return notificationService.markAllAsRead(userId);
+    }
+
     public void notifyOwnerAction(int ownerUserId, String action) throws SQLException {
         notificationService.notifyUser(ownerUserId, action, TypeNotification.UPDATE);
     }
@@ -101,6 +121,11 @@ public class OwnerController {
         return ownerAdminService.listTables();
     }
 
+    /** Capienza della sala con i tavoli correnti; vuoto se i profili non sono configurati. */
+    public Optional<CapacityProfileService.CapacityProfile> getCapacityProfile() throws SQLException {
+        return capacityProfiles == null ? Optional.empty() : Optional.of(capacityProfiles.current());
+    }
+
     public Table addTable(int number, int seats, boolean joinable, String location) throws SQLException {
         return ownerAdminService.addTable(number, seats, joinable, location);
     }
@@ -10,12 +10,15 @@ import DomainModel.reservation.ReservationStatus;
 import DomainModel.search.OrderSearchParameters;
 import DomainModel.search.ReservationSearchParameters;
 import DomainModel.search.SearchCriteria;
+import DomainModel.user.User;
 import ServiceLayer.NotificationService;
+import ServiceLayer.ReservationService;
 import ServiceLayer.SearchService;
 import ServiceLayer.StaffOperationService;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +45,14 @@ public class StaffController {
         notificationService.markAsRead(notificationId);
     }
 
+    public int markNotificationsAsRead(int userId, List<Integer> notificationIds) throws SQLException {
+        return notificationService.markAsRead(userId, notificationIds);
+    }
+
+    public int markAllNotificationsAsRead(int userId) throws SQLException {
+        return notificationService.markAllAsRead(userId);
+    }
+
     public Map<OrderStatus, List<Order>> getKitchenQueue() throws SQLException {
         Map<OrderStatus, List<Order>> queue = new EnumMap<>(OrderStatus.class);
         for (OrderStatus status : OrderStatus.values()) {
@@ -65,6 +76,34 @@ public class StaffController {
         return staffOperationService.reservationsForDate(date);
     }
 
+    public List<Reservation> getReservations(LocalDate date, boolean withTables) throws SQLException {
+        return staffOperationService.reservationsForDate(date, withTables);
+    }
+
+    /**
+     * Prenotazioni in blocco: i clienti sono letti con una sola query,
+     * un cliente inesistente fa rifiutare solo le sue richieste.
+     */
+    public List<ReservationService.BookingOutcome> createReservations(List<BulkReservation> bookings) throws SQLException {
+        Map<Integer, User> customers = staffOperationService.findCustomers(
+                bookings.stream().map(BulkReservation::customerId).distinct().toList());
+        List<ReservationService.BookingRequest> requests = new ArrayList<>(bookings.size());
+        for (BulkReservation booking : bookings) {
+            requests.add(new ReservationService.BookingRequest(customers.get(booking.customerId()),
+                    booking.date(), booking.slotId(), booking.guests(), booking.notes()));
+        }
+
+        List<ReservationService.BookingOutcome> outcomes =
+                new ArrayList<>(staffOperationService.createReservations(requests));
+        for (int i = 0; i < bookings.size(); i++) {
+            int customerId = bookings.get(i).customerId();
+            if (!customers.containsKey(customerId)) {
+                outcomes.set(i, new ReservationService.BookingOutcome(i, null, "Customer not found: " + customerId));
+            }
+        }
+        return outcomes;
+    }
+
     public void confirmReservation(int reservationId) throws SQLException {
         staffOperationService.confirmReservation(reservationId);
     }
@@ -112,4 +151,8 @@ public class StaffController {
         if (status != null) params.setStatus(status);
         return searchService.search(SearchCriteria.builder().setReservation(params)).getReservations();
     }
+
+    /** Una riga della richiesta in blocco, con il cliente indicato per id. */
+    public record BulkReservation(int customerId, LocalDate date, int slotId, int guests, String notes) {
+    }
 }
@@ -22,7 +22,7 @@ public class Order {
         this.status = OrderStatus.CREATED;
         setCustomer(customer);
         setPaymentMethod(paymentMethod);
-        setTotalAmount((totalAmount != null) ? totalAmount : new Money(0.0));
+        setTotalAmount((totalAmount != null) ? totalAmount : Money.ZERO);
         this.notes = notes;
     }
 
@@ -0,0 +1,53 @@
+package DomainModel.order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Contenuto del carrello di un cliente all'istante updatedAt, come viene salvato a DB.
+ * Un carrello senza righe indica che il carrello va cancellato.
+ */
+public class SavedCart {
+
+    private final int userId;
+    private final List<OrderItem> items;
+    private final LocalDateTime updatedAt;
+
+    public SavedCart(int userId, List<OrderItem> items, LocalDateTime updatedAt) {
+        if (userId <= 0)
+            throw new IllegalArgumentException("User id must be positive");
+        if (items == null)
+            throw new IllegalArgumentException("Items cannot be null");
+        if (updatedAt == null)
+            throw new IllegalArgumentException("Update time cannot be null");
+
+        this.userId = userId;
+        this.items = List.copyOf(items);
+        this.updatedAt = updatedAt;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SavedCart{" +
+                "userId=" + userId +
+                ", items=" + items.size() +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
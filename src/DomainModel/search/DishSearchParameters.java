@@ -9,6 +9,7 @@ public class DishSearchParameters {
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private String nameContains;
+    private DishTextMatch textMatch = DishTextMatch.SUBSTRING;
 
     private DishSearchParameters() {
     }
@@ -54,6 +55,12 @@ public class DishSearchParameters {
         return this;
     }
 
+    /** Come usare il testo di setNameContains; null ripristina SUBSTRING. */
+    public DishSearchParameters setTextMatch(DishTextMatch textMatch) {
+        this.textMatch = (textMatch != null) ? textMatch : DishTextMatch.SUBSTRING;
+        return this;
+    }
+
     public Optional<Integer> getCategoryId() {
         return Optional.ofNullable(categoryId);
     }
@@ -67,6 +74,9 @@ public class DishSearchParameters {
         return Optional.ofNullable(maxPrice);
     }
     public Optional<String> getNameContains() {return Optional.ofNullable(nameContains);}
+    public DishTextMatch getTextMatch() {
+        return textMatch;
+    }
 
     public boolean hasFilters() {
         return categoryId != null
@@ -0,0 +1,13 @@
+package DomainModel.search;
+
+/**
+ * Modalità di confronto del testo cercato nei piatti.
+ */
+public enum DishTextMatch {
+    /** Sottostringa del nome, senza ranking (comportamento storico). */
+    SUBSTRING,
+    /** Ricerca a parole su nome e descrizione (tsvector italiano), ordinata per rilevanza. */
+    FULL_TEXT,
+    /** Come FULL_TEXT, ma accetta anche nomi simili per trigrammi: tollera errori di battitura. */
+    FUZZY
+}
@@ -5,6 +5,7 @@ import DomainModel.order.PaymentMethod;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 //Parametri di ricerca per gli ordini.
@@ -19,6 +20,9 @@ public class OrderSearchParameters {
     private LocalDate endDate;
     private BigDecimal minTotalAmount;
     private BigDecimal maxTotalAmount;
+    private LocalDateTime afterCreatedAt;
+    private Integer afterId;
+    private Integer limit;
 
     private OrderSearchParameters() {
     }
@@ -83,6 +87,28 @@ public class OrderSearchParameters {
         return this;
     }
 
+    /**
+     * Cursore keyset: restituisce solo gli ordini che vengono dopo (createdAt, id) nell'ordinamento
+     * dei risultati (created_at DESC, id DESC). Passare i valori dell'ultimo ordine della pagina precedente;
+     * null su entrambi riparte dall'inizio.
+     */
+    public OrderSearchParameters setAfter(LocalDateTime createdAt, Integer id) {
+        if ((createdAt == null) != (id == null))
+            throw new IllegalArgumentException("Cursor requires both created at and id");
+        if (id != null && id <= 0)
+            throw new IllegalArgumentException("Cursor id must be positive");
+        this.afterCreatedAt = createdAt;
+        this.afterId = id;
+        return this;
+    }
+
+    public OrderSearchParameters setLimit(Integer limit) {
+        if (limit != null && limit <= 0)
+            throw new IllegalArgumentException("Limit must be > 0");
+        this.limit = limit;
+        return this;
+    }
+
     public Optional<Integer> getCustomerId() {
         return Optional.ofNullable(customerId);
     }
@@ -115,6 +141,19 @@ public class OrderSearchParameters {
         return Optional.ofNullable(maxTotalAmount);
     }
 
+    public Optional<LocalDateTime> getAfterCreatedAt() {
+        return Optional.ofNullable(afterCreatedAt);
+    }
+
+    public Optional<Integer> getAfterId() {
+        return Optional.ofNullable(afterId);
+    }
+
+    public Optional<Integer> getLimit() {
+        return Optional.ofNullable(limit);
+    }
+
+    // cursore e limite governano la paginazione, non sono filtri
     public boolean hasFilters() {
         return customerId != null
                 || status != null
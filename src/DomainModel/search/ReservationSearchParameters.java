@@ -3,6 +3,7 @@ package DomainModel.search;
 import DomainModel.reservation.ReservationStatus;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Optional;
 
 
@@ -18,6 +19,11 @@ public class ReservationSearchParameters {
     private Integer minGuests;
     private Integer maxGuests;
     private ReservationStatus status;
+    private LocalDate afterDate;
+    private LocalTime afterStartTime;
+    private Integer afterId;
+    private Integer limit;
+    private boolean withTables;
 
     private ReservationSearchParameters() {
     }
@@ -82,6 +88,37 @@ public class ReservationSearchParameters {
         return this;
     }
 
+    /**
+     * Cursore keyset: restituisce solo le prenotazioni che vengono dopo (data, inizio slot, id)
+     * nell'ordinamento dei risultati. Passare i valori dell'ultima prenotazione della pagina
+     * precedente; null su tutti riparte dall'inizio.
+     */
+    public ReservationSearchParameters setAfter(LocalDate date, LocalTime startTime, Integer id) {
+        boolean none = date == null && startTime == null && id == null;
+        boolean all = date != null && startTime != null && id != null;
+        if (!none && !all)
+            throw new IllegalArgumentException("Cursor requires date, start time and id");
+        if (id != null && id <= 0)
+            throw new IllegalArgumentException("Cursor id must be positive");
+        this.afterDate = date;
+        this.afterStartTime = startTime;
+        this.afterId = id;
+        return this;
+    }
+
+    public ReservationSearchParameters setLimit(Integer limit) {
+        if (limit != null && limit <= 0)
+            throw new IllegalArgumentException("Limit must be > 0");
+        this.limit = limit;
+        return this;
+    }
+
+    /** Carica anche i tavoli assegnati (una query in più per l'intera pagina di risultati). */
+    public ReservationSearchParameters setWithTables(boolean withTables) {
+        this.withTables = withTables;
+        return this;
+    }
+
     public Optional<LocalDate> getDate() {
         return Optional.ofNullable(date);
     }
@@ -113,6 +150,27 @@ public class ReservationSearchParameters {
         return Optional.ofNullable(status);
     }
 
+    public Optional<LocalDate> getAfterDate() {
+        return Optional.ofNullable(afterDate);
+    }
+
+    public Optional<LocalTime> getAfterStartTime() {
+        return Optional.ofNullable(afterStartTime);
+    }
+
+    public Optional<Integer> getAfterId() {
+        return Optional.ofNullable(afterId);
+    }
+
+    public Optional<Integer> getLimit() {
+        return Optional.ofNullable(limit);
+    }
+
+    public boolean isWithTables() {
+        return withTables;
+    }
+
+    // cursore, limite e tavoli governano la paginazione e il caricamento, non sono filtri
     public boolean hasFilters() {
         return date != null
                 || startDate != null
@@ -0,0 +1,10 @@
+package DomainModel.search;
+
+/**
+ * Rami indipendenti di una ricerca cross-dominio.
+ */
+public enum SearchBranch {
+    DISHES,
+    ORDERS,
+    RESERVATIONS
+}
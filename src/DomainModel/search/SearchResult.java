@@ -5,7 +5,12 @@ import DomainModel.order.Order;
 import DomainModel.reservation.Reservation;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Risultato composito delle ricerche cross-dominio.
@@ -15,6 +20,8 @@ public class SearchResult {
     private List<Dish> dishes = new ArrayList<>();
     private List<Order> orders = new ArrayList<>();
     private List<Reservation> reservations = new ArrayList<>();
+    private final Set<SearchBranch> incompleteBranches = EnumSet.noneOf(SearchBranch.class);
+    private final Map<SearchBranch, Long> branchMicros = new EnumMap<>(SearchBranch.class);
 
     public List<Dish> getDishes() {
         return dishes;
@@ -40,6 +47,28 @@ public class SearchResult {
         this.reservations = (reservations != null) ? reservations : new ArrayList<>();
     }
 
+    /** Segna un ramo che non ha risposto entro il tempo previsto: i suoi risultati mancano. */
+    public void markIncomplete(SearchBranch branch) {
+        incompleteBranches.add(branch);
+    }
+
+    public boolean isPartial() {
+        return !incompleteBranches.isEmpty();
+    }
+
+    public Set<SearchBranch> getIncompleteBranches() {
+        return Collections.unmodifiableSet(incompleteBranches);
+    }
+
+    public void recordTiming(SearchBranch branch, long micros) {
+        branchMicros.put(branch, micros);
+    }
+
+    /** Durata in microsecondi dei rami completati. */
+    public Map<SearchBranch, Long> getBranchTimings() {
+        return Collections.unmodifiableMap(branchMicros);
+    }
+
     public boolean isEmpty() {
         return dishes.isEmpty() && orders.isEmpty() && reservations.isEmpty();
     }
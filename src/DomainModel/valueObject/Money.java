@@ -2,14 +2,21 @@ package DomainModel.valueObject;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Objects;
 
+/**
+ * Importo non negativo in euro, memorizzato come numero intero di centesimi.
+ * Somme e prodotti lavorano sui long (con controllo di overflow) e non creano BigDecimal:
+ * la conversione avviene solo in {@link #getAmount()}, usato ai confini (JDBC, JSON).
+ */
 public class Money {
-    private final BigDecimal amount;
+
+    public static final Money ZERO = new Money(0L);
+
+    private final long cents;
 
     public Money(double amount) {
         if (amount < 0) throw new IllegalArgumentException("Price cannot be negative");
-        this.amount = BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+        this.cents = toCents(BigDecimal.valueOf(amount));
     }
 
     public Money(BigDecimal amount) {
@@ -17,27 +24,53 @@ public class Money {
             throw new IllegalArgumentException("Amount cannot be null");
         if (amount.compareTo(BigDecimal.ZERO) < 0)
             throw new IllegalArgumentException("Price cannot be negative");
-        this.amount = amount.setScale(2, RoundingMode.HALF_UP);
+        this.cents = toCents(amount);
+    }
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        if (cents < 0) throw new IllegalArgumentException("Price cannot be negative");
+        return cents == 0 ? ZERO : new Money(cents);
     }
 
+    /** Importo con due decimali; crea un nuovo BigDecimal a ogni chiamata. */
     public BigDecimal getAmount() {
-        return amount; }
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public long getCents() {
+        return cents;
+    }
 
     public Money add(Money other) {
         if (other == null)
             throw new IllegalArgumentException("Other money cannot be null");
-        return new Money(this.amount.add(other.amount));
+        if (other.cents == 0) return this;
+        if (cents == 0) return other;
+        return new Money(Math.addExact(cents, other.cents));
     }
 
     public Money multiply(int qty) {
         if (qty < 0)
             throw new IllegalArgumentException("Quantity cannot be negative");
-        return new Money(this.amount.multiply(BigDecimal.valueOf(qty)));
+        if (qty == 1) return this;
+        return ofCents(Math.multiplyExact(cents, qty));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is too large: " + amount);
+        }
     }
 
     @Override
     public String toString() {
-        return amount.toString() + "€";
+        return getAmount().toString() + "€";
     }
 
 
@@ -45,11 +78,11 @@ public class Money {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Money money)) return false;
-        return amount.compareTo(money.amount) == 0;
+        return cents == money.cents;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount.stripTrailingZeros());
+        return Long.hashCode(cents);
     }
 }
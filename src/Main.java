@@ -3,11 +3,16 @@ import CLI.CustomerCLI;
 import CLI.OwnerCLI;
 import CLI.StaffCLI;
 import DomainModel.user.User;
+import Server.HttpApiServer;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.Scanner;
 
 public class Main {
 
+    private static final int DEFAULT_PORT = 8080;
+
     private final Scanner scanner;
     private final AuthCLI authCLI;
     private final CustomerCLI customerCLI;
@@ -24,11 +29,25 @@ public class Main {
         this.staffCLI = components.staffCLI();
     }
 
-    public static void main(String[] args) {
+    /**
+     * Senza argomenti avvia la CLI; con --server [porta] espone le stesse operazioni come API JSON su HTTP.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            startServer(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT);
+            return;
+        }
         Main app = new Main();
         app.start();
     }
 
+    private static void startServer(int port) throws IOException {
+        HttpApiServer server = AppBootstrap.buildServer(HttpApiServer.Settings.defaults());
+        server.start(new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "dineup-http-stop"));
+        System.out.println("DineUp API in ascolto sulla porta " + server.port());
+    }
+
     private void start() {
         while (true) {
             System.out.println("=== DINEUP ===");
@@ -0,0 +1,203 @@
+package ORM;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.order.OrderItem;
+import DomainModel.order.SavedCart;
+import DomainModel.valueObject.Money;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copia su DB dei carrelli (tabelle carts e cart_items, migrazione V7).
+ */
+public class CartDAO extends BaseDAO {
+
+    // -------------------------------------------------------
+    // WRITE - salvataggio a blocchi
+    // -------------------------------------------------------
+
+    /**
+     * Sostituisce in un'unica transazione i carrelli indicati: un carrello vuoto viene cancellato.
+     * Le righe di piatti nel frattempo eliminati vengono ignorate.
+     */
+    public void saveCarts(List<SavedCart> carts) throws SQLException {
+        if (carts == null || carts.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                deleteCarts(conn, carts);
+                insertCarts(conn, carts);
+                insertCartItems(conn, carts);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void deleteCarts(Connection conn, List<SavedCart> carts) throws SQLException {
+        String sql = "DELETE FROM carts WHERE user_id = ANY(?)";
+
+        Integer[] userIds = new Integer[carts.size()];
+        for (int i = 0; i < carts.size(); i++) {
+            userIds[i] = carts.get(i).getUserId();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setArray(1, conn.createArrayOf("integer", userIds));
+            ps.executeUpdate();
+        }
+    }
+
+    private void insertCarts(Connection conn, List<SavedCart> carts) throws SQLException {
+        // un utente eliminato nel frattempo non produce righe invece di violare la foreign key
+        String sql = """
+                INSERT INTO carts(user_id, updated_at)
+                SELECT id, ? FROM users WHERE id = ?
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (SavedCart cart : carts) {
+                if (cart.isEmpty()) {
+                    continue;
+                }
+                ps.setTimestamp(1, Timestamp.valueOf(cart.getUpdatedAt()));
+                ps.setInt(2, cart.getUserId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertCartItems(Connection conn, List<SavedCart> carts) throws SQLException {
+        String sql = """
+                INSERT INTO cart_items(user_id, dish_id, position, quantity, unit_price)
+                SELECT c.user_id, d.id, ?, ?, ?
+                FROM carts c
+                JOIN dishes d ON d.id = ?
+                WHERE c.user_id = ?
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (SavedCart cart : carts) {
+                int position = 0;
+                for (OrderItem item : cart.getItems()) {
+                    ps.setInt(1, position++);
+                    ps.setInt(2, item.getQuantity());
+                    ps.setBigDecimal(3, item.getUnitPrice().getAmount());
+                    ps.setInt(4, item.getDish().getId());
+                    ps.setInt(5, cart.getUserId());
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // -------------------------------------------------------
+    // READ / CLEANUP - ripristino all'avvio
+    // -------------------------------------------------------
+
+    /**
+     * Carrelli salvati con le righe nell'ordine di inserimento; le righe di piatti
+     * non più disponibili vengono saltate. I piatti hanno il prezzo attuale, le righe
+     * il prezzo al momento dell'aggiunta.
+     */
+    public List<SavedCart> getAllCarts() throws SQLException {
+        String sql = """
+                SELECT c.user_id, c.updated_at,
+                       i.quantity, i.unit_price,
+                       d.id, d.name, d.description, d.price, d.active, d.category_id
+                FROM carts c
+                JOIN cart_items i ON i.user_id = c.user_id
+                JOIN dishes d ON d.id = i.dish_id
+                WHERE d.active = TRUE
+                ORDER BY c.user_id, i.position
+                """;
+
+        List<SavedCart> carts = new ArrayList<>();
+        try (Connection conn = getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+
+            int currentUser = 0;
+            LocalDateTime updatedAt = null;
+            List<OrderItem> items = new ArrayList<>();
+            while (rs.next()) {
+                int userId = rs.getInt("user_id");
+                if (userId != currentUser) {
+                    if (currentUser != 0) {
+                        carts.add(new SavedCart(currentUser, items, updatedAt));
+                    }
+                    currentUser = userId;
+                    updatedAt = rs.getTimestamp("updated_at").toLocalDateTime();
+                    items = new ArrayList<>();
+                }
+                items.add(mapRowToItem(rs));
+            }
+            if (currentUser != 0) {
+                carts.add(new SavedCart(currentUser, items, updatedAt));
+            }
+        }
+        return carts;
+    }
+
+    /**
+     * Cancella i carrelli non modificati da prima di cutoff e quelli già superati da un
+     * ordine del cliente (il checkout svuota il carrello in memoria, la cancellazione
+     * su DB può essere andata persa con il processo).
+     * @return numero di carrelli cancellati
+     */
+    public int deleteStaleCarts(LocalDateTime cutoff) throws SQLException {
+        if (cutoff == null) {
+            throw new IllegalArgumentException("Cutoff cannot be null");
+        }
+        String sql = """
+                DELETE FROM carts c
+                WHERE c.updated_at < ?
+                   OR EXISTS (
+                        SELECT 1 FROM orders o
+                        WHERE o.customer_id = c.user_id
+                          AND o.created_at >= c.updated_at
+                   )
+                """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+            return ps.executeUpdate();
+        }
+    }
+
+    // -------------------------------------------------------
+    // Row mapper
+    // -------------------------------------------------------
+    private OrderItem mapRowToItem(ResultSet rs) throws SQLException {
+        Dish dish = new Dish();
+        dish.setId(rs.getInt("id"));
+        dish.setName(rs.getString("name"));
+        dish.setDescription(rs.getString("description"));
+        dish.setPrice(new Money(rs.getBigDecimal("price")));
+        dish.setAvailable(rs.getBoolean("active"));
+
+        int categoryId = rs.getInt("category_id");
+        if (!rs.wasNull()) {
+            Category c = new Category();
+            c.setId(categoryId);
+            dish.setCategory(c);
+        }
+
+        OrderItem item = new OrderItem(dish, rs.getInt("quantity"));
+        item.setUnitPrice(new Money(rs.getBigDecimal("unit_price")));
+        return item;
+    }
+}
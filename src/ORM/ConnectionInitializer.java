@@ -0,0 +1,25 @@
+package ORM;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Stato di sessione da applicare una sola volta per connessione fisica
+ * (search_path, parametri di sessione, ...), non a ogni prelievo dal pool.
+ */
+@FunctionalInterface
+public interface ConnectionInitializer {
+
+    void initialize(Connection connection) throws SQLException;
+
+    static ConnectionInitializer searchPath(String schema) {
+        return connection -> {
+            try (PreparedStatement statement =
+                         connection.prepareStatement("SELECT set_config('search_path', ?, false)")) {
+                statement.setString(1, schema);
+                statement.execute();
+            }
+        };
+    }
+}
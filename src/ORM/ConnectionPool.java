@@ -0,0 +1,456 @@
+package ORM;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pool di connessioni JDBC usato da {@link DBConnection}.
+ *
+ * Prelievo e restituzione non usano lock: le connessioni libere stanno in una deque
+ * concorrente (LIFO, così si riusano quelle "calde") e il numero di connessioni in uso è
+ * limitato da un semaforo, la cui acquisizione senza contesa è un singolo CAS.
+ * Un thread di manutenzione chiude le connessioni inattive o troppo vecchie, mantiene
+ * il minimo di connessioni pronte e segnala i possibili leak con lo stack del prelievo.
+ * Il rilevamento dei leak è spento per default: quando è attivo ogni prelievo cattura uno stack,
+ * quindi va abilitato solo per il debug.
+ */
+public final class ConnectionPool implements AutoCloseable {
+
+    private static final long VALIDATION_IDLE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final Settings settings;
+    private final DataSource physicalSource;
+    private final List<ConnectionInitializer> initializers;
+
+    private final ConcurrentLinkedDeque<PhysicalConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PhysicalConnection> all = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder borrowNanos = new LongAdder();
+    private final AtomicLong maxBorrowNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    public ConnectionPool(Settings settings, DataSource physicalSource, List<ConnectionInitializer> initializers) {
+        if (settings == null || physicalSource == null || initializers == null) {
+            throw new IllegalArgumentException("Pool settings, data source and initializers are required");
+        }
+        this.settings = settings;
+        this.physicalSource = physicalSource;
+        this.initializers = initializers;
+        this.permits = new Semaphore(settings.maxSize());
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dineup-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::runHousekeepingSafely,
+                0, settings.housekeepingPeriodMs(), TimeUnit.MILLISECONDS);
+    }
+
+    // -------------------------------------------------------
+    // BORROW / RETURN
+    // -------------------------------------------------------
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        acquirePermit(start);
+
+        PhysicalConnection physical = null;
+        try {
+            physical = takeIdleOrCreate(start);
+            physical.ensureInitialized(initializers);
+
+            long now = System.nanoTime();
+            physical.markBorrowed(now, settings.leakDetectionThresholdMs() > 0
+                    ? new Throwable("Connection borrowed here") : null);
+            recordBorrow(now - start);
+            return handleFor(physical);
+        } catch (SQLException | RuntimeException e) {
+            if (physical != null) {
+                retire(physical);
+            }
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit(long start) throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        waiting.incrementAndGet();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(settings.borrowTimeoutMs()) - (System.nanoTime() - start);
+            if (!permits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "Timeout waiting for a database connection after " + settings.borrowTimeoutMs() + " ms", "08001");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", "08001", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private PhysicalConnection takeIdleOrCreate(long start) throws SQLException {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.borrowTimeoutMs());
+        while (true) {
+            PhysicalConnection candidate;
+            while ((candidate = idle.pollFirst()) != null) {
+                if (!candidate.compareAndSetState(PhysicalConnection.IDLE, PhysicalConnection.IN_USE)) {
+                    continue; // ritirata dal thread di manutenzione
+                }
+                long now = System.nanoTime();
+                if (isExpired(candidate, now) || !isAlive(candidate, now)) {
+                    retire(candidate);
+                    continue;
+                }
+                return candidate;
+            }
+
+            if (reserveSlot()) {
+                return create(PhysicalConnection.IN_USE);
+            }
+
+            // Tutte le connessioni esistono ma una sta per tornare nella deque.
+            if (System.nanoTime() > deadline) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("No database connection became available", "08001");
+            }
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = total.get();
+            if (current >= settings.maxSize()) {
+                return false;
+            }
+            if (total.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PhysicalConnection create(int initialState) throws SQLException {
+        Connection connection;
+        try {
+            connection = physicalSource.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+        PhysicalConnection physical = new PhysicalConnection(connection);
+        physical.setState(initialState);
+        all.add(physical);
+        return physical;
+    }
+
+    private void giveBack(PhysicalConnection physical) {
+        try {
+            long now = System.nanoTime();
+            if (closed || physical.isBroken() || isExpired(physical, now) || !resetSession(physical)) {
+                retire(physical);
+                return;
+            }
+            physical.markReturned(now);
+            physical.setState(PhysicalConnection.IDLE);
+            idle.offerFirst(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetSession(PhysicalConnection physical) {
+        try {
+            Connection connection = physical.connection();
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PhysicalConnection physical, long now) {
+        return physical.ageNanos(now) >= TimeUnit.MILLISECONDS.toNanos(settings.maxLifetimeMs());
+    }
+
+    private boolean isAlive(PhysicalConnection physical, long now) {
+        if (physical.idleNanos(now) < VALIDATION_IDLE_NANOS) {
+            return true;
+        }
+        try {
+            return physical.connection().isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void retire(PhysicalConnection physical) {
+        physical.setState(PhysicalConnection.RETIRED);
+        if (all.remove(physical)) {
+            total.decrementAndGet();
+        }
+        physical.closeQuietly();
+    }
+
+    private void recordBorrow(long nanos) {
+        borrows.increment();
+        borrowNanos.add(nanos);
+        maxBorrowNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // -------------------------------------------------------
+    // HOUSEKEEPING
+    // -------------------------------------------------------
+    private void runHousekeepingSafely() {
+        try {
+            runHousekeeping();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ritira le connessioni scadute o inattive oltre il minimo, ricrea il minimo
+     * di connessioni pronte e segnala i prelievi più lunghi della soglia di leak.
+     */
+    void runHousekeeping() {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        long idleTimeout = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMs());
+
+        // dalla coda: le connessioni meno usate di recente
+        Iterator<PhysicalConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PhysicalConnection physical = iterator.next();
+            boolean expired = isExpired(physical, now);
+            boolean surplusIdle = physical.idleNanos(now) >= idleTimeout && idle.size() > settings.minIdle();
+            if ((expired || surplusIdle)
+                    && physical.compareAndSetState(PhysicalConnection.IDLE, PhysicalConnection.RETIRED)) {
+                idle.remove(physical);
+                retire(physical);
+            }
+        }
+
+        while (!closed && idle.size() < settings.minIdle() && reserveSlot()) {
+            try {
+                PhysicalConnection physical = create(PhysicalConnection.IDLE);
+                idle.offerLast(physical);
+            } catch (SQLException e) {
+                System.err.println("Unable to open pooled connection: " + e.getMessage());
+                break;
+            }
+        }
+
+        long leakThreshold = TimeUnit.MILLISECONDS.toNanos(settings.leakDetectionThresholdMs());
+        if (leakThreshold > 0) {
+            for (PhysicalConnection physical : all) {
+                if (physical.state() == PhysicalConnection.IN_USE
+                        && physical.borrowedNanos(now) >= leakThreshold
+                        && physical.borrowSite() != null
+                        && physical.markLeakReported()) {
+                    leaks.increment();
+                    reportLeak(physical, now);
+                }
+            }
+        }
+    }
+
+    private void reportLeak(PhysicalConnection physical, long now) {
+        StringBuilder message = new StringBuilder("Possible connection leak: connection in use for ")
+                .append(TimeUnit.NANOSECONDS.toMillis(physical.borrowedNanos(now)))
+                .append(" ms, borrowed at:");
+        Throwable site = physical.borrowSite();
+        if (site != null) {
+            for (StackTraceElement element : site.getStackTrace()) {
+                message.append(System.lineSeparator()).append("    at ").append(element);
+            }
+        }
+        System.err.println(message);
+    }
+
+    // -------------------------------------------------------
+    // METRICS / SHUTDOWN
+    // -------------------------------------------------------
+    public Stats getStats() {
+        long count = borrows.sum();
+        int idleCount = idle.size();
+        int totalCount = total.get();
+        return new Stats(
+                totalCount,
+                Math.max(0, totalCount - idleCount),
+                idleCount,
+                waiting.get(),
+                count,
+                timeouts.sum(),
+                leaks.sum(),
+                count == 0 ? 0 : borrowNanos.sum() / count / 1_000,
+                maxBorrowNanos.get() / 1_000);
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            retire(physical);
+        }
+    }
+
+    // -------------------------------------------------------
+    // Connection handle
+    // -------------------------------------------------------
+    private Connection handleFor(PhysicalConnection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Handle(physical));
+    }
+
+    /**
+     * Connessione restituita ai DAO: close() la rimette nel pool, una sola volta.
+     * Gli statement creati ricevono la scadenza di {@link QueryDeadline}, se presente.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private volatile boolean handleClosed;
+
+        private Handle(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        giveBack(physical);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return handleClosed || physical.connection().isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + physical.connection() + "]";
+                }
+                default -> {
+                    if (handleClosed) {
+                        throw new SQLException("Connection is closed", "08003");
+                    }
+                }
+            }
+
+            try {
+                Object result = method.invoke(physical.connection(), args);
+                if (result instanceof Statement statement) {
+                    QueryDeadline.apply(statement);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sql && sql.getSQLState() != null
+                        && sql.getSQLState().startsWith("08")) {
+                    physical.markBroken();
+                }
+                throw cause;
+            }
+        }
+    }
+
+    /**
+     * Configurazione del pool; i tempi sono in millisecondi, 0 disabilita il rilevamento dei leak.
+     */
+    public record Settings(int maxSize,
+                           int minIdle,
+                           long borrowTimeoutMs,
+                           long idleTimeoutMs,
+                           long maxLifetimeMs,
+                           long leakDetectionThresholdMs,
+                           long housekeepingPeriodMs) {
+
+        public Settings {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("Pool max size must be > 0");
+            }
+            if (minIdle < 0 || minIdle > maxSize) {
+                throw new IllegalArgumentException("Pool min idle must be between 0 and max size");
+            }
+            if (borrowTimeoutMs <= 0 || idleTimeoutMs <= 0 || maxLifetimeMs <= 0 || housekeepingPeriodMs <= 0) {
+                throw new IllegalArgumentException("Pool timeouts must be > 0");
+            }
+            if (leakDetectionThresholdMs < 0) {
+                throw new IllegalArgumentException("Leak detection threshold cannot be negative");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(20, 4, 5_000, 600_000, 1_800_000, 0, 30_000);
+        }
+    }
+
+    /**
+     * Istantanea dei contatori; le latenze di prelievo sono in microsecondi.
+     */
+    public record Stats(int total,
+                        int active,
+                        int idle,
+                        int waiting,
+                        long borrows,
+                        long timeouts,
+                        long leaksDetected,
+                        long averageBorrowMicros,
+                        long maxBorrowMicros) {
+    }
+}
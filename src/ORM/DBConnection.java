@@ -1,21 +1,22 @@
 package ORM;
 
-import org.postgresql.ds.PGPoolingDataSource;
+import org.postgresql.ds.PGSimpleDataSource;
 
-import javax.sql.DataSource;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public final class DBConnection {
     private static final String PROPERTIES_FILE = "src/ORM/db.properties";
     private static final String CLASSPATH_PROPERTIES_FILE = "ORM/db.properties";
-    private final DataSource dataSource;
+    private final ConnectionPool pool;
     private final String schema;
+    private final List<ConnectionInitializer> initializers = new CopyOnWriteArrayList<>();
 
     private DBConnection() {
         Properties props = loadProperties();
@@ -30,15 +31,33 @@ public final class DBConnection {
 
         this.schema = readCurrentSchema(url);
 
-        PGPoolingDataSource ds = new PGPoolingDataSource();
-        ds.setDataSourceName("dineup-pool");
+        PGSimpleDataSource ds = new PGSimpleDataSource();
         ds.setUrl(url);
         ds.setUser(user);
         ds.setPassword(password);
         ds.setCurrentSchema(schema);
-        ds.setInitialConnections(4);
-        ds.setMaxConnections(20);
-        this.dataSource = ds;
+        ds.setApplicationName("dineup");
+
+        initializers.add(ConnectionInitializer.searchPath(schema));
+        this.pool = new ConnectionPool(readPoolSettings(props), ds, initializers);
+    }
+
+    private static ConnectionPool.Settings readPoolSettings(Properties props) {
+        ConnectionPool.Settings defaults = ConnectionPool.Settings.defaults();
+        return new ConnectionPool.Settings(
+                (int) readLong("db.pool.maxSize", "DB_POOL_MAX_SIZE", "db.POOL_MAX_SIZE",
+                        props, defaults.maxSize()),
+                (int) readLong("db.pool.minIdle", "DB_POOL_MIN_IDLE", "db.POOL_MIN_IDLE",
+                        props, defaults.minIdle()),
+                readLong("db.pool.borrowTimeoutMs", "DB_POOL_BORROW_TIMEOUT_MS", "db.POOL_BORROW_TIMEOUT_MS",
+                        props, defaults.borrowTimeoutMs()),
+                readLong("db.pool.idleTimeoutMs", "DB_POOL_IDLE_TIMEOUT_MS", "db.POOL_IDLE_TIMEOUT_MS",
+                        props, defaults.idleTimeoutMs()),
+                readLong("db.pool.maxLifetimeMs", "DB_POOL_MAX_LIFETIME_MS", "db.POOL_MAX_LIFETIME_MS",
+                        props, defaults.maxLifetimeMs()),
+                readLong("db.pool.leakDetectionMs", "DB_POOL_LEAK_DETECTION_MS", "db.POOL_LEAK_DETECTION_MS",
+                        props, defaults.leakDetectionThresholdMs()),
+                defaults.housekeepingPeriodMs());
     }
 
     private static class Holder {
@@ -50,17 +69,29 @@ public final class DBConnection {
     }
 
     public static Connection getConnection() throws SQLException {
-        DBConnection instance = getInstance();
-        Connection connection = instance.dataSource.getConnection();
-        try (PreparedStatement statement =
-                     connection.prepareStatement("SELECT set_config('search_path', ?, false)")) {
-            statement.setString(1, instance.schema);
-            statement.execute();
-        } catch (SQLException e) {
-            connection.close();
-            throw e;
+        return getInstance().borrow();
+    }
+
+    /**
+     * Registra uno stato di sessione da applicare a ogni connessione fisica.
+     * Le connessioni già inizializzate lo ricevono al prossimo prelievo.
+     */
+    public static void addConnectionInitializer(ConnectionInitializer initializer) {
+        if (initializer == null) {
+            throw new IllegalArgumentException("Initializer is required");
         }
-        return connection;
+        getInstance().initializers.add(initializer);
+    }
+
+    /**
+     * Contatori correnti del pool: connessioni attive, libere, thread in attesa e latenza di prelievo.
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return getInstance().pool.getStats();
+    }
+
+    private Connection borrow() throws SQLException {
+        return pool.getConnection();
     }
 
     private static Properties loadProperties() {
@@ -107,6 +138,22 @@ public final class DBConnection {
         return null;
     }
 
+    private static long readLong(String systemKey,
+                                 String envKey,
+                                 String propKey,
+                                 Properties props,
+                                 long defaultValue) {
+        String value = readConfig(systemKey, envKey, propKey, props);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid value for " + systemKey + ": " + value, e);
+        }
+    }
+
     private static String normalizeUrl(String url) {
         if (url == null || url.toLowerCase().contains("currentschema=")) {
             return url;
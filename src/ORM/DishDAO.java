@@ -3,15 +3,20 @@ package ORM;
 import DomainModel.menu.Category;
 import DomainModel.menu.Dish;
 import DomainModel.search.DishSearchParameters;
+import DomainModel.search.DishTextMatch;
 import DomainModel.valueObject.Money;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class DishDAO extends BaseDAO{
 
+    private volatile boolean textSearchUnavailable;
+
     // -------------------------------------------------------
     // CREATE
     // -------------------------------------------------------
@@ -115,12 +120,73 @@ public class DishDAO extends BaseDAO{
         return list;
     }
 
+    // -------------------------------------------------------
+    // READ - whole menu (categories + dishes) in one query
+    // -------------------------------------------------------
+    public Map<Category, List<Dish>> loadMenu(boolean onlyActiveCategories,
+                                              boolean onlyAvailableDishes) throws SQLException {
+        String sql = """
+                SELECT c.id AS category_id, c.name AS category_name,
+                       c.description AS category_description, c.active AS category_active,
+                       d.id, d.name, d.description, d.price, d.active
+                FROM categories c
+                LEFT JOIN dishes d ON d.category_id = c.id
+                """
+                + (onlyAvailableDishes ? " AND d.active = TRUE" : "")
+                + (onlyActiveCategories ? " WHERE c.active = TRUE" : "")
+                + " ORDER BY c.name, c.id, d.name, d.id";
+
+        Map<Category, List<Dish>> menu = new LinkedHashMap<>();
+
+        try (Connection conn = getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+
+            Category current = null;
+            List<Dish> dishes = null;
+            while (rs.next()) {
+                int categoryId = rs.getInt("category_id");
+                if (current == null || current.getId() != categoryId) {
+                    current = mapRowToMenuCategory(rs);
+                    dishes = new ArrayList<>();
+                    menu.put(current, dishes);
+                }
+
+                rs.getInt("id");
+                if (!rs.wasNull()) {
+                    Dish dish = mapRowToDish(rs);
+                    dish.setCategory(current);
+                    dishes.add(dish);
+                }
+            }
+        }
+        return menu;
+    }
+
     // -------------------------------------------------------
     // READ - dynamic search
     // -------------------------------------------------------
     public List<Dish> searchDishes(DishSearchParameters params) throws SQLException {
         DishSearchParameters criteria = (params != null) ? params : DishSearchParameters.builder();
+        DishTextMatch textMatch = criteria.getTextMatch();
+        if (textMatch != DishTextMatch.SUBSTRING && textSearchUnavailable) {
+            textMatch = DishTextMatch.SUBSTRING;
+        }
+
+        try {
+            return searchDishes(criteria, textMatch);
+        } catch (SQLException e) {
+            if (textMatch == DishTextMatch.SUBSTRING || !isMissingTextSearchSupport(e)) {
+                throw e;
+            }
+            // database senza la migrazione V6: si continua con la ricerca per sottostringa
+            textSearchUnavailable = true;
+            System.err.println("Dish text search unavailable, falling back to substring match: " + e.getMessage());
+            return searchDishes(criteria, DishTextMatch.SUBSTRING);
+        }
+    }
 
+    private List<Dish> searchDishes(DishSearchParameters criteria, DishTextMatch textMatch) throws SQLException {
         StringBuilder sql = new StringBuilder("""
                 SELECT id, name, description, price, active, category_id
                 FROM dishes
@@ -149,15 +215,43 @@ public class DishDAO extends BaseDAO{
             bindValues.add(maxPrice);
         });
 
-        criteria.getNameContains()
+        String text = criteria.getNameContains()
                 .map(String::trim)
                 .filter(name -> !name.isEmpty())
-                .ifPresent(name -> {
-                    sql.append(" AND LOWER(name) LIKE ?");
-                    bindValues.add("%" + name.toLowerCase() + "%");
-                });
+                .orElse(null);
 
-        sql.append(" ORDER BY name");
+        if (text == null) {
+            sql.append(" ORDER BY name");
+        } else {
+            switch (textMatch) {
+                case SUBSTRING -> {
+                    sql.append(" AND LOWER(name) LIKE ?");
+                    bindValues.add("%" + text.toLowerCase() + "%");
+                    sql.append(" ORDER BY name");
+                }
+                case FULL_TEXT -> {
+                    // idx_dishes_search_vector (GIN)
+                    sql.append(" AND search_vector @@ websearch_to_tsquery('italian', ?)");
+                    sql.append(" ORDER BY ts_rank(search_vector, websearch_to_tsquery('italian', ?)) DESC, name");
+                    bindValues.add(text);
+                    bindValues.add(text);
+                }
+                case FUZZY -> {
+                    // idx_dishes_search_vector oppure idx_dishes_name_trgm (word_similarity >= soglia pg_trgm)
+                    sql.append("""
+                             AND (search_vector @@ websearch_to_tsquery('italian', ?)
+                                  OR ? <% LOWER(name))
+                             ORDER BY ts_rank(search_vector, websearch_to_tsquery('italian', ?))
+                                      + word_similarity(?, LOWER(name)) DESC, name
+                            """);
+                    String lower = text.toLowerCase();
+                    bindValues.add(text);
+                    bindValues.add(lower);
+                    bindValues.add(text);
+                    bindValues.add(lower);
+                }
+            }
+        }
 
         List<Dish> list = new ArrayList<>();
 
@@ -187,6 +281,11 @@ public class DishDAO extends BaseDAO{
         return list;
     }
 
+    // 42703 colonna search_vector assente, 42883 funzione/operatore pg_trgm assente
+    private boolean isMissingTextSearchSupport(SQLException e) {
+        return "42703".equals(e.getSQLState()) || "42883".equals(e.getSQLState());
+    }
+
 
     // -------------------------------------------------------
     // UPDATE
@@ -267,4 +366,13 @@ public class DishDAO extends BaseDAO{
 
         return dish;
     }
+
+    private Category mapRowToMenuCategory(ResultSet rs) throws SQLException {
+        Category c = new Category();
+        c.setId(rs.getInt("category_id"));
+        c.setName(rs.getString("category_name"));
+        c.setDescription(rs.getString("category_description"));
+        c.setActive(rs.getBoolean("category_active"));
+        return c;
+    }
 }
\ No newline at end of file
@@ -13,6 +13,9 @@ import java.util.List;
 
 public class NotificationDAO extends BaseDAO {
 
+    // 6 parametri per riga: resta ben sotto il limite di 32767 bind del protocollo PostgreSQL
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
     public void addNotification(Notification notification) throws SQLException {
         String sql = """
                 INSERT INTO notifications(recipient_id, message, type, status, created_at, read_at)
@@ -49,6 +52,78 @@ public class NotificationDAO extends BaseDAO {
         }
     }
 
+    /**
+     * Inserisce più notifiche con INSERT multi-riga (fino a MAX_ROWS_PER_INSERT righe per
+     * statement) in un'unica transazione: o vengono salvate tutte o nessuna.
+     * Gli id generati sono assegnati nello stesso ordine della lista.
+     */
+    public void addNotifications(List<Notification> notifications) throws SQLException {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < notifications.size(); from += MAX_ROWS_PER_INSERT) {
+                    int to = Math.min(from + MAX_ROWS_PER_INSERT, notifications.size());
+                    insertRows(conn, notifications.subList(from, to));
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                for (Notification notification : notifications) {
+                    notification.setId(0);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void insertRows(Connection conn, List<Notification> rows) throws SQLException {
+        StringBuilder sql = new StringBuilder("""
+                INSERT INTO notifications(recipient_id, message, type, status, created_at, read_at)
+                VALUES
+                """);
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? " (?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString(), new String[]{"id"})) {
+            int idx = 1;
+            for (Notification notification : rows) {
+                LocalDateTime createdAt = notification.getCreatedAt() != null
+                        ? notification.getCreatedAt()
+                        : LocalDateTime.now();
+                notification.setCreatedAt(createdAt);
+
+                ps.setInt(idx++, notification.getRecipient().getId());
+                ps.setString(idx++, notification.getMessage());
+                ps.setString(idx++, notification.getType().name());
+                ps.setString(idx++, notification.getStatus().name());
+                ps.setTimestamp(idx++, Timestamp.valueOf(createdAt));
+                if (notification.getReadAt() != null) {
+                    ps.setTimestamp(idx++, Timestamp.valueOf(notification.getReadAt()));
+                } else {
+                    ps.setNull(idx++, Types.TIMESTAMP);
+                }
+            }
+
+            ps.executeUpdate();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (Notification notification : rows) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing generated id for notification");
+                    }
+                    notification.setId(keys.getInt(1));
+                }
+            }
+        }
+    }
+
     public java.util.Optional<Notification> getNotificationById(int notificationId) throws SQLException {
         String sql = """
                 SELECT id, recipient_id, message, type, status, created_at, read_at
@@ -117,38 +192,96 @@ public class NotificationDAO extends BaseDAO {
         return notifications;
     }
 
-    public void markAsRead(int notificationId) throws SQLException {
-        Notification notification = getNotificationById(notificationId)
-                .orElseThrow(() -> new IllegalArgumentException("Notification not found: " + notificationId));
-        notification.markRead();
-        updateNotificationState(notification);
-    }
+    /**
+     * Segna la notifica come letta con un solo UPDATE ... RETURNING e restituisce lo stato salvato.
+     * Se era già letta, read_at resta quello originale.
+     */
+    public Notification markAsRead(int notificationId) throws SQLException {
+        String sql = """
+                UPDATE notifications
+                SET status = 'READ',
+                    read_at = CASE WHEN status = 'READ' AND read_at IS NOT NULL THEN read_at ELSE ? END
+                WHERE id = ?
+                RETURNING id, recipient_id, message, type, status, created_at, read_at
+                """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
-    public void markAsFailed(int notificationId) throws SQLException {
-        Notification notification = getNotificationById(notificationId)
-                .orElseThrow(() -> new IllegalArgumentException("Notification not found: " + notificationId));
-        notification.markFailed();
-        updateNotificationState(notification);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setInt(2, notificationId);
+            return singleUpdated(ps, notificationId);
+        }
     }
 
-    private void updateNotificationState(Notification notification) throws SQLException {
+    public Notification markAsFailed(int notificationId) throws SQLException {
         String sql = """
                 UPDATE notifications
-                SET status = ?, read_at = ?
+                SET status = 'FAILED', read_at = NULL
                 WHERE id = ?
+                RETURNING id, recipient_id, message, type, status, created_at, read_at
                 """;
 
         try (Connection conn = getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setString(1, notification.getStatus().name());
-            if (notification.getReadAt() != null) {
-                ps.setTimestamp(2, Timestamp.valueOf(notification.getReadAt()));
-            } else {
-                ps.setNull(2, Types.TIMESTAMP);
+            ps.setInt(1, notificationId);
+            return singleUpdated(ps, notificationId);
+        }
+    }
+
+    /**
+     * Segna come lette tutte le notifiche non lette dell'utente.
+     * @return numero di notifiche aggiornate
+     */
+    public int markAllAsRead(int userId) throws SQLException {
+        String sql = """
+                UPDATE notifications
+                SET status = 'READ', read_at = ?
+                WHERE recipient_id = ? AND status <> 'READ'
+                """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setInt(2, userId);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Segna come lette le notifiche indicate dell'utente con un solo UPDATE; gli id inesistenti,
+     * già letti o destinati ad altri utenti vengono ignorati.
+     * @return numero di notifiche aggiornate
+     */
+    public int markAsRead(int recipientId, List<Integer> notificationIds) throws SQLException {
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            return 0;
+        }
+
+        String sql = """
+                UPDATE notifications
+                SET status = 'READ', read_at = ?
+                WHERE id = ANY(?) AND recipient_id = ? AND status <> 'READ'
+                """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, conn.createArrayOf("integer", notificationIds.toArray()));
+            ps.setInt(3, recipientId);
+            return ps.executeUpdate();
+        }
+    }
+
+    private Notification singleUpdated(PreparedStatement ps, int notificationId) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) {
+                throw new IllegalArgumentException("Notification not found: " + notificationId);
             }
-            ps.setInt(3, notification.getId());
-            ps.executeUpdate();
+            return mapRowToNotification(rs);
         }
     }
 
@@ -9,12 +9,16 @@ import DomainModel.user.User;
 import DomainModel.valueObject.Money;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class OrderDAO extends BaseDAO {
 
+    private static final int FETCH_SIZE = 200;
+
     // ------------------------------------------------------------
     // Crea un nuovo ordine
     // ------------------------------------------------------------
@@ -72,24 +76,32 @@ public class OrderDAO extends BaseDAO {
         }
     }
 
+    /**
+     * Inserisce tutte le righe in un unico batch (un solo round trip) e assegna
+     * a ogni OrderItem l'id generato, nello stesso ordine della lista.
+     */
     private void insertOrderItems(Connection conn, int orderId, List<OrderItem> items) throws SQLException {
         String sql = """
                 INSERT INTO order_items(order_id, dish_id, unit_price, quantity)
                 VALUES (?, ?, ?, ?)
                 """;
 
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement ps = conn.prepareStatement(sql, new String[]{"id"})) {
             for (OrderItem item : items) {
                 ps.setInt(1, orderId);
                 ps.setInt(2, item.getDish().getId());
                 ps.setBigDecimal(3, item.getUnitPrice().getAmount());
                 ps.setInt(4, item.getQuantity());
-                ps.executeUpdate();
+                ps.addBatch();
+            }
+            ps.executeBatch();
 
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        item.setId(keys.getInt(1));
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (OrderItem item : items) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing generated id for order item");
                     }
+                    item.setId(keys.getInt(1));
                 }
             }
         }
@@ -213,11 +225,77 @@ public class OrderDAO extends BaseDAO {
         return list;
     }
 
+    // ------------------------------------------------------------
+    // Ordini creati in un giorno (vista staff "ordini di oggi")
+    // ------------------------------------------------------------
+    public List<Order> getOrdersCreatedOn(LocalDate date) throws SQLException {
+        List<Order> list = new ArrayList<>();
+        forEachOrderCreatedOn(date, list::add);
+        return list;
+    }
+
+    /**
+     * Scorre gli ordini creati nel giorno indicato in ordine cronologico.
+     * Il filtro è un intervallo [inizio giorno, inizio giorno successivo) su created_at,
+     * così può usare idx_orders_created_at; le righe arrivano a blocchi di FETCH_SIZE
+     * tramite cursore invece di essere caricate tutte in memoria.
+     */
+    public void forEachOrderCreatedOn(LocalDate date, Consumer<Order> consumer) throws SQLException {
+        if (date == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+
+        String sql = """
+                SELECT id, customer_id, created_at, status, payment_method, total_amount, notes
+                FROM orders
+                WHERE created_at >= ? AND created_at < ?
+                ORDER BY created_at, id
+                """;
+
+        forEachRow(sql, List.of(Timestamp.valueOf(date.atStartOfDay()),
+                Timestamp.valueOf(date.plusDays(1).atStartOfDay())), consumer);
+    }
 
     // ------------------------------------------------------------
     // Ricerca ordini con filtri dinamici
     // ------------------------------------------------------------
     public List<Order> searchOrders(OrderSearchParameters params) throws SQLException {
+        List<Object> bindValues = new ArrayList<>();
+        String sql = buildSearchQuery(params, bindValues);
+        List<Order> list = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            bind(ps, bindValues);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRowToOrder(rs));
+                }
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Come {@link #searchOrders}, ma passa gli ordini al consumer man mano che arrivano
+     * (cursore con FETCH_SIZE righe per round trip): la memoria usata non dipende dal numero di risultati.
+     */
+    public void forEachOrder(OrderSearchParameters params, Consumer<Order> consumer) throws SQLException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+        List<Object> bindValues = new ArrayList<>();
+        String sql = buildSearchQuery(params, bindValues);
+        forEachRow(sql, bindValues, consumer);
+    }
+
+    private String buildSearchQuery(OrderSearchParameters params, List<Object> bindValues) {
         OrderSearchParameters criteria = (params != null) ? params : OrderSearchParameters.builder();
 
         StringBuilder sql = new StringBuilder("""
@@ -226,8 +304,6 @@ public class OrderDAO extends BaseDAO {
                 FROM orders o
                 """);
 
-        List<Object> bindValues = new ArrayList<>();
-
         if (criteria.getCategoryId().isPresent()) {
             sql.append("""
                     JOIN order_items oi ON oi.order_id = o.id
@@ -277,36 +353,61 @@ public class OrderDAO extends BaseDAO {
             bindValues.add(maxTotal);
         });
 
-        sql.append(" ORDER BY o.created_at DESC");
+        // keyset: riparte dopo l'ultimo ordine della pagina precedente senza OFFSET
+        criteria.getAfterCreatedAt().ifPresent(createdAt -> {
+            sql.append(" AND (o.created_at, o.id) < (?, ?)");
+            bindValues.add(Timestamp.valueOf(createdAt));
+            bindValues.add(criteria.getAfterId().orElseThrow());
+        });
 
-        List<Order> list = new ArrayList<>();
+        sql.append(" ORDER BY o.created_at DESC, o.id DESC");
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
-
-            int idx = 1;
-            for (Object bindValue : bindValues) {
-                if (bindValue instanceof Integer v) {
-                    ps.setInt(idx++, v);
-                } else if (bindValue instanceof String v) {
-                    ps.setString(idx++, v);
-                } else if (bindValue instanceof Timestamp v) {
-                    ps.setTimestamp(idx++, v);
-                } else if (bindValue instanceof java.math.BigDecimal v) {
-                    ps.setBigDecimal(idx++, v);
-                } else {
-                    ps.setObject(idx++, bindValue);
-                }
+        criteria.getLimit().ifPresent(limit -> {
+            sql.append(" LIMIT ?");
+            bindValues.add(limit);
+        });
+
+        return sql.toString();
+    }
+
+    private void bind(PreparedStatement ps, List<Object> bindValues) throws SQLException {
+        int idx = 1;
+        for (Object bindValue : bindValues) {
+            if (bindValue instanceof Integer v) {
+                ps.setInt(idx++, v);
+            } else if (bindValue instanceof String v) {
+                ps.setString(idx++, v);
+            } else if (bindValue instanceof Timestamp v) {
+                ps.setTimestamp(idx++, v);
+            } else if (bindValue instanceof java.math.BigDecimal v) {
+                ps.setBigDecimal(idx++, v);
+            } else {
+                ps.setObject(idx++, bindValue);
             }
+        }
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    list.add(mapRowToOrder(rs));
+    private void forEachRow(String sql, List<Object> bindValues, Consumer<Order> consumer) throws SQLException {
+        try (Connection conn = getConnection()) {
+            // il driver PostgreSQL usa un cursore solo fuori dall'autocommit
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setFetchSize(FETCH_SIZE);
+                bind(ps, bindValues);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapRowToOrder(rs));
+                    }
                 }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         }
-
-        return list;
     }
 
 
@@ -0,0 +1,118 @@
+package ORM;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connessione fisica gestita da {@link ConnectionPool}.
+ *
+ * Lo stato (IDLE, IN_USE, RETIRED) cambia solo tramite CAS: chi preleva e il thread di
+ * manutenzione non possono prendere la stessa connessione. Ricorda inoltre quanti
+ * inizializzatori sono già stati applicati, così un nuovo prelievo non ripete i round
+ * trip di configurazione.
+ */
+final class PhysicalConnection {
+
+    static final int IDLE = 0;
+    static final int IN_USE = 1;
+    static final int RETIRED = 2;
+
+    private final Connection connection;
+    private final long createdAtNanos;
+    private final AtomicInteger state = new AtomicInteger(IN_USE);
+    private int appliedInitializers;
+
+    private volatile long lastReturnedNanos;
+    private volatile long borrowedAtNanos;
+    private volatile Throwable borrowSite;
+    private volatile boolean leakReported;
+    private volatile boolean broken;
+
+    PhysicalConnection(Connection connection) {
+        this.connection = connection;
+        this.createdAtNanos = System.nanoTime();
+        this.lastReturnedNanos = createdAtNanos;
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    boolean compareAndSetState(int expected, int next) {
+        return state.compareAndSet(expected, next);
+    }
+
+    void setState(int next) {
+        state.set(next);
+    }
+
+    int state() {
+        return state.get();
+    }
+
+    long ageNanos(long now) {
+        return now - createdAtNanos;
+    }
+
+    long idleNanos(long now) {
+        return now - lastReturnedNanos;
+    }
+
+    void markBorrowed(long now, Throwable site) {
+        borrowedAtNanos = now;
+        borrowSite = site;
+        leakReported = false;
+    }
+
+    void markReturned(long now) {
+        lastReturnedNanos = now;
+        borrowSite = null;
+    }
+
+    long borrowedNanos(long now) {
+        return now - borrowedAtNanos;
+    }
+
+    Throwable borrowSite() {
+        return borrowSite;
+    }
+
+    boolean markLeakReported() {
+        if (leakReported) {
+            return false;
+        }
+        leakReported = true;
+        return true;
+    }
+
+    void markBroken() {
+        broken = true;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    /**
+     * Applica gli inizializzatori mancanti.
+     * Se uno fallisce, al prossimo prelievo si riparte da quello.
+     */
+    void ensureInitialized(List<ConnectionInitializer> initializers) throws SQLException {
+        synchronized (this) {
+            while (appliedInitializers < initializers.size()) {
+                initializers.get(appliedInitializers).initialize(connection);
+                appliedInitializers++;
+            }
+        }
+    }
+
+    void closeQuietly() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // la connessione è già inutilizzabile
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ORM;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scadenza delle query eseguite dal thread corrente.
+ *
+ * Dentro {@link #call} ogni statement creato da una connessione del pool riceve come
+ * {@link Statement#setQueryTimeout} il tempo rimanente, arrotondato al secondo superiore:
+ * alla scadenza il driver annulla la query sul server e la connessione torna al pool,
+ * anche se chi aspettava il risultato ha già smesso di farlo.
+ */
+public final class QueryDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private QueryDeadline() {
+    }
+
+    /**
+     * Esegue il task con la scadenza indicata; scadenze annidate valgono la più vicina.
+     * @param deadlineNanos istante limite, confrontabile con {@link System#nanoTime()}
+     */
+    public static <T> T call(long deadlineNanos, Callable<T> task) throws Exception {
+        Long previous = DEADLINE.get();
+        DEADLINE.set(previous == null ? deadlineNanos : Math.min(previous, deadlineNanos));
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        }
+    }
+
+    /** Applica allo statement il tempo rimanente, se il thread ha una scadenza. */
+    static void apply(Statement statement) throws SQLException {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return;
+        }
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        // 0 per JDBC significa nessun limite: una scadenza già passata vale un secondo
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, Math.max(1, (remainingMs + 999) / 1000)));
+    }
+}
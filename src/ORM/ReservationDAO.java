@@ -13,11 +13,47 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class ReservationDAO extends BaseDAO {
 
+    private static final int FETCH_SIZE = 200;
+
+    /**
+     * Come il database impedisce di assegnare lo stesso tavolo a due prenotazioni attive
+     * nello stesso giorno e slot.
+     */
+    public enum TableLocking {
+        /** Trigger su merge_tables: lock per giorno/slot (V2) e riga di table_bookings scritta dal trigger (V8). */
+        ADVISORY,
+        /**
+         * Righe di table_bookings inserite in batch dalla transazione stessa (V8): la chiave primaria
+         * rifiuta subito un tavolo già occupato e le prenotazioni su tavoli diversi non si attendono.
+         */
+        OCCUPANCY
+    }
+
+    private final TableLocking tableLocking;
+
+    public ReservationDAO() {
+        this(TableLocking.ADVISORY);
+    }
+
+    public ReservationDAO(TableLocking tableLocking) {
+        if (tableLocking == null) {
+            throw new IllegalArgumentException("Table locking mode cannot be null");
+        }
+        this.tableLocking = tableLocking;
+    }
+
+    public TableLocking getTableLocking() {
+        return tableLocking;
+    }
+
     public void addReservation(Reservation reservation) throws SQLException {
         try (Connection conn = getConnection()) {
             insertReservation(conn, reservation);
@@ -50,6 +86,50 @@ public class ReservationDAO extends BaseDAO {
         }
     }
 
+    /**
+     * Salva più prenotazioni con i rispettivi tavoli in un'unica transazione:
+     * un batch di INSERT per le prenotazioni e uno per tutte le assegnazioni.
+     * Se un tavolo risulta già occupato non viene salvata nessuna prenotazione.
+     * @param tables tavoli di ogni prenotazione, nello stesso ordine
+     * @return assegnazioni di ogni prenotazione, nello stesso ordine
+     */
+    public List<List<MergeTable>> addReservationsWithTables(List<Reservation> reservations,
+                                                            List<List<Table>> tables) throws SQLException {
+        if (reservations == null || tables == null || reservations.size() != tables.size()) {
+            throw new IllegalArgumentException("Each reservation needs its list of tables");
+        }
+        for (List<Table> reservationTables : tables) {
+            if (reservationTables == null || reservationTables.isEmpty()) {
+                throw new IllegalArgumentException("At least one table is required");
+            }
+        }
+        if (reservations.isEmpty()) {
+            return List.of();
+        }
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertReservations(conn, reservations);
+                List<List<MergeTable>> assignments = new ArrayList<>(reservations.size());
+                List<MergeTable> all = new ArrayList<>();
+                for (int i = 0; i < reservations.size(); i++) {
+                    List<MergeTable> reservationAssignments = buildAssignments(reservations.get(i), tables.get(i));
+                    assignments.add(reservationAssignments);
+                    all.addAll(reservationAssignments);
+                }
+                insertTableAssignments(conn, all);
+                conn.commit();
+                return assignments;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
     private void insertReservation(Connection conn, Reservation reservation) throws SQLException {
         String sql = """
                 INSERT INTO reservations(customer_id, guests, reservation_date, slot_id, status, notes)
@@ -75,6 +155,35 @@ public class ReservationDAO extends BaseDAO {
         }
     }
 
+    private void insertReservations(Connection conn, List<Reservation> reservations) throws SQLException {
+        String sql = """
+                INSERT INTO reservations(customer_id, guests, reservation_date, slot_id, status, notes)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(sql, new String[]{"id"})) {
+            for (Reservation reservation : reservations) {
+                ps.setInt(1, reservation.getCustomer().getId());
+                ps.setInt(2, reservation.getNumberOfGuests());
+                ps.setDate(3, Date.valueOf(reservation.getReservDate().toLocalDate()));
+                ps.setInt(4, reservation.getTimeSlot().getId());
+                ps.setString(5, reservation.getStatus().name());
+                ps.setString(6, reservation.getNotes());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (Reservation reservation : reservations) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing generated id for reservation");
+                    }
+                    reservation.setId(keys.getInt(1));
+                }
+            }
+        }
+    }
+
     private List<MergeTable> buildAssignments(Reservation reservation, List<Table> tables) {
         List<MergeTable> assignments = new ArrayList<>();
         String groupId = "RES-" + reservation.getId();
@@ -90,6 +199,10 @@ public class ReservationDAO extends BaseDAO {
         return assignments;
     }
 
+    /**
+     * Inserisce le assegnazioni in un unico batch e imposta gli id generati nello stesso ordine.
+     * In modalità OCCUPANCY occupa anche i tavoli: va chiamato dentro una transazione.
+     */
     private void insertTableAssignments(Connection conn,
                                         List<MergeTable> assignments) throws SQLException {
         String sql = """
@@ -97,23 +210,59 @@ public class ReservationDAO extends BaseDAO {
                 VALUES (?, ?, ?, ?)
                 """;
 
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        if (tableLocking == TableLocking.OCCUPANCY) {
+            occupyTables(conn, assignments);
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(sql, new String[]{"id"})) {
             for (MergeTable assignment : assignments) {
                 ps.setInt(1, assignment.getReservation().getId());
                 ps.setInt(2, assignment.getTable().getId());
                 ps.setInt(3, assignment.getSeatsAssigned());
                 ps.setString(4, assignment.getMergedGroupId());
-                ps.executeUpdate();
+                ps.addBatch();
+            }
+            ps.executeBatch();
 
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (keys.next()) {
-                        assignment.setId(keys.getInt(1));
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (MergeTable assignment : assignments) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing generated id for table assignment");
                     }
+                    assignment.setId(keys.getInt(1));
                 }
             }
         }
     }
 
+    /**
+     * Una riga di table_bookings per tavolo, con giorno e slot letti dalla prenotazione.
+     * Un tavolo già occupato fa fallire il batch (unique violation) e quindi la transazione.
+     */
+    private void occupyTables(Connection conn, List<MergeTable> assignments) throws SQLException {
+        try (PreparedStatement mode = conn.prepareStatement("SELECT set_config('dineup.table_locking', 'occupancy', true)")) {
+            // vale fino a fine transazione: il trigger di merge_tables salta lock e controllo
+            mode.execute();
+        }
+
+        String sql = """
+                INSERT INTO table_bookings(table_id, booking_date, slot_id, reservation_id)
+                SELECT ?, r.reservation_date, r.slot_id, r.id
+                FROM reservations r
+                WHERE r.id = ?
+                  AND r.status NOT IN ('CANCELED', 'NO_SHOW', 'COMPLETED')
+                """;
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (MergeTable assignment : assignments) {
+                ps.setInt(1, assignment.getTable().getId());
+                ps.setInt(2, assignment.getReservation().getId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
     public void updateReservation(Reservation reservation) throws SQLException {
         String sql = """
                 UPDATE reservations
@@ -155,18 +304,27 @@ public class ReservationDAO extends BaseDAO {
 
             ps.setInt(1, reservationId);
 
+            Reservation reservation = null;
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    Reservation reservation = mapRowToReservation(rs);
-                    reservation.setTables(getTableAssignments(reservationId));
-                    return Optional.of(reservation);
+                    reservation = mapRowToReservation(rs);
                 }
             }
+            if (reservation != null) {
+                attachTables(conn, List.of(reservation));
+            }
+            return Optional.ofNullable(reservation);
         }
-        return Optional.empty();
     }
 
     public List<Reservation> getReservationsByCustomer(int customerId) throws SQLException {
+        return getReservationsByCustomer(customerId, false);
+    }
+
+    /**
+     * @param withTables se true carica anche i tavoli assegnati, con una sola query aggiuntiva per tutta la lista
+     */
+    public List<Reservation> getReservationsByCustomer(int customerId, boolean withTables) throws SQLException {
         String sql = baseReservationSelect("WHERE r.customer_id = ? ORDER BY r.reservation_date");
 
         List<Reservation> reservations = new ArrayList<>();
@@ -181,11 +339,21 @@ public class ReservationDAO extends BaseDAO {
                     reservations.add(mapRowToReservation(rs));
                 }
             }
+            if (withTables) {
+                attachTables(conn, reservations);
+            }
         }
         return reservations;
     }
 
     public List<Reservation> getReservationsByDate(LocalDate date) throws SQLException {
+        return getReservationsByDate(date, false);
+    }
+
+    /**
+     * @param withTables se true carica anche i tavoli assegnati, con una sola query aggiuntiva per tutta la lista
+     */
+    public List<Reservation> getReservationsByDate(LocalDate date, boolean withTables) throws SQLException {
         String sql = baseReservationSelect("WHERE r.reservation_date = ? ORDER BY s.start_time");
 
         List<Reservation> reservations = new ArrayList<>();
@@ -200,15 +368,76 @@ public class ReservationDAO extends BaseDAO {
                     reservations.add(mapRowToReservation(rs));
                 }
             }
+            if (withTables) {
+                attachTables(conn, reservations);
+            }
         }
         return reservations;
     }
 
+    /** I tavoli vengono caricati solo se richiesto con {@link ReservationSearchParameters#setWithTables}. */
     public List<Reservation> searchReservations(ReservationSearchParameters params) throws SQLException {
+        List<Object> bindValues = new ArrayList<>();
+        String sql = buildSearchQuery(params, bindValues);
+        List<Reservation> reservations = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            bind(ps, bindValues);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(mapRowToReservation(rs));
+                }
+            }
+            if (params != null && params.isWithTables()) {
+                attachTables(conn, reservations);
+            }
+        }
+
+        return reservations;
+    }
+
+    /**
+     * Come {@link #searchReservations}, ma passa le prenotazioni al consumer man mano che arrivano
+     * (cursore con FETCH_SIZE righe per round trip): la memoria usata non dipende dal numero di risultati.
+     * Non carica i tavoli, anche se richiesti nei parametri.
+     */
+    public void forEachReservation(ReservationSearchParameters params,
+                                   Consumer<Reservation> consumer) throws SQLException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+        List<Object> bindValues = new ArrayList<>();
+        String sql = buildSearchQuery(params, bindValues);
+
+        try (Connection conn = getConnection()) {
+            // il driver PostgreSQL usa un cursore solo fuori dall'autocommit
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setFetchSize(FETCH_SIZE);
+                bind(ps, bindValues);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapRowToReservation(rs));
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private String buildSearchQuery(ReservationSearchParameters params, List<Object> bindValues) {
         ReservationSearchParameters criteria = (params != null) ? params : ReservationSearchParameters.builder();
 
         StringBuilder where = new StringBuilder("WHERE 1=1");
-        List<Object> bindValues = new ArrayList<>();
 
         criteria.getDate().ifPresent(date -> {
             where.append(" AND r.reservation_date = ?");
@@ -250,35 +479,39 @@ public class ReservationDAO extends BaseDAO {
             bindValues.add(status.name());
         });
 
-        where.append(" ORDER BY r.reservation_date, s.start_time");
+        // keyset: riparte dopo l'ultima prenotazione della pagina precedente senza OFFSET
+        criteria.getAfterDate().ifPresent(afterDate -> {
+            where.append(" AND (r.reservation_date, s.start_time, r.id) > (?, ?, ?)");
+            bindValues.add(Date.valueOf(afterDate));
+            bindValues.add(Time.valueOf(criteria.getAfterStartTime().orElseThrow()));
+            bindValues.add(criteria.getAfterId().orElseThrow());
+        });
 
-        String sql = baseReservationSelect(where.toString());
-        List<Reservation> reservations = new ArrayList<>();
+        where.append(" ORDER BY r.reservation_date, s.start_time, r.id");
 
-        try (Connection conn = getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        criteria.getLimit().ifPresent(limit -> {
+            where.append(" LIMIT ?");
+            bindValues.add(limit);
+        });
 
-            int idx = 1;
-            for (Object bindValue : bindValues) {
-                if (bindValue instanceof Integer v) {
-                    ps.setInt(idx++, v);
-                } else if (bindValue instanceof String v) {
-                    ps.setString(idx++, v);
-                } else if (bindValue instanceof Date v) {
-                    ps.setDate(idx++, v);
-                } else {
-                    ps.setObject(idx++, bindValue);
-                }
-            }
+        return baseReservationSelect(where.toString());
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    reservations.add(mapRowToReservation(rs));
-                }
+    private void bind(PreparedStatement ps, List<Object> bindValues) throws SQLException {
+        int idx = 1;
+        for (Object bindValue : bindValues) {
+            if (bindValue instanceof Integer v) {
+                ps.setInt(idx++, v);
+            } else if (bindValue instanceof String v) {
+                ps.setString(idx++, v);
+            } else if (bindValue instanceof Date v) {
+                ps.setDate(idx++, v);
+            } else if (bindValue instanceof Time v) {
+                ps.setTime(idx++, v);
+            } else {
+                ps.setObject(idx++, bindValue);
             }
         }
-
-        return reservations;
     }
 
     public void deleteReservation(int reservationId) throws SQLException {
@@ -325,10 +558,6 @@ public class ReservationDAO extends BaseDAO {
         }
 
         String deleteSql = "DELETE FROM merge_tables WHERE reservation_id = ?";
-        String insertSql = """
-                INSERT INTO merge_tables(reservation_id, table_id, seats_assigned, merged_group_id)
-                VALUES (?, ?, ?, ?)
-                """;
 
         try (Connection conn = getConnection()) {
             conn.setAutoCommit(false);
@@ -338,16 +567,7 @@ public class ReservationDAO extends BaseDAO {
                     delete.executeUpdate();
                 }
 
-                try (PreparedStatement insert = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
-                    for (MergeTable assignment : assignments) {
-                        insert.setInt(1, assignment.getReservation().getId());
-                        insert.setInt(2, assignment.getTable().getId());
-                        insert.setInt(3, assignment.getSeatsAssigned());
-                        insert.setString(4, assignment.getMergedGroupId());
-                        insert.addBatch();
-                    }
-                    insert.executeBatch();
-                }
+                insertTableAssignments(conn, assignments);
 
                 conn.commit();
             } catch (SQLException e) {
@@ -385,6 +605,60 @@ public class ReservationDAO extends BaseDAO {
         return assignments;
     }
 
+    /**
+     * Tavoli assegnati a più prenotazioni con un'unica query, raggruppati per id della prenotazione
+     * (ordinati per numero di tavolo); le prenotazioni senza tavoli non compaiono nella mappa.
+     */
+    public Map<Integer, List<MergeTable>> getTableAssignments(List<Integer> reservationIds) throws SQLException {
+        if (reservationIds == null || reservationIds.isEmpty()) {
+            return Map.of();
+        }
+        try (Connection conn = getConnection()) {
+            return loadTableAssignments(conn, reservationIds);
+        }
+    }
+
+    private void attachTables(Connection conn, List<Reservation> reservations) throws SQLException {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            ids.add(reservation.getId());
+        }
+        Map<Integer, List<MergeTable>> byReservation = loadTableAssignments(conn, ids);
+        for (Reservation reservation : reservations) {
+            reservation.setTables(byReservation.getOrDefault(reservation.getId(), List.of()));
+        }
+    }
+
+    private Map<Integer, List<MergeTable>> loadTableAssignments(Connection conn,
+                                                                 List<Integer> reservationIds) throws SQLException {
+        String sql = """
+                SELECT mt.reservation_id, mt.id, mt.table_id, mt.seats_assigned, mt.merged_group_id,
+                       t.number, t.seats, t.joinable, t.location, t.available
+                FROM merge_tables mt
+                JOIN tables t ON t.id = mt.table_id
+                WHERE mt.reservation_id = ANY(?)
+                ORDER BY mt.reservation_id, t.number
+                """;
+
+        Map<Integer, List<MergeTable>> byReservation = new HashMap<>();
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setArray(1, conn.createArrayOf("integer", reservationIds.toArray()));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int reservationId = rs.getInt("reservation_id");
+                    byReservation.computeIfAbsent(reservationId, id -> new ArrayList<>())
+                            .add(mapRowToMergeTable(rs, reservationId));
+                }
+            }
+        }
+        return byReservation;
+    }
+
     private String baseReservationSelect(String whereClause) {
         return """
                 SELECT r.id, r.customer_id, r.guests, r.reservation_date,
@@ -81,6 +81,36 @@ public class UserDAO extends BaseDAO{
         }
     }
 
+    // ----------------------------------------------------
+    // getUsersByIds(): List<User>
+    // ----------------------------------------------------
+    public List<User> getUsersByIds(List<Integer> ids) throws SQLException {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = """
+                SELECT id, username, email, password_hash, fidelity_points,
+                       name, surname, role
+                FROM users
+                WHERE id = ANY(?)
+                """;
+
+        List<User> result = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapRowToUser(rs));
+                }
+            }
+        }
+
+        return result;
+    }
+
     // ----------------------------------------------------
     // getUserByEmail(): Optional<User>
     // ----------------------------------------------------
@@ -160,10 +190,11 @@ public class UserDAO extends BaseDAO{
     // ----------------------------------------------------
     // updateUser()
     // ----------------------------------------------------
+    // la password non viene toccata: si cambia con updatePasswordHash()
     public void updateUser(User user) throws SQLException {
         String sql = """
                 UPDATE users
-                SET username = ?, email = ?, password_hash = ?, fidelity_points = ?,
+                SET username = ?, email = ?, fidelity_points = ?,
                     name = ?, surname = ?, role = ?
                 WHERE id = ?
                 """;
@@ -173,17 +204,65 @@ public class UserDAO extends BaseDAO{
 
             ps.setString(1, user.getUsername());
             ps.setString(2, user.getEmailValue());
-            ps.setString(3, user.getPasswordHash());
-            ps.setInt(4, user.getFidelityPoints());
-            ps.setString(5, user.getName());
-            ps.setString(6, user.getSurname());
-            ps.setString(7, user.getRole().name());
-            ps.setInt(8, user.getId());
+            ps.setInt(3, user.getFidelityPoints());
+            ps.setString(4, user.getName());
+            ps.setString(5, user.getSurname());
+            ps.setString(6, user.getRole().name());
+            ps.setInt(7, user.getId());
 
             ps.executeUpdate();
         }
     }
 
+    // ----------------------------------------------------
+    // updatePasswordHash(): nuova password scelta dall'utente
+    // ----------------------------------------------------
+    public void updatePasswordHash(int userId, String newHash) throws SQLException {
+        checkId(userId);
+        if (newHash == null || newHash.isBlank()) {
+            throw new IllegalArgumentException("Password hash cannot be empty");
+        }
+        String sql = """
+                UPDATE users
+                SET password_hash = ?
+                WHERE id = ?
+                """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, newHash);
+            ps.setInt(2, userId);
+
+            ps.executeUpdate();
+        }
+    }
+
+    // ----------------------------------------------------
+    // updatePasswordHash(): solo se l'hash non è cambiato nel frattempo
+    // ----------------------------------------------------
+    public boolean updatePasswordHash(int userId, String expectedHash, String newHash) throws SQLException {
+        checkId(userId);
+        if (expectedHash == null || newHash == null || newHash.isBlank()) {
+            throw new IllegalArgumentException("Password hashes cannot be empty");
+        }
+        String sql = """
+                UPDATE users
+                SET password_hash = ?
+                WHERE id = ? AND password_hash = ?
+                """;
+
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, newHash);
+            ps.setInt(2, userId);
+            ps.setString(3, expectedHash);
+
+            return ps.executeUpdate() == 1;
+        }
+    }
+
     // ----------------------------------------------------
     // emailExists(): boolean
     // ----------------------------------------------------
@@ -0,0 +1,12 @@
+package Server;
+
+import java.sql.SQLException;
+
+/**
+ * Gestore di una rotta: restituisce il valore da serializzare in JSON, oppure null per 204.
+ */
+@FunctionalInterface
+public interface ApiHandler {
+
+    Object handle(ApiRequest request) throws SQLException;
+}
@@ -0,0 +1,256 @@
+package Server;
+
+import DomainModel.user.User;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Richiesta HTTP già instradata: parametri del percorso, query string, corpo JSON e utente autenticato.
+ * I valori mancanti o non validi diventano IllegalArgumentException, che il server traduce in 400.
+ */
+public final class ApiRequest {
+
+    private final Map<String, String> pathParams;
+    private final Map<String, String> query;
+    private final Map<String, Object> body;
+    private final User user;
+    private final String sessionToken;
+
+    ApiRequest(Map<String, String> pathParams, String rawQuery, String rawBody, User user) {
+        this(pathParams, rawQuery, rawBody, user, null);
+    }
+
+    ApiRequest(Map<String, String> pathParams, String rawQuery, String rawBody, User user, String sessionToken) {
+        this.pathParams = pathParams;
+        this.query = parseQuery(rawQuery);
+        this.body = parseBody(rawBody);
+        this.user = user;
+        this.sessionToken = sessionToken;
+    }
+
+    private ApiRequest(Map<String, Object> body, User user) {
+        this.pathParams = Map.of();
+        this.query = Map.of();
+        this.body = body;
+        this.user = user;
+        this.sessionToken = null;
+    }
+
+    /** Utente autenticato; null solo sulle rotte pubbliche. */
+    public User user() {
+        return user;
+    }
+
+    /** Token di sessione usato per autenticarsi; null sulle rotte pubbliche. */
+    public String sessionToken() {
+        return sessionToken;
+    }
+
+    // -------------------------------------------------------
+    // PERCORSO E QUERY STRING
+    // -------------------------------------------------------
+    public int pathInt(String name) {
+        return toInt(name, pathParams.get(name));
+    }
+
+    public String query(String name) {
+        String value = query.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    public Integer queryInt(String name) {
+        String value = query(name);
+        return value == null ? null : toInt(name, value);
+    }
+
+    public Boolean queryBoolean(String name) {
+        String value = query(name);
+        return value == null ? null : toBoolean(name, value);
+    }
+
+    public BigDecimal queryDecimal(String name) {
+        String value = query(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' must be a number");
+        }
+    }
+
+    public LocalDate queryDate(String name) {
+        String value = query(name);
+        return value == null ? null : toDate(name, value);
+    }
+
+    public <E extends Enum<E>> E queryEnum(String name, Class<E> type) {
+        String value = query(name);
+        return value == null ? null : toEnum(name, value, type);
+    }
+
+    // -------------------------------------------------------
+    // CORPO JSON
+    // -------------------------------------------------------
+    public String string(String name) {
+        Object value = body.get(name);
+        return value == null ? null : value.toString();
+    }
+
+    public String requiredString(String name) {
+        String value = string(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Field '" + name + "' is required");
+        }
+        return value;
+    }
+
+    public int requiredInt(String name) {
+        return toInt(name, required(name).toString());
+    }
+
+    public double requiredDouble(String name) {
+        Object value = required(name);
+        if (value instanceof BigDecimal decimal) {
+            return decimal.doubleValue();
+        }
+        throw new IllegalArgumentException("Field '" + name + "' must be a number");
+    }
+
+    public boolean requiredBoolean(String name) {
+        Object value = required(name);
+        if (value instanceof Boolean flag) {
+            return flag;
+        }
+        throw new IllegalArgumentException("Field '" + name + "' must be true or false");
+    }
+
+    public LocalDate requiredDate(String name) {
+        return toDate(name, requiredString(name));
+    }
+
+    public LocalTime requiredTime(String name) {
+        String value = requiredString(name);
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a time (HH:mm)");
+        }
+    }
+
+    public <E extends Enum<E>> E requiredEnum(String name, Class<E> type) {
+        return toEnum(name, requiredString(name), type);
+    }
+
+    public List<Integer> requiredIntList(String name) {
+        Object value = required(name);
+        if (!(value instanceof List<?> items)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be an array of ids");
+        }
+        List<Integer> ids = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException("Field '" + name + "' cannot contain null");
+            }
+            ids.add(toInt(name, item.toString()));
+        }
+        return ids;
+    }
+
+    /** Array di oggetti JSON, ognuno letto con gli stessi metodi del corpo (es. richieste in blocco). */
+    @SuppressWarnings("unchecked")
+    public List<ApiRequest> requiredObjectList(String name) {
+        Object value = required(name);
+        if (!(value instanceof List<?> items)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be an array of objects");
+        }
+        List<ApiRequest> objects = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (!(item instanceof Map<?, ?>)) {
+                throw new IllegalArgumentException("Field '" + name + "' must contain only objects");
+            }
+            objects.add(new ApiRequest((Map<String, Object>) item, user));
+        }
+        return objects;
+    }
+
+    private Object required(String name) {
+        Object value = body.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Field '" + name + "' is required");
+        }
+        return value;
+    }
+
+    // -------------------------------------------------------
+    // CONVERSIONI
+    // -------------------------------------------------------
+    private static int toInt(String name, String value) {
+        try {
+            return new BigDecimal(value).intValueExact();
+        } catch (NumberFormatException | ArithmeticException | NullPointerException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' must be an integer");
+        }
+    }
+
+    private static boolean toBoolean(String name, String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("Parameter '" + name + "' must be true or false");
+        };
+    }
+
+    private static LocalDate toDate(String name, String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' must be a date (yyyy-MM-dd)");
+        }
+    }
+
+    private static <E extends Enum<E>> E toEnum(String name, String value, Class<E> type) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' has an unknown value: " + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parseBody(String rawBody) {
+        if (rawBody == null || rawBody.isBlank()) {
+            return Map.of();
+        }
+        Object parsed = Json.parse(rawBody);
+        if (!(parsed instanceof Map<?, ?>)) {
+            throw new IllegalArgumentException("Request body must be a JSON object");
+        }
+        return (Map<String, Object>) parsed;
+    }
+}
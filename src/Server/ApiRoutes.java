@@ -0,0 +1,338 @@
+package Server;
+
+import Controller.AuthController;
+import Controller.CustomerController;
+import Controller.OwnerController;
+import Controller.StaffController;
+import DomainModel.notification.Notification;
+import DomainModel.order.OrderStatus;
+import DomainModel.order.PaymentMethod;
+import DomainModel.reservation.ReservationStatus;
+import DomainModel.user.User;
+import Server.HttpApiServer.Access;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rotte /api/... verso i controller esistenti, che restano l'unico punto di accesso ai service.
+ *
+ * Pubbliche: registrazione, login con token di sessione, menu, ricerca piatti e fasce orarie.
+ * /api/customer: carrello, ordini d'asporto, prenotazioni e notifiche dell'utente autenticato.
+ * /api/staff: coda cucina, prenotazioni del giorno e in blocco, ricerche e notifiche (staff o titolare).
+ * /api/owner: menu, tavoli, fasce orarie, ricerche e notifiche (solo titolare).
+ */
+public final class ApiRoutes {
+
+    private ApiRoutes() {
+    }
+
+    public static void register(HttpApiServer server,
+                                AuthController authController,
+                                CustomerController customerController,
+                                StaffController staffController,
+                                OwnerController ownerController) {
+        registerPublic(server, authController, customerController);
+        registerCustomer(server, customerController);
+        registerStaff(server, staffController);
+        registerOwner(server, ownerController);
+    }
+
+    // -------------------------------------------------------
+    // PUBBLICHE
+    // -------------------------------------------------------
+    private static void registerPublic(HttpApiServer server,
+                                       AuthController auth,
+                                       CustomerController customer) {
+        server.route("POST", "/api/auth/register", Access.PUBLIC, req -> JsonViews.user(auth.registerCustomer(
+                req.requiredString("username"),
+                req.requiredString("email"),
+                req.requiredString("password"),
+                req.requiredString("name"),
+                req.requiredString("surname"))));
+        server.route("POST", "/api/auth/session", Access.PUBLIC, req -> auth.openSession(
+                        req.requiredString("email"), req.requiredString("password"))
+                .map(JsonViews::session)
+                .orElseThrow(() -> new HttpApiServer.HttpError(401, "Invalid credentials")));
+        server.route("DELETE", "/api/auth/session", Access.AUTHENTICATED, req -> {
+            auth.logout(req.sessionToken());
+            return null;
+        });
+        server.route("GET", "/api/me", Access.AUTHENTICATED, req -> JsonViews.user(req.user()));
+
+        server.route("GET", "/api/menu", Access.PUBLIC, req -> JsonViews.menu(customer.getMenu()));
+        server.route("GET", "/api/menu/search", Access.PUBLIC,
+                req -> JsonViews.list(customer.searchDishes(req.query("q")), JsonViews::dish));
+        server.route("GET", "/api/slots", Access.PUBLIC,
+                req -> JsonViews.list(customer.getAvailableSlots(), JsonViews::slot));
+    }
+
+    // -------------------------------------------------------
+    // CLIENTE
+    // -------------------------------------------------------
+    private static void registerCustomer(HttpApiServer server, CustomerController customer) {
+        server.route("GET", "/api/customer/cart", Access.AUTHENTICATED, req -> cart(customer, req.user()));
+        server.route("POST", "/api/customer/cart/items", Access.AUTHENTICATED, req -> {
+            customer.addDishToCart(req.user(), req.requiredInt("dishId"), req.requiredInt("quantity"));
+            return cart(customer, req.user());
+        });
+        server.route("DELETE", "/api/customer/cart/items/{dishId}", Access.AUTHENTICATED, req -> {
+            customer.removeItem(req.user(), req.pathInt("dishId"));
+            return cart(customer, req.user());
+        });
+
+        server.route("POST", "/api/customer/orders", Access.AUTHENTICATED, req -> JsonViews.order(
+                customer.checkoutTakeAway(req.user(),
+                        req.requiredEnum("paymentMethod", PaymentMethod.class),
+                        req.string("notes"))));
+
+        server.route("GET", "/api/customer/reservations", Access.AUTHENTICATED,
+                req -> JsonViews.list(customer.listReservations(req.user(), withTables(req)), JsonViews::reservation));
+        server.route("POST", "/api/customer/reservations", Access.AUTHENTICATED, req -> JsonViews.reservation(
+                customer.createReservation(req.user(),
+                        req.requiredDate("date"),
+                        req.requiredInt("slotId"),
+                        req.requiredInt("guests"),
+                        req.string("notes"))));
+        server.route("DELETE", "/api/customer/reservations/{id}", Access.AUTHENTICATED, req -> {
+            customer.cancelReservation(req.user(), req.pathInt("id"));
+            return null;
+        });
+
+        notifications(server, "/api/customer", Access.AUTHENTICATED,
+                customer::getNotifications,
+                customer::markNotificationsAsRead,
+                customer::markAllNotificationsAsRead);
+    }
+
+    // -------------------------------------------------------
+    // STAFF
+    // -------------------------------------------------------
+    private static void registerStaff(HttpApiServer server, StaffController staff) {
+        server.route("GET", "/api/staff/kitchen", Access.STAFF, req -> {
+            Map<OrderStatus, List<Object>> queue = new EnumMap<>(OrderStatus.class);
+            staff.getKitchenQueue().forEach((status, orders) ->
+                    queue.put(status, JsonViews.list(orders, JsonViews::order)));
+            return queue;
+        });
+        server.route("POST", "/api/staff/orders/{id}/status", Access.STAFF, req -> {
+            staff.updateOrderStatus(req.pathInt("id"), req.requiredEnum("status", OrderStatus.class), req.user().getId());
+            return null;
+        });
+        server.route("GET", "/api/staff/orders", Access.STAFF, req -> JsonViews.list(staff.searchOrders(
+                req.queryInt("customerId"),
+                req.queryEnum("status", OrderStatus.class),
+                req.queryEnum("paymentMethod", PaymentMethod.class),
+                req.queryInt("categoryId"),
+                req.queryDate("from"),
+                req.queryDate("to")), JsonViews::order));
+
+        server.route("GET", "/api/staff/reservations", Access.STAFF, req -> {
+            if (req.query("date") == null) {
+                throw new IllegalArgumentException("Parameter 'date' is required");
+            }
+            return JsonViews.list(staff.getReservations(req.queryDate("date"), withTables(req)), JsonViews::reservation);
+        });
+        server.route("GET", "/api/staff/reservations/search", Access.STAFF, req -> JsonViews.list(
+                staff.searchReservations(
+                        req.queryDate("date"),
+                        req.queryDate("from"),
+                        req.queryDate("to"),
+                        req.queryInt("customerId"),
+                        req.queryInt("slotId"),
+                        req.queryInt("minGuests"),
+                        req.queryInt("maxGuests"),
+                        req.queryEnum("status", ReservationStatus.class)), JsonViews::reservation));
+        server.route("POST", "/api/staff/reservations/bulk", Access.STAFF, req -> {
+            List<StaffController.BulkReservation> bookings = new ArrayList<>();
+            for (ApiRequest item : req.requiredObjectList("reservations")) {
+                bookings.add(new StaffController.BulkReservation(
+                        item.requiredInt("customerId"),
+                        item.requiredDate("date"),
+                        item.requiredInt("slotId"),
+                        item.requiredInt("guests"),
+                        item.string("notes")));
+            }
+            return JsonViews.list(staff.createReservations(bookings), JsonViews::bookingOutcome);
+        });
+        server.route("POST", "/api/staff/reservations/{id}/confirm", Access.STAFF, req -> {
+            staff.confirmReservation(req.pathInt("id"));
+            return null;
+        });
+        server.route("POST", "/api/staff/reservations/{id}/check-in", Access.STAFF, req -> {
+            staff.registerCheckIn(req.pathInt("id"));
+            return null;
+        });
+        server.route("POST", "/api/staff/reservations/{id}/no-show", Access.STAFF, req -> {
+            staff.markNoShow(req.pathInt("id"));
+            return null;
+        });
+
+        notifications(server, "/api/staff", Access.STAFF,
+                (user, unreadOnly) -> staff.getNotifications(user.getId(), unreadOnly),
+                (user, ids) -> staff.markNotificationsAsRead(user.getId(), ids),
+                user -> staff.markAllNotificationsAsRead(user.getId()));
+    }
+
+    // -------------------------------------------------------
+    // TITOLARE
+    // -------------------------------------------------------
+    private static void registerOwner(HttpApiServer server, OwnerController owner) {
+        server.route("GET", "/api/owner/menu", Access.OWNER, req -> JsonViews.menu(owner.getMenuOverview()));
+
+        server.route("POST", "/api/owner/categories", Access.OWNER, req -> JsonViews.category(
+                owner.addCategory(req.requiredString("name"), req.string("description"))));
+        server.route("PUT", "/api/owner/categories/{id}", Access.OWNER, req -> {
+            owner.renameCategory(req.pathInt("id"), req.string("name"), req.string("description"));
+            return null;
+        });
+        server.route("POST", "/api/owner/categories/{id}/active", Access.OWNER, req -> {
+            owner.toggleCategory(req.pathInt("id"), req.requiredBoolean("active"));
+            return null;
+        });
+        server.route("DELETE", "/api/owner/categories/{id}", Access.OWNER, req -> {
+            owner.deleteCategory(req.pathInt("id"));
+            return null;
+        });
+
+        server.route("GET", "/api/owner/dishes", Access.OWNER, req -> JsonViews.list(owner.searchDishes(
+                req.query("q"),
+                req.queryInt("categoryId"),
+                req.queryBoolean("available"),
+                req.queryDecimal("minPrice"),
+                req.queryDecimal("maxPrice")), JsonViews::dish));
+        server.route("POST", "/api/owner/dishes", Access.OWNER, req -> JsonViews.dish(owner.addDish(
+                req.requiredString("name"),
+                req.string("description"),
+                req.requiredDouble("price"),
+                req.requiredInt("categoryId"))));
+        server.route("POST", "/api/owner/dishes/{id}/active", Access.OWNER, req -> {
+            owner.toggleDish(req.pathInt("id"), req.requiredBoolean("active"));
+            return null;
+        });
+        server.route("POST", "/api/owner/dishes/{id}/price", Access.OWNER, req -> {
+            owner.updateDishPrice(req.pathInt("id"), req.requiredDouble("price"));
+            return null;
+        });
+        server.route("POST", "/api/owner/dishes/{id}/description", Access.OWNER, req -> {
+            owner.updateDishDescription(req.pathInt("id"), req.string("description"));
+            return null;
+        });
+        server.route("DELETE", "/api/owner/dishes/{id}", Access.OWNER, req -> {
+            owner.deleteDish(req.pathInt("id"));
+            return null;
+        });
+
+        server.route("GET", "/api/owner/tables", Access.OWNER,
+                req -> JsonViews.list(owner.listTables(), JsonViews::table));
+        server.route("POST", "/api/owner/tables", Access.OWNER, req -> JsonViews.table(owner.addTable(
+                req.requiredInt("number"),
+                req.requiredInt("seats"),
+                req.requiredBoolean("joinable"),
+                req.string("location"))));
+        server.route("PUT", "/api/owner/tables/{id}", Access.OWNER, req -> {
+            owner.updateTable(req.pathInt("id"),
+                    req.requiredInt("number"),
+                    req.requiredInt("seats"),
+                    req.requiredBoolean("joinable"),
+                    req.string("location"));
+            return null;
+        });
+        server.route("POST", "/api/owner/tables/{id}/available", Access.OWNER, req -> {
+            owner.setTableAvailability(req.pathInt("id"), req.requiredBoolean("available"));
+            return null;
+        });
+        server.route("DELETE", "/api/owner/tables/{id}", Access.OWNER, req -> {
+            owner.deleteTable(req.pathInt("id"));
+            return null;
+        });
+
+        server.route("GET", "/api/owner/slots", Access.OWNER, req -> JsonViews.list(
+                owner.listSlots(Boolean.TRUE.equals(req.queryBoolean("includeClosed"))), JsonViews::slot));
+        server.route("POST", "/api/owner/slots", Access.OWNER, req -> JsonViews.slot(
+                owner.configureSlot(req.requiredTime("start"), req.requiredTime("end"))));
+        server.route("PUT", "/api/owner/slots/{id}", Access.OWNER, req -> {
+            owner.updateSlot(req.pathInt("id"),
+                    req.requiredTime("start"),
+                    req.requiredTime("end"),
+                    req.requiredBoolean("closed"));
+            return null;
+        });
+        server.route("POST", "/api/owner/slots/{id}/closed", Access.OWNER, req -> {
+            owner.setSlotClosed(req.pathInt("id"), req.requiredBoolean("closed"));
+            return null;
+        });
+        server.route("DELETE", "/api/owner/slots/{id}", Access.OWNER, req -> {
+            owner.deleteSlot(req.pathInt("id"));
+            return null;
+        });
+
+        server.route("GET", "/api/owner/orders", Access.OWNER, req -> JsonViews.list(owner.searchOrders(
+                req.queryInt("customerId"),
+                req.queryEnum("status", OrderStatus.class),
+                req.queryEnum("paymentMethod", PaymentMethod.class),
+                req.queryInt("categoryId"),
+                req.queryDate("from"),
+                req.queryDate("to")), JsonViews::order));
+        server.route("GET", "/api/owner/reservations", Access.OWNER, req -> JsonViews.list(
+                owner.searchReservations(
+                        req.queryDate("date"),
+                        req.queryDate("from"),
+                        req.queryDate("to"),
+                        req.queryInt("customerId"),
+                        req.queryInt("slotId"),
+                        req.queryInt("minGuests"),
+                        req.queryInt("maxGuests"),
+                        req.queryEnum("status", ReservationStatus.class)), JsonViews::reservation));
+
+        notifications(server, "/api/owner", Access.OWNER,
+                (user, unreadOnly) -> owner.getNotifications(user.getId(), unreadOnly),
+                (user, ids) -> owner.markNotificationsAsRead(user.getId(), ids),
+                user -> owner.markAllNotificationsAsRead(user.getId()));
+    }
+
+    // -------------------------------------------------------
+    // NOTIFICHE (stesse rotte per ogni ruolo)
+    // -------------------------------------------------------
+    private static void notifications(HttpApiServer server,
+                                      String prefix,
+                                      Access access,
+                                      NotificationLister lister,
+                                      NotificationMarker markMany,
+                                      NotificationMarkAll markAll) {
+        server.route("GET", prefix + "/notifications", access, req -> JsonViews.list(
+                lister.list(req.user(), Boolean.TRUE.equals(req.queryBoolean("unread"))),
+                JsonViews::notification));
+        server.route("POST", prefix + "/notifications/read", access,
+                req -> Map.of("updated", markMany.mark(req.user(), req.requiredIntList("ids"))));
+        server.route("POST", prefix + "/notifications/read-all", access,
+                req -> Map.of("updated", markAll.mark(req.user())));
+    }
+
+    // ?withTables=true: tavoli assegnati inclusi, con una query in più per l'intera lista
+    private static boolean withTables(ApiRequest req) {
+        return Boolean.TRUE.equals(req.queryBoolean("withTables"));
+    }
+
+    private static Map<String, Object> cart(CustomerController customer, User user) {
+        return Map.of("summary", customer.getCartSummary(user));
+    }
+
+    @FunctionalInterface
+    private interface NotificationLister {
+        List<Notification> list(User user, boolean unreadOnly) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface NotificationMarker {
+        int mark(User user, List<Integer> ids) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface NotificationMarkAll {
+        int mark(User user) throws SQLException;
+    }
+}
@@ -0,0 +1,300 @@
+package Server;
+
+import Controller.AuthController;
+import DomainModel.user.User;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server JSON su HTTP basato su com.sun.net.httpserver.
+ *
+ * Ogni richiesta viene eseguita da un pool di thread limitato (il progetto compila per
+ * Java 17, quindi niente virtual thread): quando pool e coda sono pieni la richiesta
+ * viene eseguita dal thread che accetta le connessioni, rallentando i nuovi arrivi.
+ * Le rotte non pubbliche richiedono un token di sessione (Authorization: Bearer, vedi
+ * POST /api/auth/session): le credenziali viaggiano solo all'apertura della sessione.
+ * Errori: 400 per input non valido, 401/403 per autenticazione e ruolo, 404/405 per
+ * rotte sconosciute, 409 per operazioni non ammesse nello stato corrente, 503 se un pool
+ * interno (es. l'hashing delle password) è saturo, 500 per il database.
+ */
+public final class HttpApiServer implements AutoCloseable {
+
+    /** Chi può chiamare una rotta; STAFF comprende anche il titolare. */
+    public enum Access {
+        PUBLIC,
+        AUTHENTICATED,
+        STAFF,
+        OWNER
+    }
+
+    private final AuthController authController;
+    private final Settings settings;
+    private final List<Route> routes = new ArrayList<>();
+    private HttpServer server;
+    private ThreadPoolExecutor executor;
+
+    public HttpApiServer(AuthController authController, Settings settings) {
+        if (authController == null || settings == null) {
+            throw new IllegalArgumentException("Auth controller and server settings are required");
+        }
+        this.authController = authController;
+        this.settings = settings;
+    }
+
+    /**
+     * Registra una rotta; i segmenti {nome} del percorso diventano parametri.
+     * Le rotte vanno registrate prima di {@link #start}.
+     */
+    public synchronized HttpApiServer route(String method, String pattern, Access access, ApiHandler handler) {
+        if (server != null) {
+            throw new IllegalStateException("Routes must be registered before the server starts");
+        }
+        if (method == null || pattern == null || access == null || handler == null) {
+            throw new IllegalArgumentException("Method, pattern, access and handler are required");
+        }
+        routes.add(new Route(method, segments(pattern), access, handler));
+        return this;
+    }
+
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(settings.threads(), settings.threads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()),
+                runnable -> new Thread(runnable, "dineup-http-" + counter.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        server = HttpServer.create(address, settings.backlog());
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public synchronized int port() {
+        if (server == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /** Smette di accettare connessioni e attende le richieste in corso per al più stopDelaySeconds. */
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        server.stop(settings.stopDelaySeconds());
+        executor.shutdown();
+        try {
+            executor.awaitTermination(settings.stopDelaySeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -------------------------------------------------------
+    // DISPATCH
+    // -------------------------------------------------------
+    private void handle(HttpExchange exchange) {
+        try {
+            Object result = dispatch(exchange);
+            if (result == null) {
+                send(exchange, 204, null);
+            } else {
+                send(exchange, 200, result);
+            }
+        } catch (HttpError e) {
+            if (e.status == 401) {
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Bearer realm=\"dineup\"");
+            }
+            send(exchange, e.status, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            send(exchange, 409, error(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, error("Server busy, retry later"));
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("HTTP " + exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                    + " failed: " + e.getMessage());
+            send(exchange, 500, error("Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object dispatch(HttpExchange exchange) throws SQLException {
+        String method = exchange.getRequestMethod();
+        String[] path = segments(exchange.getRequestURI().getPath());
+
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            Map<String, String> params = route.match(path);
+            if (params == null) {
+                continue;
+            }
+            pathMatched = true;
+            if (!route.method.equalsIgnoreCase(method)) {
+                continue;
+            }
+
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            User user = authorize(authorization, route.access);
+            ApiRequest request = new ApiRequest(params, exchange.getRequestURI().getRawQuery(),
+                    readBody(exchange), user, user == null ? null : bearerToken(authorization));
+            return route.handler.handle(request);
+        }
+        throw pathMatched ? new HttpError(405, "Method not allowed") : new HttpError(404, "Not found");
+    }
+
+    private User authorize(String authorization, Access access) {
+        if (access == Access.PUBLIC) {
+            return null;
+        }
+        User user = authenticate(authorization)
+                .orElseThrow(() -> new HttpError(401, "Authentication required"));
+
+        boolean allowed = switch (access) {
+            case PUBLIC, AUTHENTICATED -> true;
+            case STAFF -> user.isStaff() || user.isOwner();
+            case OWNER -> user.isOwner();
+        };
+        if (!allowed) {
+            throw new HttpError(403, "Forbidden");
+        }
+        return user;
+    }
+
+    /** Solo token di sessione: la sessione è in memoria, nessun accesso al DB e nessun hash da verificare. */
+    private Optional<User> authenticate(String header) {
+        String token = bearerToken(header);
+        return token == null ? Optional.empty() : authController.resolveSession(token);
+    }
+
+    private static String bearerToken(String header) {
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        String token = header.substring(7).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private String readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > settings.maxBodyBytes()) {
+                    throw new HttpError(413, "Request body too large");
+                }
+                body.write(buffer, 0, read);
+            }
+            return body.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new HttpError(400, "Unreadable request body");
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, Object payload) {
+        try {
+            if (payload == null) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] bytes = Json.write(payload).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // il client ha chiuso la connessione: non c'è nessuno a cui rispondere
+            System.err.println("Failed to send HTTP response: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", message);
+        return body;
+    }
+
+    private static String[] segments(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    private record Route(String method, String[] pattern, Access access, ApiHandler handler) {
+
+        /** Parametri del percorso se la rotta corrisponde, altrimenti null. */
+        private Map<String, String> match(String[] path) {
+            if (path.length != pattern.length) {
+                return null;
+            }
+            Map<String, String> params = new HashMap<>();
+            for (int i = 0; i < pattern.length; i++) {
+                String segment = pattern[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    params.put(segment.substring(1, segment.length() - 1), path[i]);
+                } else if (!segment.equals(path[i])) {
+                    return null;
+                }
+            }
+            return params;
+        }
+    }
+
+    /** Errore con uno status HTTP preciso, lanciabile anche dalle rotte. */
+    static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * threads richieste servite in parallelo (ognuna usa al più una connessione del pool per volta),
+     * queueCapacity richieste in attesa, backlog connessioni TCP non ancora accettate.
+     */
+    public record Settings(int threads, int queueCapacity, int backlog, int maxBodyBytes, int stopDelaySeconds) {
+
+        public Settings {
+            if (threads <= 0 || queueCapacity <= 0 || backlog < 0) {
+                throw new IllegalArgumentException("Server threads and queue capacity must be > 0");
+            }
+            if (maxBodyBytes <= 0 || stopDelaySeconds < 0) {
+                throw new IllegalArgumentException("Server body limit must be > 0 and stop delay >= 0");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(32, 1_000, 128, 1 << 20, 2);
+        }
+    }
+}
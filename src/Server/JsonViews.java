@@ -0,0 +1,171 @@
+package Server;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.notification.Notification;
+import DomainModel.order.Order;
+import DomainModel.reservation.MergeTable;
+import DomainModel.reservation.Reservation;
+import DomainModel.reservation.Slot;
+import DomainModel.reservation.Table;
+import DomainModel.user.User;
+import DomainModel.valueObject.Money;
+import ServiceLayer.ReservationService;
+import ServiceLayer.SessionStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Rappresentazione JSON degli oggetti di dominio restituiti dai controller.
+ * Solo i campi utili al client: niente hash delle password né grafi di oggetti annidati.
+ */
+final class JsonViews {
+
+    private JsonViews() {
+    }
+
+    static Map<String, Object> user(User user) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", user.getId());
+        view.put("username", user.getUsername());
+        view.put("email", user.getEmail() == null ? null : user.getEmailValue());
+        view.put("name", user.getName());
+        view.put("surname", user.getSurname());
+        view.put("role", user.getRole());
+        view.put("fidelityPoints", user.getFidelityPoints());
+        return view;
+    }
+
+    static Map<String, Object> session(SessionStore.Session session) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("token", session.token());
+        view.put("user", user(session.user()));
+        return view;
+    }
+
+    static Map<String, Object> category(Category category) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", category.getId());
+        view.put("name", category.getName());
+        view.put("description", category.getDescription());
+        view.put("active", category.isActive());
+        return view;
+    }
+
+    static Map<String, Object> dish(Dish dish) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", dish.getId());
+        view.put("name", dish.getName());
+        view.put("description", dish.getDescription());
+        view.put("price", amount(dish.getPrice()));
+        view.put("categoryId", dish.getCategory() == null ? null : dish.getCategory().getId());
+        view.put("available", dish.isAvailable());
+        return view;
+    }
+
+    static List<Map<String, Object>> menu(Map<Category, List<Dish>> menu) {
+        List<Map<String, Object>> view = new ArrayList<>(menu.size());
+        for (Map.Entry<Category, List<Dish>> entry : menu.entrySet()) {
+            Map<String, Object> section = category(entry.getKey());
+            section.put("dishes", list(entry.getValue(), JsonViews::dish));
+            view.add(section);
+        }
+        return view;
+    }
+
+    static Map<String, Object> order(Order order) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", order.getId());
+        view.put("customerId", order.getCustomer() == null ? null : order.getCustomer().getId());
+        view.put("createdAt", order.getCreatedAt());
+        view.put("status", order.getStatus());
+        view.put("paymentMethod", order.getPaymentMethod());
+        view.put("total", amount(order.getTotalAmount()));
+        view.put("notes", order.getNotes());
+        return view;
+    }
+
+    static Map<String, Object> reservation(Reservation reservation) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", reservation.getId());
+        view.put("customerId", reservation.getCustomer() == null ? null : reservation.getCustomer().getId());
+        view.put("date", reservation.getReservDate());
+        view.put("slot", reservation.getTimeSlot() == null ? null : slot(reservation.getTimeSlot()));
+        view.put("guests", reservation.getNumberOfGuests());
+        view.put("status", reservation.getStatus());
+        view.put("notes", reservation.getNotes());
+        view.put("tables", list(reservation.getTables(), JsonViews::assignment));
+        return view;
+    }
+
+    static Map<String, Object> bookingOutcome(ReservationService.BookingOutcome outcome) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("index", outcome.index());
+        view.put("status", outcome.booked() ? "BOOKED" : "REJECTED");
+        if (outcome.booked()) {
+            view.put("reservation", reservation(outcome.reservation()));
+        } else {
+            view.put("error", outcome.error());
+        }
+        return view;
+    }
+
+    static Map<String, Object> table(Table table) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", table.getId());
+        view.put("number", table.getNumber());
+        view.put("seats", table.getSeats());
+        view.put("available", table.isAvailable());
+        view.put("joinable", table.isJoinable());
+        view.put("location", table.getLocation());
+        return view;
+    }
+
+    static Map<String, Object> slot(Slot slot) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", slot.getId());
+        view.put("start", slot.getStartTime());
+        view.put("end", slot.getEndTime());
+        view.put("closed", slot.isClosed());
+        return view;
+    }
+
+    static Map<String, Object> notification(Notification notification) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", notification.getId());
+        view.put("message", notification.getMessage());
+        view.put("type", notification.getType());
+        view.put("status", notification.getStatus());
+        view.put("createdAt", notification.getCreatedAt());
+        view.put("readAt", notification.getReadAt());
+        return view;
+    }
+
+    static <T> List<Object> list(Collection<T> items, Function<T, ?> view) {
+        List<Object> result = new ArrayList<>(items == null ? 0 : items.size());
+        if (items != null) {
+            for (T item : items) {
+                result.add(view.apply(item));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Object> assignment(MergeTable assignment) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        Table table = assignment.getTable();
+        view.put("tableId", table == null ? null : table.getId());
+        view.put("number", table == null ? null : table.getNumber());
+        view.put("seatsAssigned", assignment.getSeatsAssigned());
+        return view;
+    }
+
+    private static Object amount(Money money) {
+        return money == null ? null : money.getAmount();
+    }
+}
@@ -0,0 +1,23 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+
+import java.util.List;
+
+/**
+ * Strategia di scelta dei tavoli da assegnare a una prenotazione.
+ * Obiettivo comune: minor numero di tavoli, a parità il minor spreco di posti.
+ * Un tavolo singolo può sempre essere usato da solo; l'unione è ammessa solo
+ * tra tavoli joinable e ogni giunzione fa perdere {@link #SEATS_LOST_PER_JOIN} posti.
+ */
+public interface AllocationEngine {
+
+    int SEATS_LOST_PER_JOIN = 2;
+
+    /**
+     * @param candidates tavoli già filtrati come disponibili
+     * @param guests     numero di ospiti (> 0)
+     * @return la combinazione migliore, nell'ordine dei candidati, oppure null se non esiste
+     */
+    List<Table> findBestCombination(List<Table> candidates, int guests);
+}
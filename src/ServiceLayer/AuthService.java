@@ -4,17 +4,38 @@ import DomainModel.user.User;
 import DomainModel.user.Role;
 import DomainModel.valueObject.Email;
 import ORM.UserDAO;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.sql.SQLException;
 import java.util.Optional;
-
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Autenticazione e gestione password. Gli hash BCrypt sono calcolati da {@link PasswordHasher}
+ * su un pool dedicato; a pool saturo i metodi lanciano RejectedExecutionException.
+ * Un login può aprire una sessione in {@link SessionStore}: le richieste successive
+ * presentano il token e non rileggono l'utente dal DB né ricalcolano l'hash.
+ */
 public class AuthService {
 
     private final UserDAO userDAO;
+    private final PasswordHasher passwordHasher;
+    private final SessionStore sessionStore;
 
     public AuthService(UserDAO userDAO) {
+        this(userDAO, new PasswordHasher());
+    }
+
+    public AuthService(UserDAO userDAO, PasswordHasher passwordHasher) {
+        this(userDAO, passwordHasher, new SessionStore());
+    }
+
+    public AuthService(UserDAO userDAO, PasswordHasher passwordHasher, SessionStore sessionStore) {
+        if (passwordHasher == null || sessionStore == null) {
+            throw new IllegalArgumentException("Password hasher and session store are required");
+        }
         this.userDAO = userDAO;
+        this.passwordHasher = passwordHasher;
+        this.sessionStore = sessionStore;
     }
 
     public Optional<User> authenticate(String email, String rawPassword) throws SQLException {
@@ -34,9 +55,12 @@ public class AuthService {
         User user = maybeUser.get();
 
         // 2. verifico la password
-        if (!BCrypt.checkpw(rawPassword, user.getPasswordHash()))
+        if (!passwordHasher.verify(rawPassword, user.getPasswordHash()))
             return Optional.empty();
 
+        if (passwordHasher.needsRehash(user.getPasswordHash()))
+            rehash(user, rawPassword);
+
         // 3. qui l'utente è autenticato
         // Il ruolo (CLIENT / STAFF / OWNER) può stare:
         //  - o in user.getRole() (enum Role)
@@ -44,6 +68,21 @@ public class AuthService {
         return Optional.of(user);
     }
 
+    /** Autentica e apre una sessione; vuoto se le credenziali non sono valide. */
+    public Optional<SessionStore.Session> openSession(String email, String rawPassword) throws SQLException {
+        return authenticate(email, rawPassword)
+                .map(user -> new SessionStore.Session(sessionStore.open(user), user));
+    }
+
+    /** Utente della sessione, senza accesso al DB; vuoto se il token non è valido o è scaduto. */
+    public Optional<User> resolveSession(String token) {
+        return sessionStore.resolve(token);
+    }
+
+    public void closeSession(String token) {
+        sessionStore.close(token);
+    }
+
 
      // Esempio di metodo di registrazione di un nuovo client (opzionale).
     public User registerClient(String username,
@@ -72,7 +111,7 @@ public class AuthService {
         Email emailVO = new Email(email); // se formato errato, lancia IllegalArgumentException
 
         // Hash della password con BCrypt
-        String hashedPassword = BCrypt.hashpw(rawPassword, BCrypt.gensalt());
+        String hashedPassword = passwordHasher.hash(rawPassword);
 
         // Creo l'utente di dominio
         User newUser = new User(
@@ -96,10 +135,11 @@ public class AuthService {
         if (newRawPassword == null || newRawPassword.isBlank()) {
             throw new IllegalArgumentException("New password cannot be empty");
         }
-        String hashedPassword = BCrypt.hashpw(newRawPassword, BCrypt.gensalt());
+        String hashedPassword = passwordHasher.hash(newRawPassword);
+        userDAO.updatePasswordHash(user.getId(), hashedPassword);
         user.setPasswordHash(hashedPassword);
-
-        userDAO.updateUser(user);
+        // le sessioni aperte con la vecchia password non restano valide
+        sessionStore.invalidateUser(user.getId());
     }
 
     public void resetPasswordByEmail(String email, String newRawPassword) throws SQLException {
@@ -115,4 +155,20 @@ public class AuthService {
 
         changePassword(user, newRawPassword);
     }
-}
\ No newline at end of file
+
+    /**
+     * Ricalcola l'hash con il costo configurato, usando la password appena verificata.
+     * Il login riesce comunque: se il pool è saturo o il salvataggio fallisce si riprova al login successivo.
+     */
+    private void rehash(User user, String rawPassword) {
+        String oldHash = user.getPasswordHash();
+        try {
+            String newHash = passwordHasher.hash(rawPassword);
+            if (userDAO.updatePasswordHash(user.getId(), oldHash, newHash)) {
+                user.setPasswordHash(newHash);
+            }
+        } catch (SQLException | RejectedExecutionException e) {
+            System.err.println("Password rehash skipped for user " + user.getId() + ": " + e.getMessage());
+        }
+    }
+}
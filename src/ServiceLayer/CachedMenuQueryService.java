@@ -0,0 +1,238 @@
+package ServiceLayer;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import ORM.CategoryDAO;
+import ORM.DishDAO;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MenuQueryService con uno snapshot immutabile del menu in memoria.
+ *
+ * Le letture usano lo snapshot corrente senza lock e senza accedere al database
+ * (solo il primo caricamento, o quello dopo una ricostruzione fallita, è un miss).
+ * Ogni modifica notificata da {@link OwnerAdminService} incrementa la versione e
+ * ricostruisce lo snapshot, che sostituisce il precedente con uno swap atomico:
+ * fino ad allora i lettori continuano a vedere la versione precedente.
+ * Gli oggetti Dish/Category restituiti sono condivisi: vanno trattati in sola lettura.
+ */
+public class CachedMenuQueryService extends MenuQueryService implements MenuChangeListener {
+
+    private final DishDAO dishDAO;
+    private final CategoryDAO categoryDAO;
+    private final AtomicReference<MenuSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    private final Object rebuildLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder rebuildNanos = new LongAdder();
+    private volatile long lastRebuildNanos;
+
+    public CachedMenuQueryService(DishDAO dishDAO, CategoryDAO categoryDAO) {
+        this(dishDAO, categoryDAO, null);
+    }
+
+    public CachedMenuQueryService(DishDAO dishDAO, CategoryDAO categoryDAO, DishSearchIndex searchIndex) {
+        super(dishDAO, categoryDAO, searchIndex);
+        this.dishDAO = dishDAO;
+        this.categoryDAO = categoryDAO;
+    }
+
+    @Override
+    public Map<Category, List<Dish>> buildMenu(boolean onlyActiveCategories,
+                                               boolean onlyAvailableDishes) throws SQLException {
+        return current().menu(onlyActiveCategories, onlyAvailableDishes);
+    }
+
+    @Override
+    public List<Category> listCategories(boolean onlyActive) throws SQLException {
+        MenuSnapshot menu = current();
+        return onlyActive ? menu.activeCategories : menu.categories;
+    }
+
+    @Override
+    public List<Dish> listDishesByCategory(int categoryId, boolean onlyAvailable) throws SQLException {
+        MenuSnapshot menu = current();
+        Map<Integer, List<Dish>> byCategory = onlyAvailable ? menu.availableByCategory : menu.dishesByCategory;
+        return byCategory.getOrDefault(categoryId, List.of());
+    }
+
+    @Override
+    public List<Dish> listAllDishes(boolean onlyAvailable) throws SQLException {
+        MenuSnapshot menu = current();
+        return onlyAvailable ? menu.availableDishes : menu.dishes;
+    }
+
+    @Override
+    public Optional<Dish> findDishById(int dishId) throws SQLException {
+        return Optional.ofNullable(current().dishesById.get(dishId));
+    }
+
+    /**
+     * Invalida lo snapshot corrente e ne costruisce uno nuovo.
+     * Se la ricostruzione fallisce lo snapshot viene scartato e ricaricato alla prossima lettura.
+     */
+    @Override
+    public void onMenuChanged() {
+        long target = version.incrementAndGet();
+        try {
+            rebuild(target);
+        } catch (SQLException e) {
+            snapshot.set(null);
+            System.err.println("Failed to rebuild menu snapshot: " + e.getMessage());
+        }
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Stats getStats() {
+        long count = rebuilds.sum();
+        return new Stats(
+                version.get(),
+                hits.sum(),
+                misses.sum(),
+                count,
+                count == 0 ? 0 : rebuildNanos.sum() / count / 1_000,
+                lastRebuildNanos / 1_000);
+    }
+
+    private MenuSnapshot current() throws SQLException {
+        MenuSnapshot menu = snapshot.get();
+        if (menu != null) {
+            hits.increment();
+            return menu;
+        }
+        misses.increment();
+        return rebuild(version.get());
+    }
+
+    private MenuSnapshot rebuild(long targetVersion) throws SQLException {
+        synchronized (rebuildLock) {
+            MenuSnapshot existing = snapshot.get();
+            if (existing != null && existing.version >= targetVersion) {
+                return existing;
+            }
+
+            long start = System.nanoTime();
+            long loadedVersion = version.get();
+            MenuSnapshot rebuilt = new MenuSnapshot(loadedVersion,
+                    categoryDAO.getAllCategories(), dishDAO.getAllDishes());
+            long elapsed = System.nanoTime() - start;
+
+            snapshot.set(rebuilt);
+            rebuilds.increment();
+            rebuildNanos.add(elapsed);
+            lastRebuildNanos = elapsed;
+            return rebuilt;
+        }
+    }
+
+    /**
+     * Contatori della cache; i tempi di ricostruzione sono in microsecondi.
+     */
+    public record Stats(long version,
+                        long hits,
+                        long misses,
+                        long rebuilds,
+                        long averageRebuildMicros,
+                        long lastRebuildMicros) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    private static final class MenuSnapshot {
+        private final long version;
+        private final List<Category> categories;
+        private final List<Category> activeCategories;
+        private final List<Dish> dishes;
+        private final List<Dish> availableDishes;
+        private final Map<Integer, Dish> dishesById;
+        private final Map<Integer, List<Dish>> dishesByCategory;
+        private final Map<Integer, List<Dish>> availableByCategory;
+        private final Map<Category, List<Dish>> fullMenu;
+        private final Map<Category, List<Dish>> availableMenu;
+        private final Map<Category, List<Dish>> activeMenu;
+        private final Map<Category, List<Dish>> activeAvailableMenu;
+
+        private MenuSnapshot(long version, List<Category> categories, List<Dish> dishes) {
+            this.version = version;
+
+            Map<Integer, Category> categoriesById = new HashMap<>();
+            for (Category category : categories) {
+                categoriesById.put(category.getId(), category);
+            }
+
+            Map<Integer, Dish> byId = new HashMap<>();
+            Map<Integer, List<Dish>> byCategory = new HashMap<>();
+            Map<Integer, List<Dish>> availableInCategory = new HashMap<>();
+            List<Dish> available = new ArrayList<>();
+            for (Dish dish : dishes) {
+                Category category = dish.getCategory() == null ? null
+                        : categoriesById.get(dish.getCategory().getId());
+                if (category != null) {
+                    dish.setCategory(category);
+                    byCategory.computeIfAbsent(category.getId(), id -> new ArrayList<>()).add(dish);
+                    if (dish.isAvailable()) {
+                        availableInCategory.computeIfAbsent(category.getId(), id -> new ArrayList<>()).add(dish);
+                    }
+                }
+                if (dish.isAvailable()) {
+                    available.add(dish);
+                }
+                byId.put(dish.getId(), dish);
+            }
+
+            this.categories = List.copyOf(categories);
+            this.activeCategories = categories.stream().filter(Category::isActive).toList();
+            this.dishes = List.copyOf(dishes);
+            this.availableDishes = List.copyOf(available);
+            this.dishesById = Map.copyOf(byId);
+            this.dishesByCategory = immutableGroups(byCategory);
+            this.availableByCategory = immutableGroups(availableInCategory);
+            this.fullMenu = menuOf(this.categories, dishesByCategory);
+            this.availableMenu = menuOf(this.categories, availableByCategory);
+            this.activeMenu = menuOf(activeCategories, dishesByCategory);
+            this.activeAvailableMenu = menuOf(activeCategories, availableByCategory);
+        }
+
+        private Map<Category, List<Dish>> menu(boolean onlyActiveCategories, boolean onlyAvailableDishes) {
+            if (onlyActiveCategories) {
+                return onlyAvailableDishes ? activeAvailableMenu : activeMenu;
+            }
+            return onlyAvailableDishes ? availableMenu : fullMenu;
+        }
+
+        private static Map<Integer, List<Dish>> immutableGroups(Map<Integer, List<Dish>> groups) {
+            Map<Integer, List<Dish>> copy = new HashMap<>();
+            groups.forEach((categoryId, dishes) -> copy.put(categoryId, List.copyOf(dishes)));
+            return Map.copyOf(copy);
+        }
+
+        private static Map<Category, List<Dish>> menuOf(List<Category> categories,
+                                                        Map<Integer, List<Dish>> dishesByCategory) {
+            Map<Category, List<Dish>> menu = new LinkedHashMap<>();
+            for (Category category : categories) {
+                menu.put(category, dishesByCategory.getOrDefault(category.getId(), List.of()));
+            }
+            return Collections.unmodifiableMap(menu);
+        }
+    }
+}
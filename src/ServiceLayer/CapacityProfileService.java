@@ -0,0 +1,352 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+import ORM.TableDAO;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Profili di capienza precalcolati per la disposizione corrente dei tavoli.
+ *
+ * Per ogni gruppo da 1 al massimo ospitabile si calcolano una volta sola le combinazioni
+ * ammesse dalle regole di {@link TableAllocationService} (tavolo singolo, oppure unione minima
+ * di tavoli unibili con 2 posti persi per giunzione), come numero di tavoli per tipo
+ * (posti, unibile) e ordinate per tavoli usati e posti sprecati. Ogni livello (numero di tavoli)
+ * è elencato per intero, quindi la prima combinazione coperta dai tavoli liberi è la migliore;
+ * se nessuna lo è si ripiega sulla ricerca completa.
+ * Il profilo si ricalcola solo quando {@link OwnerAdminService} modifica i tavoli.
+ */
+public class CapacityProfileService implements TableLayoutListener {
+
+    /** Combinazioni al più per gruppo: oltre si smette dopo il livello in corso. */
+    static final int MAX_OPTIONS = 32;
+    /** Livelli oltre il minimo numero di tavoli, per quando i tavoli migliori sono occupati. */
+    static final int EXTRA_LEVELS = 1;
+    /** Combinazioni esaminate al più per livello: un livello troppo ampio non viene elencato. */
+    static final int MAX_LEVEL_WORK = 10_000;
+
+    private static final Comparator<Option> BY_COST =
+            Comparator.comparingInt(Option::tables).thenComparingInt(Option::waste);
+
+    private final TableDAO tableDAO;
+    private final AtomicReference<CapacityProfile> profile = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    private final Object rebuildLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile long lastRebuildNanos;
+
+    public CapacityProfileService(TableDAO tableDAO) {
+        this.tableDAO = tableDAO;
+    }
+
+    /** Profilo della disposizione corrente; caricato al primo accesso. */
+    public CapacityProfile current() throws SQLException {
+        CapacityProfile current = profile.get();
+        return current != null ? current : rebuild(version.get());
+    }
+
+    /**
+     * Sceglie i tavoli partendo dalle combinazioni precalcolate; se il profilo non basta
+     * a decidere la ricerca è delegata a {@code fallback}.
+     * @param free tavoli liberi per la data e la fascia
+     * @return la combinazione migliore oppure null se non esiste
+     */
+    public List<Table> findCombination(List<Table> free, int guests,
+                                       TableAllocationService fallback) throws SQLException {
+        return findCombination(free, guests, () -> fallback.findBestCombination(free, guests));
+    }
+
+    /** Come sopra; la ricerca completa usa la cache per data e fascia di {@code fallback}. */
+    public List<Table> findCombination(TableAvailabilityIndex.FreeTables free, int guests,
+                                       TableAllocationService fallback) throws SQLException {
+        return findCombination(free.tables(), guests, () -> fallback.findBestCombination(free, guests));
+    }
+
+    private List<Table> findCombination(List<Table> free, int guests,
+                                        Supplier<List<Table>> fallback) throws SQLException {
+        CapacityProfile current = current();
+        if (guests > 0 && guests > current.maxPartySize()) {
+            hits.increment();
+            return null;
+        }
+        List<Table> combination = current.candidate(free, guests);
+        if (combination != null) {
+            hits.increment();
+            return combination;
+        }
+        fallbacks.increment();
+        return fallback.get();
+    }
+
+    @Override
+    public void onTableLayoutChanged() {
+        long target = version.incrementAndGet();
+        try {
+            rebuild(target);
+        } catch (SQLException e) {
+            profile.set(null);
+            System.err.println("Failed to rebuild capacity profile: " + e.getMessage());
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(rebuilds.sum(), lastRebuildNanos / 1_000, hits.sum(), fallbacks.sum());
+    }
+
+    private CapacityProfile rebuild(long targetVersion) throws SQLException {
+        synchronized (rebuildLock) {
+            CapacityProfile existing = profile.get();
+            if (existing != null && existing.version >= targetVersion) {
+                return existing;
+            }
+
+            long start = System.nanoTime();
+            long loadedVersion = version.get();
+            List<Table> layout = tableDAO.getAllTables().stream()
+                    .filter(Table::isAvailable)
+                    .toList();
+            CapacityProfile rebuilt = new CapacityProfile(loadedVersion, layout);
+            lastRebuildNanos = System.nanoTime() - start;
+
+            profile.set(rebuilt);
+            rebuilds.increment();
+            return rebuilt;
+        }
+    }
+
+    /**
+     * Snapshot immutabile di una disposizione: tipi di tavolo e combinazioni per ogni gruppo.
+     */
+    public static final class CapacityProfile {
+
+        private final long version;
+        private final int tables;
+        private final int maxSingleTable;
+        private final int maxPartySize;
+        private final Map<TypeKey, Integer> typeIndex = new LinkedHashMap<>();
+        private final List<List<Option>> optionsBySize = new ArrayList<>();
+
+        CapacityProfile(long version, List<Table> layout) {
+            this.version = version;
+            this.tables = layout.size();
+
+            List<Integer> counts = new ArrayList<>();
+            List<TypeKey> types = new ArrayList<>();
+            int largest = 0;
+            for (Table table : layout) {
+                TypeKey key = new TypeKey(table.getSeats(), table.isJoinable());
+                Integer index = typeIndex.get(key);
+                if (index == null) {
+                    typeIndex.put(key, types.size());
+                    types.add(key);
+                    counts.add(1);
+                } else {
+                    counts.set(index, counts.get(index) + 1);
+                }
+                largest = Math.max(largest, table.getSeats());
+            }
+            this.maxSingleTable = largest;
+
+            // tipi unibili dal più capiente, per le unioni
+            List<Integer> joinable = new ArrayList<>();
+            for (int t = 0; t < types.size(); t++) {
+                if (types.get(t).joinable()) {
+                    joinable.add(t);
+                }
+            }
+            joinable.sort((a, b) -> Integer.compare(types.get(b).seats(), types.get(a).seats()));
+            List<Integer> topSeats = new ArrayList<>();
+            for (int t : joinable) {
+                for (int n = 0; n < counts.get(t); n++) {
+                    topSeats.add(types.get(t).seats());
+                }
+            }
+
+            // unione dei k unibili più capienti: il gruppo più numeroso ospitabile con k tavoli
+            int[] topSum = new int[topSeats.size() + 1];
+            int bestUnion = 0;
+            for (int k = 1; k <= topSeats.size(); k++) {
+                topSum[k] = topSum[k - 1] + topSeats.get(k - 1);
+                if (k >= 2) {
+                    bestUnion = Math.max(bestUnion, topSum[k] - AllocationEngine.SEATS_LOST_PER_JOIN * (k - 1));
+                }
+            }
+            this.maxPartySize = Math.max(largest, bestUnion);
+
+            int[] typeCounts = counts.stream().mapToInt(Integer::intValue).toArray();
+            optionsBySize.add(List.of());
+            int minTables = 2;
+            for (int guests = 1; guests <= maxPartySize; guests++) {
+                while (minTables <= topSeats.size()
+                        && topSum[minTables] < guests + AllocationEngine.SEATS_LOST_PER_JOIN * (minTables - 1)) {
+                    minTables++;
+                }
+                optionsBySize.add(options(types, typeCounts, joinable, guests, minTables));
+            }
+        }
+
+        /** Il gruppo più numeroso che la sala può ospitare, anche unendo tavoli (0 senza tavoli). */
+        public int maxPartySize() {
+            return maxPartySize;
+        }
+
+        /** Il gruppo più numeroso che sta a un solo tavolo. */
+        public int maxSingleTable() {
+            return maxSingleTable;
+        }
+
+        public int tables() {
+            return tables;
+        }
+
+        /** Numero minimo di tavoli per il gruppo con la sala libera, -1 se non è ospitabile. */
+        public int minTables(int guests) {
+            if (guests <= 0 || guests > maxPartySize || optionsBySize.get(guests).isEmpty()) {
+                return -1;
+            }
+            return optionsBySize.get(guests).get(0).tables();
+        }
+
+        /**
+         * Prima combinazione precalcolata coperta dai tavoli liberi, nell'ordine dei liberi.
+         * @return null se nessuna lo è o se i liberi contengono tavoli sconosciuti al profilo
+         */
+        List<Table> candidate(List<Table> free, int guests) {
+            if (free == null || guests <= 0 || guests > maxPartySize) {
+                return null;
+            }
+            List<List<Table>> byType = new ArrayList<>(typeIndex.size());
+            for (int t = 0; t < typeIndex.size(); t++) {
+                byType.add(new ArrayList<>());
+            }
+            for (Table table : free) {
+                if (!table.isAvailable()) {
+                    continue;
+                }
+                Integer index = typeIndex.get(new TypeKey(table.getSeats(), table.isJoinable()));
+                if (index == null) {
+                    return null; // disposizione cambiata dopo il calcolo del profilo
+                }
+                byType.get(index).add(table);
+            }
+
+            for (Option option : optionsBySize.get(guests)) {
+                if (!covers(byType, option.use())) {
+                    continue;
+                }
+                Set<Table> chosen = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (int t = 0; t < option.use().length; t++) {
+                    chosen.addAll(byType.get(t).subList(0, option.use()[t]));
+                }
+                return free.stream().filter(chosen::contains).toList();
+            }
+            return null;
+        }
+
+        private static boolean covers(List<List<Table>> byType, int[] use) {
+            for (int t = 0; t < use.length; t++) {
+                if (use[t] > byType.get(t).size()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Tavoli singoli e unioni minime da minTables a minTables + EXTRA_LEVELS tavoli.
+         * Un livello interrotto da MAX_LEVEL_WORK viene scartato per intero.
+         */
+        private static List<Option> options(List<TypeKey> types, int[] counts, List<Integer> joinable,
+                                            int guests, int minTables) {
+            List<Option> options = new ArrayList<>();
+            for (int t = 0; t < types.size(); t++) {
+                if (types.get(t).seats() >= guests) {
+                    int[] use = new int[types.size()];
+                    use[t] = 1;
+                    options.add(new Option(use, 1, types.get(t).seats() - guests));
+                }
+            }
+
+            int available = 0;
+            for (int t : joinable) {
+                available += counts[t];
+            }
+            int lastLevel = Math.min(available, minTables + EXTRA_LEVELS);
+            for (int k = minTables; k <= lastLevel && options.size() < MAX_OPTIONS; k++) {
+                List<Option> level = new ArrayList<>();
+                int[] work = {0};
+                if (!unions(types, counts, joinable, guests, k, 0, new int[types.size()], 0, 0, level, work)) {
+                    break;
+                }
+                options.addAll(level);
+            }
+
+            options.sort(BY_COST);
+            return List.copyOf(options);
+        }
+
+        /** Tutte le unioni minime di esattamente k tavoli; false se il livello supera MAX_LEVEL_WORK. */
+        private static boolean unions(List<TypeKey> types, int[] counts, List<Integer> joinable, int guests,
+                                      int k, int from, int[] use, int tables, int seats,
+                                      List<Option> out, int[] work) {
+            if (++work[0] > MAX_LEVEL_WORK) {
+                return false;
+            }
+            int required = guests + AllocationEngine.SEATS_LOST_PER_JOIN * (k - 1);
+            if (tables == k) {
+                // l'ultimo tipo scelto è il più piccolo: senza quel tavolo non deve bastare
+                int smallest = types.get(joinable.get(from)).seats();
+                if (seats >= required && seats - smallest - AllocationEngine.SEATS_LOST_PER_JOIN * (k - 2) < guests) {
+                    out.add(new Option(use.clone(), k, seats - required));
+                }
+                return true;
+            }
+            for (int j = from; j < joinable.size(); j++) {
+                int t = joinable.get(j);
+                int size = types.get(t).seats();
+                if (seats + (k - tables) * size < required) {
+                    return true; // i tipi successivi sono più piccoli
+                }
+                if (use[t] >= counts[t]) {
+                    continue;
+                }
+                use[t]++;
+                boolean completed = unions(types, counts, joinable, guests, k, j, use, tables + 1, seats + size,
+                        out, work);
+                use[t]--;
+                if (!completed) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * rebuilds: ricalcoli del profilo, l'ultimo in microsecondi;
+     * hits/fallbacks: richieste decise dal profilo o passate alla ricerca completa.
+     */
+    public record Stats(long rebuilds, long lastRebuildMicros, long hits, long fallbacks) {
+    }
+
+    private record TypeKey(int seats, boolean joinable) {
+    }
+
+    private record Option(int[] use, int tables, int waste) {
+    }
+}
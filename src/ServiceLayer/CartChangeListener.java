@@ -0,0 +1,12 @@
+package ServiceLayer;
+
+/**
+ * Notificato da {@link CartService} dopo ogni modifica al carrello di un utente,
+ * compreso lo svuotamento (la scadenza per inattività non viene notificata).
+ * Viene chiamato fuori dal lock del carrello: lo stato aggiornato va riletto dal service.
+ */
+@FunctionalInterface
+public interface CartChangeListener {
+
+    void onCartChanged(int userId);
+}
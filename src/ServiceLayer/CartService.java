@@ -2,20 +2,80 @@ package ServiceLayer;
 
 import DomainModel.menu.Dish;
 import DomainModel.order.OrderItem;
+import DomainModel.order.SavedCart;
 import DomainModel.user.User;
 import DomainModel.valueObject.Money;
 
-import java.util.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 /**
  * Gestisce il carrello di ciascun utente.
- * Il carrello è mantenuto in memoria (Map<userId, List<OrderItem>>),
- * non viene salvato a DB.
+ * Il carrello è mantenuto in memoria (userId -> dishId -> riga); la copia su DB, se attiva,
+ * è scritta in differita da {@link CartWriteBehind} a partire dalle notifiche di modifica.
+ *
+ * Thread-safe: le operazioni su un carrello sono serializzate da un lock scelto in base
+ * all'utente fra un numero fisso di lock (lock striping), quindi utenti su lock diversi
+ * non si bloccano a vicenda. Il totale è aggiornato a ogni modifica invece di essere
+ * ricalcolato. Un carrello non toccato per idleTimeoutMs scade: alla lettura risulta
+ * vuoto e viene rimosso dalla memoria al primo passaggio di pulizia.
  */
 public class CartService {
 
-    // carrelli: userId -> lista di OrderItem
-    private final Map<Integer, List<OrderItem>> carts = new HashMap<>();
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final long idleTimeoutNanos;
+    private final Object[] stripes;
+    private final ConcurrentMap<Integer, Cart> carts = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos;
+    private final LongAdder evicted = new LongAdder();
+    private final List<CartChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    public CartService() {
+        this(Settings.defaults());
+    }
+
+    public CartService(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    CartService(Settings settings, LongSupplier nanoClock) {
+        if (settings == null || nanoClock == null) {
+            throw new IllegalArgumentException("Cart settings and clock are required");
+        }
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMs());
+        this.stripes = new Object[settings.stripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        this.nextSweepNanos = new AtomicLong(nanoClock.getAsLong() + idleTimeoutNanos);
+    }
+
+    public void addCartChangeListener(CartChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener is required");
+        }
+        changeListeners.add(listener);
+    }
+
+    public void removeCartChangeListener(CartChangeListener listener) {
+        changeListeners.remove(listener);
+    }
 
     // ----------------------------------------------------------------
     // Metodi pubblici richiesti dall'UML
@@ -23,33 +83,34 @@ public class CartService {
 
     /**
      * Aggiunge un piatto al carrello dell'utente.
-     * Se il piatto è già presente, incrementa la quantità.
+     * Se il piatto è già presente, incrementa la quantità (al prezzo della prima aggiunta).
      */
     public void addDishToCart(User user, Dish dish, int quantity){
         if (user == null) throw new IllegalArgumentException("User cannot be null");
         if (dish == null) throw new IllegalArgumentException("Dish cannot be null");
         if (quantity <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        if (dish.getPrice() == null) throw new IllegalArgumentException("Dish price cannot be null");
 
-        List<OrderItem> cart = carts.computeIfAbsent(user.getId(), id -> new ArrayList<>());
-
-        // se esiste già un item per quel piatto, aggiorno la quantità
-        for (OrderItem item : cart) {
-            if (item.getDish().getId() == dish.getId()) {
-                item.setQuantity(item.getQuantity() + quantity);
-                return;
+        long now = nanoClock.getAsLong();
+        synchronized (stripeFor(user.getId())) {
+            Cart cart = activeCart(user.getId(), now, true);
+            Line line = cart.lines.get(dish.getId());
+            if (line == null) {
+                line = new Line(dish, dish.getPrice());
+                cart.lines.put(dish.getId(), line);
             }
+            cart.setQuantity(line, Math.addExact(line.quantity, quantity));
         }
-
-        // altrimenti aggiungo nuovo OrderItem
-        cart.add(new OrderItem(dish, quantity));
+        fireCartChanged(user.getId());
+        maybeSweep(now);
     }
 
     /**
-     * Ritorna la lista di OrderItem nel carrello dell'utente.
+     * Ritorna una copia delle righe nel carrello dell'utente.
      */
     public List<OrderItem> getCartItems(User user) {
         if (user == null) throw new IllegalArgumentException("User cannot be null");
-        return List.copyOf(getOrCreateCart(user.getId()));
+        return snapshot(user.getId()).items();
     }
 
     /**
@@ -59,20 +120,21 @@ public class CartService {
     public void updateItemQuantity(User user, int dishId, int newQuantity) {
         if (user == null) throw new IllegalArgumentException("User cannot be null");
 
-        List<OrderItem> cart = getOrCreateCart(user.getId());
-
-        Iterator<OrderItem> it = cart.iterator();
-        while (it.hasNext()) {
-            OrderItem item = it.next();
-            if (item.getDish().getId() == dishId) {
-                if (newQuantity <= 0) {
-                    it.remove();
-                } else {
-                    item.setQuantity(newQuantity);
-                }
+        long now = nanoClock.getAsLong();
+        synchronized (stripeFor(user.getId())) {
+            Cart cart = activeCart(user.getId(), now, false);
+            Line line = cart == null ? null : cart.lines.get(dishId);
+            if (line == null) {
                 return;
             }
+            if (newQuantity <= 0) {
+                cart.remove(dishId);
+            } else {
+                cart.setQuantity(line, newQuantity);
+            }
         }
+        fireCartChanged(user.getId());
+        maybeSweep(now);
     }
 
     /**
@@ -81,8 +143,15 @@ public class CartService {
     public void removeItem(User user, int dishId) {
         if (user == null) throw new IllegalArgumentException("User cannot be null");
 
-        List<OrderItem> cart = getOrCreateCart(user.getId());
-        cart.removeIf(item -> item.getDish().getId() == dishId);
+        long now = nanoClock.getAsLong();
+        synchronized (stripeFor(user.getId())) {
+            Cart cart = activeCart(user.getId(), now, false);
+            if (cart == null || !cart.remove(dishId)) {
+                return;
+            }
+        }
+        fireCartChanged(user.getId());
+        maybeSweep(now);
     }
 
     /**
@@ -90,35 +159,35 @@ public class CartService {
      */
     public void clearCart(User user) {
         if (user == null) throw new IllegalArgumentException("User cannot be null");
-        carts.remove(user.getId());
+        synchronized (stripeFor(user.getId())) {
+            if (carts.remove(user.getId()) == null) {
+                return;
+            }
+        }
+        fireCartChanged(user.getId());
     }
 
     /**
-     * Calcola il totale del carrello.
+     * Totale del carrello, mantenuto a ogni modifica.
      */
     public Money getCartTotal(User user) {
         if (user == null) throw new IllegalArgumentException("User cannot be null");
-
-        List<OrderItem> cart = getOrCreateCart(user.getId());
-        Money total = new Money(0.0);
-        for (OrderItem item : cart) {
-            total = total.add(item.getTotalPrice());
-        }
-        return total;
+        return snapshot(user.getId()).total();
     }
 
     /**
      * Ritorna una stringa leggibile per CLI con il contenuto del carrello.
      */
     public String getCartSummary(User user) {
-        List<OrderItem> cart = getCartItems(user);
-        if (cart.isEmpty()) {
+        if (user == null) throw new IllegalArgumentException("User cannot be null");
+        CartSnapshot cart = snapshot(user.getId());
+        if (cart.items().isEmpty()) {
             return "Il carrello è vuoto.";
         }
 
         StringBuilder sb = new StringBuilder();
         sb.append("Carrello di ").append(user.getUsername()).append(":\n");
-        for (OrderItem item : cart) {
+        for (OrderItem item : cart.items()) {
             sb.append("- ")
                     .append(item.getDish().getId()).append(" | ")
                     .append(item.getDish().getName()).append(" x")
@@ -126,15 +195,222 @@ public class CartService {
                     .append(" = ").append(item.getTotalPrice())
                     .append("\n");
         }
-        sb.append("Totale: ").append(getCartTotal(user));
+        sb.append("Totale: ").append(cart.total());
         return sb.toString();
     }
 
+    /**
+     * Rimuove dalla memoria i carrelli scaduti; viene chiamato anche in automatico
+     * al più una volta ogni idleTimeoutMs durante le modifiche.
+     * @return numero di carrelli rimossi
+     */
+    public int evictIdleCarts() {
+        long now = nanoClock.getAsLong();
+        int removed = 0;
+        Iterator<Map.Entry<Integer, Cart>> it = carts.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Cart> entry = it.next();
+            synchronized (stripeFor(entry.getKey())) {
+                if (entry.getValue().isExpired(now, idleTimeoutNanos) && carts.remove(entry.getKey(), entry.getValue())) {
+                    removed++;
+                }
+            }
+        }
+        evicted.add(removed);
+        return removed;
+    }
+
+    public Stats getStats() {
+        return new Stats(carts.size(), evicted.sum());
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    // ----------------------------------------------------------------
+    // Persistenza (usati da CartWriteBehind)
+    // ----------------------------------------------------------------
+
+    /**
+     * Contenuto attuale del carrello per il salvataggio; vuoto se il carrello non c'è o è scaduto.
+     * Non conta come accesso ai fini della scadenza.
+     */
+    SavedCart savedCart(int userId) {
+        long now = nanoClock.getAsLong();
+        synchronized (stripeFor(userId)) {
+            Cart cart = carts.get(userId);
+            if (cart == null || cart.isExpired(now, idleTimeoutNanos)) {
+                return new SavedCart(userId, List.of(), LocalDateTime.now());
+            }
+            return new SavedCart(userId, cart.items(), toDateTime(cart.updatedAtMillis));
+        }
+    }
+
+    /**
+     * Rimette in memoria un carrello letto dal DB, mantenendone l'età ai fini della scadenza.
+     * Non sostituisce un carrello già presente e non notifica i listener.
+     * @return false se il carrello è vuoto, già scaduto o già presente
+     */
+    boolean restoreCart(SavedCart saved) {
+        long updatedAtMillis = saved.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long ageNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - updatedAtMillis));
+        if (saved.isEmpty() || ageNanos >= idleTimeoutNanos) {
+            return false;
+        }
+
+        synchronized (stripeFor(saved.getUserId())) {
+            if (carts.containsKey(saved.getUserId())) {
+                return false;
+            }
+            Cart cart = new Cart();
+            for (OrderItem item : saved.getItems()) {
+                Line line = cart.lines.computeIfAbsent(item.getDish().getId(),
+                        id -> new Line(item.getDish(), item.getUnitPrice()));
+                cart.setQuantity(line, Math.addExact(line.quantity, item.getQuantity()));
+            }
+            cart.lastAccessNanos = nanoClock.getAsLong() - ageNanos;
+            cart.updatedAtMillis = updatedAtMillis;
+            carts.put(saved.getUserId(), cart);
+            return true;
+        }
+    }
+
     // ----------------------------------------------------------------
     // Metodi di supporto
     // ----------------------------------------------------------------
 
-    private List<OrderItem> getOrCreateCart(int userId) {
-        return carts.computeIfAbsent(userId, id -> new ArrayList<>());
+    private CartSnapshot snapshot(int userId) {
+        long now = nanoClock.getAsLong();
+        synchronized (stripeFor(userId)) {
+            Cart cart = activeCart(userId, now, false);
+            if (cart == null) {
+                return new CartSnapshot(List.of(), Money.ZERO);
+            }
+            return new CartSnapshot(cart.items(), Money.ofCents(cart.totalCents));
+        }
+    }
+
+    /**
+     * Carrello non scaduto dell'utente; va chiamato tenendo il lock dell'utente.
+     * Un carrello scaduto viene scartato; con create=true ne viene creato uno nuovo.
+     */
+    private Cart activeCart(int userId, long now, boolean create) {
+        Cart cart = carts.get(userId);
+        if (cart != null && cart.isExpired(now, idleTimeoutNanos)) {
+            carts.remove(userId, cart);
+            evicted.increment();
+            cart = null;
+        }
+        if (cart == null) {
+            if (!create) {
+                return null;
+            }
+            cart = new Cart();
+            carts.put(userId, cart);
+        }
+        cart.lastAccessNanos = now;
+        return cart;
+    }
+
+    private void fireCartChanged(int userId) {
+        for (CartChangeListener listener : changeListeners) {
+            listener.onCartChanged(userId);
+        }
+    }
+
+    private void maybeSweep(long now) {
+        long next = nextSweepNanos.get();
+        if (now - next >= 0 && nextSweepNanos.compareAndSet(next, now + idleTimeoutNanos)) {
+            evictIdleCarts();
+        }
+    }
+
+    private Object stripeFor(int userId) {
+        // mescola i bit: id consecutivi finiscono su lock diversi anche con poche stripe
+        int hash = userId * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /** Stato di un carrello: va letto e modificato solo tenendo il lock del suo utente. */
+    private static final class Cart {
+        private final Map<Integer, Line> lines = new LinkedHashMap<>();
+        private long totalCents;
+        private long lastAccessNanos;
+        private long updatedAtMillis;
+
+        private void setQuantity(Line line, int quantity) {
+            long delta = Math.multiplyExact(line.unitPrice.getCents(), (long) quantity - line.quantity);
+            totalCents = Math.addExact(totalCents, delta);
+            line.quantity = quantity;
+            updatedAtMillis = System.currentTimeMillis();
+        }
+
+        private boolean remove(int dishId) {
+            Line line = lines.remove(dishId);
+            if (line == null) {
+                return false;
+            }
+            totalCents -= line.unitPrice.getCents() * line.quantity;
+            updatedAtMillis = System.currentTimeMillis();
+            return true;
+        }
+
+        private List<OrderItem> items() {
+            List<OrderItem> items = new ArrayList<>(lines.size());
+            for (Line line : lines.values()) {
+                OrderItem item = new OrderItem(line.dish, line.quantity);
+                item.setUnitPrice(line.unitPrice);
+                items.add(item);
+            }
+            return List.copyOf(items);
+        }
+
+        private boolean isExpired(long now, long idleTimeoutNanos) {
+            return now - lastAccessNanos >= idleTimeoutNanos;
+        }
+    }
+
+    private static final class Line {
+        private final Dish dish;
+        private final Money unitPrice;
+        private int quantity;
+
+        private Line(Dish dish, Money unitPrice) {
+            this.dish = dish;
+            this.unitPrice = unitPrice;
+        }
+    }
+
+    private record CartSnapshot(List<OrderItem> items, Money total) {
+    }
+
+    /**
+     * stripes: numero di lock (potenza di 2); idleTimeoutMs: inattività dopo cui il carrello scade.
+     */
+    public record Settings(int stripes, long idleTimeoutMs) {
+
+        public Settings {
+            if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+                throw new IllegalArgumentException("Cart stripes must be a power of two");
+            }
+            if (idleTimeoutMs <= 0) {
+                throw new IllegalArgumentException("Cart idle timeout must be > 0");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(64, TimeUnit.HOURS.toMillis(2));
+        }
+    }
+
+    /**
+     * carts: carrelli in memoria (anche scaduti non ancora rimossi); evicted: carrelli scaduti rimossi.
+     */
+    public record Stats(int carts, long evicted) {
     }
-}
\ No newline at end of file
+}
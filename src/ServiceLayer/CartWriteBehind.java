@@ -0,0 +1,237 @@
+package ServiceLayer;
+
+import DomainModel.order.SavedCart;
+import ORM.CartDAO;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Copia su DB dei carrelli di {@link CartService}, scritta in differita.
+ *
+ * Il carrello in memoria resta l'unica fonte di verità: una modifica segna solo l'utente
+ * come da salvare, e più modifiche allo stesso carrello prima del salvataggio diventano
+ * una sola scrittura. Un thread di scrittura raccoglie gli utenti segnati per al più
+ * flushIntervalMs, legge lo stato attuale dei loro carrelli e li salva in un'unica
+ * transazione; se il salvataggio fallisce gli utenti tornano da salvare.
+ * Il checkout non aspetta il DB: lo svuotamento del carrello segue la stessa strada, e
+ * all'avvio {@link #recover()} scarta i carrelli già superati da un ordine.
+ */
+public final class CartWriteBehind implements CartChangeListener, AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+    /** Accodato da close() per svegliare il writer in attesa; non è mai l'id di un utente. */
+    private static final int WAKE_UP = -1;
+
+    private final CartDAO cartDAO;
+    private final CartService cartService;
+    private final Settings settings;
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder changes = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public CartWriteBehind(CartDAO cartDAO, CartService cartService) {
+        this(cartDAO, cartService, Settings.defaults());
+    }
+
+    public CartWriteBehind(CartDAO cartDAO, CartService cartService, Settings settings) {
+        if (cartDAO == null || cartService == null || settings == null) {
+            throw new IllegalArgumentException("Cart DAO, cart service and settings are required");
+        }
+        this.cartDAO = cartDAO;
+        this.cartService = cartService;
+        this.settings = settings;
+
+        cartService.addCartChangeListener(this);
+        this.writer = new Thread(this::runWriter, "dineup-cart-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Ricarica in memoria i carrelli salvati, dopo aver cancellato quelli scaduti o
+     * superati da un ordine. Va chiamato all'avvio, prima di servire i clienti.
+     * @return numero di carrelli ripristinati
+     */
+    public int recover() throws SQLException {
+        Duration idleTimeout = Duration.ofMillis(cartService.getSettings().idleTimeoutMs());
+        cartDAO.deleteStaleCarts(LocalDateTime.now().minus(idleTimeout));
+
+        int restored = 0;
+        for (SavedCart saved : cartDAO.getAllCarts()) {
+            if (cartService.restoreCart(saved)) {
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    @Override
+    public void onCartChanged(int userId) {
+        changes.increment();
+        markDirty(userId);
+    }
+
+    private void markDirty(int userId) {
+        if (dirty.add(userId)) {
+            queue.add(userId);
+        }
+    }
+
+    // -------------------------------------------------------
+    // WRITER
+    // -------------------------------------------------------
+    private void runWriter() {
+        List<Integer> batch = new ArrayList<>(settings.batchSize());
+        try {
+            while (!closed) {
+                Integer first = queue.poll(settings.flushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null || first == WAKE_UP) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.flushIntervalMs()));
+                if (!write(batch)) {
+                    // database non raggiungibile: si riprova al giro successivo
+                    Thread.sleep(settings.flushIntervalMs());
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // i carrelli già raccolti vengono salvati qui sotto
+            Thread.currentThread().interrupt();
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void fillBatch(List<Integer> batch, long deadlineNanos) throws InterruptedException {
+        while (batch.size() < settings.batchSize()) {
+            drainTo(batch, settings.batchSize() - batch.size());
+            long remaining = deadlineNanos - System.nanoTime();
+            if (batch.size() >= settings.batchSize() || closed || remaining <= 0) {
+                return;
+            }
+            Integer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null || next == WAKE_UP) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Salva lo stato attuale dei carrelli indicati.
+     * L'utente esce da dirty prima della lettura: una modifica successiva lo rimette in coda.
+     */
+    private boolean write(List<Integer> userIds) {
+        List<SavedCart> carts = new ArrayList<>(userIds.size());
+        for (Integer userId : userIds) {
+            dirty.remove(userId);
+            carts.add(cartService.savedCart(userId));
+        }
+
+        try {
+            cartDAO.saveCarts(carts);
+            batches.increment();
+            written.add(carts.size());
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            failures.increment();
+            System.err.println("Failed to persist " + carts.size() + " carts, will retry: " + e.getMessage());
+            for (Integer userId : userIds) {
+                markDirty(userId);
+            }
+            return false;
+        }
+    }
+
+    private void flushAll() {
+        List<Integer> batch = new ArrayList<>(settings.batchSize());
+        while (drainTo(batch, settings.batchSize()) > 0) {
+            if (!batch.isEmpty() && !write(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    // come BlockingQueue.drainTo, ma scarta il segnale di risveglio
+    private int drainTo(List<Integer> batch, int max) {
+        int drained = queue.drainTo(batch, max);
+        if (drained > 0) {
+            batch.removeIf(userId -> userId == WAKE_UP);
+        }
+        return drained;
+    }
+
+    // -------------------------------------------------------
+    // SHUTDOWN / STATS
+    // -------------------------------------------------------
+
+    /** Smette di seguire le modifiche, ferma il writer e salva i carrelli ancora in attesa. */
+    @Override
+    public void close() {
+        cartService.removeCartChangeListener(this);
+        closed = true;
+        // niente interrupt: un salvataggio in corso (anche in attesa di una connessione)
+        // termina normalmente e il writer vede closed al giro successivo
+        queue.offer(WAKE_UP);
+        try {
+            writer.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            System.err.println("Cart writer still busy after " + CLOSE_TIMEOUT_MS + " ms");
+        } else {
+            flushAll();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(dirty.size(), changes.sum(), written.sum(), batches.sum(), failures.sum());
+    }
+
+    /**
+     * batchSize: carrelli salvati per transazione; flushIntervalMs: attesa massima prima del salvataggio.
+     */
+    public record Settings(int batchSize, long flushIntervalMs) {
+
+        public Settings {
+            if (batchSize <= 0 || flushIntervalMs <= 0) {
+                throw new IllegalArgumentException("Cart batch size and flush interval must be > 0");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(200, 500);
+        }
+    }
+
+    /**
+     * Istantanea dei contatori: changes conta le modifiche notificate, written i carrelli salvati.
+     */
+    public record Stats(int pending,
+                        long changes,
+                        long written,
+                        long batches,
+                        long failures) {
+    }
+}
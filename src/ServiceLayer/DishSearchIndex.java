@@ -0,0 +1,436 @@
+package ServiceLayer;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import ORM.CategoryDAO;
+import ORM.DishDAO;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Indice invertito in memoria per la ricerca dei piatti mentre il cliente digita.
+ *
+ * Indicizza nome, descrizione e nome della categoria, normalizzati in minuscolo e
+ * senza accenti. Ogni parola della query deve trovare almeno un termine del piatto:
+ * uguale o come prefisso; se non ne trova, entro una o due modifiche (refusi). I risultati sono
+ * ordinati per rilevanza, poi per nome; le query non accedono al database.
+ *
+ * Viene caricato al primo accesso da DishDAO/CategoryDAO e poi aggiornato piatto per
+ * piatto dagli eventi di {@link OwnerAdminService}; le modifiche alle categorie
+ * ricostruiscono l'intero indice.
+ */
+public class DishSearchIndex implements MenuChangeListener {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int NAME = 1;
+    private static final int CATEGORY = 2;
+    private static final int DESCRIPTION = 4;
+
+    private static final int EXACT = 4;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+
+    // sotto questa lunghezza una modifica cambia troppo la parola per essere un refuso
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int TWO_EDITS_LENGTH = 8;
+
+    private final DishDAO dishDAO;
+    private final CategoryDAO categoryDAO;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+
+    // protetti da lock; una volta caricato l'indice non torna mai null
+    private Postings postings;
+    private List<Consumer<Postings>> pendingChanges;
+    private boolean stale;
+
+    public DishSearchIndex(DishDAO dishDAO, CategoryDAO categoryDAO) {
+        this.dishDAO = dishDAO;
+        this.categoryDAO = categoryDAO;
+    }
+
+    /**
+     * Piatti che corrispondono a tutte le parole della query, dal più rilevante.
+     * @param limit numero massimo di risultati
+     */
+    public List<Dish> search(String query, boolean onlyAvailable, int limit) throws SQLException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Search limit must be > 0");
+        }
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (String token : new LinkedHashSet<>(tokens)) {
+                Map<Integer, Integer> matches = postings.match(token);
+                scores = (scores == null) ? matches : intersect(scores, matches);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            // selezione dei primi limit risultati con un heap: il peggiore è in testa
+            Comparator<Hit> byRelevance = Comparator.comparingInt(Hit::score)
+                    .thenComparing(Hit::name, Comparator.reverseOrder())
+                    .thenComparing(Hit::id, Comparator.reverseOrder());
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, byRelevance);
+            for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+                Dish dish = postings.dishes.get(entry.getKey());
+                if (onlyAvailable && !dish.isAvailable()) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(new Hit(entry.getValue(), dish.getName(), dish.getId(), dish));
+                } else if (entry.getValue() >= top.peek().score()) {
+                    top.add(new Hit(entry.getValue(), dish.getName(), dish.getId(), dish));
+                    top.poll();
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(byRelevance.reversed());
+            List<Dish> result = new ArrayList<>(ranked.size());
+            for (Hit hit : ranked) {
+                result.add(hit.dish());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings == null ? 0 : postings.dishes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -------------------------------------------------------
+    // AGGIORNAMENTI
+    // -------------------------------------------------------
+
+    @Override
+    public void onMenuChanged() {
+        try {
+            rebuild();
+        } catch (SQLException e) {
+            lock.writeLock().lock();
+            try {
+                stale = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            System.err.println("Failed to rebuild dish search index: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onDishSaved(Dish dish) {
+        apply(postings -> postings.put(dish));
+    }
+
+    @Override
+    public void onDishDeleted(int dishId) {
+        apply(postings -> postings.remove(dishId));
+    }
+
+    /** Ricarica piatti e categorie dal database e sostituisce l'indice corrente. */
+    public void rebuild() throws SQLException {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                // le modifiche che arrivano durante il caricamento vengono riapplicate dopo
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Postings rebuilt = null;
+            try {
+                rebuilt = new Postings(categoryDAO.getAllCategories(), dishDAO.getAllDishes());
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (rebuilt != null) {
+                        for (Consumer<Postings> change : pendingChanges) {
+                            change.accept(rebuilt);
+                        }
+                        postings = rebuilt;
+                        stale = false;
+                    }
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /** Sostituisce l'indice con il catalogo indicato, senza accedere al database. */
+    void load(List<Category> categories, List<Dish> dishes) {
+        Postings loaded = new Postings(categories, dishes);
+        lock.writeLock().lock();
+        try {
+            postings = loaded;
+            stale = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Carica l'indice se manca o se l'ultima ricostruzione è fallita; in quel caso,
+     * se il database non risponde, continua a servire l'indice precedente.
+     */
+    private void ensureLoaded() throws SQLException {
+        if (isCurrent()) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            if (isCurrent()) {
+                return;
+            }
+            try {
+                rebuild();
+            } catch (SQLException e) {
+                if (!hasPostings()) {
+                    throw e;
+                }
+                System.err.println("Serving stale dish search index: " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean isCurrent() {
+        lock.readLock().lock();
+        try {
+            return postings != null && !stale;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean hasPostings() {
+        lock.readLock().lock();
+        try {
+            return postings != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Postings> change) {
+        lock.writeLock().lock();
+        try {
+            // indice non ancora caricato: il primo caricamento leggerà già la modifica
+            if (postings != null) {
+                change.accept(postings);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<Integer, Integer> intersect(Map<Integer, Integer> scores, Map<Integer, Integer> matches) {
+        Map<Integer, Integer> smaller = scores.size() <= matches.size() ? scores : matches;
+        Map<Integer, Integer> larger = smaller == scores ? matches : scores;
+        Map<Integer, Integer> result = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : smaller.entrySet()) {
+            Integer other = larger.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    // -------------------------------------------------------
+    // TESTO
+    // -------------------------------------------------------
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Distanza di Levenshtein con trasposizioni (optimal string alignment) limitata a maxEdits:
+     * si ferma appena ogni riga supera il limite.
+     */
+    static boolean withinEdits(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return false;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    private record Hit(int score, String name, int id, Dish dish) {
+    }
+
+    /**
+     * Struttura mutabile dell'indice; va usata solo sotto il lock di DishSearchIndex.
+     */
+    private static final class Postings {
+        private final Map<Integer, String> categoryNames = new HashMap<>();
+        private final Map<Integer, Dish> dishes = new HashMap<>();
+        private final Map<Integer, Set<String>> termsByDish = new HashMap<>();
+        // termine -> (id piatto -> campi in cui compare)
+        private final NavigableMap<String, Map<Integer, Integer>> terms = new TreeMap<>();
+        // per la ricerca con refusi basta confrontare i termini di lunghezza vicina
+        private final Map<Integer, Set<String>> termsByLength = new HashMap<>();
+
+        private Postings(List<Category> categories, List<Dish> dishes) {
+            for (Category category : categories) {
+                categoryNames.put(category.getId(), category.getName());
+            }
+            for (Dish dish : dishes) {
+                put(dish);
+            }
+        }
+
+        private void put(Dish dish) {
+            remove(dish.getId());
+
+            Map<String, Integer> fields = new HashMap<>();
+            addField(fields, dish.getName(), NAME);
+            addField(fields, dish.getDescription(), DESCRIPTION);
+            if (dish.getCategory() != null) {
+                String categoryName = dish.getCategory().getName() != null
+                        ? dish.getCategory().getName()
+                        : categoryNames.get(dish.getCategory().getId());
+                addField(fields, categoryName, CATEGORY);
+            }
+
+            fields.forEach((term, mask) -> terms.computeIfAbsent(term, t -> {
+                termsByLength.computeIfAbsent(t.length(), length -> new HashSet<>()).add(t);
+                return new HashMap<>();
+            }).put(dish.getId(), mask));
+            termsByDish.put(dish.getId(), fields.keySet());
+            dishes.put(dish.getId(), dish);
+        }
+
+        private void remove(int dishId) {
+            Set<String> previous = termsByDish.remove(dishId);
+            if (previous == null) {
+                return;
+            }
+            for (String term : previous) {
+                Map<Integer, Integer> postings = terms.get(term);
+                postings.remove(dishId);
+                if (postings.isEmpty()) {
+                    terms.remove(term);
+                    termsByLength.get(term.length()).remove(term);
+                }
+            }
+            dishes.remove(dishId);
+        }
+
+        /** Punteggio migliore del token per ogni piatto che lo contiene (uguale, prefisso o con refusi). */
+        private Map<Integer, Integer> match(String token) {
+            Map<Integer, Integer> scores = new HashMap<>();
+            for (Map.Entry<String, Map<Integer, Integer>> entry
+                    : terms.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                collect(scores, entry.getValue(), entry.getKey().equals(token) ? EXACT : PREFIX);
+            }
+
+            // i refusi si cercano solo se la parola non compare né intera né come prefisso
+            if (scores.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+                int maxEdits = token.length() >= TWO_EDITS_LENGTH ? 2 : 1;
+                for (int length = token.length() - maxEdits; length <= token.length() + maxEdits; length++) {
+                    for (String term : termsByLength.getOrDefault(length, Set.of())) {
+                        if (!term.startsWith(token) && withinEdits(token, term, maxEdits)) {
+                            collect(scores, terms.get(term), FUZZY);
+                        }
+                    }
+                }
+            }
+            return scores;
+        }
+
+        private static void collect(Map<Integer, Integer> scores, Map<Integer, Integer> postings, int kind) {
+            for (Map.Entry<Integer, Integer> posting : postings.entrySet()) {
+                scores.merge(posting.getKey(), kind * fieldWeight(posting.getValue()), Math::max);
+            }
+        }
+
+        private static int fieldWeight(int mask) {
+            if ((mask & NAME) != 0) {
+                return 3;
+            }
+            return (mask & CATEGORY) != 0 ? 2 : 1;
+        }
+
+        private static void addField(Map<String, Integer> fields, String text, int field) {
+            for (String token : tokenize(text)) {
+                fields.merge(token, field, (a, b) -> a | b);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ricerca esaustiva su tutti i sottoinsiemi di tavoli joinable (2^n).
+ * Mantenuta come riferimento per test e benchmark: non adatta a sale grandi.
+ */
+public class ExhaustiveAllocationEngine implements AllocationEngine {
+
+    public static final int MAX_JOINABLE_TABLES = 30;
+
+    @Override
+    public List<Table> findBestCombination(List<Table> candidates, int guests) {
+        if (candidates == null || candidates.isEmpty() || guests <= 0) {
+            return null;
+        }
+
+        Table singleBest = candidates.stream()
+                .filter(table -> table.canFitAlone(guests))
+                .min(Comparator.comparingInt(Table::getSeats))
+                .orElse(null);
+
+        List<Table> joinableTables = candidates.stream()
+                .filter(Table::isJoinable)
+                .toList();
+
+        int n = joinableTables.size();
+        if (n > MAX_JOINABLE_TABLES) {
+            throw new IllegalArgumentException("Exhaustive allocation supports at most "
+                    + MAX_JOINABLE_TABLES + " joinable tables");
+        }
+
+        List<Table> best = singleBest != null ? List.of(singleBest) : null;
+        int bestWaste = singleBest != null ? singleBest.getSeats() - guests : Integer.MAX_VALUE;
+
+        for (long mask = 1; mask < (1L << n); mask++) {
+            int count = Long.bitCount(mask);
+            if (best != null && count > best.size()) continue;
+
+            int sum = 0;
+            for (int i = 0; i < n; i++) {
+                if ((mask & (1L << i)) != 0) {
+                    sum += joinableTables.get(i).getSeats();
+                }
+            }
+
+            int seats = sum - SEATS_LOST_PER_JOIN * (count - 1);
+            if (seats < guests) continue;
+
+            int waste = seats - guests;
+            if (best == null || count < best.size() || waste < bestWaste) {
+                List<Table> combination = new ArrayList<>(count);
+                for (int i = 0; i < n; i++) {
+                    if ((mask & (1L << i)) != 0) {
+                        combination.add(joinableTables.get(i));
+                    }
+                }
+                best = combination;
+                bestWaste = waste;
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,24 @@
+package ServiceLayer;
+
+import DomainModel.menu.Dish;
+
+/**
+ * Notificato da {@link OwnerAdminService} dopo ogni modifica a categorie o piatti.
+ *
+ * Le modifiche a un singolo piatto arrivano anche come eventi dedicati: chi non
+ * li distingue ricade su {@link #onMenuChanged()}.
+ */
+@FunctionalInterface
+public interface MenuChangeListener {
+
+    void onMenuChanged();
+
+    /** Piatto creato o modificato, già salvato. */
+    default void onDishSaved(Dish dish) {
+        onMenuChanged();
+    }
+
+    default void onDishDeleted(int dishId) {
+        onMenuChanged();
+    }
+}
@@ -3,11 +3,11 @@ package ServiceLayer;
 import DomainModel.menu.Category;
 import DomainModel.menu.Dish;
 import DomainModel.search.DishSearchParameters;
+import DomainModel.search.DishTextMatch;
 import ORM.CategoryDAO;
 import ORM.DishDAO;
 
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -15,31 +15,33 @@ import java.util.stream.Collectors;
 
 public class MenuQueryService {
 
+    // risultati mostrati al cliente per ogni ricerca libera
+    static final int MAX_SEARCH_RESULTS = 50;
+
     private final DishDAO dishDAO;
     private final CategoryDAO categoryDAO;
+    private final DishSearchIndex searchIndex;
 
     public MenuQueryService(DishDAO dishDAO, CategoryDAO categoryDAO) {
+        this(dishDAO, categoryDAO, null);
+    }
+
+    /**
+     * @param searchIndex indice in memoria per la ricerca libera; null per interrogare il database
+     */
+    public MenuQueryService(DishDAO dishDAO, CategoryDAO categoryDAO, DishSearchIndex searchIndex) {
         this.dishDAO = dishDAO;
         this.categoryDAO = categoryDAO;
+        this.searchIndex = searchIndex;
     }
 
+    /**
+     * Menu completo in un'unica query: categorie ordinate per nome, piatti per nome.
+     * I filtri su categorie attive e piatti disponibili sono applicati dal database.
+     */
     public Map<Category, List<Dish>> buildMenu(boolean onlyActiveCategories,
                                                boolean onlyAvailableDishes) throws SQLException {
-        List<Category> categories = onlyActiveCategories
-                ? categoryDAO.getActiveCategories()
-                : categoryDAO.getAllCategories();
-
-        Map<Category, List<Dish>> menu = new LinkedHashMap<>();
-        for (Category category : categories) {
-            List<Dish> dishes = dishDAO.getDishesByCategory(category.getId());
-            if (onlyAvailableDishes) {
-                dishes = dishes.stream()
-                        .filter(Dish::isAvailable)
-                        .collect(Collectors.toList());
-            }
-            menu.put(category, dishes);
-        }
-        return menu;
+        return dishDAO.loadMenu(onlyActiveCategories, onlyAvailableDishes);
     }
 
     public List<Category> listCategories(boolean onlyActive) throws SQLException {
@@ -74,9 +76,14 @@ public class MenuQueryService {
         if (query == null || query.isBlank()) {
             return List.of();
         }
+        if (searchIndex != null) {
+            return searchIndex.search(query, onlyAvailable, MAX_SEARCH_RESULTS);
+        }
 
+        // ricerca libera del cliente: nome e descrizione, per rilevanza, tollerante ai refusi
         DishSearchParameters params = DishSearchParameters.builder()
                 .setNameContains(query)
+                .setTextMatch(DishTextMatch.FUZZY)
                 .setOnlyAvailable(onlyAvailable);
         return dishDAO.searchDishes(params);
     }
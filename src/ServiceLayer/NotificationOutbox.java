@@ -0,0 +1,240 @@
+package ServiceLayer;
+
+import DomainModel.notification.Notification;
+import ORM.NotificationDAO;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scrittura asincrona delle notifiche.
+ *
+ * I service accodano la notifica in una coda limitata e tornano subito; un thread di
+ * scrittura la salva insieme alle altre con un INSERT multi-riga quando il blocco è
+ * pieno oppure è passato flushIntervalMs dalla prima notifica in attesa.
+ * Se la coda resta piena oltre offerTimeoutMs la notifica viene scritta dal chiamante
+ * (backpressure: rallenta chi produce invece di perdere dati).
+ * Un blocco fallito viene ritentato riga per riga; le righe che falliscono ancora
+ * vengono salvate con stato FAILED (se anche questo fallisce restano solo nel log).
+ * {@link #close()} svuota la coda prima di fermare il thread.
+ */
+public final class NotificationOutbox implements NotificationPublisher, AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MS = 10_000;
+    /** Accodato da close() per svegliare il writer in attesa; non viene mai salvato. */
+    private static final Notification WAKE_UP = new Notification();
+
+    private final NotificationDAO notificationDAO;
+    private final Settings settings;
+    private final BlockingQueue<Notification> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public NotificationOutbox(NotificationDAO notificationDAO) {
+        this(notificationDAO, Settings.defaults());
+    }
+
+    public NotificationOutbox(NotificationDAO notificationDAO, Settings settings) {
+        if (notificationDAO == null || settings == null) {
+            throw new IllegalArgumentException("Notification DAO and outbox settings are required");
+        }
+        this.notificationDAO = notificationDAO;
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.capacity());
+
+        this.writer = new Thread(this::runWriter, "dineup-notification-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(Notification notification) {
+        if (notification == null) {
+            throw new IllegalArgumentException("Notification cannot be null");
+        }
+        published.increment();
+
+        if (!closed) {
+            try {
+                if (queue.offer(notification, settings.offerTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        // il writer potrebbe essere già uscito: non lasciare nulla in coda
+                        drainQueue();
+                    }
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        callerRuns.increment();
+        write(List.of(notification));
+    }
+
+    // -------------------------------------------------------
+    // WRITER
+    // -------------------------------------------------------
+    private void runWriter() {
+        List<Notification> batch = new ArrayList<>(settings.batchSize());
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Notification first = queue.poll(settings.flushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null || first == WAKE_UP) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.flushIntervalMs()));
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        drainQueue();
+    }
+
+    private void fillBatch(List<Notification> batch, long deadlineNanos) throws InterruptedException {
+        while (batch.size() < settings.batchSize()) {
+            drainTo(batch, settings.batchSize() - batch.size());
+            long remaining = deadlineNanos - System.nanoTime();
+            if (batch.size() >= settings.batchSize() || closed || remaining <= 0) {
+                return;
+            }
+            Notification next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null || next == WAKE_UP) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void drainQueue() {
+        List<Notification> batch = new ArrayList<>(settings.batchSize());
+        while (drainTo(batch, settings.batchSize()) > 0) {
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // come BlockingQueue.drainTo, ma scarta il segnale di risveglio
+    private int drainTo(List<Notification> batch, int max) {
+        int drained = queue.drainTo(batch, max);
+        if (drained > 0) {
+            batch.removeIf(notification -> notification == WAKE_UP);
+        }
+        return drained;
+    }
+
+    private void write(List<Notification> batch) {
+        try {
+            notificationDAO.addNotifications(batch);
+            batches.increment();
+            written.add(batch.size());
+            return;
+        } catch (SQLException | RuntimeException e) {
+            if (batch.size() == 1) {
+                markFailed(batch.get(0), e);
+                return;
+            }
+            System.err.println("Notification batch of " + batch.size()
+                    + " failed, retrying row by row: " + e.getMessage());
+        }
+
+        for (Notification notification : batch) {
+            try {
+                notificationDAO.addNotification(notification);
+                written.increment();
+            } catch (SQLException | RuntimeException e) {
+                markFailed(notification, e);
+            }
+        }
+    }
+
+    // la riga resta nel database come FAILED, così può essere ritrovata e reinviata
+    private void markFailed(Notification notification, Exception cause) {
+        notification.markFailed();
+        failed.increment();
+        try {
+            notificationDAO.addNotification(notification);
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Failed to persist notification for user "
+                    + notification.getRecipient().getId() + ": " + cause.getMessage()
+                    + " (FAILED row not saved: " + e.getMessage() + ")");
+        }
+    }
+
+    // -------------------------------------------------------
+    // SHUTDOWN / STATS
+    // -------------------------------------------------------
+
+    /** Ferma l'accodamento, attende che il writer salvi quanto resta e poi ritorna. */
+    @Override
+    public void close() {
+        closed = true;
+        // sveglia il writer se è fermo in attesa di altre notifiche per completare il blocco;
+        // con la coda piena il writer non è in attesa e vede subito closed
+        queue.offer(WAKE_UP);
+        try {
+            writer.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            System.err.println("Notification writer still busy after " + CLOSE_TIMEOUT_MS + " ms");
+        } else {
+            drainQueue();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(queue.size(), published.sum(), written.sum(), batches.sum(),
+                callerRuns.sum(), failed.sum());
+    }
+
+    /**
+     * Configurazione della coda; i tempi sono in millisecondi.
+     */
+    public record Settings(int capacity, int batchSize, long flushIntervalMs, long offerTimeoutMs) {
+
+        public Settings {
+            if (capacity <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Outbox capacity and batch size must be > 0");
+            }
+            if (flushIntervalMs <= 0 || offerTimeoutMs < 0) {
+                throw new IllegalArgumentException("Outbox flush interval must be > 0 and offer timeout >= 0");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(10_000, 100, 200, 20);
+        }
+    }
+
+    /**
+     * Istantanea dei contatori: callerRuns conta le notifiche scritte dal chiamante per coda piena.
+     */
+    public record Stats(int queued,
+                        long published,
+                        long written,
+                        long batches,
+                        long callerRuns,
+                        long failed) {
+    }
+}
@@ -0,0 +1,21 @@
+package ServiceLayer;
+
+import DomainModel.notification.Notification;
+import ORM.NotificationDAO;
+
+import java.sql.SQLException;
+
+/**
+ * Destinazione delle notifiche generate dai service.
+ * L'implementazione può scrivere subito sul database oppure accodare (vedi {@link NotificationOutbox}).
+ */
+@FunctionalInterface
+public interface NotificationPublisher {
+
+    void publish(Notification notification) throws SQLException;
+
+    /** Scrittura sincrona: un INSERT per notifica, nel thread chiamante. */
+    static NotificationPublisher direct(NotificationDAO notificationDAO) {
+        return notification -> notificationDAO.addNotification(notification);
+    }
+}
@@ -6,6 +6,7 @@ import DomainModel.user.User;
 import ORM.NotificationDAO;
 
 import java.sql.SQLException;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 public class NotificationService {
@@ -43,4 +44,31 @@ public class NotificationService {
         }
         notificationDAO.markAsRead(notificationId);
     }
+
+    /**
+     * Solo le notifiche destinate all'utente: gli id di altri utenti vengono ignorati.
+     * @return numero di notifiche effettivamente passate a READ
+     */
+    public int markAsRead(int userId, List<Integer> notificationIds) throws SQLException {
+        if (userId <= 0) {
+            throw new IllegalArgumentException("User id non valido");
+        }
+        if (notificationIds == null || notificationIds.isEmpty()) {
+            throw new IllegalArgumentException("Nessuna notifica indicata");
+        }
+        for (Integer notificationId : notificationIds) {
+            if (notificationId == null || notificationId <= 0) {
+                throw new IllegalArgumentException("Notification id non valido");
+            }
+        }
+        return notificationDAO.markAsRead(userId, List.copyOf(new LinkedHashSet<>(notificationIds)));
+    }
+
+    /** @return numero di notifiche effettivamente passate a READ */
+    public int markAllAsRead(int userId) throws SQLException {
+        if (userId <= 0) {
+            throw new IllegalArgumentException("User id non valido");
+        }
+        return notificationDAO.markAllAsRead(userId);
+    }
 }
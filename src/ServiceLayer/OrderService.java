@@ -47,11 +47,13 @@ public class OrderService {
             throw new IllegalArgumentException("Payment method is required");
         }
 
-        // calcolo totale
-        Money total = new Money(0.0);
+        // calcolo totale in centesimi, senza oggetti intermedi
+        long totalCents = 0;
         for (OrderItem item : items) {
-            total = total.add(item.getTotalPrice());
+            totalCents = Math.addExact(totalCents,
+                    Math.multiplyExact(item.getUnitPrice().getCents(), item.getQuantity()));
         }
+        Money total = Money.ofCents(totalCents);
 
         // creo l'ordine di dominio (senza reservation perché è take away)
         Order order = new Order(
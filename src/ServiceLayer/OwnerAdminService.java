@@ -13,6 +13,7 @@ import ORM.TableDAO;
 import java.sql.SQLException;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class OwnerAdminService {
 
@@ -20,6 +21,8 @@ public class OwnerAdminService {
     private final CategoryDAO categoryDAO;
     private final TableDAO tableDAO;
     private final SlotDAO slotDAO;
+    private final List<TableLayoutListener> tableLayoutListeners = new CopyOnWriteArrayList<>();
+    private final List<MenuChangeListener> menuChangeListeners = new CopyOnWriteArrayList<>();
 
     public OwnerAdminService(DishDAO dishDAO,
                              CategoryDAO categoryDAO,
@@ -31,9 +34,24 @@ public class OwnerAdminService {
         this.slotDAO = slotDAO;
     }
 
+    public void addTableLayoutListener(TableLayoutListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener is required");
+        }
+        tableLayoutListeners.add(listener);
+    }
+
+    public void addMenuChangeListener(MenuChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener is required");
+        }
+        menuChangeListeners.add(listener);
+    }
+
     public Category createCategory(String name, String description) throws SQLException {
         Category category = new Category(name, description);
         categoryDAO.addCategory(category);
+        fireMenuChanged();
         return category;
     }
 
@@ -45,6 +63,7 @@ public class OwnerAdminService {
         }
         category.setDescription(newDescription);
         categoryDAO.updateCategory(category);
+        fireMenuChanged();
     }
 
     public void toggleCategory(int categoryId, boolean active) throws SQLException {
@@ -56,10 +75,12 @@ public class OwnerAdminService {
             category.deactivate();
         }
         categoryDAO.updateCategory(category);
+        fireMenuChanged();
     }
 
     public void deleteCategory(int categoryId) throws SQLException {
         categoryDAO.deleteCategory(categoryId);
+        fireMenuChanged();
     }
 
     public Dish createDish(String name,
@@ -70,6 +91,7 @@ public class OwnerAdminService {
                 .orElseThrow(() -> new IllegalArgumentException("Category not found: " + categoryId));
         Dish dish = new Dish(name, description, price, category);
         dishDAO.addDish(dish);
+        fireDishSaved(dish);
         return dish;
     }
 
@@ -82,6 +104,7 @@ public class OwnerAdminService {
             dish.markUnavailable();
         }
         dishDAO.updateDish(dish);
+        fireDishSaved(dish);
     }
 
     public void updateDishPrice(int dishId, Money newPrice) throws SQLException {
@@ -89,6 +112,7 @@ public class OwnerAdminService {
                 .orElseThrow(() -> new IllegalArgumentException("Dish not found: " + dishId));
         dish.setPrice(newPrice);
         dishDAO.updateDish(dish);
+        fireDishSaved(dish);
     }
 
     public void updateDishDescription(int dishId, String newDescription) throws SQLException {
@@ -96,15 +120,18 @@ public class OwnerAdminService {
                 .orElseThrow(() -> new IllegalArgumentException("Dish not found: " + dishId));
         dish.setDescription(newDescription);
         dishDAO.updateDish(dish);
+        fireDishSaved(dish);
     }
 
     public void deleteDish(int dishId) throws SQLException {
         dishDAO.deleteDish(dishId);
+        fireDishDeleted(dishId);
     }
 
     public Table addTable(int number, int seats, boolean joinable, String location) throws SQLException {
         Table table = new Table(number, seats, joinable, location);
         tableDAO.addTable(table);
+        fireTableLayoutChanged();
         return table;
     }
 
@@ -116,14 +143,41 @@ public class OwnerAdminService {
         table.setJoinable(joinable);
         table.setLocation(location);
         tableDAO.updateTable(table);
+        fireTableLayoutChanged();
     }
 
     public void setTableAvailability(int tableId, boolean available) throws SQLException {
         tableDAO.setAvailability(tableId, available);
+        fireTableLayoutChanged();
     }
 
     public void deleteTable(int tableId) throws SQLException {
         tableDAO.deleteTable(tableId);
+        fireTableLayoutChanged();
+    }
+
+    private void fireMenuChanged() {
+        for (MenuChangeListener listener : menuChangeListeners) {
+            listener.onMenuChanged();
+        }
+    }
+
+    private void fireDishSaved(Dish dish) {
+        for (MenuChangeListener listener : menuChangeListeners) {
+            listener.onDishSaved(dish);
+        }
+    }
+
+    private void fireDishDeleted(int dishId) {
+        for (MenuChangeListener listener : menuChangeListeners) {
+            listener.onDishDeleted(dishId);
+        }
+    }
+
+    private void fireTableLayoutChanged() {
+        for (TableLayoutListener listener : tableLayoutListeners) {
+            listener.onTableLayoutChanged();
+        }
     }
 
     public Slot addSlot(LocalTime startTime, LocalTime endTime) throws SQLException {
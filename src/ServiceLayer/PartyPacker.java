@@ -0,0 +1,295 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assegnazione dei tavoli a più gruppi della stessa data e fascia, considerati insieme.
+ *
+ * Tavoli con gli stessi posti e la stessa possibilità di unione sono intercambiabili: lo stato
+ * della ricerca è il numero di tavoli rimasti per tipo, e la programmazione dinamica su
+ * (gruppo, tavoli rimasti) trova l'assegnazione che fa sedere più ospiti, poi più gruppi,
+ * poi usa meno tavoli e spreca meno posti. Per ogni gruppo si considerano il tavolo singolo
+ * di ogni tipo e le unioni minime (togliendo un tavolo non basterebbero più), al più
+ * {@link #MAX_OPTIONS} per gruppo.
+ * Oltre {@link #MAX_STATES} stati si ripiega sull'assegnazione un gruppo alla volta, dal più numeroso.
+ */
+final class PartyPacker {
+
+    static final int MAX_STATES = 200_000;
+    static final int MAX_OPTIONS = 32;
+
+    private static final Comparator<Option> BY_COST =
+            Comparator.comparingInt(Option::tables).thenComparingInt(Option::waste);
+
+    private final AllocationEngine engine;
+
+    PartyPacker(AllocationEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * @param available tavoli liberi
+     * @param parties   ospiti di ogni gruppo
+     * @return per ogni gruppo, nello stesso ordine, i tavoli assegnati oppure null se non c'è posto
+     */
+    List<List<Table>> pack(List<Table> available, List<Integer> parties) {
+        Map<TypeKey, Deque<Table>> byType = new LinkedHashMap<>();
+        for (Table table : available) {
+            byType.computeIfAbsent(new TypeKey(table.getSeats(), table.isJoinable()), k -> new ArrayDeque<>())
+                    .add(table);
+        }
+        List<TypeKey> types = new ArrayList<>(byType.keySet());
+        int[] counts = new int[types.size()];
+        for (int t = 0; t < counts.length; t++) {
+            counts[t] = byType.get(types.get(t)).size();
+        }
+
+        // dal gruppo più numeroso: ha meno alternative e riduce subito gli stati
+        Integer[] order = new Integer[parties.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(parties.get(b), parties.get(a)));
+
+        List<List<Option>> options = new ArrayList<>(order.length);
+        Map<Integer, List<Option>> optionsBySize = new HashMap<>();
+        for (Integer index : order) {
+            int guests = parties.get(index);
+            options.add(optionsBySize.computeIfAbsent(guests, g -> options(types, counts, g)));
+        }
+
+        List<List<Table>> result = new ArrayList<>(parties.size());
+        for (int i = 0; i < parties.size(); i++) {
+            result.add(null);
+        }
+
+        Search search = new Search(options, parties, order);
+        int[] chosen;
+        try {
+            search.best(0, counts.clone());
+            chosen = search.choices(counts.clone());
+        } catch (StateBudgetExceeded e) {
+            return greedy(available, parties, order, result);
+        }
+
+        for (int i = 0; i < order.length; i++) {
+            if (chosen[i] < 0) {
+                continue;
+            }
+            int[] use = options.get(i).get(chosen[i]).use();
+            List<Table> tables = new ArrayList<>();
+            for (int t = 0; t < use.length; t++) {
+                Deque<Table> pool = byType.get(types.get(t));
+                for (int n = 0; n < use[t]; n++) {
+                    tables.add(pool.poll());
+                }
+            }
+            result.set(order[i], tables);
+        }
+        return result;
+    }
+
+    // -------------------------------------------------------
+    // ALTERNATIVE PER GRUPPO
+    // -------------------------------------------------------
+
+    /** Tavoli singoli e unioni minime per quel numero di ospiti, dalla più economica. */
+    private static List<Option> options(List<TypeKey> types, int[] counts, int guests) {
+        List<Option> options = new ArrayList<>();
+        for (int t = 0; t < types.size(); t++) {
+            if (types.get(t).seats() >= guests) {
+                int[] use = new int[types.size()];
+                use[t] = 1;
+                options.add(new Option(use, 1, types.get(t).seats() - guests));
+            }
+        }
+
+        // tipi unibili dal più capiente: un'unione smette di crescere appena basta
+        List<Integer> joinable = new ArrayList<>();
+        for (int t = 0; t < types.size(); t++) {
+            if (types.get(t).joinable()) {
+                joinable.add(t);
+            }
+        }
+        joinable.sort((a, b) -> Integer.compare(types.get(b).seats(), types.get(a).seats()));
+        combinations(types, counts, guests, joinable, 0, new int[types.size()], 0, 0, options);
+
+        options.sort(BY_COST);
+        return options.size() > MAX_OPTIONS ? List.copyOf(options.subList(0, MAX_OPTIONS)) : options;
+    }
+
+    private static void combinations(List<TypeKey> types, int[] counts, int guests, List<Integer> joinable,
+                                     int from, int[] use, int tables, int seats, List<Option> out) {
+        if (out.size() >= MAX_OPTIONS * 4) {
+            return;
+        }
+        for (int j = from; j < joinable.size(); j++) {
+            int t = joinable.get(j);
+            if (use[t] >= counts[t]) {
+                continue;
+            }
+            int size = types.get(t).seats();
+            use[t]++;
+            int effective = seats + size - AllocationEngine.SEATS_LOST_PER_JOIN * tables;
+            if (tables + 1 >= 2 && effective >= guests) {
+                // l'ultimo tavolo aggiunto è il più piccolo: senza di lui non basterebbe, quindi è minima
+                out.add(new Option(use.clone(), tables + 1, effective - guests));
+            } else if (tables > 0 || size < guests) {
+                // un tavolo che basta da solo è già tra le alternative singole
+                combinations(types, counts, guests, joinable, j, use, tables + 1, seats + size, out);
+            }
+            use[t]--;
+        }
+    }
+
+    // -------------------------------------------------------
+    // RICERCA
+    // -------------------------------------------------------
+
+    private static final class Search {
+        private final List<List<Option>> options;
+        private final int[] guests;
+        private final Map<StateKey, Step> memo = new HashMap<>();
+
+        private Search(List<List<Option>> options, List<Integer> parties, Integer[] order) {
+            this.options = options;
+            this.guests = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                guests[i] = parties.get(order[i]);
+            }
+        }
+
+        /** Miglior risultato per i gruppi da i in poi con i tavoli rimasti (counts viene ripristinato). */
+        private Score best(int i, int[] counts) {
+            if (i == guests.length) {
+                return Score.NONE;
+            }
+            StateKey key = new StateKey(i, counts.clone());
+            Step cached = memo.get(key);
+            if (cached != null) {
+                return cached.score();
+            }
+            if (memo.size() >= MAX_STATES) {
+                throw new StateBudgetExceeded();
+            }
+
+            Score bestScore = best(i + 1, counts);
+            int bestOption = -1;
+            List<Option> partyOptions = options.get(i);
+            for (int o = 0; o < partyOptions.size(); o++) {
+                Option option = partyOptions.get(o);
+                if (!fits(counts, option.use())) {
+                    continue;
+                }
+                take(counts, option.use(), -1);
+                Score candidate = best(i + 1, counts).plus(guests[i], option);
+                take(counts, option.use(), 1);
+                if (candidate.isBetterThan(bestScore)) {
+                    bestScore = candidate;
+                    bestOption = o;
+                }
+            }
+            memo.put(key, new Step(bestScore, bestOption));
+            return bestScore;
+        }
+
+        /** Ripercorre le scelte memorizzate a partire dallo stato iniziale. */
+        private int[] choices(int[] counts) {
+            int[] chosen = new int[guests.length];
+            for (int i = 0; i < guests.length; i++) {
+                int option = memo.get(new StateKey(i, counts.clone())).option();
+                chosen[i] = option;
+                if (option >= 0) {
+                    take(counts, options.get(i).get(option).use(), -1);
+                }
+            }
+            return chosen;
+        }
+
+        private static boolean fits(int[] counts, int[] use) {
+            for (int t = 0; t < use.length; t++) {
+                if (use[t] > counts[t]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void take(int[] counts, int[] use, int sign) {
+            for (int t = 0; t < use.length; t++) {
+                counts[t] += sign * use[t];
+            }
+        }
+    }
+
+    /** Un gruppo alla volta con l'{@link AllocationEngine}, dal più numeroso. */
+    private List<List<Table>> greedy(List<Table> available, List<Integer> parties,
+                                     Integer[] order, List<List<Table>> result) {
+        List<Table> free = new ArrayList<>(available);
+        for (Integer index : order) {
+            List<Table> combination = free.isEmpty() ? null : engine.findBestCombination(free, parties.get(index));
+            if (combination != null && !combination.isEmpty()) {
+                free.removeAll(combination);
+                result.set(index, List.copyOf(combination));
+            }
+        }
+        return result;
+    }
+
+    private record TypeKey(int seats, boolean joinable) {
+    }
+
+    private record Option(int[] use, int tables, int waste) {
+    }
+
+    private record Step(Score score, int option) {
+    }
+
+    private record StateKey(int party, int[] counts) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey other && party == other.party && Arrays.equals(counts, other.counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * party + Arrays.hashCode(counts);
+        }
+    }
+
+    /** Ospiti e gruppi seduti (più è meglio), tavoli usati e posti sprecati (meno è meglio). */
+    private record Score(int guests, int parties, int tables, int waste) {
+
+        private static final Score NONE = new Score(0, 0, 0, 0);
+
+        private Score plus(int partyGuests, Option option) {
+            return new Score(guests + partyGuests, parties + 1, tables + option.tables(), waste + option.waste());
+        }
+
+        private boolean isBetterThan(Score other) {
+            if (guests != other.guests) return guests > other.guests;
+            if (parties != other.parties) return parties > other.parties;
+            if (tables != other.tables) return tables < other.tables;
+            return waste < other.waste;
+        }
+    }
+
+    private static final class StateBudgetExceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private StateBudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+}
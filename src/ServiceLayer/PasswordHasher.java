@@ -0,0 +1,174 @@
+package ServiceLayer;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calcolo e verifica degli hash BCrypt su un pool dedicato.
+ *
+ * Ogni hash costa decine di millisecondi di CPU: il pool ha al più un thread per core e
+ * una coda limitata, così un picco di login non occupa tutti i thread che servono le
+ * richieste. Il chiamante attende il risultato; a coda piena la richiesta viene rifiutata
+ * subito con RejectedExecutionException invece di accumulare attese.
+ * Il costo (log2 dei round) è configurabile: gli hash salvati con un costo diverso vengono
+ * ricalcolati al login successivo (vedi {@link AuthService#authenticate}).
+ */
+public final class PasswordHasher implements AutoCloseable {
+
+    private final Settings settings;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordHasher() {
+        this(Settings.defaults());
+    }
+
+    public PasswordHasher(Settings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Hasher settings are required");
+        }
+        this.settings = settings;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(settings.threads(), settings.threads(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dineup-bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // fuori dai picchi i thread inattivi vengono chiusi
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /** Hash della password con il costo configurato. */
+    public String hash(String rawPassword) {
+        return run(() -> BCrypt.hashpw(rawPassword, BCrypt.gensalt(settings.cost())));
+    }
+
+    public boolean verify(String rawPassword, String passwordHash) {
+        return run(() -> BCrypt.checkpw(rawPassword, passwordHash));
+    }
+
+    /** True se l'hash è stato calcolato con un costo diverso da quello configurato. */
+    public boolean needsRehash(String passwordHash) {
+        int cost = costOf(passwordHash);
+        return cost > 0 && cost != settings.cost();
+    }
+
+    private <T> T run(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - submittedAt;
+                totalWaitNanos.add(waited);
+                maxWaitNanos.accumulate(waited);
+                try {
+                    return task.call();
+                } finally {
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing is saturated, retry later");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                // es. hash salvato in un formato non BCrypt
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // formato $2a$10$...: il costo sono le due cifre dopo il secondo $
+    private static int costOf(String passwordHash) {
+        if (passwordHash == null || passwordHash.length() < 7 || passwordHash.charAt(0) != '$'
+                || passwordHash.charAt(3) != '$' || passwordHash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(passwordHash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    public Stats getStats() {
+        long done = completed.sum();
+        return new Stats(executor.getQueue().size(), executor.getActiveCount(), done, rejected.sum(),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / done),
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * threads: hash calcolati in parallelo; queueCapacity: richieste in attesa prima del rifiuto;
+     * cost: log2 dei round BCrypt (4-31, ogni +1 raddoppia il tempo).
+     */
+    public record Settings(int threads, int queueCapacity, int cost) {
+
+        public Settings {
+            if (threads <= 0 || queueCapacity <= 0) {
+                throw new IllegalArgumentException("Hasher threads and queue capacity must be > 0");
+            }
+            if (cost < 4 || cost > 31) {
+                throw new IllegalArgumentException("BCrypt cost must be between 4 and 31");
+            }
+        }
+
+        public static Settings defaults() {
+            return withCost(10);
+        }
+
+        /** Un thread per core e al più 32 richieste in attesa per thread. */
+        public static Settings withCost(int cost) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            return new Settings(cores, cores * 32, cost);
+        }
+    }
+
+    /**
+     * queued/active: richieste in coda e in corso; avgWaitMicros/maxWaitMicros: attesa in coda
+     * prima del calcolo; rejected: richieste rifiutate a coda piena.
+     */
+    public record Stats(int queued,
+                        int active,
+                        long completed,
+                        long rejected,
+                        long avgWaitMicros,
+                        long maxWaitMicros) {
+    }
+}
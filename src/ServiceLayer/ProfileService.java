@@ -1,17 +1,31 @@
 package ServiceLayer;
 
+import DomainModel.user.Role;
 import DomainModel.user.User;
 import DomainModel.valueObject.Email;
 import ORM.UserDAO;
 
 import java.sql.SQLException;
 
+/**
+ * Modifiche al profilo. Email e ruolo cambiano i permessi dell'utente e chiudono le sue
+ * sessioni; le altre modifiche aggiornano l'istantanea delle sessioni aperte.
+ */
 public class ProfileService {
 
     private final UserDAO userDAO;
+    private final SessionStore sessionStore;
 
     public ProfileService(UserDAO userDAO) {
+        this(userDAO, new SessionStore());
+    }
+
+    public ProfileService(UserDAO userDAO, SessionStore sessionStore) {
+        if (sessionStore == null) {
+            throw new IllegalArgumentException("Session store is required");
+        }
         this.userDAO = userDAO;
+        this.sessionStore = sessionStore;
     }
 
     public User getProfile(int userId) throws SQLException {
@@ -26,6 +40,7 @@ public class ProfileService {
         user.setName(name);
         user.setSurname(surname);
         userDAO.updateUser(user);
+        sessionStore.refreshUser(user);
     }
 
     public void updateEmail(User user, String email) throws SQLException {
@@ -34,11 +49,22 @@ public class ProfileService {
         }
         user.setEmail(new Email(email));
         userDAO.updateUser(user);
+        sessionStore.invalidateUser(user.getId());
+    }
+
+    public void changeRole(User user, Role role) throws SQLException {
+        if (role == null) {
+            throw new IllegalArgumentException("Role cannot be null");
+        }
+        user.setRole(role);
+        userDAO.updateUser(user);
+        sessionStore.invalidateUser(user.getId());
     }
 
     public void addFidelityPoints(User user, int delta) throws SQLException {
         int updated = Math.max(0, user.getFidelityPoints() + delta);
         user.setFidelityPoints(updated);
         userDAO.updateUser(user);
+        sessionStore.refreshUser(user);
     }
 }
\ No newline at end of file
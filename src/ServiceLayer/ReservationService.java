@@ -17,29 +17,63 @@ import ORM.TableDAO;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 public class ReservationService {
 
+    /** Tentativi di salvataggio quando il database rifiuta un tavolo già prenotato. */
+    static final int MAX_CONFLICT_ATTEMPTS = 3;
+
     private final ReservationDAO reservationDAO;
     private final TableDAO tableDAO;
     private final SlotDAO slotDAO;
-    private final NotificationDAO notificationDAO;
+    private final NotificationPublisher notifications;
     private final TableAllocationService tableAllocationService;
+    private final TableAvailabilityIndex availabilityIndex;
+    private final CapacityProfileService capacityProfiles;
 
     public ReservationService(ReservationDAO reservationDAO,
                               TableDAO tableDAO,
                               SlotDAO slotDAO,
                               NotificationDAO notificationDAO,
                               TableAllocationService tableAllocationService) {
+        this(reservationDAO, tableDAO, slotDAO, NotificationPublisher.direct(notificationDAO),
+                tableAllocationService, new TableAvailabilityIndex(reservationDAO, tableDAO));
+    }
+
+    public ReservationService(ReservationDAO reservationDAO,
+                              TableDAO tableDAO,
+                              SlotDAO slotDAO,
+                              NotificationPublisher notifications,
+                              TableAllocationService tableAllocationService,
+                              TableAvailabilityIndex availabilityIndex) {
+        this(reservationDAO, tableDAO, slotDAO, notifications, tableAllocationService, availabilityIndex, null);
+    }
+
+    /**
+     * @param capacityProfiles profili precalcolati da cui partire nella scelta dei tavoli;
+     *                         se null ogni richiesta esegue la ricerca completa
+     */
+    public ReservationService(ReservationDAO reservationDAO,
+                              TableDAO tableDAO,
+                              SlotDAO slotDAO,
+                              NotificationPublisher notifications,
+                              TableAllocationService tableAllocationService,
+                              TableAvailabilityIndex availabilityIndex,
+                              CapacityProfileService capacityProfiles) {
         this.reservationDAO = reservationDAO;
         this.tableDAO = tableDAO;
         this.slotDAO = slotDAO;
-        this.notificationDAO = notificationDAO;
+        this.notifications = notifications;
         this.tableAllocationService = tableAllocationService;
+        this.availabilityIndex = availabilityIndex;
+        this.capacityProfiles = capacityProfiles;
     }
 
     public Reservation createReservation(User customer,
@@ -60,23 +94,10 @@ public class ReservationService {
             throw new IllegalStateException("Selected slot is closed");
         }
 
-        List<Integer> reservedIds = reservationDAO.getReservedTableIds(date, slotId);
-        Set<Integer> reservedSet = new HashSet<>(reservedIds);
-
-        List<Table> availableTables = tableDAO.getAvailableTables().stream()
-                .filter(table -> !reservedSet.contains(table.getId()))
-                .collect(Collectors.toList());
-
-        List<Table> combination = tableAllocationService.findBestCombination(availableTables, guests);
-        if (combination == null || combination.isEmpty()) {
-            throw new IllegalStateException("No tables available for the requested slot");
-        }
-
         LocalDateTime reservationDateTime = LocalDateTime.of(date, slot.getStartTime());
         Reservation reservation = new Reservation(customer, reservationDateTime, slot, guests, notes);
 
-        List<MergeTable> assignments = reservationDAO.addReservationWithTables(reservation, combination);
-        reservation.setTables(assignments);
+        reservation.setTables(saveWithTables(reservation, date, slotId, guests));
 
         notifyCustomer(reservation, "Prenotazione ricevuta per " + date + " alle " + slot.getStartTime(),
                 TypeNotification.CONFIRMATION);
@@ -84,20 +105,223 @@ public class ReservationService {
         return reservation;
     }
 
+    /**
+     * Occupa i tavoli nell'indice e salva la prenotazione. Se il salvataggio fallisce si liberano solo
+     * i tavoli di questa richiesta; se il database ha rifiutato un tavolo già prenotato l'indice viene
+     * aggiornato e la scelta ripetuta, al più {@link #MAX_CONFLICT_ATTEMPTS} volte.
+     */
+    private List<MergeTable> saveWithTables(Reservation reservation, LocalDate date, int slotId,
+                                            int guests) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            List<Table> combination = claimBestCombination(date, slotId, guests);
+            try {
+                return reservationDAO.addReservationWithTables(reservation, combination);
+            } catch (SQLException | RuntimeException e) {
+                availabilityIndex.release(date, slotId, tableIds(combination));
+                if (!(e instanceof SQLException sqlError) || !isTableConflict(sqlError)) {
+                    throw e;
+                }
+                if (attempt == MAX_CONFLICT_ATTEMPTS) {
+                    throw new IllegalStateException("Tables were booked by another request, please retry");
+                }
+                availabilityIndex.refresh(date, slotId);
+            }
+        }
+    }
+
+    /** Tavolo già occupato: chiave di table_bookings (23505) o trigger di merge_tables (P0001). */
+    private static boolean isTableConflict(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if ("23505".equals(current.getSQLState()) || "P0001".equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Integer> tableIds(List<Table> tables) {
+        return tables.stream().map(Table::getId).toList();
+    }
+
+    /**
+     * Prenotazioni in blocco (eventi, importazioni): le richieste sono raggruppate per data e fascia,
+     * i tavoli liberi di ogni gruppo si leggono una volta sola e vengono assegnati a tutti i gruppi
+     * insieme con {@link TableAllocationService#packParties}; ogni gruppo è salvato in una transazione.
+     * Una richiesta non valida o senza posto non blocca le altre.
+     * @return un esito per ogni richiesta, nello stesso ordine
+     */
+    public List<BookingOutcome> createReservations(List<BookingRequest> requests) throws SQLException {
+        if (requests == null) {
+            throw new IllegalArgumentException("Booking requests are required");
+        }
+
+        BookingOutcome[] outcomes = new BookingOutcome[requests.size()];
+        Map<SlotKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                outcomes[i] = BookingOutcome.rejected(i, error);
+            } else {
+                groups.computeIfAbsent(new SlotKey(request.date(), request.slotId()), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (Map.Entry<SlotKey, List<Integer>> group : groups.entrySet()) {
+            bookGroup(group.getKey(), group.getValue(), requests, outcomes);
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    private static String validate(BookingRequest request) {
+        if (request == null) {
+            return "Booking request is required";
+        }
+        if (request.customer() == null) {
+            return "Customer is required";
+        }
+        if (request.date() == null) {
+            return "Date is required";
+        }
+        if (request.guests() <= 0) {
+            return "Guests must be greater than zero";
+        }
+        return null;
+    }
+
+    private void bookGroup(SlotKey key, List<Integer> indexes, List<BookingRequest> requests,
+                           BookingOutcome[] outcomes) throws SQLException {
+        Optional<Slot> found = slotDAO.getSlotById(key.slotId());
+        String slotError = found.isEmpty() ? "Slot not found: " + key.slotId()
+                : found.get().isClosed() ? "Selected slot is closed" : null;
+        if (slotError != null) {
+            for (int index : indexes) {
+                outcomes[index] = BookingOutcome.rejected(index, slotError);
+            }
+            return;
+        }
+        Slot slot = found.get();
+
+        List<Integer> parties = indexes.stream().map(index -> requests.get(index).guests()).toList();
+        List<List<Table>> packing = claimPacking(key.date(), key.slotId(), parties);
+
+        List<Integer> seated = new ArrayList<>();
+        List<Reservation> reservations = new ArrayList<>();
+        List<List<Table>> tables = new ArrayList<>();
+        for (int j = 0; j < indexes.size(); j++) {
+            int index = indexes.get(j);
+            if (packing.get(j) == null) {
+                outcomes[index] = BookingOutcome.rejected(index, "No tables available for the requested slot");
+                continue;
+            }
+            BookingRequest request = requests.get(index);
+            seated.add(index);
+            reservations.add(new Reservation(request.customer(), LocalDateTime.of(key.date(), slot.getStartTime()),
+                    slot, request.guests(), request.notes()));
+            tables.add(packing.get(j));
+        }
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<List<MergeTable>> assignments = reservationDAO.addReservationsWithTables(reservations, tables);
+            for (int j = 0; j < reservations.size(); j++) {
+                reservations.get(j).setTables(assignments.get(j));
+            }
+        } catch (SQLException | RuntimeException e) {
+            // il gruppo è stato annullato per intero: si liberano solo i suoi tavoli
+            availabilityIndex.release(key.date(), key.slotId(),
+                    tableIds(tables.stream().flatMap(List::stream).toList()));
+            if (e instanceof SQLException sqlError && isTableConflict(sqlError)) {
+                // si riprova una richiesta alla volta, così un solo tavolo conteso
+                // non fa perdere le altre prenotazioni
+                availabilityIndex.refresh(key.date(), key.slotId());
+                for (int index : seated) {
+                    outcomes[index] = bookOne(index, requests.get(index));
+                }
+            } else {
+                for (int index : seated) {
+                    outcomes[index] = BookingOutcome.rejected(index, e.getMessage());
+                }
+            }
+            return;
+        }
+
+        for (int j = 0; j < reservations.size(); j++) {
+            Reservation reservation = reservations.get(j);
+            outcomes[seated.get(j)] = BookingOutcome.booked(seated.get(j), reservation);
+            notifyCustomer(reservation, "Prenotazione ricevuta per " + key.date() + " alle " + slot.getStartTime(),
+                    TypeNotification.CONFIRMATION);
+        }
+    }
+
+    private BookingOutcome bookOne(int index, BookingRequest request) {
+        try {
+            return BookingOutcome.booked(index, createReservation(request.customer(), request.date(),
+                    request.slotId(), request.guests(), request.notes()));
+        } catch (SQLException | RuntimeException e) {
+            return BookingOutcome.rejected(index, e.getMessage());
+        }
+    }
+
+    /** Come {@link #claimBestCombination}, ma per tutti i gruppi della stessa data e fascia. */
+    private List<List<Table>> claimPacking(LocalDate date, int slotId, List<Integer> parties) throws SQLException {
+        while (true) {
+            List<Table> availableTables = availabilityIndex.freeTables(date, slotId);
+            List<List<Table>> packing = tableAllocationService.packParties(availableTables, parties);
+            List<Table> chosen = packing.stream()
+                    .filter(Objects::nonNull)
+                    .flatMap(List::stream)
+                    .toList();
+            if (chosen.isEmpty() || availabilityIndex.claim(date, slotId, chosen)) {
+                return packing;
+            }
+        }
+    }
+
+    /**
+     * Sceglie i tavoli tra quelli liberi nell'indice e li occupa in memoria.
+     * Se nel frattempo un'altra richiesta ha preso uno dei tavoli si ricalcola la combinazione.
+     */
+    private List<Table> claimBestCombination(LocalDate date, int slotId, int guests) throws SQLException {
+        while (true) {
+            TableAvailabilityIndex.FreeTables free = availabilityIndex.snapshot(date, slotId);
+            List<Table> combination = capacityProfiles == null
+                    ? tableAllocationService.findBestCombination(free, guests)
+                    : capacityProfiles.findCombination(free, guests, tableAllocationService);
+            if (combination == null || combination.isEmpty()) {
+                throw new IllegalStateException("No tables available for the requested slot");
+            }
+            if (availabilityIndex.claim(date, slotId, combination)) {
+                return combination;
+            }
+        }
+    }
+
     public Reservation getReservation(int reservationId) throws SQLException {
         return reservationDAO.getReservationById(reservationId)
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
     }
 
     public List<Reservation> listCustomerReservations(User customer) throws SQLException {
+        return listCustomerReservations(customer, false);
+    }
+
+    /** Con withTables i tavoli assegnati arrivano con una sola query per tutta la lista. */
+    public List<Reservation> listCustomerReservations(User customer, boolean withTables) throws SQLException {
         if (customer == null) {
             throw new IllegalArgumentException("Customer is required");
         }
-        return reservationDAO.getReservationsByCustomer(customer.getId());
+        return reservationDAO.getReservationsByCustomer(customer.getId(), withTables);
     }
 
     public List<Reservation> listReservationsByDate(LocalDate date) throws SQLException {
-        return reservationDAO.getReservationsByDate(date);
+        return listReservationsByDate(date, false);
+    }
+
+    public List<Reservation> listReservationsByDate(LocalDate date, boolean withTables) throws SQLException {
+        return reservationDAO.getReservationsByDate(date, withTables);
     }
 
     public List<Reservation> searchReservations(ReservationSearchParameters params) throws SQLException {
@@ -114,6 +338,7 @@ public class ReservationService {
 
         reservation.cancel();
         reservationDAO.updateStatus(reservationId, reservation.getStatus());
+        releaseTables(reservation);
         notifyCustomer(reservation,
                 "La tua prenotazione #" + reservationId + " è stata annullata",
                 TypeNotification.UPDATE);
@@ -154,9 +379,30 @@ public class ReservationService {
             default -> throw new IllegalArgumentException("Unsupported reservation transition: " + nextStatus);
         }
         reservationDAO.updateStatus(reservationId, reservation.getStatus());
+        if (releasesTables(nextStatus)) {
+            releaseTables(reservation);
+        }
         notifyCustomer(reservation, message, type);
     }
 
+    private static boolean releasesTables(ReservationStatus status) {
+        return status == ReservationStatus.CANCELED
+                || status == ReservationStatus.NO_SHOW
+                || status == ReservationStatus.COMPLETED;
+    }
+
+    private void releaseTables(Reservation reservation) {
+        if (reservation.getReservDate() == null || reservation.getTimeSlot() == null
+                || reservation.getTables() == null) {
+            return;
+        }
+        List<Integer> tableIds = reservation.getTables().stream()
+                .map(assignment -> assignment.getTable().getId())
+                .toList();
+        availabilityIndex.release(reservation.getReservDate().toLocalDate(),
+                reservation.getTimeSlot().getId(), tableIds);
+    }
+
     public List<Slot> listOpenSlots() throws SQLException {
         return slotDAO.getOpenSlots();
     }
@@ -164,10 +410,33 @@ public class ReservationService {
     private void notifyCustomer(Reservation reservation, String message, TypeNotification type) {
         try {
             Notification notification = new Notification(reservation.getCustomer(), message, type);
-            notificationDAO.addNotification(notification);
+            notifications.publish(notification);
         } catch (SQLException e) {
             // non bloccare il flusso della prenotazione, ma loggare l'errore
             System.err.println("Failed to persist notification: " + e.getMessage());
         }
     }
+
+    /** Una richiesta di prenotazione in blocco. */
+    public record BookingRequest(User customer, LocalDate date, int slotId, int guests, String notes) {
+    }
+
+    /** Esito di una richiesta in blocco: la prenotazione creata oppure il motivo del rifiuto. */
+    public record BookingOutcome(int index, Reservation reservation, String error) {
+
+        static BookingOutcome booked(int index, Reservation reservation) {
+            return new BookingOutcome(index, reservation, null);
+        }
+
+        static BookingOutcome rejected(int index, String error) {
+            return new BookingOutcome(index, null, error);
+        }
+
+        public boolean booked() {
+            return reservation != null;
+        }
+    }
+
+    private record SlotKey(LocalDate date, int slotId) {
+    }
 }
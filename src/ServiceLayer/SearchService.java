@@ -1,43 +1,229 @@
 package ServiceLayer;
 
+import DomainModel.search.SearchBranch;
 import DomainModel.search.SearchCriteria;
 import DomainModel.search.SearchResult;
+import ORM.QueryDeadline;
 
 import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Servizio applicativo per ricerche aggregate su menu, ordini e prenotazioni.
+ *
+ * Con un executor i rami richiesti partono insieme, ognuno con la propria connessione
+ * del pool, e la ricerca dura quanto il ramo più lento invece della somma.
+ * Un ramo che supera il suo timeout (o la scadenza complessiva) viene annullato e il
+ * risultato è marcato come parziale; un errore SQL di un ramo viene invece rilanciato.
+ * La scadenza del ramo vale anche per le sue query ({@link QueryDeadline}): il database
+ * le interrompe, così un ramo abbandonato non tiene occupati il thread e la connessione.
  */
 public class SearchService {
 
     private final MenuQueryService menuQueryService;
     private final OrderService orderService;
     private final ReservationService reservationService;
+    private final ExecutorService executor;
+    private final Settings settings;
 
     public SearchService(MenuQueryService menuQueryService,
                          OrderService orderService,
                          ReservationService reservationService) {
+        this(menuQueryService, orderService, reservationService, null, Settings.defaults());
+    }
+
+    /**
+     * @param executor esegue i rami in parallelo; null per eseguirli in sequenza sul chiamante
+     */
+    public SearchService(MenuQueryService menuQueryService,
+                         OrderService orderService,
+                         ReservationService reservationService,
+                         ExecutorService executor,
+                         Settings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Search settings are required");
+        }
         this.menuQueryService = menuQueryService;
         this.orderService = orderService;
         this.reservationService = reservationService;
+        this.executor = executor;
+        this.settings = settings;
     }
 
     public SearchResult search(SearchCriteria criteria) throws SQLException {
         SearchCriteria effective = (criteria != null) ? criteria : SearchCriteria.builder();
         SearchResult result = new SearchResult();
 
-        if (effective.getDish() != null && effective.getDish().hasFilters()) {
-            result.setDishes(menuQueryService.searchDishes(effective.getDish()));
+        Map<SearchBranch, Callable<Runnable>> branches = branches(effective, result);
+        if (branches.isEmpty()) {
+            return result;
+        }
+        if (executor == null || branches.size() == 1) {
+            // un solo ramo non guadagna nulla dal passaggio a un altro thread
+            for (Map.Entry<SearchBranch, Callable<Runnable>> branch : branches.entrySet()) {
+                runInline(branch.getKey(), branch.getValue(), result);
+            }
+            return result;
+        }
+        return fanOut(branches, result);
+    }
+
+    // Ogni ramo esegue la query e restituisce l'azione che copia il risultato:
+    // la SearchResult viene così modificata solo dal thread chiamante.
+    private Map<SearchBranch, Callable<Runnable>> branches(SearchCriteria criteria, SearchResult result) {
+        Map<SearchBranch, Callable<Runnable>> branches = new EnumMap<>(SearchBranch.class);
+
+        if (criteria.getDish() != null && criteria.getDish().hasFilters()) {
+            branches.put(SearchBranch.DISHES, () -> {
+                var dishes = menuQueryService.searchDishes(criteria.getDish());
+                return () -> result.setDishes(dishes);
+            });
         }
 
-        if (effective.getOrder() != null && effective.getOrder().hasFilters()) {
-            result.setOrders(orderService.searchOrders(effective.getOrder()));
+        if (criteria.getOrder() != null && criteria.getOrder().hasFilters()) {
+            branches.put(SearchBranch.ORDERS, () -> {
+                var orders = orderService.searchOrders(criteria.getOrder());
+                return () -> result.setOrders(orders);
+            });
         }
 
-        if (effective.getReservation() != null && effective.getReservation().hasFilters()) {
-            result.setReservations(reservationService.searchReservations(effective.getReservation()));
+        if (criteria.getReservation() != null && criteria.getReservation().hasFilters()) {
+            branches.put(SearchBranch.RESERVATIONS, () -> {
+                var reservations = reservationService.searchReservations(criteria.getReservation());
+                return () -> result.setReservations(reservations);
+            });
         }
 
+        return branches;
+    }
+
+    private void runInline(SearchBranch branch, Callable<Runnable> task, SearchResult result) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            task.call().run();
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Search branch " + branch + " failed", e);
+        }
+        result.recordTiming(branch, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+
+    private SearchResult fanOut(Map<SearchBranch, Callable<Runnable>> branches,
+                                SearchResult result) throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.totalTimeoutMs());
+
+        Map<SearchBranch, Future<Runnable>> futures = new EnumMap<>(SearchBranch.class);
+        Map<SearchBranch, long[]> finishedAt = new EnumMap<>(SearchBranch.class);
+        for (Map.Entry<SearchBranch, Callable<Runnable>> branch : branches.entrySet()) {
+            long[] end = new long[1];
+            finishedAt.put(branch.getKey(), end);
+            Callable<Runnable> task = branch.getValue();
+            long branchDeadline = branchDeadline(branch.getKey(), start, deadline);
+            futures.put(branch.getKey(), executor.submit(() -> {
+                Runnable apply = QueryDeadline.call(branchDeadline, task);
+                end[0] = System.nanoTime();
+                return apply;
+            }));
+        }
+
+        try {
+            for (Map.Entry<SearchBranch, Future<Runnable>> entry : futures.entrySet()) {
+                SearchBranch branch = entry.getKey();
+                long branchDeadline = branchDeadline(branch, start, deadline);
+                try {
+                    Runnable apply = entry.getValue().get(Math.max(0, branchDeadline - System.nanoTime()),
+                            TimeUnit.NANOSECONDS);
+                    apply.run();
+                    result.recordTiming(branch, TimeUnit.NANOSECONDS.toMicros(finishedAt.get(branch)[0] - start));
+                } catch (TimeoutException | CancellationException e) {
+                    entry.getValue().cancel(true);
+                    result.markIncomplete(branch);
+                } catch (ExecutionException e) {
+                    if (isQueryTimeout(e.getCause())) {
+                        result.markIncomplete(branch);
+                        continue;
+                    }
+                    cancelAll(futures.values());
+                    rethrow(branch, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures.values());
+            for (Map.Entry<SearchBranch, Future<Runnable>> entry : futures.entrySet()) {
+                if (!result.getBranchTimings().containsKey(entry.getKey())) {
+                    result.markIncomplete(entry.getKey());
+                }
+            }
+        }
         return result;
     }
-}
\ No newline at end of file
+
+    private long branchDeadline(SearchBranch branch, long start, long deadline) {
+        return Math.min(deadline, start + TimeUnit.MILLISECONDS.toNanos(settings.timeoutFor(branch)));
+    }
+
+    /** Query annullata dal database allo scadere del timeout (57014). */
+    private static boolean isQueryTimeout(Throwable cause) {
+        return cause instanceof SQLException e && "57014".equals(e.getSQLState());
+    }
+
+    private void cancelAll(Iterable<Future<Runnable>> futures) {
+        for (Future<Runnable> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private void rethrow(SearchBranch branch, Throwable cause) throws SQLException {
+        if (cause instanceof SQLException e) {
+            throw e;
+        }
+        if (cause instanceof RuntimeException e) {
+            throw e;
+        }
+        if (cause instanceof Error e) {
+            throw e;
+        }
+        throw new IllegalStateException("Search branch " + branch + " failed", cause);
+    }
+
+    /**
+     * Tempi massimi in millisecondi: ogni ramo ha il proprio timeout, totalTimeoutMs limita l'intera ricerca.
+     */
+    public record Settings(long totalTimeoutMs,
+                           long dishTimeoutMs,
+                           long orderTimeoutMs,
+                           long reservationTimeoutMs) {
+
+        public Settings {
+            for (long timeout : List.of(totalTimeoutMs, dishTimeoutMs, orderTimeoutMs, reservationTimeoutMs)) {
+                if (timeout <= 0) {
+                    throw new IllegalArgumentException("Search timeouts must be > 0");
+                }
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(3_000, 1_000, 2_500, 2_500);
+        }
+
+        public long timeoutFor(SearchBranch branch) {
+            return switch (branch) {
+                case DISHES -> dishTimeoutMs;
+                case ORDERS -> orderTimeoutMs;
+                case RESERVATIONS -> reservationTimeoutMs;
+            };
+        }
+    }
+}
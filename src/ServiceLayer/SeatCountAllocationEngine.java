@@ -0,0 +1,141 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allocazione tramite programmazione dinamica su (numero di tavoli, posti totali).
+ *
+ * Con k tavoli uniti servono almeno guests + 2(k-1) posti nominali, quindi:
+ * 1. si prova il tavolo singolo più piccolo che basta;
+ * 2. si trova il minimo k per cui i k tavoli joinable più grandi sono sufficienti;
+ * 3. tra i sottoinsiemi di esattamente k tavoli si cerca la somma minima che copre la soglia.
+ * Il costo dipende da k e dal totale dei posti, non da 2^n.
+ */
+public class SeatCountAllocationEngine implements AllocationEngine {
+
+    @Override
+    public List<Table> findBestCombination(List<Table> candidates, int guests) {
+        if (candidates == null || candidates.isEmpty() || guests <= 0) {
+            return null;
+        }
+
+        Table singleBest = null;
+        for (Table table : candidates) {
+            if (table.canFitAlone(guests)
+                    && (singleBest == null || table.getSeats() < singleBest.getSeats())) {
+                singleBest = table;
+            }
+        }
+        if (singleBest != null) {
+            return List.of(singleBest);
+        }
+
+        List<Table> joinable = new ArrayList<>();
+        for (Table table : candidates) {
+            if (table.isJoinable()) {
+                joinable.add(table);
+            }
+        }
+        if (joinable.size() < 2) {
+            return null;
+        }
+
+        int[] descending = joinable.stream().mapToInt(Table::getSeats).sorted().toArray();
+        reverse(descending);
+
+        int k = 0;
+        int topSum = descending[0];
+        for (int count = 2; count <= descending.length; count++) {
+            topSum += descending[count - 1];
+            if (topSum >= requiredSeats(guests, count)) {
+                k = count;
+                break;
+            }
+        }
+        if (k == 0) {
+            return null;
+        }
+
+        return cheapestExactly(joinable, k, requiredSeats(guests, k), topSum);
+    }
+
+    private static int requiredSeats(int guests, int tables) {
+        return guests + SEATS_LOST_PER_JOIN * (tables - 1);
+    }
+
+    /**
+     * Sottoinsieme di esattamente k tavoli con somma minima >= target (somma massima = cap).
+     * Per ogni capienza bastano i primi k tavoli: gli altri sono intercambiabili.
+     */
+    private List<Table> cheapestExactly(List<Table> joinable, int k, int target, int cap) {
+        List<Table> items = new ArrayList<>();
+        Map<Integer, Integer> perSize = new HashMap<>();
+        for (Table table : joinable) {
+            int used = perSize.merge(table.getSeats(), 1, Integer::sum);
+            if (used <= k) {
+                items.add(table);
+            }
+        }
+
+        // reachedBy[c][s] = indice del primo item con cui si ottengono s posti usando c tavoli.
+        int[][] reachedBy = new int[k + 1][cap + 1];
+        for (int[] row : reachedBy) {
+            Arrays.fill(row, -1);
+        }
+        reachedBy[0][0] = Integer.MAX_VALUE;
+
+        for (int i = 0; i < items.size(); i++) {
+            int seats = items.get(i).getSeats();
+            for (int c = Math.min(k, i + 1); c >= 1; c--) {
+                int[] previous = reachedBy[c - 1];
+                int[] current = reachedBy[c];
+                for (int s = cap; s >= seats; s--) {
+                    if (current[s] == -1 && previous[s - seats] != -1 && previous[s - seats] != i) {
+                        current[s] = i;
+                    }
+                }
+            }
+        }
+
+        int bestSum = -1;
+        for (int s = target; s <= cap; s++) {
+            if (reachedBy[k][s] != -1) {
+                bestSum = s;
+                break;
+            }
+        }
+        if (bestSum == -1) {
+            return null;
+        }
+
+        boolean[] chosen = new boolean[items.size()];
+        int s = bestSum;
+        for (int c = k; c >= 1; c--) {
+            int item = reachedBy[c][s];
+            chosen[item] = true;
+            s -= items.get(item).getSeats();
+        }
+
+        List<Table> result = new ArrayList<>(k);
+        for (int i = 0; i < items.size(); i++) {
+            if (chosen[i]) {
+                result.add(items.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static void reverse(int[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
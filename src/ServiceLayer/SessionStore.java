@@ -0,0 +1,263 @@
+package ServiceLayer;
+
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import DomainModel.valueObject.Email;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Sessioni in memoria: token opaco -> istantanea immutabile dell'utente autenticato.
+ *
+ * Risolvere un token non interroga il DB. Ogni uso sposta in avanti la scadenza
+ * (idleTimeoutMs di inattività); oltre maxSessions viene chiusa la sessione usata meno
+ * di recente. Le modifiche a email, password o ruolo chiudono tutte le sessioni
+ * dell'utente, le altre modifiche al profilo aggiornano l'istantanea.
+ * Le sessioni non sopravvivono al riavvio.
+ */
+public final class SessionStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final long idleTimeoutNanos;
+    private final SecureRandom random = new SecureRandom();
+
+    // ordine di accesso: in testa le sessioni usate meno di recente (prime a scadere o a essere rimosse)
+    private final LinkedHashMap<String, Entry> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Set<Entry>> sessionsByUser = new HashMap<>();
+
+    private long opened;
+    private long hits;
+    private long misses;
+    private long expired;
+    private long evicted;
+
+    public SessionStore() {
+        this(Settings.defaults());
+    }
+
+    public SessionStore(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    SessionStore(Settings settings, LongSupplier nanoClock) {
+        if (settings == null || nanoClock == null) {
+            throw new IllegalArgumentException("Session settings and clock are required");
+        }
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMs());
+    }
+
+    /** Apre una sessione per l'utente già autenticato e ne ritorna il token. */
+    public String open(User user) {
+        if (user == null || user.getId() <= 0) {
+            throw new IllegalArgumentException("A persisted user is required");
+        }
+        Snapshot snapshot = Snapshot.of(user);
+        String token = newToken();
+        long now = nanoClock.getAsLong();
+
+        synchronized (this) {
+            purgeExpired(now);
+            while (sessions.size() >= settings.maxSessions()) {
+                Iterator<Map.Entry<String, Entry>> eldest = sessions.entrySet().iterator();
+                Map.Entry<String, Entry> entry = eldest.next();
+                eldest.remove();
+                unindex(entry.getValue());
+                evicted++;
+            }
+            Entry entry = new Entry(token, user.getId(), snapshot, now);
+            sessions.put(token, entry);
+            sessionsByUser.computeIfAbsent(user.getId(), id -> new HashSet<>()).add(entry);
+            opened++;
+        }
+        return token;
+    }
+
+    /**
+     * Utente della sessione, come nuova copia a ogni chiamata (senza hash della password);
+     * vuoto se il token è sconosciuto o scaduto.
+     */
+    public Optional<User> resolve(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        long now = nanoClock.getAsLong();
+        Snapshot snapshot;
+        synchronized (this) {
+            Entry entry = sessions.get(token);
+            if (entry == null) {
+                misses++;
+                return Optional.empty();
+            }
+            if (now - entry.lastAccessNanos >= idleTimeoutNanos) {
+                sessions.remove(token);
+                unindex(entry);
+                expired++;
+                misses++;
+                return Optional.empty();
+            }
+            entry.lastAccessNanos = now;
+            snapshot = entry.snapshot;
+            hits++;
+        }
+        return Optional.of(snapshot.toUser());
+    }
+
+    /** Logout: chiude una singola sessione. */
+    public void close(String token) {
+        if (token == null) {
+            return;
+        }
+        synchronized (this) {
+            Entry entry = sessions.remove(token);
+            if (entry != null) {
+                unindex(entry);
+            }
+        }
+    }
+
+    /**
+     * Chiude tutte le sessioni dell'utente (cambio di password, email o ruolo).
+     * @return numero di sessioni chiuse
+     */
+    public synchronized int invalidateUser(int userId) {
+        Set<Entry> entries = sessionsByUser.remove(userId);
+        if (entries == null) {
+            return 0;
+        }
+        for (Entry entry : entries) {
+            sessions.remove(entry.token);
+        }
+        return entries.size();
+    }
+
+    /** Aggiorna l'istantanea delle sessioni aperte dall'utente senza chiuderle. */
+    public void refreshUser(User user) {
+        if (user == null) {
+            return;
+        }
+        Snapshot snapshot = Snapshot.of(user);
+        synchronized (this) {
+            // passa dall'indice per utente: una lettura della mappa conterebbe come uso della sessione
+            Set<Entry> entries = sessionsByUser.get(user.getId());
+            if (entries == null) {
+                return;
+            }
+            for (Entry entry : entries) {
+                entry.snapshot = snapshot;
+            }
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(sessions.size(), opened, hits, misses, expired, evicted);
+    }
+
+    // ----------------------------------------------------------------
+    // Metodi di supporto (chiamati tenendo il lock)
+    // ----------------------------------------------------------------
+
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> it = sessions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (now - entry.getValue().lastAccessNanos < idleTimeoutNanos) {
+                return;
+            }
+            it.remove();
+            unindex(entry.getValue());
+            expired++;
+        }
+    }
+
+    private void unindex(Entry entry) {
+        Set<Entry> entries = sessionsByUser.get(entry.userId);
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                sessionsByUser.remove(entry.userId);
+            }
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static final class Entry {
+        private final String token;
+        private final int userId;
+        private Snapshot snapshot;
+        private long lastAccessNanos;
+
+        private Entry(String token, int userId, Snapshot snapshot, long lastAccessNanos) {
+            this.token = token;
+            this.userId = userId;
+            this.snapshot = snapshot;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+
+    private record Snapshot(int id, String username, String email, String name, String surname,
+                            Role role, int fidelityPoints) {
+
+        private static Snapshot of(User user) {
+            return new Snapshot(user.getId(), user.getUsername(), user.getEmailValue(), user.getName(),
+                    user.getSurname(), user.getRole(), user.getFidelityPoints());
+        }
+
+        private User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setEmail(new Email(email));
+            user.setName(name);
+            user.setSurname(surname);
+            user.setRole(role);
+            user.setFidelityPoints(fidelityPoints);
+            return user;
+        }
+    }
+
+    /** Sessione appena aperta: il token da restituire al client e l'utente autenticato. */
+    public record Session(String token, User user) {
+    }
+
+    /**
+     * maxSessions: sessioni aperte al massimo; idleTimeoutMs: inattività dopo cui la sessione scade.
+     */
+    public record Settings(int maxSessions, long idleTimeoutMs) {
+
+        public Settings {
+            if (maxSessions <= 0 || idleTimeoutMs <= 0) {
+                throw new IllegalArgumentException("Session limit and idle timeout must be > 0");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(10_000, TimeUnit.MINUTES.toMillis(30));
+        }
+    }
+
+    /**
+     * hits/misses: token risolti o no; expired: sessioni scadute; evicted: sessioni chiuse per far posto.
+     */
+    public record Stats(int sessions, long opened, long hits, long misses, long expired, long evicted) {
+    }
+}
@@ -5,26 +5,38 @@ import DomainModel.notification.TypeNotification;
 import DomainModel.order.Order;
 import DomainModel.order.OrderStatus;
 import DomainModel.reservation.Reservation;
-import ORM.NotificationDAO;
+import DomainModel.user.User;
 import ORM.OrderDAO;
+import ORM.UserDAO;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class StaffOperationService {
 
     private final OrderDAO orderDAO;
+    private final UserDAO userDAO;
     private final ReservationService reservationService;
-    private final NotificationDAO notificationDAO;
+    private final NotificationPublisher notifications;
 
     public StaffOperationService(OrderDAO orderDAO,
                                  ReservationService reservationService,
-                                 NotificationDAO notificationDAO) {
+                                 NotificationPublisher notifications) {
+        this(orderDAO, new UserDAO(), reservationService, notifications);
+    }
+
+    public StaffOperationService(OrderDAO orderDAO,
+                                 UserDAO userDAO,
+                                 ReservationService reservationService,
+                                 NotificationPublisher notifications) {
         this.orderDAO = orderDAO;
+        this.userDAO = userDAO;
         this.reservationService = reservationService;
-        this.notificationDAO = notificationDAO;
+        this.notifications = notifications;
     }
 
     public List<Order> listOrdersByStatus(OrderStatus status) throws SQLException {
@@ -35,16 +47,7 @@ public class StaffOperationService {
         if (date == null) {
             throw new IllegalArgumentException("Date is required");
         }
-
-        List<Order> all = new ArrayList<>();
-        for (OrderStatus status : OrderStatus.values()) {
-            all.addAll(orderDAO.getOrdersByStatus(status));
-        }
-
-        return all.stream()
-                .filter(order -> order.getCreatedAt() != null)
-                .filter(order -> order.getCreatedAt().toLocalDate().equals(date))
-                .toList();
+        return orderDAO.getOrdersCreatedOn(date);
     }
 
     public void updateOrderStatus(int orderId, OrderStatus newStatus) throws SQLException {
@@ -73,6 +76,29 @@ public class StaffOperationService {
         return reservationService.listReservationsByDate(date);
     }
 
+    public List<Reservation> reservationsForDate(LocalDate date, boolean withTables) throws SQLException {
+        return reservationService.listReservationsByDate(date, withTables);
+    }
+
+    public Optional<User> findCustomer(int customerId) throws SQLException {
+        return userDAO.getUserById(customerId);
+    }
+
+    /** Clienti per id con una sola query; gli id sconosciuti non compaiono nella mappa. */
+    public Map<Integer, User> findCustomers(List<Integer> customerIds) throws SQLException {
+        Map<Integer, User> customers = new HashMap<>();
+        for (User customer : userDAO.getUsersByIds(customerIds)) {
+            customers.put(customer.getId(), customer);
+        }
+        return customers;
+    }
+
+    /** Prenotazioni in blocco per conto dei clienti (eventi, importazioni). */
+    public List<ReservationService.BookingOutcome> createReservations(
+            List<ReservationService.BookingRequest> requests) throws SQLException {
+        return reservationService.createReservations(requests);
+    }
+
     public void confirmReservation(int reservationId) throws SQLException {
         reservationService.confirmReservation(reservationId);
     }
@@ -97,7 +123,7 @@ public class StaffOperationService {
 
     private void setOrderStatus(Order order, String message) throws SQLException {
         orderDAO.updateStatus(order.getId(), order.getStatus());
-        notifyCustomer(order.getId(), message,
+        notifyCustomer(order, message,
                 order.getStatus() == OrderStatus.READY ? TypeNotification.ALERT : TypeNotification.UPDATE);
     }
 
@@ -111,10 +137,8 @@ public class StaffOperationService {
         }
     }
 
-    private void notifyCustomer(int orderId, String message, TypeNotification type) throws SQLException {
-        Order order = orderDAO.getOrderById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+    private void notifyCustomer(Order order, String message, TypeNotification type) throws SQLException {
         Notification notification = new Notification(order.getCustomer(), message, type);
-        notificationDAO.addNotification(notification);
+        notifications.publish(notification);
     }
 }
\ No newline at end of file
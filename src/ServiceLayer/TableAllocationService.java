@@ -1,11 +1,51 @@
 package ServiceLayer;
 
 import DomainModel.reservation.Table;
-import java.util.ArrayList;
+import ServiceLayer.TableAvailabilityIndex.FreeTables;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Regole di capienza dei tavoli e scelta della combinazione per una prenotazione.
+ *
+ * Le combinazioni scelte sui tavoli liberi di una data e fascia ({@link FreeTables}) sono
+ * memorizzate per coppia insieme alla versione dell'indice da cui provengono: nei momenti di
+ * picco molte richieste arrivano con gli stessi tavoli liberi e gli stessi gruppi (2, 4, 6)
+ * e la ricerca non viene ripetuta. Una versione diversa significa tavoli liberi diversi,
+ * quindi la cache non va mai invalidata; coppie diverse non si contendono alcun lock.
+ */
 public class TableAllocationService {
 
+    private static final List<Table> NO_COMBINATION = List.of();
+
+    private final AllocationEngine engine;
+    private final Settings settings;
+    private final ConcurrentMap<SlotKey, SlotCombinations> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TableAllocationService() {
+        this(new SeatCountAllocationEngine());
+    }
+
+    public TableAllocationService(AllocationEngine engine) {
+        this(engine, Settings.defaults());
+    }
+
+    public TableAllocationService(AllocationEngine engine, Settings settings) {
+        this.engine = Objects.requireNonNull(engine, "Allocation engine is required");
+        this.settings = Objects.requireNonNull(settings, "Allocation settings are required");
+    }
+
     /**
      * Calcola i posti effettivi combinando più tavoli.
      * Regola: ogni giunzione fa perdere 2 posti.
@@ -21,7 +61,7 @@ public class TableAllocationService {
                 .sum();
 
         int joints = tables.size() - 1;
-        return sum - 2 * joints;
+        return sum - AllocationEngine.SEATS_LOST_PER_JOIN * joints;
     }
 
     /**
@@ -37,59 +77,141 @@ public class TableAllocationService {
         return effectiveSeats(tables) >= guests;
     }
 
-    // Alg calcolo miglior combinazione di tavoli è complesso e dipende da vari fattori.
+    /**
+     * Sceglie la combinazione con meno tavoli e, a parità, con meno posti sprecati.
+     * La ricerca è delegata all'{@link AllocationEngine} configurato.
+     */
     public List<Table> findBestCombination(List<Table> available, int guests) {
         if (available == null || available.isEmpty() || guests <= 0) {
             return null; // controllo sul input > 0
         }
 
-        Table singleBest = available.stream()
+        List<Table> candidates = available.stream()
                 .filter(Table::isAvailable)
-                .filter(table -> table.canFitAlone(guests))
-                .min((a, b) -> Integer.compare(a.getSeats(), b.getSeats()))
-                .orElse(null);
+                .toList();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return engine.findBestCombination(candidates, guests); // può essere null se nessuna combinazione funziona
+    }
+
+    /**
+     * Come {@link #findBestCombination(List, int)}, riusando la combinazione già scelta
+     * per la stessa coppia, la stessa versione dei tavoli liberi e lo stesso numero di ospiti.
+     */
+    public List<Table> findBestCombination(FreeTables free, int guests) {
+        if (free == null || settings.cacheSize() == 0 || guests <= 0) {
+            return findBestCombination(free == null ? null : free.tables(), guests);
+        }
+
+        SlotKey key = new SlotKey(free.date(), free.slotId());
+        SlotCombinations cached = cache.get(key);
+        List<Table> combination = cached == null || cached.version() != free.version()
+                ? null
+                : cached.byGuests().get(guests);
+        if (combination != null) {
+            hits.increment();
+            return combination == NO_COMBINATION ? null : combination;
+        }
+        misses.increment();
+
+        // la ricerca avviene fuori dalla mappa: due richieste uguali possono calcolarla entrambe
+        combination = findBestCombination(free.tables(), guests);
+        List<Table> result = combination == null || combination.isEmpty() ? NO_COMBINATION : List.copyOf(combination);
+        cache.merge(key, SlotCombinations.of(free.version(), guests, result),
+                (current, added) -> current.version() == added.version() ? current.with(guests, result)
+                        : current.version() > added.version() ? current : added);
+        evictOverflow();
+        return result == NO_COMBINATION ? null : result;
+    }
+
+    public Stats getStats() {
+        return new Stats(cache.size(), hits.sum(), misses.sum(), evictions.sum());
+    }
 
-        // Filtra tavoli utilizzabili
-        List<Table> joinableTables = available.stream()
+    // prima le coppie di giorni passati, poi quelle che capitano, finché si rientra nel limite
+    private void evictOverflow() {
+        if (cache.size() <= settings.cacheSize()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        evictWhile(key -> key.date().isBefore(today));
+        evictWhile(key -> true);
+    }
+
+    private void evictWhile(Predicate<SlotKey> eligible) {
+        Iterator<SlotKey> keys = cache.keySet().iterator();
+        while (cache.size() > settings.cacheSize() && keys.hasNext()) {
+            if (eligible.test(keys.next())) {
+                keys.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Assegna i tavoli a più gruppi della stessa data e fascia considerandoli insieme:
+     * fa sedere più ospiti possibile, poi più gruppi, con meno tavoli e meno posti sprecati.
+     * @return per ogni gruppo, nello stesso ordine, i tavoli assegnati oppure null se non c'è posto
+     */
+    public List<List<Table>> packParties(List<Table> available, List<Integer> parties) {
+        if (parties == null) {
+            throw new IllegalArgumentException("Parties are required");
+        }
+        for (Integer guests : parties) {
+            if (guests == null || guests <= 0) {
+                throw new IllegalArgumentException("Guests must be greater than zero");
+            }
+        }
+        List<Table> candidates = available == null ? List.of() : available.stream()
                 .filter(Table::isAvailable)
-                .filter(Table::isJoinable)
                 .toList();
+        return new PartyPacker(engine).pack(candidates, parties);
+    }
 
-        List<Table> best = singleBest != null ? List.of(singleBest) : null;
-
-        int bestWaste = Integer.MAX_VALUE;
+    private record SlotKey(LocalDate date, int slotId) {
+    }
 
-        int n = joinableTables.size();
+    /** Combinazioni per numero di ospiti, valide per una sola versione dei tavoli liberi. */
+    private record SlotCombinations(long version, Map<Integer, List<Table>> byGuests) {
 
-        // Genera tutte le combinazioni (subset)
-        for (int mask = 1; mask < (1 << n); mask++) {
+        private static SlotCombinations of(long version, int guests, List<Table> combination) {
+            return new SlotCombinations(version, Map.of(guests, combination));
+        }
 
-            List<Table> combination = new ArrayList<>();
-            for (int i = 0; i < n; i++) {
-                if ((mask & (1 << i)) != 0) {
-                    combination.add(joinableTables.get(i));
-                }
+        private SlotCombinations with(int guests, List<Table> combination) {
+            if (byGuests.containsKey(guests)) {
+                return this;
             }
+            Map<Integer, List<Table>> extended = new HashMap<>(byGuests);
+            extended.put(guests, combination);
+            return new SlotCombinations(version, Map.copyOf(extended));
+        }
+    }
+
+    /** cacheSize: coppie (data, fascia) memorizzate al più (0 disattiva la cache). */
+    public record Settings(int cacheSize) {
 
-            int seats = effectiveSeats(combination);
-            if (seats < guests) continue;
-
-            int waste = seats - guests;
-
-            if (best == null) {
-                best = combination;
-                bestWaste = waste;
-            } else {
-                if (combination.size() < best.size()) {
-                    best = combination;
-                    bestWaste = waste;
-                } else if (combination.size() == best.size() && waste < bestWaste) {
-                    best = combination;
-                    bestWaste = waste;
-                }
+        public Settings {
+            if (cacheSize < 0) {
+                throw new IllegalArgumentException("Cache size must be >= 0");
             }
         }
 
-        return best; // può essere null se nessuna combinazione funziona
+        public static Settings defaults() {
+            return new Settings(4_096);
+        }
+    }
+
+    /**
+     * entries: coppie (data, fascia) in cache; hits/misses: ricerche evitate o eseguite;
+     * evictions: coppie scartate per far posto.
+     */
+    public record Stats(int entries, long hits, long misses, long evictions) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
     }
 }
@@ -0,0 +1,203 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+import ORM.ReservationDAO;
+import ORM.TableDAO;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Indice in memoria dei tavoli liberi per (data, slot).
+ *
+ * Ogni coppia viene caricata al primo accesso da tables/merge_tables e poi
+ * mantenuta dal {@link ReservationService}: i tavoli vengono occupati prima del
+ * salvataggio e liberati su annullamento, no-show e completamento.
+ * Le operazioni su una stessa coppia sono serializzate; coppie diverse non si bloccano.
+ * Il vincolo definitivo resta quello del database: in caso di conflitto si rileggono i tavoli
+ * prenotati della coppia, senza perdere quelli tenuti dalle richieste ancora in corso.
+ * Ogni modifica ai tavoli liberi di una coppia le assegna una nuova versione, unica nell'indice:
+ * due letture con la stessa versione vedono esattamente gli stessi tavoli liberi.
+ */
+public class TableAvailabilityIndex implements TableLayoutListener {
+
+    private final ReservationDAO reservationDAO;
+    private final TableDAO tableDAO;
+    private final ConcurrentMap<SlotKey, SlotAvailability> entries = new ConcurrentHashMap<>();
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>(new Catalog(0, null));
+    private final AtomicLong versions = new AtomicLong();
+
+    public TableAvailabilityIndex(ReservationDAO reservationDAO, TableDAO tableDAO) {
+        this.reservationDAO = reservationDAO;
+        this.tableDAO = tableDAO;
+    }
+
+    /**
+     * Tavoli disponibili e non prenotati per la coppia richiesta, nell'ordine del catalogo.
+     */
+    public List<Table> freeTables(LocalDate date, int slotId) throws SQLException {
+        return snapshot(date, slotId).tables();
+    }
+
+    /**
+     * Come {@link #freeTables}, insieme alla versione corrente della coppia.
+     */
+    public FreeTables snapshot(LocalDate date, int slotId) throws SQLException {
+        SlotAvailability entry = loadedEntry(date, slotId);
+        synchronized (entry) {
+            List<Table> free = new ArrayList<>();
+            for (Table table : entry.tables) {
+                if (entry.free.get(table.getId())) {
+                    free.add(table);
+                }
+            }
+            return new FreeTables(date, slotId, entry.version, List.copyOf(free));
+        }
+    }
+
+    /**
+     * Occupa i tavoli solo se sono tutti ancora liberi.
+     * @return false se almeno un tavolo è stato preso da un'altra richiesta
+     */
+    public boolean claim(LocalDate date, int slotId, Collection<Table> tables) throws SQLException {
+        SlotAvailability entry = loadedEntry(date, slotId);
+        synchronized (entry) {
+            for (Table table : tables) {
+                if (!entry.free.get(table.getId())) {
+                    return false;
+                }
+            }
+            for (Table table : tables) {
+                entry.free.clear(table.getId());
+            }
+            entry.version = versions.incrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Rende di nuovo liberi i tavoli; se la coppia non è in memoria verrà letta dal database.
+     */
+    public void release(LocalDate date, int slotId, Collection<Integer> tableIds) {
+        SlotAvailability entry = entries.get(new SlotKey(date, slotId));
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (!entry.loaded) {
+                return;
+            }
+            for (Integer tableId : tableIds) {
+                if (entry.catalogIds.get(tableId)) {
+                    entry.free.set(tableId);
+                }
+            }
+            entry.version = versions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Segna occupati i tavoli che il database risulta aver già prenotato per la coppia.
+     * I tavoli tenuti da richieste non ancora salvate restano occupati: nessun tavolo viene liberato.
+     */
+    public void refresh(LocalDate date, int slotId) throws SQLException {
+        SlotAvailability entry = entries.get(new SlotKey(date, slotId));
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            if (!entry.loaded) {
+                return;
+            }
+            for (Integer reservedId : reservationDAO.getReservedTableIds(date, slotId)) {
+                entry.free.clear(reservedId);
+            }
+            entry.version = versions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onTableLayoutChanged() {
+        catalog.getAndUpdate(current -> new Catalog(current.version() + 1, null));
+        entries.clear();
+    }
+
+    private SlotAvailability loadedEntry(LocalDate date, int slotId) throws SQLException {
+        if (date == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        SlotKey key = new SlotKey(date, slotId);
+        SlotAvailability entry = entries.get(key);
+        if (entry == null) {
+            pruneBefore(LocalDate.now());
+            entry = entries.computeIfAbsent(key, k -> new SlotAvailability());
+        }
+
+        synchronized (entry) {
+            if (!entry.loaded) {
+                entry.load(catalog(), reservationDAO.getReservedTableIds(date, slotId));
+                entry.version = versions.incrementAndGet();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Tavoli disponibili, letti al primo accesso dopo ogni cambio di disposizione.
+     * Una lettura iniziata prima di un cambio non viene memorizzata.
+     */
+    private List<Table> catalog() throws SQLException {
+        Catalog current = catalog.get();
+        if (current.tables() != null) {
+            return current.tables();
+        }
+        List<Table> loaded = List.copyOf(tableDAO.getAvailableTables());
+        catalog.compareAndSet(current, new Catalog(current.version(), loaded));
+        return loaded;
+    }
+
+    private void pruneBefore(LocalDate today) {
+        entries.keySet().removeIf(key -> key.date().isBefore(today));
+    }
+
+    /**
+     * Tavoli liberi di una coppia, nell'ordine del catalogo.
+     * version cambia a ogni tavolo occupato o liberato e a ogni cambio di disposizione.
+     */
+    public record FreeTables(LocalDate date, int slotId, long version, List<Table> tables) {
+    }
+
+    private record SlotKey(LocalDate date, int slotId) {
+    }
+
+    private record Catalog(long version, List<Table> tables) {
+    }
+
+    private static final class SlotAvailability {
+        private List<Table> tables = List.of();
+        private final BitSet catalogIds = new BitSet();
+        private final BitSet free = new BitSet();
+        private boolean loaded;
+        private long version;
+
+        private void load(List<Table> tables, List<Integer> reservedIds) {
+            this.tables = tables;
+            for (Table table : tables) {
+                catalogIds.set(table.getId());
+            }
+            free.or(catalogIds);
+            for (Integer reservedId : reservedIds) {
+                free.clear(reservedId);
+            }
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ServiceLayer;
+
+/**
+ * Notificato da {@link OwnerAdminService} dopo ogni modifica ai tavoli
+ * (aggiunta, modifica, disponibilità, eliminazione).
+ */
+@FunctionalInterface
+public interface TableLayoutListener {
+
+    void onTableLayoutChanged();
+}
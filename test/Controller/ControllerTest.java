@@ -60,6 +60,10 @@ class ControllerTest {
         assertSame(service.user, controller.login("a@b.it", "pwd").orElseThrow());
         assertSame(service.user,
                 controller.registerCustomer("u", "a@b.it", "pwd", "A", "B"));
+        String token = controller.openSession("a@b.it", "pwd").orElseThrow().token();
+        assertEquals(1, controller.resolveSession(token).orElseThrow().getId());
+        controller.logout(token);
+        assertTrue(controller.resolveSession(token).isEmpty());
         controller.resetForgottenPassword("a@b.it", "new");
 
         assertEquals("a@b.it", service.email);
@@ -214,6 +218,27 @@ class ControllerTest {
                         1, 2, 1, 6, ReservationStatus.CONFIRMED));
     }
 
+    @Test
+    void staffControllerLoadsBulkCustomersOnceAndRejectsUnknownIds() throws Exception {
+        FakeStaffService staff = new FakeStaffService();
+        staff.customers.put(5, user(5));
+        StaffController controller = new StaffController(staff, null, null);
+        LocalDate date = LocalDate.of(2026, 6, 1);
+
+        List<ReservationService.BookingOutcome> outcomes = controller.createReservations(List.of(
+                new StaffController.BulkReservation(5, date, 1, 2, null),
+                new StaffController.BulkReservation(99, date, 1, 4, null),
+                new StaffController.BulkReservation(5, date, 2, 3, "finestra")));
+
+        assertEquals(List.of(List.of(5, 99)), staff.customerLookups);
+        assertEquals(3, outcomes.size());
+        assertTrue(outcomes.get(0).booked());
+        assertEquals(1, outcomes.get(1).index());
+        assertEquals("Customer not found: 99", outcomes.get(1).error());
+        assertTrue(outcomes.get(2).booked());
+        assertSame(staff.customers.get(5), staff.bookingRequests.get(2).customer());
+    }
+
     private static User user(int id) {
         User user = new User("user" + id, new Email("user" + id + "@example.com"),
                 "hash", "Nome", "Cognome", Role.CUSTOMER);
@@ -462,6 +487,9 @@ class ControllerTest {
         private OrderStatus newStatus;
         private final List<Reservation> reservations = List.of(new Reservation());
         private final List<Integer> reservationActions = new java.util.ArrayList<>();
+        private final Map<Integer, User> customers = new java.util.HashMap<>();
+        private final List<List<Integer>> customerLookups = new java.util.ArrayList<>();
+        private List<ReservationService.BookingRequest> bookingRequests;
 
         FakeStaffService() {
             super(null, null, null);
@@ -484,6 +512,27 @@ class ControllerTest {
             return reservations;
         }
 
+        @Override
+        public Map<Integer, User> findCustomers(List<Integer> customerIds) {
+            customerLookups.add(customerIds);
+            Map<Integer, User> found = new java.util.HashMap<>(customers);
+            found.keySet().retainAll(customerIds);
+            return found;
+        }
+
+        @Override
+        public List<ReservationService.BookingOutcome> createReservations(
+                List<ReservationService.BookingRequest> requests) {
+            bookingRequests = requests;
+            List<ReservationService.BookingOutcome> outcomes = new java.util.ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                outcomes.add(requests.get(i).customer() == null
+                        ? new ReservationService.BookingOutcome(i, null, "Customer is required")
+                        : new ReservationService.BookingOutcome(i, new Reservation(), null));
+            }
+            return outcomes;
+        }
+
         @Override public void confirmReservation(int id) { reservationActions.add(id); }
         @Override public void registerCheckIn(int id) { reservationActions.add(id); }
         @Override public void registerNoShow(int id) { reservationActions.add(id); }
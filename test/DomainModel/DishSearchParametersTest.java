@@ -1,6 +1,7 @@
 package DomainModel;
 
 import DomainModel.search.DishSearchParameters;
+import DomainModel.search.DishTextMatch;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
@@ -82,4 +83,15 @@ class DishSearchParametersTest {
         params.setNameContains(null);
         assertFalse(params.hasFilters());
     }
-}
\ No newline at end of file
+
+    @Test
+    void textMatchDefaultsToSubstringAndIsNotAFilter() {
+        DishSearchParameters params = DishSearchParameters.builder();
+        assertEquals(DishTextMatch.SUBSTRING, params.getTextMatch());
+        params.setTextMatch(DishTextMatch.FULL_TEXT);
+        assertEquals(DishTextMatch.FULL_TEXT, params.getTextMatch());
+        assertFalse(params.hasFilters());
+        params.setTextMatch(null);
+        assertEquals(DishTextMatch.SUBSTRING, params.getTextMatch());
+    }
+}
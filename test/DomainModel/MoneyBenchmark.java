@@ -0,0 +1,94 @@
+package DomainModel;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.order.OrderItem;
+import DomainModel.valueObject.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Somma dei totali di carrello e ordine con Money in centesimi, confrontata con la
+ * vecchia somma su BigDecimal (setScale a ogni operazione).
+ * Con -prof gc la colonna gc.alloc.rate.norm mostra i byte allocati per somma.
+ * mvn -Pbench test-compile exec:exec -Dbench="MoneyBenchmark -f 1 -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    @Param({"5", "40"})
+    int items;
+
+    private List<OrderItem> lines;
+    private BigDecimal[] unitPrices;
+    private int[] quantities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        Category category = new Category("Primi", null);
+        lines = new ArrayList<>(items);
+        unitPrices = new BigDecimal[items];
+        quantities = new int[items];
+        for (int i = 0; i < items; i++) {
+            Dish dish = new Dish("Piatto " + i, "Piatto del giorno", 4 + random.nextInt(2_000) / 100.0, category);
+            int quantity = 1 + random.nextInt(4);
+            lines.add(new OrderItem(dish, quantity));
+            unitPrices[i] = dish.getPrice().getAmount();
+            quantities[i] = quantity;
+        }
+    }
+
+    /** Come OrderItem.getTotalPrice sommato riga per riga (riepilogo carrello). */
+    @Benchmark
+    public Money cartTotal() {
+        Money total = Money.ZERO;
+        for (OrderItem line : lines) {
+            total = total.add(line.getTotalPrice());
+        }
+        return total;
+    }
+
+    /** Come OrderService.placeTakeAwayOrder: somma diretta dei centesimi. */
+    @Benchmark
+    public Money orderTotal() {
+        long cents = 0;
+        for (OrderItem line : lines) {
+            cents = Math.addExact(cents, Math.multiplyExact(line.getUnitPrice().getCents(), line.getQuantity()));
+        }
+        return Money.ofCents(cents);
+    }
+
+    /** Riferimento: la rappresentazione precedente, un BigDecimal con setScale a ogni operazione. */
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+        for (int i = 0; i < items; i++) {
+            BigDecimal line = unitPrices[i].multiply(BigDecimal.valueOf(quantities[i])).setScale(2, RoundingMode.HALF_UP);
+            total = total.add(line).setScale(2, RoundingMode.HALF_UP);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,52 @@
+package DomainModel;
+
+import DomainModel.valueObject.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void amountsAreRoundedHalfUpToCents() {
+        assertEquals(101, new Money(1.005).getCents());
+        assertEquals(new BigDecimal("8.50"), new Money(8.5).getAmount());
+        assertEquals(new BigDecimal("0.13"), new Money(new BigDecimal("0.125")).getAmount());
+        assertEquals("12.30€", new Money(new BigDecimal("12.3")).toString());
+    }
+
+    @Test
+    void equalityIgnoresTheScaleOfTheSourceAmount() {
+        Money a = new Money(new BigDecimal("4.5"));
+        Money b = new Money(new BigDecimal("4.500"));
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(a, Money.ofCents(450));
+    }
+
+    @Test
+    void addAndMultiplyWorkOnCents() {
+        Money price = new Money(8.50);
+
+        assertEquals(new Money(42.50), price.multiply(5));
+        assertEquals(new Money(9.75), price.add(new Money(1.25)));
+        assertSame(price, price.add(Money.ZERO));
+        assertSame(Money.ZERO, price.multiply(0));
+        assertSame(Money.ZERO, Money.ofCents(0));
+    }
+
+    @Test
+    void negativeAndOverflowingAmountsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Money(-0.01));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofCents(-1));
+        assertThrows(IllegalArgumentException.class, () -> Money.ZERO.multiply(-1));
+        assertThrows(IllegalArgumentException.class, () -> new Money(new BigDecimal("1e30")));
+
+        Money huge = Money.ofCents(Long.MAX_VALUE / 2 + 1);
+        assertThrows(ArithmeticException.class, () -> huge.add(huge));
+        assertThrows(ArithmeticException.class, () -> huge.multiply(3));
+    }
+}
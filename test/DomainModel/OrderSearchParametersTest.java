@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,4 +98,32 @@ class OrderSearchParametersTest {
                 .setStartDate(null).setEndDate(null).setMinTotalAmount(null).setMaxTotalAmount(null);
         assertFalse(p.hasFilters());
     }
-}
\ No newline at end of file
+
+    @Test
+    void cursorAndLimitArePagingNotFilters() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 12, 30);
+        OrderSearchParameters p = OrderSearchParameters.builder().setAfter(createdAt, 7).setLimit(50);
+
+        assertEquals(createdAt, p.getAfterCreatedAt().orElseThrow());
+        assertEquals(7, p.getAfterId().orElseThrow());
+        assertEquals(50, p.getLimit().orElseThrow());
+        assertFalse(p.hasFilters());
+
+        p.setAfter(null, null).setLimit(null);
+        assertTrue(p.getAfterCreatedAt().isEmpty());
+        assertTrue(p.getAfterId().isEmpty());
+        assertTrue(p.getLimit().isEmpty());
+    }
+
+    @Test
+    void cursorRequiresBothPartsAndLimitMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderSearchParameters.builder().setAfter(LocalDateTime.now(), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderSearchParameters.builder().setAfter(null, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderSearchParameters.builder().setAfter(LocalDateTime.now(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> OrderSearchParameters.builder().setLimit(0));
+    }
+}
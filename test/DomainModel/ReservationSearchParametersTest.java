@@ -5,6 +5,7 @@ import DomainModel.search.ReservationSearchParameters;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -94,4 +95,32 @@ class ReservationSearchParametersTest {
                 .setMinGuests(null).setMaxGuests(null).setStatus(null);
         assertFalse(p.hasFilters());
     }
-}
\ No newline at end of file
+
+    @Test
+    void cursorAndLimitArePagingNotFilters() {
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        LocalTime start = LocalTime.of(19, 30);
+        ReservationSearchParameters p = ReservationSearchParameters.builder().setAfter(date, start, 4).setLimit(20);
+
+        assertEquals(date, p.getAfterDate().orElseThrow());
+        assertEquals(start, p.getAfterStartTime().orElseThrow());
+        assertEquals(4, p.getAfterId().orElseThrow());
+        assertEquals(20, p.getLimit().orElseThrow());
+        assertFalse(p.hasFilters());
+
+        p.setAfter(null, null, null).setLimit(null);
+        assertTrue(p.getAfterDate().isEmpty());
+        assertTrue(p.getLimit().isEmpty());
+    }
+
+    @Test
+    void cursorRequiresAllPartsAndLimitMustBePositive() {
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservationSearchParameters.builder().setAfter(date, null, 4));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservationSearchParameters.builder().setAfter(date, LocalTime.NOON, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservationSearchParameters.builder().setLimit(-5));
+    }
+}
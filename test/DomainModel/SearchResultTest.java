@@ -1,5 +1,6 @@
 package DomainModel;
 
+import DomainModel.search.SearchBranch;
 import DomainModel.search.SearchResult;
 import org.junit.jupiter.api.Test;
 
@@ -78,4 +79,19 @@ class SearchResultTest {
         assertTrue(result.getReservations().isEmpty());
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void partialFlagAndTimingsAreTrackedPerBranch() {
+        SearchResult result = new SearchResult();
+        assertFalse(result.isPartial());
+
+        result.recordTiming(SearchBranch.DISHES, 120);
+        result.markIncomplete(SearchBranch.ORDERS);
+
+        assertTrue(result.isPartial());
+        assertEquals(java.util.Set.of(SearchBranch.ORDERS), result.getIncompleteBranches());
+        assertEquals(120L, result.getBranchTimings().get(SearchBranch.DISHES));
+        assertThrows(UnsupportedOperationException.class,
+                () -> result.getIncompleteBranches().clear());
+    }
+}
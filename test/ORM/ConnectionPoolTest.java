@@ -0,0 +1,285 @@
+package ORM;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private final FakeDataSource source = new FakeDataSource();
+    private final AtomicInteger initializations = new AtomicInteger();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void returnedConnectionIsReusedAndInitializedOnlyOnce() throws Exception {
+        pool = pool(settings(2, 0, 500, 60_000, 60_000, 0));
+
+        for (int i = 0; i < 5; i++) {
+            try (Connection connection = pool.getConnection()) {
+                assertFalse(connection.isClosed());
+            }
+        }
+
+        assertEquals(1, source.opened.get());
+        assertEquals(1, initializations.get());
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.total());
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+        assertEquals(5, stats.borrows());
+    }
+
+    @Test
+    void closingHandleTwiceReturnsConnectionOnlyOnce() throws Exception {
+        pool = pool(settings(1, 0, 200, 60_000, 60_000, 0));
+
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThrows(SQLException.class, connection::createStatement);
+        try (Connection next = pool.getConnection()) {
+            assertEquals(1, pool.getStats().active());
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+        }
+    }
+
+    @Test
+    void borrowTimesOutWhenPoolIsExhaustedAndCountsWaiters() throws Exception {
+        pool = pool(settings(1, 0, 300, 60_000, 60_000, 0));
+        Connection held = pool.getConnection();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> waiter = executor.submit(() -> {
+                assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+                return null;
+            });
+            awaitWaiting(1);
+            waiter.get(2, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            held.close();
+        }
+
+        assertEquals(1, pool.getStats().timeouts());
+        assertEquals(0, pool.getStats().waiting());
+    }
+
+    @Test
+    void concurrentBorrowersNeverExceedMaxSize() throws Exception {
+        pool = pool(settings(4, 0, 5_000, 60_000, 60_000, 0));
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    try (Connection ignored = pool.getConnection()) {
+                        peak.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        inUse.decrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(peak.get() <= 4);
+        assertTrue(source.opened.get() <= 4);
+        assertEquals(threads * 200, pool.getStats().borrows());
+        assertEquals(0, pool.getStats().active());
+    }
+
+    @Test
+    void housekeepingRetiresExpiredAndIdleConnectionsAndRefillsMinimum() throws Exception {
+        pool = pool(settings(4, 1, 500, 20, 60_000, 0));
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        first.close();
+        second.close();
+
+        Thread.sleep(40);
+        pool.runHousekeeping();
+
+        assertEquals(1, pool.getStats().idle());
+        assertEquals(1, pool.getStats().total());
+        assertTrue(source.closed.get() >= 1);
+    }
+
+    @Test
+    void connectionsPastMaxLifetimeAreNotReused() throws Exception {
+        pool = pool(settings(2, 0, 500, 60_000, 30, 0));
+        pool.getConnection().close();
+
+        Thread.sleep(50);
+        pool.getConnection().close();
+
+        assertEquals(2, source.opened.get());
+        assertEquals(1, source.closed.get());
+    }
+
+    @Test
+    void leakDetectionReportsLongBorrowsOnce() throws Exception {
+        pool = pool(settings(2, 0, 500, 60_000, 60_000, 10));
+        Connection leaked = pool.getConnection();
+
+        Thread.sleep(30);
+        pool.runHousekeeping();
+        pool.runHousekeeping();
+
+        assertEquals(1, pool.getStats().leaksDetected());
+        leaked.close();
+    }
+
+    @Test
+    void leakDetectionIsOffByDefault() {
+        assertEquals(0, ConnectionPool.Settings.defaults().leakDetectionThresholdMs());
+    }
+
+    @Test
+    void uncommittedTransactionIsRolledBackOnReturn() throws Exception {
+        pool = pool(settings(1, 0, 500, 60_000, 60_000, 0));
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+        }
+
+        try (Connection connection = pool.getConnection()) {
+            assertTrue(connection.getAutoCommit());
+        }
+        assertEquals(1, source.rollbacks.get());
+    }
+
+    @Test
+    void statementsCreatedUnderADeadlineGetTheRemainingTimeAsQueryTimeout() throws Exception {
+        pool = pool(settings(1, 0, 500, 60_000, 60_000, 0));
+
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT 1");
+            assertEquals(0, source.queryTimeout.get());
+
+            QueryDeadline.call(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2_500),
+                    () -> connection.prepareStatement("SELECT 1"));
+            assertEquals(3, source.queryTimeout.get());
+
+            QueryDeadline.call(System.nanoTime() - 1, () -> connection.createStatement());
+            assertEquals(1, source.queryTimeout.get());
+        }
+    }
+
+    private void awaitWaiting(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (pool.getStats().waiting() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, pool.getStats().waiting());
+    }
+
+    private ConnectionPool pool(ConnectionPool.Settings settings) {
+        return new ConnectionPool(settings, source.proxy(), List.of(connection -> initializations.incrementAndGet()));
+    }
+
+    private ConnectionPool.Settings settings(int maxSize, int minIdle, long borrowTimeoutMs,
+                                             long idleTimeoutMs, long maxLifetimeMs, long leakMs) {
+        // manutenzione automatica molto rara: i test la invocano direttamente
+        return new ConnectionPool.Settings(maxSize, minIdle, borrowTimeoutMs,
+                idleTimeoutMs, maxLifetimeMs, leakMs, 3_600_000);
+    }
+
+    private static class FakeDataSource {
+        private final AtomicInteger opened = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+        private final AtomicInteger queryTimeout = new AtomicInteger();
+
+        private DataSource proxy() {
+            return (DataSource) Proxy.newProxyInstance(
+                    DataSource.class.getClassLoader(),
+                    new Class<?>[]{DataSource.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("getConnection")) {
+                            opened.incrementAndGet();
+                            return connection();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private Connection connection() {
+            boolean[] state = {true, false}; // autoCommit, closed
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getAutoCommit" -> state[0];
+                        case "setAutoCommit" -> {
+                            state[0] = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rollbacks.incrementAndGet();
+                            yield null;
+                        }
+                        case "close" -> {
+                            if (!state[1]) {
+                                state[1] = true;
+                                closed.incrementAndGet();
+                            }
+                            yield null;
+                        }
+                        case "prepareStatement", "createStatement" -> statement();
+                        case "isClosed" -> state[1];
+                        case "isValid" -> !state[1];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "FakeConnection";
+                        default -> null;
+                    });
+        }
+
+        private Statement statement() {
+            return (Statement) Proxy.newProxyInstance(
+                    Statement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("setQueryTimeout")) {
+                            queryTimeout.set((Integer) args[0]);
+                        }
+                        return null;
+                    });
+        }
+    }
+}
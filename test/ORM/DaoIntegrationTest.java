@@ -9,17 +9,20 @@ import DomainModel.order.Order;
 import DomainModel.order.OrderItem;
 import DomainModel.order.OrderStatus;
 import DomainModel.order.PaymentMethod;
+import DomainModel.order.SavedCart;
 import DomainModel.reservation.MergeTable;
 import DomainModel.reservation.Reservation;
 import DomainModel.reservation.ReservationStatus;
 import DomainModel.reservation.Slot;
 import DomainModel.reservation.Table;
 import DomainModel.search.DishSearchParameters;
+import DomainModel.search.DishTextMatch;
 import DomainModel.search.OrderSearchParameters;
 import DomainModel.search.ReservationSearchParameters;
 import DomainModel.user.Role;
 import DomainModel.user.User;
 import DomainModel.valueObject.Email;
+import ORM.CartDAO;
 import ORM.CategoryDAO;
 import ORM.DBConnection;
 import ORM.DishDAO;
@@ -46,9 +49,19 @@ import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Collections;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,6 +83,7 @@ class DaoIntegrationTest {
     private final OrderDAO orderDAO = new OrderDAO();
     private final OrderItemDAO orderItemDAO = new OrderItemDAO();
     private final NotificationDAO notificationDAO = new NotificationDAO();
+    private final CartDAO cartDAO = new CartDAO();
 
     @BeforeAll
     void createIsolatedSchema() throws Exception {
@@ -107,7 +121,7 @@ class DaoIntegrationTest {
         try (Connection connection = DBConnection.getConnection();
              Statement statement = connection.createStatement()) {
             statement.execute("""
-                    TRUNCATE TABLE merge_tables, order_items, notifications, orders,
+                    TRUNCATE TABLE cart_items, carts, table_bookings, merge_tables, order_items, notifications, orders,
                                    reservations, dishes, categories, slots, tables, users
                     RESTART IDENTITY CASCADE
                     """);
@@ -125,6 +139,27 @@ class DaoIntegrationTest {
         }
     }
 
+    @Test
+    void connectionInitializersRunOncePerPhysicalConnection() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        DBConnection.addConnectionInitializer(connection -> {
+            calls.incrementAndGet();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET dineup.init_marker = 'on'");
+            }
+        });
+
+        for (int i = 0; i < 10; i++) {
+            try (Connection connection = DBConnection.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT current_setting('dineup.init_marker')")) {
+                assertTrue(rs.next());
+                assertEquals("on", rs.getString(1));
+            }
+        }
+        assertTrue(calls.get() >= 1 && calls.get() < 10);
+    }
+
     @Test
     void userDaoCoversCreateReadUpdateSearchAndDelete() throws Exception {
         User saved = addUser("mario", "mario@example.com");
@@ -133,6 +168,8 @@ class DaoIntegrationTest {
         assertEquals(saved.getId(), userDAO.getUserByEmail(saved.getEmailValue()).orElseThrow().getId());
         assertTrue(userDAO.emailExists(saved.getEmailValue()));
         assertEquals(1, userDAO.getUsersByName("Nom").size());
+        assertEquals(List.of(saved.getId()), userDAO.getUsersByIds(List.of(saved.getId(), saved.getId() + 1000))
+                .stream().map(User::getId).toList());
         assertEquals(1, userDAO.getAllUsers().size());
 
         saved.setFidelityPoints(25);
@@ -141,6 +178,20 @@ class DaoIntegrationTest {
         assertEquals(25, userDAO.getUserById(saved.getId()).orElseThrow().getFidelityPoints());
         assertEquals("Luigi", userDAO.getUserById(saved.getId()).orElseThrow().getName());
 
+        User sessionUser = new User(); // come quello risolto da una sessione: senza hash
+        sessionUser.setId(saved.getId());
+        sessionUser.setUsername(saved.getUsername());
+        sessionUser.setEmail(new Email(saved.getEmailValue()));
+        sessionUser.setName("Luigi");
+        sessionUser.setSurname(saved.getSurname());
+        sessionUser.setRole(saved.getRole());
+        sessionUser.setFidelityPoints(30);
+        userDAO.updateUser(sessionUser);
+        assertEquals(30, userDAO.getUserById(saved.getId()).orElseThrow().getFidelityPoints());
+        assertEquals(saved.getPasswordHash(), userDAO.getUserById(saved.getId()).orElseThrow().getPasswordHash());
+        userDAO.updatePasswordHash(saved.getId(), "nuovo-hash");
+        assertEquals("nuovo-hash", userDAO.getUserById(saved.getId()).orElseThrow().getPasswordHash());
+
         assertTrue(userDAO.removeUser(saved.getId()));
         assertTrue(userDAO.getUserById(saved.getId()).isEmpty());
     }
@@ -196,6 +247,58 @@ class DaoIntegrationTest {
         assertTrue(dishDAO.getDishById(dish.getId()).isEmpty());
     }
 
+    @Test
+    void dishTextSearchRanksByRelevanceAndToleratesTypos() throws Exception {
+        Category category = addCategory("Primi");
+        Dish carbonara = addDish(category, "Spaghetti alla carbonara", 12.0);
+        Dish amatriciana = new Dish("Bucatini all'amatriciana", "Guanciale e pecorino, come la carbonara", 11.0, category);
+        dishDAO.addDish(amatriciana);
+        addDish(category, "Risotto ai funghi", 13.0);
+
+        List<Dish> fullText = dishDAO.searchDishes(DishSearchParameters.builder()
+                .setNameContains("carbonara")
+                .setTextMatch(DishTextMatch.FULL_TEXT));
+        assertEquals(List.of(carbonara.getId(), amatriciana.getId()),
+                fullText.stream().map(Dish::getId).toList());
+
+        List<Dish> fuzzy = dishDAO.searchDishes(DishSearchParameters.builder()
+                .setNameContains("carbonra")
+                .setTextMatch(DishTextMatch.FUZZY));
+        assertEquals(carbonara.getId(), fuzzy.get(0).getId());
+
+        assertTrue(dishDAO.searchDishes(DishSearchParameters.builder()
+                .setNameContains("carbonra")).isEmpty());
+    }
+
+    @Test
+    void dishDaoLoadsWholeMenuWithFullCategoriesInOneQuery() throws Exception {
+        Category secondi = addCategory("Secondi");
+        Category antipasti = addCategory("Antipasti");
+        Category dolci = addCategory("Dolci");
+        Dish bruschetta = addDish(antipasti, "Bruschetta", 5.0);
+        Dish tagliata = addDish(secondi, "Tagliata", 18.0);
+        Dish arrosto = addDish(secondi, "Arrosto", 16.0);
+        arrosto.markUnavailable();
+        dishDAO.updateDish(arrosto);
+        categoryDAO.setCategoryActive(dolci.getId(), false);
+
+        Map<Category, List<Dish>> full = dishDAO.loadMenu(false, false);
+        assertEquals(List.of("Antipasti", "Dolci", "Secondi"),
+                full.keySet().stream().map(Category::getName).toList());
+        Category loadedSecondi = full.keySet().stream()
+                .filter(c -> c.getId() == secondi.getId()).findFirst().orElseThrow();
+        assertEquals(List.of(arrosto.getId(), tagliata.getId()),
+                full.get(loadedSecondi).stream().map(Dish::getId).toList());
+        assertSame(loadedSecondi, full.get(loadedSecondi).get(0).getCategory());
+        assertEquals("Secondi", full.get(loadedSecondi).get(0).getCategory().getName());
+
+        Map<Category, List<Dish>> filtered = dishDAO.loadMenu(true, true);
+        assertEquals(List.of("Antipasti", "Secondi"),
+                filtered.keySet().stream().map(Category::getName).toList());
+        assertEquals(List.of(List.of(bruschetta.getId()), List.of(tagliata.getId())),
+                filtered.values().stream().map(d -> d.stream().map(Dish::getId).toList()).toList());
+    }
+
     @Test
     void tableDaoCoversCrudLookupAndAvailability() throws Exception {
         Table table = new Table(10, 4, true, "sala");
@@ -263,12 +366,21 @@ class DaoIntegrationTest {
                 reservationDAO.getReservedTableIds(LocalDate.of(2027, 1, 10), slot.getId()));
         assertEquals(1, reservationDAO.getReservationsByCustomer(customer.getId()).size());
         assertEquals(1, reservationDAO.getReservationsByDate(LocalDate.of(2027, 1, 10)).size());
+        assertTrue(reservationDAO.getReservationsByDate(LocalDate.of(2027, 1, 10)).get(0).getTables().isEmpty());
+        assertEquals(table.getNumber(), reservationDAO.getReservationsByDate(LocalDate.of(2027, 1, 10), true)
+                .get(0).getTables().get(0).getTable().getNumber());
+        assertEquals(1, reservationDAO.getReservationsByCustomer(customer.getId(), true).get(0).getTables().size());
+        Map<Integer, List<MergeTable>> byReservation =
+                reservationDAO.getTableAssignments(List.of(reservation.getId(), Integer.MAX_VALUE));
+        assertEquals(List.of(reservation.getId()), List.copyOf(byReservation.keySet()));
+        assertEquals(1, byReservation.get(reservation.getId()).size());
 
         ReservationSearchParameters params = ReservationSearchParameters.builder()
                 .setCustomerId(customer.getId())
                 .setSlotId(slot.getId())
                 .setStatus(ReservationStatus.CREATED);
         assertEquals(1, reservationDAO.searchReservations(params).size());
+        assertEquals(1, reservationDAO.searchReservations(params.setWithTables(true)).get(0).getTables().size());
 
         reservation.setNumberOfGuests(4);
         reservation.setNotes("compleanno");
@@ -298,6 +410,104 @@ class DaoIntegrationTest {
                         new Reservation(customer, dateTime, slot, 2, null), List.of(table)));
     }
 
+    @Test
+    void occupancyModeRejectsConflictsAndReleasesClosedReservations() throws Exception {
+        User customer = addUser("anna", "anna@example.com");
+        Slot slot = addSlot();
+        Table first = addTable(1, 4);
+        Table second = addTable(2, 4);
+        LocalDateTime dateTime = LocalDateTime.of(2027, 1, 10, 19, 0);
+        ReservationDAO occupancyDAO = new ReservationDAO(ReservationDAO.TableLocking.OCCUPANCY);
+
+        Reservation merged = new Reservation(customer, dateTime, slot, 6, null);
+        occupancyDAO.addReservationWithTables(merged, List.of(first, second));
+
+        // le due modalità condividono table_bookings e si escludono a vicenda
+        assertThrows(java.sql.SQLException.class, () -> reservationDAO.addReservationWithTables(
+                new Reservation(customer, dateTime, slot, 2, null), List.of(second)));
+        assertThrows(java.sql.SQLException.class, () -> occupancyDAO.addReservationWithTables(
+                new Reservation(customer, dateTime, slot, 2, null), List.of(first)));
+        assertEquals(1, reservationDAO.getReservationsByDate(dateTime.toLocalDate()).size());
+
+        reservationDAO.updateStatus(merged.getId(), ReservationStatus.CANCELED);
+        occupancyDAO.addReservationWithTables(new Reservation(customer, dateTime, slot, 2, null), List.of(first));
+        assertEquals(1, countTableBookings());
+    }
+
+    /**
+     * Prova di carico: 8 thread, 64 tavoli contesi da 4 richieste ciascuno nello stesso slot.
+     * Entrambe le modalità devono accettare una sola prenotazione per tavolo; i tempi si confrontano
+     * con {@link TableLockingBenchmark}.
+     */
+    @Test
+    void concurrentBookingsKeepOneReservationPerTableInBothLockingModes() throws Exception {
+        User customer = addUser("luca", "luca@example.com");
+        Slot slot = addSlot();
+        List<Table> tables = new ArrayList<>();
+        for (int number = 1; number <= 64; number++) {
+            tables.add(addTable(number, 4));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (ReservationDAO.TableLocking mode : ReservationDAO.TableLocking.values()) {
+                ReservationDAO dao = new ReservationDAO(mode);
+                LocalDateTime dateTime = LocalDateTime.of(2027, 2, 1 + mode.ordinal(), 19, 0);
+
+                List<Callable<Boolean>> attempts = new ArrayList<>();
+                for (Table table : tables) {
+                    for (int i = 0; i < 4; i++) {
+                        attempts.add(() -> {
+                            try {
+                                dao.addReservationWithTables(
+                                        new Reservation(customer, dateTime, slot, 2, null), List.of(table));
+                                return true;
+                            } catch (java.sql.SQLException e) {
+                                return false;
+                            }
+                        });
+                    }
+                }
+                Collections.shuffle(attempts, new Random(42));
+
+                int booked = 0;
+                for (Future<Boolean> result : pool.invokeAll(attempts)) {
+                    if (result.get()) {
+                        booked++;
+                    }
+                }
+
+                assertEquals(tables.size(), booked);
+                assertEquals(tables.size(), reservationDAO.getReservedTableIds(dateTime.toLocalDate(), slot.getId())
+                        .stream().distinct().count());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2L * tables.size(), countTableBookings());
+    }
+
+    @Test
+    void batchedOrderItemInsertAssignsGeneratedIdsInListOrder() throws Exception {
+        User customer = addUser("sara", "sara@example.com");
+        Category category = addCategory("Bevande");
+        Dish water = addDish(category, "Acqua", 1.50);
+        Dish juice = addDish(category, "Succo", 3.00);
+        List<OrderItem> items = List.of(new OrderItem(water, 1), new OrderItem(juice, 2), new OrderItem(water, 3));
+        Order order = new Order(customer, PaymentMethod.ONLINE, 12.0, null);
+
+        orderDAO.addOrderWithItems(order, items);
+
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (OrderItem stored : orderItemDAO.getItemsByOrder(order.getId())) {
+            quantities.put(stored.getId(), stored.getQuantity());
+        }
+        assertEquals(3, quantities.size());
+        for (OrderItem item : items) {
+            assertEquals(item.getQuantity(), quantities.get(item.getId()));
+        }
+    }
+
     @Test
     void orderAndOrderItemDaosCoverAtomicSaveSearchStatusAndDeletion() throws Exception {
         User customer = addUser("paolo", "paolo@example.com");
@@ -332,6 +542,66 @@ class DaoIntegrationTest {
         assertTrue(orderDAO.getOrderById(order.getId()).isEmpty());
     }
 
+    @Test
+    void ordersCreatedOnReturnsOnlyThatDayInChronologicalOrder() throws Exception {
+        User customer = addUser("giulia", "giulia@example.com");
+        Dish dish = addDish(addCategory("Dolci"), "Tiramisu", 5.00);
+        LocalDate day = LocalDate.of(2026, 3, 14);
+        Order late = orderAt(customer, dish, day.atTime(21, 30));
+        Order early = orderAt(customer, dish, day.atStartOfDay());
+        orderAt(customer, dish, day.minusDays(1).atTime(23, 59, 59));
+        orderAt(customer, dish, day.plusDays(1).atStartOfDay());
+
+        List<Order> orders = orderDAO.getOrdersCreatedOn(day);
+
+        assertEquals(List.of(early.getId(), late.getId()), orders.stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void orderAndReservationSearchesPageWithKeysetCursorAndStream() throws Exception {
+        User customer = addUser("bruno", "bruno@example.com");
+        Dish dish = addDish(addCategory("Primi"), "Carbonara", 11.00);
+        LocalDateTime sameInstant = LocalDateTime.of(2026, 5, 1, 20, 0);
+        for (int i = 0; i < 5; i++) {
+            orderAt(customer, dish, i < 2 ? sameInstant : sameInstant.minusHours(i));
+        }
+
+        List<Integer> expectedOrders = orderDAO.searchOrders(null).stream().map(Order::getId).toList();
+        List<Integer> pagedOrders = new ArrayList<>();
+        OrderSearchParameters orderPage = OrderSearchParameters.builder().setLimit(2);
+        List<Order> page;
+        while (!(page = orderDAO.searchOrders(orderPage)).isEmpty()) {
+            page.forEach(order -> pagedOrders.add(order.getId()));
+            Order last = page.get(page.size() - 1);
+            orderPage.setAfter(last.getCreatedAt(), last.getId());
+        }
+        assertEquals(5, expectedOrders.size());
+        assertEquals(expectedOrders, pagedOrders);
+
+        List<Integer> streamedOrders = new ArrayList<>();
+        orderDAO.forEachOrder(OrderSearchParameters.builder().setCustomerId(customer.getId()),
+                order -> streamedOrders.add(order.getId()));
+        assertEquals(expectedOrders, streamedOrders);
+
+        Slot slot = addSlot();
+        for (int day = 3; day >= 1; day--) {
+            reservationDAO.addReservation(new Reservation(customer,
+                    LocalDateTime.of(2027, 2, day, 19, 0), slot, 2, null));
+        }
+        List<Reservation> first = reservationDAO.searchReservations(
+                ReservationSearchParameters.builder().setLimit(2));
+        assertEquals(2, first.size());
+        Reservation last = first.get(1);
+        List<Reservation> rest = reservationDAO.searchReservations(ReservationSearchParameters.builder()
+                .setAfter(last.getReservDate().toLocalDate(), last.getTimeSlot().getStartTime(), last.getId()));
+        assertEquals(1, rest.size());
+        assertEquals(LocalDate.of(2027, 2, 3), rest.get(0).getReservDate().toLocalDate());
+
+        List<Reservation> streamed = new ArrayList<>();
+        reservationDAO.forEachReservation(null, streamed::add);
+        assertEquals(3, streamed.size());
+    }
+
     @Test
     void notificationDaoCoversCreateQueriesStateChangesAndDelete() throws Exception {
         User recipient = addUser("luca", "luca@example.com");
@@ -356,6 +626,89 @@ class DaoIntegrationTest {
         assertTrue(notificationDAO.getNotificationById(notification.getId()).isEmpty());
     }
 
+    @Test
+    void notificationStateUpdatesUseSingleStatementsAndBulkVariants() throws Exception {
+        User recipient = addUser("marta", "marta@example.com");
+        User other = addUser("enzo", "enzo@example.com");
+        List<Notification> mine = List.of(
+                new Notification(recipient, "Uno", TypeNotification.UPDATE),
+                new Notification(recipient, "Due", TypeNotification.UPDATE),
+                new Notification(recipient, "Tre", TypeNotification.UPDATE));
+        Notification foreign = new Notification(other, "Altro", TypeNotification.UPDATE);
+        notificationDAO.addNotifications(mine);
+        notificationDAO.addNotification(foreign);
+
+        Notification read = notificationDAO.markAsRead(mine.get(0).getId());
+        assertEquals(StatusNotification.READ, read.getStatus());
+        assertEquals(read.getReadAt(), notificationDAO.markAsRead(mine.get(0).getId()).getReadAt());
+        assertThrows(IllegalArgumentException.class, () -> notificationDAO.markAsRead(Integer.MAX_VALUE));
+
+        assertEquals(1, notificationDAO.markAsRead(recipient.getId(),
+                List.of(mine.get(0).getId(), mine.get(1).getId(), foreign.getId())));
+        assertEquals(1, notificationDAO.markAllAsRead(recipient.getId()));
+        assertTrue(notificationDAO.getUnreadNotificationsForUser(recipient.getId()).isEmpty());
+        assertEquals(1, notificationDAO.getUnreadNotificationsForUser(other.getId()).size());
+
+        Notification failed = notificationDAO.markAsFailed(mine.get(2).getId());
+        assertEquals(StatusNotification.FAILED, failed.getStatus());
+        assertNull(failed.getReadAt());
+    }
+
+    @Test
+    void multiRowNotificationInsertIsAllOrNothing() throws Exception {
+        User recipient = addUser("irene", "irene@example.com");
+        List<Notification> batch = List.of(
+                new Notification(recipient, "Prenotazione confermata", TypeNotification.CONFIRMATION),
+                new Notification(recipient, "Ordine pronto", TypeNotification.ALERT));
+
+        notificationDAO.addNotifications(batch);
+
+        assertTrue(batch.get(0).getId() > 0);
+        assertEquals("Ordine pronto",
+                notificationDAO.getNotificationById(batch.get(1).getId()).orElseThrow().getMessage());
+
+        User missing = new User();
+        missing.setId(Integer.MAX_VALUE);
+        Notification valid = new Notification(recipient, "Valida", TypeNotification.UPDATE);
+        assertThrows(java.sql.SQLException.class, () -> notificationDAO.addNotifications(
+                List.of(valid, new Notification(missing, "Orfana", TypeNotification.UPDATE))));
+        assertEquals(0, valid.getId());
+        assertEquals(2, notificationDAO.getNotificationsForUser(recipient.getId()).size());
+    }
+
+    @Test
+    void cartDaoReplacesCartsInOneBatchAndDropsStaleOrOrderedOnes() throws Exception {
+        User anna = addUser("anna", "anna@example.com");
+        User bruno = addUser("bruno", "bruno@example.com");
+        Category category = addCategory("Pizze");
+        Dish margherita = addDish(category, "Margherita", 8.00);
+        Dish diavola = addDish(category, "Diavola", 9.50);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        cartDAO.saveCarts(List.of(
+                new SavedCart(anna.getId(), List.of(new OrderItem(diavola, 1), new OrderItem(margherita, 2)), now),
+                new SavedCart(bruno.getId(), List.of(new OrderItem(margherita, 1)), now.minusHours(5))));
+        cartDAO.saveCarts(List.of(
+                new SavedCart(anna.getId(), List.of(new OrderItem(margherita, 3), new OrderItem(diavola, 1)), now)));
+
+        List<SavedCart> carts = cartDAO.getAllCarts();
+        assertEquals(2, carts.size());
+        SavedCart annaCart = carts.get(0);
+        assertEquals(anna.getId(), annaCart.getUserId());
+        assertEquals(List.of(margherita.getId(), diavola.getId()),
+                annaCart.getItems().stream().map(item -> item.getDish().getId()).toList());
+        assertEquals(3, annaCart.getItems().get(0).getQuantity());
+
+        assertEquals(1, cartDAO.deleteStaleCarts(now.minusHours(2)));
+        orderAt(anna, margherita, now.plusSeconds(1));
+        assertEquals(1, cartDAO.deleteStaleCarts(now.minusHours(2)));
+        assertTrue(cartDAO.getAllCarts().isEmpty());
+
+        cartDAO.saveCarts(List.of(new SavedCart(bruno.getId(), List.of(new OrderItem(diavola, 1)), now.plusMinutes(1))));
+        cartDAO.saveCarts(List.of(new SavedCart(bruno.getId(), List.of(), now.plusMinutes(2))));
+        assertTrue(cartDAO.getAllCarts().isEmpty());
+    }
+
     private User addUser(String username, String email) throws Exception {
         User user = new User(username, new Email(email), "hash",
                 "Nome", "Cognome", Role.CUSTOMER);
@@ -375,6 +728,15 @@ class DaoIntegrationTest {
         return dish;
     }
 
+    private int countTableBookings() throws Exception {
+        try (Connection connection = DBConnection.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM table_bookings")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
     private Slot addSlot() throws Exception {
         Slot slot = new Slot(LocalTime.of(19, 0), LocalTime.of(21, 0));
         slotDAO.addSlot(slot);
@@ -387,6 +749,13 @@ class DaoIntegrationTest {
         return table;
     }
 
+    private Order orderAt(User customer, Dish dish, LocalDateTime createdAt) throws Exception {
+        Order order = new Order(customer, PaymentMethod.ONLINE, 5.0, null);
+        order.setCreatedAt(createdAt);
+        orderDAO.addOrderWithItems(order, List.of(new OrderItem(dish, 1)));
+        return order;
+    }
+
     private Properties databaseConfig() throws Exception {
         Properties props = new Properties();
         try (InputStream input = Files.newInputStream(Path.of("src", "ORM", "db.properties"))) {
@@ -0,0 +1,82 @@
+package ORM;
+
+import DomainModel.reservation.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latenza di una chiamata DAO con e senza il set_config('search_path') a ogni prelievo.
+ * Richiede un database configurato come per l'applicazione (db.properties o DB_URL/DB_USER/DB_PASSWORD).
+ * mvn -Pbench test-compile exec:exec -Dbench="DaoLatencyBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoLatencyBenchmark {
+
+    private static final String TABLE_BY_ID = """
+            SELECT id, number, seats, joinable, location, available
+            FROM tables
+            WHERE id = ?
+            """;
+
+    private final TableDAO tableDAO = new TableDAO();
+    private String schema;
+    private int tableId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        try (Connection connection = DBConnection.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT current_schema(), MIN(id) FROM tables");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            schema = rs.getString(1);
+            tableId = rs.getInt(2);
+        }
+    }
+
+    /** Comportamento precedente: un round trip di configurazione prima di ogni query. */
+    @Benchmark
+    public boolean perCheckoutSearchPath() throws SQLException {
+        try (Connection connection = DBConnection.getConnection()) {
+            try (PreparedStatement statement =
+                         connection.prepareStatement("SELECT set_config('search_path', ?, false)")) {
+                statement.setString(1, schema);
+                statement.execute();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(TABLE_BY_ID)) {
+                ps.setInt(1, tableId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        }
+    }
+
+    /** Comportamento attuale: lo stato di sessione è già applicato alla connessione fisica. */
+    @Benchmark
+    public Optional<Table> initializedOncePerConnection() throws SQLException {
+        return tableDAO.getTableById(tableId);
+    }
+}
@@ -0,0 +1,152 @@
+package ORM;
+
+import DomainModel.menu.Dish;
+import DomainModel.order.Order;
+import DomainModel.order.OrderItem;
+import DomainModel.order.PaymentMethod;
+import DomainModel.user.User;
+import DomainModel.valueObject.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput del salvataggio di un ordine: inserimento riga per riga contro batch.
+ * Richiede un database configurato con almeno un utente e un piatto (es. sql/seed.sql);
+ * gli ordini creati vengono cancellati al termine.
+ * mvn -Pbench test-compile exec:exec -Dbench="OrderPlacementBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPlacementBenchmark {
+
+    @Param({"3", "15", "40"})
+    int items;
+
+    private final OrderDAO orderDAO = new OrderDAO();
+    private User customer;
+    private Dish dish;
+    private int firstOrderId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        try (Connection connection = DBConnection.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT (SELECT MIN(id) FROM users), (SELECT MIN(id) FROM dishes),
+                            (SELECT COALESCE(MAX(id), 0) + 1 FROM orders)
+                     """)) {
+            rs.next();
+            customer = new User();
+            customer.setId(rs.getInt(1));
+            dish = new Dish();
+            dish.setId(rs.getInt(2));
+            dish.setPrice(new Money(9.50));
+            firstOrderId = rs.getInt(3);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection connection = DBConnection.getConnection();
+             PreparedStatement ps = connection.prepareStatement("DELETE FROM orders WHERE id >= ?")) {
+            ps.setInt(1, firstOrderId);
+            ps.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    public int batchedItems() throws SQLException {
+        Order order = order();
+        orderDAO.addOrderWithItems(order, lines());
+        return order.getId();
+    }
+
+    /** Percorso precedente: executeUpdate + getGeneratedKeys per ogni riga. */
+    @Benchmark
+    public int rowByRowItems() throws SQLException {
+        Order order = order();
+        List<OrderItem> lines = lines();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        INSERT INTO orders(customer_id, created_at, status, payment_method, total_amount, notes)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                        """, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setInt(1, customer.getId());
+                    ps.setTimestamp(2, Timestamp.valueOf(order.getCreatedAt()));
+                    ps.setString(3, order.getStatus().name());
+                    ps.setString(4, order.getPaymentMethod().name());
+                    ps.setBigDecimal(5, order.getTotalAmount().getAmount());
+                    ps.setString(6, order.getNotes());
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        keys.next();
+                        order.setId(keys.getInt(1));
+                    }
+                }
+                try (PreparedStatement ps = conn.prepareStatement("""
+                        INSERT INTO order_items(order_id, dish_id, unit_price, quantity)
+                        VALUES (?, ?, ?, ?)
+                        """, Statement.RETURN_GENERATED_KEYS)) {
+                    for (OrderItem item : lines) {
+                        ps.setInt(1, order.getId());
+                        ps.setInt(2, item.getDish().getId());
+                        ps.setBigDecimal(3, item.getUnitPrice().getAmount());
+                        ps.setInt(4, item.getQuantity());
+                        ps.executeUpdate();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            if (keys.next()) {
+                                item.setId(keys.getInt(1));
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return order.getId();
+    }
+
+    private Order order() {
+        return new Order(customer, PaymentMethod.ONLINE, new Money(9.50 * items), "benchmark");
+    }
+
+    private List<OrderItem> lines() {
+        List<OrderItem> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new OrderItem(dish, 1));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,123 @@
+package ORM;
+
+import DomainModel.reservation.Reservation;
+import DomainModel.reservation.Slot;
+import DomainModel.reservation.Table;
+import DomainModel.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput delle assegnazioni di tavoli nelle due modalità di {@link ReservationDAO.TableLocking}.
+ * Ogni operazione prenota un tavolo nello stesso slot; con contenders = 1 ogni tavolo è richiesto una
+ * volta sola per giorno, con contenders = 4 quattro richieste consecutive si contendono lo stesso tavolo
+ * e ne vince una. Il throughput conta i tentativi, riusciti o rifiutati.
+ * Richiede un database configurato con almeno un utente e uno slot e la migrazione V8;
+ * i tavoli e le prenotazioni creati vengono cancellati al termine.
+ * mvn -Pbench test-compile exec:exec -Dbench="TableLockingBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableLockingBenchmark {
+
+    private static final int TABLES = 64;
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2099, 1, 1, 19, 0);
+
+    @Param({"ADVISORY", "OCCUPANCY"})
+    ReservationDAO.TableLocking locking;
+
+    @Param({"1", "4"})
+    int contenders;
+
+    private final TableDAO tableDAO = new TableDAO();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<Table> tables = new ArrayList<>(TABLES);
+    private ReservationDAO reservationDAO;
+    private User customer;
+    private Slot slot;
+    private int firstReservationId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        reservationDAO = new ReservationDAO(locking);
+        int firstNumber;
+        try (Connection connection = DBConnection.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT (SELECT MIN(id) FROM users), (SELECT MIN(id) FROM slots),
+                            (SELECT COALESCE(MAX(id), 0) + 1 FROM reservations),
+                            (SELECT COALESCE(MAX(number), 0) + 1 FROM tables)
+                     """)) {
+            rs.next();
+            customer = new User();
+            customer.setId(rs.getInt(1));
+            slot = new Slot();
+            slot.setId(rs.getInt(2));
+            firstReservationId = rs.getInt(3);
+            firstNumber = rs.getInt(4);
+        }
+        for (int i = 0; i < TABLES; i++) {
+            Table table = new Table(firstNumber + i, 4, false, "benchmark");
+            tableDAO.addTable(table);
+            tables.add(table);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection connection = DBConnection.getConnection();
+             PreparedStatement reservations = connection.prepareStatement("DELETE FROM reservations WHERE id >= ?");
+             PreparedStatement created = connection.prepareStatement("DELETE FROM tables WHERE id = ANY(?)")) {
+            reservations.setInt(1, firstReservationId);
+            reservations.executeUpdate();
+            created.setArray(1, connection.createArrayOf("integer",
+                    tables.stream().map(Table::getId).toArray()));
+            created.executeUpdate();
+        }
+    }
+
+    /** true se la prenotazione è stata salvata, false se il tavolo era già occupato. */
+    @Benchmark
+    public boolean bookTable() throws SQLException {
+        int request = attempts.getAndIncrement() / contenders;
+        Table table = tables.get(request % TABLES);
+        LocalDateTime day = FIRST_DAY.plusDays(request / TABLES);
+        try {
+            reservationDAO.addReservationWithTables(new Reservation(customer, day, slot, 2, null), List.of(table));
+            return true;
+        } catch (SQLException e) {
+            if ("23505".equals(e.getSQLState()) || "P0001".equals(e.getSQLState())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package Server;
+
+import Controller.AuthController;
+import Controller.CustomerController;
+import Controller.OwnerController;
+import Controller.StaffController;
+import DomainModel.notification.Notification;
+import DomainModel.notification.TypeNotification;
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import DomainModel.valueObject.Email;
+import ORM.NotificationDAO;
+import ServiceLayer.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiRoutesTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final FakeNotificationDAO notificationDAO = new FakeNotificationDAO();
+    private HttpApiServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        NotificationService notifications = new NotificationService(notificationDAO);
+        server = new HttpApiServer(new FakeAuthController(), new HttpApiServer.Settings(2, 16, 16, 1024, 0));
+        ApiRoutes.register(server,
+                new FakeAuthController(),
+                new CustomerController(null, null, null, null, notifications),
+                new StaffController(null, null, notifications),
+                new OwnerController(null, null, null, notifications));
+        server.start(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void bulkMarkAsReadIgnoresNotificationsOfOtherUsers() throws Exception {
+        notificationDAO.add(1, 10); // di anna
+        notificationDAO.add(2, 11); // di bruno
+        notificationDAO.add(3, 11);
+
+        HttpResponse<String> foreign = send(markAsRead("anna-token", "{\"ids\": [2, 3]}"));
+        assertEquals(200, foreign.statusCode());
+        assertEquals(Map.of("updated", BigDecimal.ZERO), Json.parse(foreign.body()));
+        assertFalse(notificationDAO.isRead(2));
+        assertFalse(notificationDAO.isRead(3));
+
+        HttpResponse<String> own = send(markAsRead("bruno-token", "{\"ids\": [1, 2, 3]}"));
+        assertEquals(Map.of("updated", new BigDecimal("2")), Json.parse(own.body()));
+        assertFalse(notificationDAO.isRead(1));
+        assertTrue(notificationDAO.isRead(2));
+    }
+
+    private HttpRequest markAsRead(String token, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port()
+                        + "/api/customer/notifications/read"))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private static class FakeAuthController extends AuthController {
+        FakeAuthController() {
+            super(null);
+        }
+
+        @Override
+        public Optional<User> resolveSession(String token) {
+            int id = switch (token) {
+                case "anna-token" -> 10;
+                case "bruno-token" -> 11;
+                default -> 0;
+            };
+            if (id == 0) {
+                return Optional.empty();
+            }
+            String username = token.substring(0, token.indexOf('-'));
+            User user = new User(username, new Email(username + "@example.com"), "hash",
+                    "Nome", "Cognome", Role.CUSTOMER);
+            user.setId(id);
+            return Optional.of(user);
+        }
+    }
+
+    /** Notifiche in memoria con lo stesso filtro sul destinatario dell'UPDATE reale. */
+    private static class FakeNotificationDAO extends NotificationDAO {
+        private final Map<Integer, Notification> notifications = new LinkedHashMap<>();
+
+        private synchronized void add(int id, int recipientId) {
+            User recipient = new User();
+            recipient.setId(recipientId);
+            Notification notification = new Notification(recipient, "Messaggio " + id, TypeNotification.UPDATE);
+            notification.setId(id);
+            notifications.put(id, notification);
+        }
+
+        private synchronized boolean isRead(int id) {
+            return notifications.get(id).isRead();
+        }
+
+        @Override
+        public synchronized int markAsRead(int recipientId, List<Integer> notificationIds) {
+            int updated = 0;
+            for (Integer id : notificationIds) {
+                Notification notification = notifications.get(id);
+                if (notification != null && notification.getRecipient().getId() == recipientId
+                        && !notification.isRead()) {
+                    notification.markRead();
+                    updated++;
+                }
+            }
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package Server;
+
+import Controller.AuthController;
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import DomainModel.valueObject.Email;
+import Server.HttpApiServer.Access;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpApiServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpApiServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new HttpApiServer(new FakeAuthController(), new HttpApiServer.Settings(4, 16, 16, 1024, 0));
+        server.route("GET", "/api/echo/{id}", Access.PUBLIC,
+                req -> Map.of("id", req.pathInt("id"), "q", String.valueOf(req.query("q"))));
+        server.route("POST", "/api/echo", Access.PUBLIC,
+                req -> Map.of("ids", req.requiredIntList("ids"), "name", req.requiredString("name")));
+        server.route("DELETE", "/api/echo/{id}", Access.PUBLIC, req -> null);
+        server.route("GET", "/api/me", Access.AUTHENTICATED, req -> Map.of("id", req.user().getId()));
+        server.route("GET", "/api/token", Access.AUTHENTICATED, req -> List.of(String.valueOf(req.sessionToken())));
+        server.route("GET", "/api/staff/only", Access.STAFF, req -> List.of(req.user().getRole()));
+        server.route("GET", "/api/owner/only", Access.OWNER, req -> List.of(req.user().getRole()));
+        server.route("POST", "/api/conflict", Access.PUBLIC, req -> {
+            throw new IllegalStateException("Il carrello è vuoto");
+        });
+        server.route("GET", "/api/broken", Access.PUBLIC, req -> {
+            throw new SQLException("connection refused");
+        });
+        server.route("GET", "/api/busy", Access.PUBLIC, req -> {
+            throw new RejectedExecutionException("saturated");
+        });
+        server.start(new InetSocketAddress("127.0.0.1", 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void routesPathAndQueryParametersToJson() throws Exception {
+        HttpResponse<String> response = send(get("/api/echo/42?q=pizza%20rossa"));
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        assertEquals(Map.of("id", new BigDecimal("42"), "q", "pizza rossa"), Json.parse(response.body()));
+    }
+
+    @Test
+    void readsJsonBodyAndReturnsNoContentForVoidHandlers() throws Exception {
+        HttpResponse<String> created = send(request("/api/echo")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"ids\": [3, 1], \"name\": \"Sala\"}")));
+        HttpResponse<String> deleted = send(request("/api/echo/7").DELETE());
+
+        assertEquals(200, created.statusCode());
+        assertEquals(Map.of("ids", List.of(new BigDecimal("3"), new BigDecimal("1")), "name", "Sala"),
+                Json.parse(created.body()));
+        assertEquals(204, deleted.statusCode());
+    }
+
+    @Test
+    void mapsInputAndDomainErrorsToStatusCodes() throws Exception {
+        assertEquals(400, send(get("/api/echo/abc")).statusCode());
+        assertEquals(400, send(request("/api/echo").POST(HttpRequest.BodyPublishers.ofString("{\"ids\": [1]"))).statusCode());
+        assertEquals(400, send(request("/api/echo").POST(HttpRequest.BodyPublishers.ofString("{\"ids\": [1]}"))).statusCode());
+        assertEquals(413, send(request("/api/echo")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\": \"" + "x".repeat(2_000) + "\"}"))).statusCode());
+
+        HttpResponse<String> conflict = send(request("/api/conflict").POST(HttpRequest.BodyPublishers.noBody()));
+        assertEquals(409, conflict.statusCode());
+        assertEquals(Map.of("error", "Il carrello è vuoto"), Json.parse(conflict.body()));
+
+        HttpResponse<String> broken = send(get("/api/broken"));
+        assertEquals(500, broken.statusCode());
+        assertFalse(broken.body().contains("connection refused"));
+
+        HttpResponse<String> busy = send(get("/api/busy"));
+        assertEquals(503, busy.statusCode());
+        assertEquals("1", busy.headers().firstValue("Retry-After").orElseThrow());
+
+        assertEquals(404, send(get("/api/missing")).statusCode());
+        assertEquals(405, send(request("/api/echo/1").PUT(HttpRequest.BodyPublishers.noBody())).statusCode());
+    }
+
+    @Test
+    void protectedRoutesRequireASessionAndRole() throws Exception {
+        HttpResponse<String> anonymous = send(get("/api/me"));
+        assertEquals(401, anonymous.statusCode());
+        assertEquals(List.of("Bearer realm=\"dineup\""), anonymous.headers().allValues("WWW-Authenticate"));
+
+        assertEquals(200, send(get("/api/me", "customer-token")).statusCode());
+        assertEquals(403, send(get("/api/staff/only", "customer-token")).statusCode());
+        assertEquals(200, send(get("/api/staff/only", "owner-token")).statusCode());
+        assertEquals(403, send(get("/api/owner/only", "staff-token")).statusCode());
+        assertEquals("[\"OWNER\"]", send(get("/api/owner/only", "owner-token")).body());
+    }
+
+    @Test
+    void basicCredentialsAreNotAccepted() throws Exception {
+        String credentials = Base64.getEncoder()
+                .encodeToString("owner@example.com:secret".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(401, send(get("/api/me").header("Authorization", "Basic " + credentials)).statusCode());
+    }
+
+    @Test
+    void bearerTokensAreResolvedThroughTheSessionStore() throws Exception {
+        assertEquals(401, send(get("/api/me", "expired")).statusCode());
+        assertEquals(401, send(get("/api/me").header("Authorization", "Bearer ")).statusCode());
+
+        assertEquals("[\"staff-token\"]", send(get("/api/token", "staff-token")).body());
+    }
+
+    @Test
+    void routesCannotBeAddedAfterStart() {
+        assertThrows(IllegalStateException.class,
+                () -> server.route("GET", "/api/late", Access.PUBLIC, req -> null));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path));
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder get(String path, String token) {
+        return get(path).header("Authorization", "Bearer " + token);
+    }
+
+    private static class FakeAuthController extends AuthController {
+        FakeAuthController() {
+            super(null);
+        }
+
+        @Override
+        public Optional<User> resolveSession(String token) {
+            return switch (token) {
+                case "owner-token" -> Optional.of(user("owner@example.com", Role.OWNER));
+                case "staff-token" -> Optional.of(user("staff@example.com", Role.STAFF));
+                case "customer-token" -> Optional.of(user("customer@example.com", Role.CUSTOMER));
+                default -> Optional.empty();
+            };
+        }
+
+        private static User user(String email, Role role) {
+            User user = new User(email.substring(0, email.indexOf('@')), new Email(email), "hash", "Nome", "Cognome", role);
+            user.setId(role.ordinal() + 1);
+            return user;
+        }
+    }
+}
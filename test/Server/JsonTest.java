@@ -0,0 +1,73 @@
+package Server;
+
+import DomainModel.order.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+
+    @Test
+    void writesNestedValuesEnumsAndDates() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("name", "Pizza \"diavola\"\n");
+        value.put("price", new BigDecimal("8.50"));
+        value.put("tags", List.of(1, true));
+        value.put("status", OrderStatus.READY);
+        value.put("date", LocalDate.of(2025, 3, 1));
+        value.put("notes", null);
+
+        assertEquals("{\"name\":\"Pizza \\\"diavola\\\"\\n\",\"price\":8.50,\"tags\":[1,true],"
+                + "\"status\":\"READY\",\"date\":\"2025-03-01\",\"notes\":null}", Json.write(value));
+    }
+
+    @Test
+    void parsesObjectsArraysAndEscapes() {
+        Object parsed = Json.parse(" {\"ids\": [1, 2.5, -3e2], \"name\": \"caff\\u00e8\\t\", \"ok\": false, \"x\": null} ");
+
+        Map<?, ?> object = assertInstanceOf(Map.class, parsed);
+        assertEquals(Arrays.asList(new BigDecimal("1"), new BigDecimal("2.5"), new BigDecimal("-3e2")),
+                object.get("ids"));
+        assertEquals("caffè\t", object.get("name"));
+        assertEquals(Boolean.FALSE, object.get("ok"));
+        assertTrue(object.containsKey("x"));
+        assertNull(object.get("x"));
+    }
+
+    @Test
+    void roundTripsWrittenText() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("message", "riga 1\nriga \"2\" \\ fine");
+        value.put("empty", List.of());
+        assertEquals(value, Json.parse(Json.write(value)));
+    }
+
+    @Test
+    void rejectsNestingBeyondTheDepthLimit() {
+        String allowed = "[".repeat(Json.MAX_DEPTH) + "]".repeat(Json.MAX_DEPTH);
+        assertNotNull(Json.parse(allowed));
+        assertNotNull(Json.parse("{\"a\": [{\"b\": []}], \"c\": [[]]}"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Json.parse("[".repeat(Json.MAX_DEPTH + 1) + "]".repeat(Json.MAX_DEPTH + 1)));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[".repeat(100_000)));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\":".repeat(100_000)));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("{a: 1}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[1,]"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("\"open"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("1 2"));
+        assertThrows(IllegalArgumentException.class, () -> Json.write(new Object()));
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -62,8 +63,59 @@ class AuthServiceTest {
     @Test
     void resetPasswordUpdatesStoredHash() throws Exception {
         dao.user = user("old");
+        dao.user.setId(1);
         service.resetPasswordByEmail("mario@example.com", "new-secret");
-        assertTrue(BCrypt.checkpw("new-secret", dao.updated.getPasswordHash()));
+        assertTrue(BCrypt.checkpw("new-secret", dao.passwordHash));
+        assertEquals(1, dao.passwordUserId);
+        assertNull(dao.updated);
+    }
+
+    @Test
+    void loginRehashesPasswordsStoredWithAnotherCost() throws Exception {
+        service = new AuthService(dao, new PasswordHasher(new PasswordHasher.Settings(1, 4, 5)));
+        dao.user = new User("mario", new Email("mario@example.com"),
+                BCrypt.hashpw("secret", BCrypt.gensalt(4)), "Mario", "Rossi", Role.CUSTOMER);
+        dao.user.setId(1);
+
+        User logged = service.authenticate("mario@example.com", "secret").orElseThrow();
+
+        assertTrue(dao.rehashed.startsWith("$2a$05$"));
+        assertEquals(dao.rehashed, logged.getPasswordHash());
+        assertTrue(BCrypt.checkpw("secret", logged.getPasswordHash()));
+
+        dao.rehashed = null;
+        service.authenticate("mario@example.com", "secret");
+        assertNull(dao.rehashed);
+    }
+
+    @Test
+    void failedRehashDoesNotBlockLogin() throws Exception {
+        service = new AuthService(dao, new PasswordHasher(new PasswordHasher.Settings(1, 4, 5)));
+        dao.user = new User("mario", new Email("mario@example.com"),
+                BCrypt.hashpw("secret", BCrypt.gensalt(4)), "Mario", "Rossi", Role.CUSTOMER);
+        dao.user.setId(1);
+        dao.failRehash = true;
+
+        assertTrue(service.authenticate("mario@example.com", "secret").isPresent());
+        assertTrue(dao.user.getPasswordHash().startsWith("$2a$04$"));
+    }
+
+    @Test
+    void sessionTokenResolvesWithoutTheDatabaseUntilPasswordChanges() throws Exception {
+        dao.user = user("secret");
+        dao.user.setId(1);
+
+        SessionStore.Session session = service.openSession("mario@example.com", "secret").orElseThrow();
+        dao.user = null;
+        User resolved = service.resolveSession(session.token()).orElseThrow();
+        assertEquals(1, resolved.getId());
+        assertEquals(Role.CUSTOMER, resolved.getRole());
+        assertNull(resolved.getPasswordHash());
+        assertTrue(service.openSession("mario@example.com", "secret").isEmpty());
+
+        service.changePassword(resolved, "new-secret");
+        assertTrue(BCrypt.checkpw("new-secret", dao.passwordHash));
+        assertTrue(service.resolveSession(session.token()).isEmpty());
     }
 
     private User user(String rawPassword) {
@@ -77,6 +129,10 @@ class AuthServiceTest {
         private User added;
         private User updated;
         private boolean emailExists;
+        private String rehashed;
+        private boolean failRehash;
+        private int passwordUserId;
+        private String passwordHash;
 
         @Override
         public Optional<User> getUserByEmail(String email) {
@@ -98,5 +154,20 @@ class AuthServiceTest {
         public void updateUser(User user) {
             updated = user;
         }
+
+        @Override
+        public void updatePasswordHash(int userId, String newHash) {
+            passwordUserId = userId;
+            passwordHash = newHash;
+        }
+
+        @Override
+        public boolean updatePasswordHash(int userId, String expectedHash, String newHash) throws SQLException {
+            if (failRehash) {
+                throw new SQLException("connection refused");
+            }
+            rehashed = newHash;
+            return true;
+        }
     }
 }
@@ -0,0 +1,137 @@
+package ServiceLayer;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.valueObject.Money;
+import ORM.CategoryDAO;
+import ORM.DishDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedMenuQueryServiceTest {
+
+    private FakeDishDAO dishDAO;
+    private FakeCategoryDAO categoryDAO;
+    private CachedMenuQueryService service;
+    private OwnerAdminService ownerAdminService;
+    private Category pizze;
+    private Category dolci;
+
+    @BeforeEach
+    void setUp() {
+        dishDAO = new FakeDishDAO();
+        categoryDAO = new FakeCategoryDAO();
+        service = new CachedMenuQueryService(dishDAO, categoryDAO);
+        ownerAdminService = new OwnerAdminService(dishDAO, categoryDAO, null, null);
+        ownerAdminService.addMenuChangeListener(service);
+
+        pizze = category(1, "Pizze", true);
+        dolci = category(2, "Dolci", false);
+        categoryDAO.categories = List.of(dolci, pizze);
+        dishDAO.dishes.add(dish(10, "Margherita", 1, true));
+        dishDAO.dishes.add(dish(11, "Stagionale", 1, false));
+        dishDAO.dishes.add(dish(12, "Tiramisù", 2, true));
+    }
+
+    @Test
+    void readsAreServedFromSnapshotAfterFirstLoad() throws Exception {
+        Map<Category, List<Dish>> menu = service.buildMenu(true, true);
+        service.listCategories(false);
+        service.listDishesByCategory(1, false);
+        service.listAllDishes(true);
+        Dish found = service.findDishById(12).orElseThrow();
+
+        assertEquals(List.of("Pizze"), menu.keySet().stream().map(Category::getName).toList());
+        assertEquals(List.of(10), menu.values().iterator().next().stream().map(Dish::getId).toList());
+        assertEquals("Dolci", found.getCategory().getName());
+        assertEquals(1, dishDAO.loads);
+        assertEquals(1, categoryDAO.loads);
+
+        CachedMenuQueryService.Stats stats = service.getStats();
+        assertEquals(1, stats.misses());
+        assertEquals(4, stats.hits());
+        assertEquals(1, stats.rebuilds());
+    }
+
+    @Test
+    void ownerWritesBumpVersionAndSwapInRebuiltSnapshot() throws Exception {
+        List<Dish> before = service.listAllDishes(true);
+
+        ownerAdminService.changeDishAvailability(11, true);
+
+        assertEquals(1, service.getVersion());
+        assertEquals(List.of(10, 11, 12), service.listAllDishes(true).stream().map(Dish::getId).toList());
+        assertEquals(List.of(10, 12), before.stream().map(Dish::getId).toList());
+        assertEquals(2, service.getStats().rebuilds());
+        assertEquals(1, service.getStats().misses());
+    }
+
+    @Test
+    void snapshotListsAreImmutable() throws Exception {
+        assertThrows(UnsupportedOperationException.class,
+                () -> service.listAllDishes(false).add(dish(99, "Extra", 1, true)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> service.buildMenu(false, false).clear());
+    }
+
+    private Category category(int id, String name, boolean active) {
+        Category category = new Category(name, name);
+        category.setId(id);
+        category.setActive(active);
+        return category;
+    }
+
+    private Dish dish(int id, String name, int categoryId, boolean available) {
+        Category stub = new Category();
+        stub.setId(categoryId);
+        Dish dish = new Dish(name, "Descrizione", new Money(8.0), stub);
+        dish.setId(id);
+        dish.setAvailable(available);
+        return dish;
+    }
+
+    private static class FakeDishDAO extends DishDAO {
+        private final List<Dish> dishes = new ArrayList<>();
+        private int loads;
+
+        @Override
+        public List<Dish> getAllDishes() {
+            loads++;
+            List<Dish> copy = new ArrayList<>();
+            for (Dish dish : dishes) {
+                Dish clone = new Dish(dish.getName(), dish.getDescription(), dish.getPrice(), dish.getCategory());
+                clone.setId(dish.getId());
+                clone.setAvailable(dish.isAvailable());
+                copy.add(clone);
+            }
+            return copy;
+        }
+
+        @Override
+        public Optional<Dish> getDishById(int id) {
+            return dishes.stream().filter(d -> d.getId() == id).findFirst();
+        }
+
+        @Override
+        public void updateDish(Dish dish) {
+        }
+    }
+
+    private static class FakeCategoryDAO extends CategoryDAO {
+        private List<Category> categories = List.of();
+        private int loads;
+
+        @Override
+        public List<Category> getAllCategories() {
+            loads++;
+            return categories;
+        }
+    }
+}
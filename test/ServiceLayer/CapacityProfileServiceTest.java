@@ -0,0 +1,122 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+import ORM.TableDAO;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityProfileServiceTest {
+
+    private final TableAllocationService allocation = new TableAllocationService(
+            new SeatCountAllocationEngine(), new TableAllocationService.Settings(0));
+
+    @Test
+    void profileReportsLargestPartyAndMinimalTables() throws SQLException {
+        Table unavailable = table(4, 12, false);
+        unavailable.setAvailable(false);
+        FakeTableDAO tableDAO = new FakeTableDAO(List.of(
+                table(1, 4, true), table(2, 4, true), table(3, 6, false), unavailable));
+
+        CapacityProfileService.CapacityProfile profile = new CapacityProfileService(tableDAO).current();
+
+        assertEquals(3, profile.tables());
+        assertEquals(6, profile.maxSingleTable());
+        assertEquals(6, profile.maxPartySize()); // 4 + 4 - 2
+        assertEquals(1, profile.minTables(6));
+        assertEquals(1, profile.minTables(2));
+        assertEquals(-1, profile.minTables(7));
+    }
+
+    @Test
+    void profileIsRebuiltOnlyWhenTheLayoutChanges() throws SQLException {
+        FakeTableDAO tableDAO = new FakeTableDAO(List.of(table(1, 4, true)));
+        CapacityProfileService service = new CapacityProfileService(tableDAO);
+
+        service.current();
+        service.findCombination(List.of(table(1, 4, true)), 2, allocation);
+        assertEquals(1, tableDAO.loads);
+
+        tableDAO.tables = List.of(table(1, 4, true), table(2, 4, true));
+        service.onTableLayoutChanged();
+
+        assertEquals(2, tableDAO.loads);
+        assertEquals(6, service.current().maxPartySize());
+        assertEquals(2, service.getStats().rebuilds());
+    }
+
+    @Test
+    void findCombinationFallsBackWhenFreeTablesAreUnknownToTheProfile() throws SQLException {
+        CapacityProfileService service = new CapacityProfileService(new FakeTableDAO(List.of(table(1, 4, true))));
+        Table added = table(2, 8, false);
+
+        assertNull(service.findCombination(List.of(table(1, 4, true)), 5, allocation));
+        assertEquals(List.of(added), service.findCombination(List.of(added), 4, allocation));
+
+        assertEquals(1, service.getStats().hits());
+        assertEquals(1, service.getStats().fallbacks());
+    }
+
+    @Test
+    void findCombinationMatchesFullSearchOnRandomFreeTables() throws SQLException {
+        Random random = new Random(11);
+        long hits = 0;
+        long fallbacks = 0;
+        int[] sizes = {2, 2, 4, 4, 4, 6, 8};
+        for (int round = 0; round < 20; round++) {
+            List<Table> layout = new ArrayList<>();
+            for (int i = 1; i <= 6 + random.nextInt(25); i++) {
+                layout.add(table(i, sizes[random.nextInt(sizes.length)], random.nextInt(5) > 0));
+            }
+            CapacityProfileService service = new CapacityProfileService(new FakeTableDAO(layout));
+            int maxPartySize = service.current().maxPartySize();
+
+            for (int attempt = 0; attempt < 30; attempt++) {
+                List<Table> free = layout.stream().filter(table -> random.nextInt(3) > 0).toList();
+                int guests = 1 + random.nextInt(maxPartySize + 2);
+
+                List<Table> expected = allocation.findBestCombination(free, guests);
+                List<Table> actual = service.findCombination(free, guests, allocation);
+
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertNotNull(actual);
+                    assertTrue(free.containsAll(actual));
+                    assertEquals(expected.size(), actual.size());
+                    assertEquals(allocation.effectiveSeats(expected), allocation.effectiveSeats(actual));
+                    assertTrue(allocation.canHost(actual, guests));
+                }
+            }
+            hits += service.getStats().hits();
+            fallbacks += service.getStats().fallbacks();
+        }
+        assertTrue(hits > fallbacks);
+    }
+
+    private Table table(int number, int seats, boolean joinable) {
+        Table table = new Table(number, seats, joinable, "sala");
+        table.setId(number);
+        return table;
+    }
+
+    private static class FakeTableDAO extends TableDAO {
+        private List<Table> tables;
+        private int loads;
+
+        private FakeTableDAO(List<Table> tables) {
+            this.tables = tables;
+        }
+
+        @Override
+        public List<Table> getAllTables() {
+            loads++;
+            return tables;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ServiceLayer;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import DomainModel.valueObject.Email;
+import DomainModel.valueObject.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput del carrello con molti thread su utenti diversi: aggiunta, modifica e totale.
+ * mvn -Pbench test-compile exec:exec -Dbench="CartServiceBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CartServiceBenchmark {
+
+    @Param({"1000"})
+    int users;
+
+    @Param({"20"})
+    int dishes;
+
+    private CartService service;
+    private User[] customers;
+    private Dish[] menu;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new CartService();
+        Category category = new Category("Primi", null);
+        menu = new Dish[dishes];
+        for (int i = 0; i < dishes; i++) {
+            menu[i] = new Dish("Piatto " + i, "Piatto del giorno", 5 + i * 0.75, category);
+            menu[i].setId(i + 1);
+        }
+        customers = new User[users];
+        for (int i = 0; i < users; i++) {
+            customers[i] = new User("user" + i, new Email("user" + i + "@example.com"), "hash",
+                    "Nome", "Cognome", Role.CUSTOMER);
+            customers[i].setId(i + 1);
+            // carrelli già popolati, come durante un picco di ordini
+            for (int d = 0; d < 5; d++) {
+                service.addDishToCart(customers[i], menu[d], 1);
+            }
+        }
+    }
+
+    @Benchmark
+    public Money addAndTotal() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        User customer = customers[random.nextInt(users)];
+        service.addDishToCart(customer, menu[random.nextInt(dishes)], 1);
+        return service.getCartTotal(customer);
+    }
+
+    @Benchmark
+    public Money updateAndTotal() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        User customer = customers[random.nextInt(users)];
+        service.updateItemQuantity(customer, menu[random.nextInt(5)].getId(), 1 + random.nextInt(4));
+        return service.getCartTotal(customer);
+    }
+}
@@ -10,7 +10,14 @@ import ServiceLayer.CartService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -74,4 +81,92 @@ class CartServiceTest {
         assertTrue(service.getCartItems(user).isEmpty());
         assertTrue(service.getCartSummary(user).contains("vuoto"));
     }
+
+    @Test
+    void totalFollowsQuantityUpdatesAndRemovals() {
+        Dish wine = new Dish("Vino", "Rosso della casa", 4.25, new Category("Bevande", "Bevande"));
+        wine.setId(11);
+        service.addDishToCart(user, pizza, 2);
+        service.addDishToCart(user, wine, 2);
+        service.updateItemQuantity(user, pizza.getId(), 1);
+
+        assertEquals("17.00", service.getCartTotal(user).getAmount().toPlainString());
+
+        service.removeItem(user, wine.getId());
+        assertEquals("8.50", service.getCartTotal(user).getAmount().toPlainString());
+        assertEquals(List.of(10), service.getCartItems(user).stream().map(i -> i.getDish().getId()).toList());
+    }
+
+    @Test
+    void idleCartsExpireAndAreEvicted() {
+        AtomicLong clock = new AtomicLong();
+        service = new CartService(new CartService.Settings(4, 1_000), clock::get);
+        User other = new User("luigi", new Email("luigi@example.com"), "hash",
+                "Luigi", "Verdi", Role.CUSTOMER);
+        other.setId(2);
+        service.addDishToCart(user, pizza, 1);
+        service.addDishToCart(other, pizza, 1);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        service.getCartItems(other);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+
+        assertTrue(service.getCartItems(user).isEmpty());
+        assertEquals(1, service.getCartItems(other).size());
+        assertEquals(new CartService.Stats(1, 1), service.getStats());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, service.evictIdleCarts());
+        assertEquals(new CartService.Stats(0, 2), service.getStats());
+    }
+
+    @Test
+    void concurrentUpdatesKeepQuantitiesAndTotalsConsistent() throws Exception {
+        service = new CartService(new CartService.Settings(2, 60_000));
+        int threads = 8;
+        int rounds = 2_000;
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 4; u++) {
+            User customer = new User("user" + u, new Email("user" + u + "@example.com"), "hash",
+                    "Nome", "Cognome", Role.CUSTOMER);
+            customer.setId(100 + u);
+            users.add(customer);
+        }
+        Dish cheap = new Dish("Acqua", "Naturale", 1.25, new Category("Bevande", "Bevande"));
+        cheap.setId(20);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    User customer = users.get((worker + i) % users.size());
+                    service.addDishToCart(customer, pizza, 1);
+                    // aggiunta e rimozione della stessa riga non devono lasciare residui nel totale
+                    service.addDishToCart(customer, cheap, 2);
+                    service.updateItemQuantity(customer, cheap.getId(), 0);
+                    service.getCartTotal(customer);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int pizzas = 0;
+        for (User customer : users) {
+            List<OrderItem> items = service.getCartItems(customer);
+            int quantity = items.stream().filter(i -> i.getDish().getId() == pizza.getId())
+                    .mapToInt(OrderItem::getQuantity).sum();
+            pizzas += quantity;
+            assertEquals(pizza.getPrice().multiply(quantity), service.getCartTotal(customer));
+        }
+        assertEquals(threads * rounds, pizzas);
+    }
 }
@@ -0,0 +1,198 @@
+package ServiceLayer;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.order.OrderItem;
+import DomainModel.order.SavedCart;
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import DomainModel.valueObject.Email;
+import DomainModel.valueObject.Money;
+import ORM.CartDAO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartWriteBehindTest {
+
+    private final FakeCartDAO cartDAO = new FakeCartDAO();
+    private final CartService cartService = new CartService();
+    private CartWriteBehind writeBehind;
+    private User mario;
+    private User luigi;
+    private Dish pizza;
+
+    @BeforeEach
+    void setUp() {
+        mario = user(1, "mario");
+        luigi = user(2, "luigi");
+        pizza = new Dish("Pizza", "Margherita", 8.50, new Category("Pizze", "Pizze"));
+        pizza.setId(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    void repeatedChangesToACartBecomeOneWrite() {
+        writeBehind = new CartWriteBehind(cartDAO, cartService, new CartWriteBehind.Settings(10, 60_000));
+
+        for (int i = 0; i < 5; i++) {
+            cartService.addDishToCart(mario, pizza, 1);
+        }
+        cartService.addDishToCart(luigi, pizza, 2);
+        writeBehind.close();
+
+        List<SavedCart> saved = cartDAO.saved();
+        assertEquals(2, saved.size());
+        assertEquals(5, savedFor(saved, 1).getItems().get(0).getQuantity());
+        assertEquals(2, savedFor(saved, 2).getItems().get(0).getQuantity());
+        assertEquals(new CartWriteBehind.Stats(0, 6, 2, cartDAO.batches(), 0), writeBehind.getStats());
+    }
+
+    @Test
+    void clearedCartIsSavedEmptySoTheStoredCopyIsDeleted() {
+        writeBehind = new CartWriteBehind(cartDAO, cartService, new CartWriteBehind.Settings(10, 60_000));
+
+        cartService.addDishToCart(mario, pizza, 1);
+        cartService.clearCart(mario);
+        writeBehind.close();
+
+        assertTrue(savedFor(cartDAO.saved(), 1).isEmpty());
+    }
+
+    @Test
+    void failedSaveIsRetriedWithTheLatestContent() throws Exception {
+        cartDAO.failures = 2;
+        writeBehind = new CartWriteBehind(cartDAO, cartService, new CartWriteBehind.Settings(10, 10));
+
+        cartService.addDishToCart(mario, pizza, 1);
+        cartService.addDishToCart(mario, pizza, 2);
+        awaitWritten(1);
+
+        assertEquals(2, writeBehind.getStats().failures());
+        assertEquals(3, savedFor(cartDAO.saved(), 1).getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void closeLetsARunningSaveFinishAndWritesEachCartOnce() throws Exception {
+        cartDAO.blockSaves = new CountDownLatch(1);
+        writeBehind = new CartWriteBehind(cartDAO, cartService, new CartWriteBehind.Settings(1, 10));
+        cartService.addDishToCart(mario, pizza, 1);
+        assertTrue(cartDAO.saveStarted.await(2, TimeUnit.SECONDS));
+
+        Thread closer = new Thread(writeBehind::close);
+        closer.start();
+        Thread.sleep(50); // close() attende il writer fermo nel salvataggio
+        cartDAO.blockSaves.countDown();
+        closer.join(5_000);
+
+        assertFalse(closer.isAlive());
+        assertFalse(cartDAO.interruptedWhileSaving);
+        assertEquals(1, cartDAO.saved().size());
+        assertEquals(0, writeBehind.getStats().failures());
+    }
+
+    @Test
+    void recoverRestoresRecentCartsWithoutWritingThemBack() throws Exception {
+        OrderItem item = new OrderItem(pizza, 2);
+        item.setUnitPrice(new Money(7.00));
+        cartDAO.stored.add(new SavedCart(1, List.of(item), LocalDateTime.now().minusMinutes(5)));
+        cartDAO.stored.add(new SavedCart(2, List.of(new OrderItem(pizza, 1)), LocalDateTime.now().minusHours(3)));
+        writeBehind = new CartWriteBehind(cartDAO, cartService, new CartWriteBehind.Settings(10, 60_000));
+
+        assertEquals(1, writeBehind.recover());
+
+        assertNotNull(cartDAO.cutoff);
+        assertTrue(cartDAO.cutoff.isBefore(LocalDateTime.now().minusMinutes(119)));
+        assertEquals(new BigDecimal("14.00"), cartService.getCartTotal(mario).getAmount());
+        assertTrue(cartService.getCartItems(luigi).isEmpty());
+        assertEquals(0, writeBehind.getStats().changes());
+    }
+
+    private void awaitWritten(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (writeBehind.getStats().written() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, writeBehind.getStats().written());
+    }
+
+    private static SavedCart savedFor(List<SavedCart> saved, int userId) {
+        return saved.stream()
+                .filter(cart -> cart.getUserId() == userId)
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    private static User user(int id, String username) {
+        User user = new User(username, new Email(username + "@example.com"), "hash",
+                "Nome", "Cognome", Role.CUSTOMER);
+        user.setId(id);
+        return user;
+    }
+
+    private static class FakeCartDAO extends CartDAO {
+        private final List<SavedCart> saved = new ArrayList<>();
+        private final List<SavedCart> stored = new ArrayList<>();
+        private volatile int failures;
+        private volatile LocalDateTime cutoff;
+        private long batches;
+        private final CountDownLatch saveStarted = new CountDownLatch(1);
+        private volatile CountDownLatch blockSaves;
+        private volatile boolean interruptedWhileSaving;
+
+        @Override
+        public synchronized void saveCarts(List<SavedCart> carts) throws SQLException {
+            if (blockSaves != null) {
+                saveStarted.countDown();
+                try {
+                    blockSaves.await();
+                } catch (InterruptedException e) {
+                    // come ConnectionPool in attesa di una connessione
+                    interruptedWhileSaving = true;
+                    throw new SQLException("Interrupted while waiting for a connection", "08001");
+                }
+            }
+            if (failures > 0) {
+                failures--;
+                throw new SQLException("connection refused");
+            }
+            batches++;
+            saved.addAll(carts);
+        }
+
+        @Override
+        public List<SavedCart> getAllCarts() {
+            return List.copyOf(stored);
+        }
+
+        @Override
+        public int deleteStaleCarts(LocalDateTime cutoff) {
+            this.cutoff = cutoff;
+            return 0;
+        }
+
+        private synchronized List<SavedCart> saved() {
+            return List.copyOf(saved);
+        }
+
+        private synchronized long batches() {
+            return batches;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ServiceLayer;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.valueObject.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latenza delle query sull'indice in memoria con un catalogo sintetico.
+ * mvn -Pbench test-compile exec:exec -Dbench="DishSearchIndexBenchmark -f 1"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DishSearchIndexBenchmark {
+
+    private static final String[] BASES = {"spaghetti", "penne", "risotto", "pizza", "gnocchi", "lasagna",
+            "tagliata", "insalata", "zuppa", "ravioli", "bistecca", "frittata", "polpette", "focaccia"};
+    private static final String[] INGREDIENTS = {"carbonara", "funghi", "tartufo", "pomodoro", "pesto",
+            "salsiccia", "zucchine", "gamberi", "vongole", "radicchio", "gorgonzola", "melanzane", "speck",
+            "burrata", "porcini", "asparagi", "carciofi", "nduja", "pistacchio", "limone"};
+    private static final String[] STYLES = {"della casa", "alla romana", "rustica", "al forno", "del giorno",
+            "dello chef", "leggera", "piccante", "tradizionale", "gratinata"};
+    private static final String[] CATEGORIES = {"Antipasti", "Primi", "Secondi", "Pizze", "Contorni",
+            "Dolci", "Bevande", "Vegetariani", "Pesce", "Specialità"};
+
+    @Param({"50000"})
+    int dishes;
+
+    private DishSearchIndex index;
+    private Dish edited;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(11);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Category category = new Category(CATEGORIES[i], null);
+            category.setId(i + 1);
+            categories.add(category);
+        }
+
+        List<Dish> catalog = new ArrayList<>(dishes);
+        for (int i = 1; i <= dishes; i++) {
+            String name = pick(random, BASES) + " " + pick(random, INGREDIENTS) + " " + pick(random, STYLES)
+                    + " " + i;
+            String description = "Con " + pick(random, INGREDIENTS) + " e " + pick(random, INGREDIENTS);
+            Dish dish = new Dish(name, description, new Money(8.0 + random.nextInt(20)),
+                    categories.get(random.nextInt(categories.size())));
+            dish.setId(i);
+            dish.setAvailable(random.nextInt(10) > 0);
+            catalog.add(dish);
+        }
+
+        index = new DishSearchIndex(null, null);
+        index.load(categories, catalog);
+        edited = catalog.get(catalog.size() / 2);
+    }
+
+    @Benchmark
+    public List<Dish> prefix() throws SQLException {
+        return index.search("gorg", true, 50);
+    }
+
+    @Benchmark
+    public List<Dish> token() throws SQLException {
+        return index.search("tartufo", true, 50);
+    }
+
+    @Benchmark
+    public List<Dish> multiToken() throws SQLException {
+        return index.search("risotto porcini romana", true, 50);
+    }
+
+    @Benchmark
+    public List<Dish> fuzzy() throws SQLException {
+        return index.search("carbonra", true, 50);
+    }
+
+    @Benchmark
+    public int incrementalUpdate() {
+        edited.setAvailable(!edited.isAvailable());
+        index.onDishSaved(edited);
+        return index.size();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,190 @@
+package ServiceLayer;
+
+import DomainModel.menu.Category;
+import DomainModel.menu.Dish;
+import DomainModel.valueObject.Money;
+import ORM.CategoryDAO;
+import ORM.DishDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DishSearchIndexTest {
+
+    private FakeDishDAO dishDAO;
+    private FakeCategoryDAO categoryDAO;
+    private DishSearchIndex index;
+    private OwnerAdminService ownerAdminService;
+
+    @BeforeEach
+    void setUp() {
+        dishDAO = new FakeDishDAO();
+        categoryDAO = new FakeCategoryDAO();
+        index = new DishSearchIndex(dishDAO, categoryDAO);
+        ownerAdminService = new OwnerAdminService(dishDAO, categoryDAO, null, null);
+        ownerAdminService.addMenuChangeListener(index);
+
+        categoryDAO.categories.add(category(1, "Primi"));
+        categoryDAO.categories.add(category(2, "Dolci"));
+        dishDAO.dishes.add(dish(10, "Spaghetti alla carbonara", "Guanciale, uovo e pecorino", 1, true));
+        dishDAO.dishes.add(dish(11, "Bucatini all'amatriciana", "Come la carbonara, ma col pomodoro", 1, true));
+        dishDAO.dishes.add(dish(12, "Spaghetti aglio e olio", "Peperoncino", 1, false));
+        dishDAO.dishes.add(dish(13, "Tiramisù", "Mascarpone e caffè", 2, true));
+    }
+
+    @Test
+    void prefixTokenAndTypoQueriesRankNameMatchesFirst() throws Exception {
+        assertEquals(List.of(10, 11), ids(index.search("carbonara", false, 10)));
+        assertEquals(List.of(12, 10), ids(index.search("spag", false, 10)));
+        assertEquals(List.of(10, 11), ids(index.search("carbonra", false, 10)));
+        assertEquals(List.of(10), ids(index.search("spaghetti carb", false, 10)));
+        assertEquals(1, dishDAO.loads);
+    }
+
+    @Test
+    void matchesCategoryNamesIgnoringCaseAndAccents() throws Exception {
+        assertEquals(List.of(13), ids(index.search("TIRAMISU", false, 10)));
+        assertEquals(List.of(13), ids(index.search("dolci", false, 10)));
+        assertEquals(List.of(13), ids(index.search("caffe", false, 10)));
+    }
+
+    @Test
+    void blankQueryDoesNotLoadTheIndex() throws Exception {
+        assertTrue(index.search("  ", false, 10).isEmpty());
+        assertTrue(index.search(null, false, 10).isEmpty());
+        assertEquals(0, dishDAO.loads);
+    }
+
+    @Test
+    void filtersUnavailableDishesAndAppliesLimit() throws Exception {
+        assertEquals(List.of(10), ids(index.search("spaghetti", true, 10)));
+        assertEquals(List.of(12), ids(index.search("spaghetti", false, 1)));
+        assertTrue(index.search("pizza", false, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.search("pasta", false, 0));
+    }
+
+    @Test
+    void ownerDishEditsUpdateIndexWithoutReloading() throws Exception {
+        index.search("spaghetti", false, 10);
+
+        Dish panna = ownerAdminService.createDish("Panna cotta", "Frutti di bosco", new Money(6.0), 2);
+        ownerAdminService.changeDishAvailability(12, true);
+        ownerAdminService.updateDishDescription(10, "Ricetta romana");
+        ownerAdminService.deleteDish(13);
+
+        assertEquals(List.of(panna.getId()), ids(index.search("dolci", true, 10)));
+        assertEquals(List.of(12, 10), ids(index.search("spaghetti", true, 10)));
+        assertTrue(index.search("pecorino", false, 10).isEmpty());
+        assertEquals(List.of(10), ids(index.search("romana", false, 10)));
+        assertEquals(4, index.size());
+        assertEquals(1, dishDAO.loads);
+    }
+
+    @Test
+    void categoryChangesRebuildAndFailedRebuildKeepsPreviousIndex() throws Exception {
+        index.search("dolci", false, 10);
+
+        ownerAdminService.renameCategory(2, "Dessert", null);
+        assertEquals(List.of(13), ids(index.search("dessert", false, 10)));
+        assertEquals(2, dishDAO.loads);
+
+        dishDAO.failing = true;
+        ownerAdminService.renameCategory(2, "Fine pasto", null);
+        assertEquals(List.of(13), ids(index.search("dessert", false, 10)));
+
+        dishDAO.failing = false;
+        assertEquals(List.of(13), ids(index.search("fine pasto", false, 10)));
+    }
+
+    @Test
+    void editDistanceIsBoundedAndCountsTranspositions() {
+        assertTrue(DishSearchIndex.withinEdits("carbonara", "carbonara", 0));
+        assertTrue(DishSearchIndex.withinEdits("carbonra", "carbonara", 1));
+        assertTrue(DishSearchIndex.withinEdits("tiarmisu", "tiramisu", 1));
+        assertFalse(DishSearchIndex.withinEdits("pizza", "pasta", 1));
+        assertFalse(DishSearchIndex.withinEdits("uovo", "uovo sodo", 2));
+    }
+
+    private static List<Integer> ids(List<Dish> dishes) {
+        return dishes.stream().map(Dish::getId).toList();
+    }
+
+    private static Category category(int id, String name) {
+        Category category = new Category(name, null);
+        category.setId(id);
+        return category;
+    }
+
+    private static Dish dish(int id, String name, String description, int categoryId, boolean available) {
+        Category stub = new Category();
+        stub.setId(categoryId);
+        Dish dish = new Dish(name, description, new Money(10.0), stub);
+        dish.setId(id);
+        dish.setAvailable(available);
+        return dish;
+    }
+
+    private static class FakeDishDAO extends DishDAO {
+        private final List<Dish> dishes = new ArrayList<>();
+        private int loads;
+        private boolean failing;
+
+        @Override
+        public List<Dish> getAllDishes() throws SQLException {
+            if (failing) {
+                throw new SQLException("database down");
+            }
+            loads++;
+            List<Dish> copy = new ArrayList<>();
+            for (Dish dish : dishes) {
+                copy.add(dish(dish.getId(), dish.getName(), dish.getDescription(),
+                        dish.getCategory().getId(), dish.isAvailable()));
+            }
+            return copy;
+        }
+
+        @Override
+        public Optional<Dish> getDishById(int id) {
+            return dishes.stream().filter(d -> d.getId() == id).findFirst();
+        }
+
+        @Override
+        public void addDish(Dish dish) {
+            dish.setId(100 + dishes.size());
+            dishes.add(dish);
+        }
+
+        @Override
+        public void updateDish(Dish dish) {
+        }
+
+        @Override
+        public void deleteDish(int id) {
+            dishes.removeIf(d -> d.getId() == id);
+        }
+    }
+
+    private static class FakeCategoryDAO extends CategoryDAO {
+        private final List<Category> categories = new ArrayList<>();
+
+        @Override
+        public List<Category> getAllCategories() {
+            return categories;
+        }
+
+        @Override
+        public Optional<Category> getCategoryById(int id) {
+            return categories.stream().filter(c -> c.getId() == id).findFirst();
+        }
+
+        @Override
+        public void updateCategory(Category category) {
+        }
+    }
+}
@@ -3,12 +3,15 @@ package ServiceLayer;
 import DomainModel.menu.Category;
 import DomainModel.menu.Dish;
 import DomainModel.search.DishSearchParameters;
+import DomainModel.search.DishTextMatch;
 import ORM.CategoryDAO;
 import ORM.DishDAO;
 import ServiceLayer.MenuQueryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,11 +41,14 @@ class MenuQueryServiceTest {
     }
 
     @Test
-    void buildMenuKeepsCategoryOrderAndFiltersUnavailableDishes() throws Exception {
+    void buildMenuUsesSingleJoinedLoaderWithFiltersPushedDown() throws Exception {
         Map<Category, List<Dish>> menu = service.buildMenu(true, true);
         assertEquals(List.of(category), menu.keySet().stream().toList());
         assertEquals(List.of(available), menu.get(category));
-        assertTrue(categoryDAO.activeQueryUsed);
+        assertTrue(dishDAO.menuOnlyActiveCategories);
+        assertTrue(dishDAO.menuOnlyAvailableDishes);
+        assertEquals(0, dishDAO.perCategoryQueries);
+        assertFalse(categoryDAO.activeQueryUsed);
     }
 
     @Test
@@ -62,9 +68,20 @@ class MenuQueryServiceTest {
     void textSearchBuildsExpectedCriteria() throws Exception {
         service.searchDishes("pizza", true);
         assertEquals("pizza", dishDAO.lastSearch.getNameContains().orElseThrow());
+        assertEquals(DishTextMatch.FUZZY, dishDAO.lastSearch.getTextMatch());
         assertTrue(dishDAO.lastSearch.getOnlyAvailable().orElseThrow());
     }
 
+    @Test
+    void textSearchUsesInMemoryIndexWhenConfigured() throws Exception {
+        MenuQueryService indexed = new MenuQueryService(dishDAO, categoryDAO,
+                new DishSearchIndex(dishDAO, categoryDAO));
+
+        assertEquals(List.of(available), indexed.searchDishes("marg", true));
+        assertTrue(indexed.searchDishes("stagionale", true).isEmpty());
+        assertNull(dishDAO.lastSearch);
+    }
+
     @Test
     void findDishDelegatesToDao() throws Exception {
         dishDAO.found = available;
@@ -82,9 +99,26 @@ class MenuQueryServiceTest {
         private List<Dish> dishes = List.of();
         private Dish found;
         private DishSearchParameters lastSearch;
+        private boolean menuOnlyActiveCategories;
+        private boolean menuOnlyAvailableDishes;
+        private int perCategoryQueries;
+
+        @Override
+        public Map<Category, List<Dish>> loadMenu(boolean onlyActiveCategories, boolean onlyAvailableDishes) {
+            menuOnlyActiveCategories = onlyActiveCategories;
+            menuOnlyAvailableDishes = onlyAvailableDishes;
+            Map<Category, List<Dish>> menu = new LinkedHashMap<>();
+            for (Dish dish : dishes) {
+                if (!onlyAvailableDishes || dish.isAvailable()) {
+                    menu.computeIfAbsent(dish.getCategory(), c -> new ArrayList<>()).add(dish);
+                }
+            }
+            return menu;
+        }
 
         @Override
         public List<Dish> getDishesByCategory(int categoryId) {
+            perCategoryQueries++;
             return dishes;
         }
 
@@ -0,0 +1,212 @@
+package ServiceLayer;
+
+import DomainModel.notification.Notification;
+import DomainModel.notification.StatusNotification;
+import DomainModel.notification.TypeNotification;
+import DomainModel.user.User;
+import ORM.NotificationDAO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationOutboxTest {
+
+    private final FakeNotificationDAO notificationDAO = new FakeNotificationDAO();
+    private NotificationOutbox outbox;
+
+    @AfterEach
+    void tearDown() {
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    @Test
+    void fullBatchIsWrittenWithOneMultiRowInsert() throws Exception {
+        outbox = new NotificationOutbox(notificationDAO, new NotificationOutbox.Settings(100, 5, 60_000, 20));
+
+        for (int i = 0; i < 5; i++) {
+            outbox.publish(notification(i));
+        }
+        awaitWritten(5);
+
+        assertEquals(List.of(5), notificationDAO.batchSizes());
+        assertEquals(0, notificationDAO.singleInserts);
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterInterval() throws Exception {
+        outbox = new NotificationOutbox(notificationDAO, new NotificationOutbox.Settings(100, 50, 30, 20));
+
+        outbox.publish(notification(1));
+        outbox.publish(notification(2));
+        awaitWritten(2);
+
+        assertEquals(2, notificationDAO.stored().size());
+        assertEquals(0, outbox.getStats().queued());
+    }
+
+    @Test
+    void closeDrainsPendingNotifications() {
+        outbox = new NotificationOutbox(notificationDAO, new NotificationOutbox.Settings(1_000, 10, 60_000, 20));
+
+        for (int i = 0; i < 25; i++) {
+            outbox.publish(notification(i));
+        }
+        outbox.close();
+
+        assertEquals(25, notificationDAO.stored().size());
+        assertEquals(25, outbox.getStats().written());
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndBadRowsBecomeFailed() {
+        notificationDAO.failingRecipient = 3;
+        outbox = new NotificationOutbox(notificationDAO, new NotificationOutbox.Settings(100, 10, 60_000, 20));
+        List<Notification> published = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            Notification notification = notification(i);
+            published.add(notification);
+            outbox.publish(notification);
+        }
+        outbox.close();
+
+        assertEquals(3, notificationDAO.stored().size());
+        assertEquals(StatusNotification.FAILED, published.get(2).getStatus());
+        assertEquals(StatusNotification.SENT, published.get(0).getStatus());
+        assertEquals(1, outbox.getStats().failed());
+    }
+
+    @Test
+    void rowsThatStillFailAreSavedWithFailedStatus() {
+        notificationDAO.rejectSentFor = 2;
+        outbox = new NotificationOutbox(notificationDAO, new NotificationOutbox.Settings(100, 10, 60_000, 20));
+        for (int i = 1; i <= 3; i++) {
+            outbox.publish(notification(i));
+        }
+        outbox.close();
+
+        List<Notification> stored = notificationDAO.stored();
+        assertEquals(3, stored.size());
+        Notification failedRow = stored.stream()
+                .filter(notification -> notification.getRecipient().getId() == 2)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(StatusNotification.FAILED, failedRow.getStatus());
+        assertEquals(1, outbox.getStats().failed());
+    }
+
+    @Test
+    void closeWakesTheWriterWithoutInterruptingIt() {
+        outbox = new NotificationOutbox(notificationDAO, new NotificationOutbox.Settings(100, 50, 60_000, 20));
+        outbox.publish(notification(1));
+
+        long start = System.nanoTime();
+        outbox.close();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1, notificationDAO.stored().size());
+        assertFalse(notificationDAO.interruptedWhileWriting);
+    }
+
+    @Test
+    void fullQueueMakesTheCallerWriteInsteadOfDropping() throws Exception {
+        notificationDAO.blockBatches = new CountDownLatch(1);
+        outbox = new NotificationOutbox(notificationDAO, new NotificationOutbox.Settings(1, 1, 10, 5));
+
+        outbox.publish(notification(1)); // preso dal writer, che resta bloccato
+        notificationDAO.awaitBatchStarted();
+        outbox.publish(notification(2)); // occupa l'unico posto in coda
+        outbox.publish(notification(3)); // coda piena: scrive il chiamante
+
+        assertEquals(1, outbox.getStats().callerRuns());
+        assertEquals(3, notificationDAO.stored().get(0).getRecipient().getId());
+
+        notificationDAO.blockBatches.countDown();
+        outbox.close();
+        assertEquals(3, notificationDAO.stored().size());
+    }
+
+    private void awaitWritten(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (outbox.getStats().written() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, outbox.getStats().written());
+    }
+
+    private static Notification notification(int recipientId) {
+        User recipient = new User();
+        recipient.setId(recipientId);
+        return new Notification(recipient, "Messaggio " + recipientId, TypeNotification.UPDATE);
+    }
+
+    private static class FakeNotificationDAO extends NotificationDAO {
+        private final List<Notification> stored = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final CountDownLatch batchStarted = new CountDownLatch(1);
+        private volatile CountDownLatch blockBatches;
+        private volatile int failingRecipient = -1;
+        private volatile int rejectSentFor = -1;
+        private volatile boolean interruptedWhileWriting;
+        private int singleInserts;
+
+        @Override
+        public void addNotifications(List<Notification> notifications) throws SQLException {
+            batchStarted.countDown();
+            if (blockBatches != null && Thread.currentThread().getName().equals("dineup-notification-writer")) {
+                try {
+                    blockBatches.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                interruptedWhileWriting = true;
+            }
+            synchronized (this) {
+                for (Notification notification : notifications) {
+                    if (notification.getRecipient().getId() == failingRecipient || rejected(notification)) {
+                        throw new SQLException("recipient not found");
+                    }
+                }
+                batchSizes.add(notifications.size());
+                stored.addAll(notifications);
+            }
+        }
+
+        @Override
+        public synchronized void addNotification(Notification notification) throws SQLException {
+            if (notification.getRecipient().getId() == failingRecipient || rejected(notification)) {
+                throw new SQLException("recipient not found");
+            }
+            singleInserts++;
+            stored.add(notification);
+        }
+
+        // solo le righe SENT: il salvataggio come FAILED riesce
+        private boolean rejected(Notification notification) {
+            return notification.getRecipient().getId() == rejectSentFor
+                    && notification.getStatus() == StatusNotification.SENT;
+        }
+
+        private synchronized List<Integer> batchSizes() {
+            return List.copyOf(batchSizes);
+        }
+
+        private synchronized List<Notification> stored() {
+            return List.copyOf(stored);
+        }
+
+        private void awaitBatchStarted() throws InterruptedException {
+            assertTrue(batchStarted.await(2, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -57,12 +57,32 @@ class NotificationServiceTest {
         assertEquals(12, dao.markedId);
     }
 
+    @Test
+    void bulkMarkAsReadDeduplicatesIdsAndUsesOneDaoCall() throws Exception {
+        assertEquals(2, service.markAsRead(7, List.of(5, 8, 5)));
+        assertEquals(List.of(5, 8), dao.markedIds);
+        assertEquals(7, dao.lastUserId);
+
+        assertEquals(4, service.markAllAsRead(3));
+        assertEquals(3, dao.lastUserId);
+    }
+
+    @Test
+    void bulkMarkAsReadRejectsEmptyOrInvalidIds() {
+        assertThrows(IllegalArgumentException.class, () -> service.markAsRead(7, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> service.markAsRead(7, List.of(4, 0)));
+        assertThrows(IllegalArgumentException.class, () -> service.markAsRead(0, List.of(4)));
+        assertThrows(IllegalArgumentException.class, () -> service.markAllAsRead(0));
+        assertNull(dao.markedIds);
+    }
+
     private static class FakeNotificationDAO extends NotificationDAO {
         private final List<Notification> all = List.of(new Notification());
         private final List<Notification> unread = List.of();
         private int lastUserId;
         private Notification added;
         private Integer markedId;
+        private List<Integer> markedIds;
 
         @Override
         public List<Notification> getNotificationsForUser(int userId) {
@@ -82,8 +102,22 @@ class NotificationServiceTest {
         }
 
         @Override
-        public void markAsRead(int notificationId) {
+        public Notification markAsRead(int notificationId) {
             markedId = notificationId;
+            return new Notification();
+        }
+
+        @Override
+        public int markAsRead(int recipientId, List<Integer> notificationIds) {
+            lastUserId = recipientId;
+            markedIds = notificationIds;
+            return notificationIds.size();
+        }
+
+        @Override
+        public int markAllAsRead(int userId) {
+            lastUserId = userId;
+            return 4;
         }
     }
 }
@@ -0,0 +1,82 @@
+package ServiceLayer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.close();
+        }
+    }
+
+    @Test
+    void hashesWithConfiguredCostAndVerifies() {
+        hasher = new PasswordHasher(new PasswordHasher.Settings(2, 4, 5));
+
+        String hash = hasher.hash("secret");
+
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(hasher.verify("secret", hash));
+        assertFalse(hasher.verify("wrong", hash));
+        assertEquals(3, hasher.getStats().completed());
+    }
+
+    @Test
+    void onlyHashesWithADifferentCostNeedRehash() {
+        hasher = new PasswordHasher(new PasswordHasher.Settings(1, 1, 6));
+
+        assertFalse(hasher.needsRehash(BCrypt.hashpw("secret", BCrypt.gensalt(6))));
+        assertTrue(hasher.needsRehash(BCrypt.hashpw("secret", BCrypt.gensalt(4))));
+        assertFalse(hasher.needsRehash("mario_hashed_pwd"));
+        assertFalse(hasher.needsRehash(null));
+    }
+
+    @Test
+    void saturatedPoolRejectsInsteadOfQueueingWithoutBound() throws Exception {
+        hasher = new PasswordHasher(new PasswordHasher.Settings(1, 1, 12));
+        int callers = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return hasher.hash("secret");
+            }));
+        }
+        start.countDown();
+
+        int rejected = 0;
+        for (Future<String> future : futures) {
+            try {
+                assertTrue(BCrypt.checkpw("secret", future.get(30, TimeUnit.SECONDS)));
+            } catch (ExecutionException e) {
+                assertInstanceOf(RejectedExecutionException.class, e.getCause());
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertTrue(rejected >= 1);
+        assertEquals(rejected, hasher.getStats().rejected());
+        assertEquals(callers - rejected, hasher.getStats().completed());
+    }
+}
@@ -61,6 +61,27 @@ class ProfileServiceTest {
         assertSame(user, dao.updated);
     }
 
+    @Test
+    void emailAndRoleChangesCloseSessionsWhileOtherUpdatesRefreshThem() throws Exception {
+        SessionStore sessions = new SessionStore();
+        service = new ProfileService(dao, sessions);
+        String token = sessions.open(user);
+
+        service.addFidelityPoints(user, 10);
+        service.updatePersonalInfo(user, null, "Luigi", "Verdi");
+        User resolved = sessions.resolve(token).orElseThrow();
+        assertEquals(10, resolved.getFidelityPoints());
+        assertEquals("Luigi", resolved.getName());
+
+        service.changeRole(user, Role.STAFF);
+        assertEquals(Role.STAFF, user.getRole());
+        assertTrue(sessions.resolve(token).isEmpty());
+
+        token = sessions.open(user);
+        service.updateEmail(user, "luigi@example.com");
+        assertTrue(sessions.resolve(token).isEmpty());
+    }
+
     private static class FakeUserDAO extends UserDAO {
         private User user;
         private User updated;
@@ -96,6 +96,144 @@ class ReservationServiceTest {
         assertFalse(reservationDAO.atomicSaveUsed);
     }
 
+    @Test
+    void createReservationUsesAvailabilityIndexAfterFirstLoad() throws SQLException {
+        Table first = table(10, 4);
+        Table second = table(11, 4);
+        tableDAO.tables = List.of(first, second);
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        service.createReservation(customer, date, slot.getId(), 4, null);
+        Reservation next = service.createReservation(customer, date, slot.getId(), 4, null);
+
+        assertEquals(List.of(second), reservationDAO.savedTables);
+        assertEquals(1, reservationDAO.reservedIdsQueries);
+        assertEquals(1, tableDAO.availableQueries);
+        assertEquals(1, next.getTables().size());
+        assertThrows(IllegalStateException.class, () ->
+                service.createReservation(customer, date, slot.getId(), 2, null));
+    }
+
+    @Test
+    void createReservationRereadsBookedTablesAndRetriesOnConflict() throws SQLException {
+        Table first = table(10, 4);
+        Table second = table(11, 4);
+        tableDAO.tables = List.of(first, second);
+        LocalDate date = LocalDate.now().plusDays(1);
+        service.createReservation(customer, date, slot.getId(), 2, null);
+        service.cancelReservation(91, customer); // l'indice libera il tavolo 10...
+        reservationDAO.reservedIds = List.of(10); // ...ma il database lo vede ancora prenotato
+        reservationDAO.failure = new SQLException("Table 10 is already booked", "P0001");
+
+        Reservation reservation = service.createReservation(customer, date, slot.getId(), 4, null);
+
+        assertEquals(List.of(second), reservationDAO.savedTables);
+        assertEquals(List.of(second), reservation.getTables().stream().map(MergeTable::getTable).toList());
+        assertEquals(2, reservationDAO.reservedIdsQueries);
+    }
+
+    @Test
+    void createReservationFailureReleasesOnlyItsOwnTables() throws SQLException {
+        Table first = table(10, 4);
+        Table second = table(11, 4);
+        Table third = table(12, 4);
+        tableDAO.tables = List.of(first, second, third);
+        TableAvailabilityIndex index = new TableAvailabilityIndex(reservationDAO, tableDAO);
+        service = new ReservationService(reservationDAO, tableDAO, slotDAO,
+                NotificationPublisher.direct(notificationDAO), new TableAllocationService(), index);
+        LocalDate date = LocalDate.now().plusDays(1);
+        reservationDAO.failure = new SQLException("Connection lost", "08006");
+
+        assertTrue(index.claim(date, slot.getId(), List.of(first))); // richiesta ancora in corso
+        SQLException error = assertThrows(SQLException.class,
+                () -> service.createReservation(customer, date, slot.getId(), 4, null));
+
+        assertEquals("08006", error.getSQLState());
+        assertEquals(List.of(second, third), index.freeTables(date, slot.getId()));
+        assertEquals(1, reservationDAO.reservedIdsQueries);
+    }
+
+    @Test
+    void snapshotVersionChangesWheneverTheFreeTablesDo() throws SQLException {
+        Table first = table(10, 4);
+        Table second = table(11, 4);
+        tableDAO.tables = List.of(first, second);
+        TableAvailabilityIndex index = new TableAvailabilityIndex(reservationDAO, tableDAO);
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        TableAvailabilityIndex.FreeTables loaded = index.snapshot(date, slot.getId());
+        assertEquals(loaded, index.snapshot(date, slot.getId()));
+        assertTrue(index.claim(date, slot.getId(), List.of(first)));
+        TableAvailabilityIndex.FreeTables claimed = index.snapshot(date, slot.getId());
+        index.release(date, slot.getId(), List.of(first.getId()));
+        TableAvailabilityIndex.FreeTables released = index.snapshot(date, slot.getId());
+
+        assertEquals(List.of(second), claimed.tables());
+        assertEquals(loaded.tables(), released.tables());
+        assertTrue(loaded.version() < claimed.version() && claimed.version() < released.version());
+        // dopo un cambio di disposizione la coppia riparte con una versione mai vista
+        index.onTableLayoutChanged();
+        assertTrue(index.snapshot(date, slot.getId()).version() > released.version());
+    }
+
+    @Test
+    void tablesLoadedAcrossALayoutChangeAreNotCached() throws SQLException {
+        Table first = table(10, 4);
+        Table added = table(11, 4);
+        tableDAO.tables = List.of(first);
+        TableAvailabilityIndex index = new TableAvailabilityIndex(reservationDAO, tableDAO);
+        LocalDate date = LocalDate.now().plusDays(1);
+        tableDAO.duringLoad = () -> {
+            tableDAO.tables = List.of(first, added);
+            index.onTableLayoutChanged();
+        };
+
+        assertEquals(List.of(first), index.freeTables(date, slot.getId()));
+        assertEquals(List.of(first, added), index.freeTables(date, slot.getId()));
+        assertEquals(2, tableDAO.availableQueries);
+    }
+
+    @Test
+    void createReservationsPacksEachSlotTogetherAndSavesItInOneBatch() throws SQLException {
+        Table eight = new Table(1, 8, false, "sala");
+        eight.setId(1);
+        Table four = table(2, 4);
+        Table anotherFour = table(3, 4);
+        tableDAO.tables = List.of(eight, four, anotherFour);
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        List<ReservationService.BookingOutcome> outcomes = service.createReservations(List.of(
+                new ReservationService.BookingRequest(customer, date, slot.getId(), 6, "evento"),
+                new ReservationService.BookingRequest(customer, date, slot.getId(), 8, "evento"),
+                new ReservationService.BookingRequest(customer, date, slot.getId(), 0, null),
+                new ReservationService.BookingRequest(customer, date, slot.getId(), 4, null)));
+
+        assertTrue(outcomes.get(0).booked());
+        assertTrue(outcomes.get(1).booked());
+        assertEquals(List.of(eight), outcomes.get(1).reservation().getTables().stream()
+                .map(MergeTable::getTable).toList());
+        assertEquals("Guests must be greater than zero", outcomes.get(2).error());
+        assertEquals("No tables available for the requested slot", outcomes.get(3).error());
+        assertEquals(1, reservationDAO.batches);
+        assertEquals(1, reservationDAO.reservedIdsQueries);
+        assertFalse(reservationDAO.atomicSaveUsed);
+        assertEquals(2, notificationDAO.notifications.size());
+    }
+
+    @Test
+    void cancelReservationReleasesTablesInAvailabilityIndex() throws SQLException {
+        Table table = table(10, 4);
+        tableDAO.tables = List.of(table);
+        LocalDate date = LocalDate.now().plusDays(1);
+
+        Reservation reservation = service.createReservation(customer, date, slot.getId(), 4, null);
+        service.cancelReservation(reservation.getId(), customer);
+        service.createReservation(customer, date, slot.getId(), 3, null);
+
+        assertEquals(List.of(table), reservationDAO.savedTables);
+        assertEquals(1, reservationDAO.reservedIdsQueries);
+    }
+
     @Test
     void cancelReservationChecksOwnershipAndAppliesDomainTransition() throws SQLException {
         Reservation reservation = reservation(customer, ReservationStatus.CREATED);
@@ -157,14 +295,25 @@ class ReservationServiceTest {
         private List<Table> savedTables;
         private ReservationStatus updatedStatus;
         private boolean atomicSaveUsed;
+        private int reservedIdsQueries;
+        private int batches;
+        private List<Integer> reservedIds = List.of();
+        private SQLException failure;
 
         @Override
         public List<Integer> getReservedTableIds(LocalDate date, int slotId) {
-            return List.of();
+            reservedIdsQueries++;
+            return reservedIds;
         }
 
         @Override
-        public List<MergeTable> addReservationWithTables(Reservation reservation, List<Table> tables) {
+        public List<MergeTable> addReservationWithTables(Reservation reservation,
+                                                         List<Table> tables) throws SQLException {
+            if (failure != null) {
+                SQLException error = failure;
+                failure = null;
+                throw error;
+            }
             atomicSaveUsed = true;
             this.reservation = reservation;
             this.savedTables = List.copyOf(tables);
@@ -182,6 +331,24 @@ class ReservationServiceTest {
             return assignments;
         }
 
+        @Override
+        public List<List<MergeTable>> addReservationsWithTables(List<Reservation> reservations,
+                                                                List<List<Table>> tables) {
+            batches++;
+            List<List<MergeTable>> assignments = new ArrayList<>();
+            for (int i = 0; i < reservations.size(); i++) {
+                Reservation reservation = reservations.get(i);
+                reservation.setId(100 + i);
+                List<MergeTable> reservationAssignments = new ArrayList<>();
+                for (Table table : tables.get(i)) {
+                    reservationAssignments.add(new MergeTable(reservation, table, table.getSeats(),
+                            "RES-" + reservation.getId()));
+                }
+                assignments.add(reservationAssignments);
+            }
+            return assignments;
+        }
+
         @Override
         public Optional<Reservation> getReservationById(int reservationId) {
             return Optional.ofNullable(reservation);
@@ -195,10 +362,19 @@ class ReservationServiceTest {
 
     private static class FakeTableDAO extends TableDAO {
         private List<Table> tables = List.of();
+        private int availableQueries;
+        private Runnable duringLoad;
 
         @Override
         public List<Table> getAvailableTables() {
-            return tables;
+            availableQueries++;
+            List<Table> loaded = tables;
+            if (duringLoad != null) {
+                Runnable change = duringLoad;
+                duringLoad = null;
+                change.run();
+            }
+            return loaded;
         }
     }
 
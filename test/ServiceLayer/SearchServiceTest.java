@@ -12,10 +12,17 @@ import ServiceLayer.MenuQueryService;
 import ServiceLayer.OrderService;
 import ServiceLayer.ReservationService;
 import ServiceLayer.SearchService;
+import DomainModel.search.SearchBranch;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +32,7 @@ class SearchServiceTest {
     private FakeOrderService orders;
     private FakeReservationService reservations;
     private SearchService service;
+    private ExecutorService executor;
 
     @BeforeEach
     void setUp() {
@@ -34,6 +42,13 @@ class SearchServiceTest {
         service = new SearchService(menu, orders, reservations);
     }
 
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void nullOrEmptyCriteriaDoesNotQueryDependencies() throws Exception {
         assertTrue(service.search(null).isEmpty());
@@ -67,47 +82,145 @@ class SearchServiceTest {
         assertTrue(reservations.called);
     }
 
+    @Test
+    void parallelModeRunsBranchesConcurrentlyAndRecordsTimings() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Branch meetOthers = () -> {
+            allStarted.countDown();
+            // in sequenza questa attesa scadrebbe: i tre rami devono essere attivi insieme
+            if (!allStarted.await(2, TimeUnit.SECONDS)) {
+                throw new SQLException("branches did not overlap");
+            }
+        };
+        menu.onCall = meetOthers;
+        orders.onCall = meetOthers;
+        reservations.onCall = meetOthers;
+
+        SearchResult result = parallelService(new SearchService.Settings(5_000, 5_000, 5_000, 5_000))
+                .search(allBranches());
+
+        assertFalse(result.isPartial());
+        assertSame(menu.result, result.getDishes());
+        assertSame(orders.result, result.getOrders());
+        assertSame(reservations.result, result.getReservations());
+        assertEquals(3, result.getBranchTimings().size());
+    }
+
+    @Test
+    void slowBranchIsCancelledAndResultIsFlaggedPartial() throws Exception {
+        orders.onCall = () -> Thread.sleep(5_000);
+
+        SearchResult result = parallelService(new SearchService.Settings(2_000, 1_000, 50, 1_000))
+                .search(allBranches());
+
+        assertTrue(result.isPartial());
+        assertEquals(java.util.Set.of(SearchBranch.ORDERS), result.getIncompleteBranches());
+        assertTrue(result.getOrders().isEmpty());
+        assertSame(menu.result, result.getDishes());
+        assertSame(reservations.result, result.getReservations());
+        assertFalse(result.getBranchTimings().containsKey(SearchBranch.ORDERS));
+    }
+
+    @Test
+    void branchCancelledByItsQueryTimeoutIsFlaggedPartial() throws Exception {
+        orders.onCall = () -> {
+            throw new SQLException("canceling statement due to user request", "57014");
+        };
+
+        SearchResult result = parallelService(SearchService.Settings.defaults()).search(allBranches());
+
+        assertEquals(java.util.Set.of(SearchBranch.ORDERS), result.getIncompleteBranches());
+        assertSame(menu.result, result.getDishes());
+        assertSame(reservations.result, result.getReservations());
+    }
+
+    @Test
+    void sqlErrorInOneBranchIsRethrown() {
+        reservations.onCall = () -> {
+            throw new SQLException("boom");
+        };
+
+        SearchService parallel = parallelService(SearchService.Settings.defaults());
+        SQLException error = assertThrows(SQLException.class, () -> parallel.search(allBranches()));
+        assertEquals("boom", error.getMessage());
+    }
+
+    private SearchService parallelService(SearchService.Settings settings) {
+        executor = Executors.newFixedThreadPool(3);
+        return new SearchService(menu, orders, reservations, executor, settings);
+    }
+
+    private static SearchCriteria allBranches() {
+        return SearchCriteria.builder()
+                .setDish(DishSearchParameters.builder().setNameContains("pizza"))
+                .setOrder(OrderSearchParameters.builder().setCustomerId(3))
+                .setReservation(ReservationSearchParameters.builder().setSlotId(2));
+    }
+
+    @FunctionalInterface
+    private interface Branch {
+        void run() throws Exception;
+    }
+
+    private static void invoke(Branch branch) throws SQLException {
+        try {
+            branch.run();
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private static class FakeMenuService extends MenuQueryService {
         private final List<Dish> result = List.of(new Dish());
-        private boolean called;
+        private volatile boolean called;
+        private volatile Branch onCall = () -> { };
 
         FakeMenuService() {
             super(null, null);
         }
 
         @Override
-        public List<Dish> searchDishes(DishSearchParameters params) {
+        public List<Dish> searchDishes(DishSearchParameters params) throws SQLException {
             called = true;
+            invoke(onCall);
             return result;
         }
     }
 
     private static class FakeOrderService extends OrderService {
         private final List<Order> result = List.of(new Order());
-        private boolean called;
+        private volatile boolean called;
+        private volatile Branch onCall = () -> { };
 
         FakeOrderService() {
             super(null);
         }
 
         @Override
-        public List<Order> searchOrders(OrderSearchParameters params) {
+        public List<Order> searchOrders(OrderSearchParameters params) throws SQLException {
             called = true;
+            invoke(onCall);
             return result;
         }
     }
 
     private static class FakeReservationService extends ReservationService {
         private final List<Reservation> result = List.of(new Reservation());
-        private boolean called;
+        private volatile boolean called;
+        private volatile Branch onCall = () -> { };
 
         FakeReservationService() {
             super(null, null, null, null, null);
         }
 
         @Override
-        public List<Reservation> searchReservations(ReservationSearchParameters params) {
+        public List<Reservation> searchReservations(ReservationSearchParameters params) throws SQLException {
             called = true;
+            invoke(onCall);
             return result;
         }
     }
@@ -0,0 +1,87 @@
+package ServiceLayer;
+
+import DomainModel.user.Role;
+import DomainModel.user.User;
+import DomainModel.valueObject.Email;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void tokensAreOpaqueAndResolveToAFreshCopyOfTheUser() {
+        SessionStore store = new SessionStore(new SessionStore.Settings(10, 60_000), clock::get);
+        User mario = user(1, "mario");
+
+        String first = store.open(mario);
+        String second = store.open(mario);
+        assertNotEquals(first, second);
+        assertEquals(43, first.length());
+
+        User resolved = store.resolve(first).orElseThrow();
+        resolved.setRole(Role.OWNER);
+        mario.setName("Cambiato");
+        User again = store.resolve(first).orElseThrow();
+        assertEquals(Role.CUSTOMER, again.getRole());
+        assertEquals("Nome", again.getName());
+        assertTrue(store.resolve("unknown").isEmpty());
+        assertTrue(store.resolve(null).isEmpty());
+    }
+
+    @Test
+    void idleSessionsExpireAndEveryUseSlidesTheDeadline() {
+        SessionStore store = new SessionStore(new SessionStore.Settings(10, 1_000), clock::get);
+        String token = store.open(user(1, "mario"));
+
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+            assertTrue(store.resolve(token).isPresent());
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+        assertTrue(store.resolve(token).isEmpty());
+        assertEquals(new SessionStore.Stats(0, 1, 5, 1, 1, 0), store.getStats());
+    }
+
+    @Test
+    void leastRecentlyUsedSessionIsClosedWhenTheLimitIsReached() {
+        SessionStore store = new SessionStore(new SessionStore.Settings(2, 60_000), clock::get);
+        String mario = store.open(user(1, "mario"));
+        String luigi = store.open(user(2, "luigi"));
+
+        store.resolve(mario);
+        String anna = store.open(user(3, "anna"));
+
+        assertTrue(store.resolve(luigi).isEmpty());
+        assertTrue(store.resolve(mario).isPresent());
+        assertTrue(store.resolve(anna).isPresent());
+        assertEquals(1, store.getStats().evicted());
+    }
+
+    @Test
+    void invalidateUserClosesOnlyThatUsersSessions() {
+        SessionStore store = new SessionStore(new SessionStore.Settings(10, 60_000), clock::get);
+        String phone = store.open(user(1, "mario"));
+        String laptop = store.open(user(1, "mario"));
+        String luigi = store.open(user(2, "luigi"));
+
+        assertEquals(2, store.invalidateUser(1));
+
+        assertTrue(store.resolve(phone).isEmpty());
+        assertTrue(store.resolve(laptop).isEmpty());
+        assertTrue(store.resolve(luigi).isPresent());
+        assertEquals(0, store.invalidateUser(1));
+    }
+
+    private static User user(int id, String username) {
+        User user = new User(username, new Email(username + "@example.com"), "hash",
+                "Nome", "Cognome", Role.CUSTOMER);
+        user.setId(id);
+        return user;
+    }
+}
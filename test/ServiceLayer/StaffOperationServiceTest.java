@@ -0,0 +1,103 @@
+package ServiceLayer;
+
+import DomainModel.notification.Notification;
+import DomainModel.notification.TypeNotification;
+import DomainModel.order.Order;
+import DomainModel.order.OrderStatus;
+import DomainModel.user.User;
+import ORM.OrderDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaffOperationServiceTest {
+
+    private FakeOrderDAO orderDAO;
+    private List<Notification> published;
+    private StaffOperationService service;
+
+    @BeforeEach
+    void setUp() {
+        orderDAO = new FakeOrderDAO();
+        published = new ArrayList<>();
+        service = new StaffOperationService(orderDAO, null, published::add);
+    }
+
+    @Test
+    void updateOrderStatusPublishesNotificationWithoutReloadingOrder() throws SQLException {
+        User customer = new User();
+        customer.setId(9);
+        Order order = new Order();
+        order.setId(3);
+        order.setCustomer(customer);
+        order.setStatus(OrderStatus.PREPARING);
+        orderDAO.order = order;
+
+        service.updateOrderStatus(3, OrderStatus.READY);
+
+        assertEquals(OrderStatus.READY, orderDAO.updatedStatus);
+        assertEquals(1, orderDAO.lookups);
+        assertEquals(1, published.size());
+        assertSame(customer, published.get(0).getRecipient());
+        assertEquals(TypeNotification.ALERT, published.get(0).getType());
+    }
+
+    @Test
+    void listOrdersByDateQueriesOnlyTheRequestedDay() throws SQLException {
+        LocalDate today = LocalDate.of(2026, 3, 14);
+        Order order = new Order();
+        order.setId(5);
+        orderDAO.dayOrders.add(order);
+
+        List<Order> orders = service.listOrdersByDate(today);
+
+        assertEquals(List.of(order), orders);
+        assertEquals(List.of(today), orderDAO.requestedDays);
+        assertEquals(0, orderDAO.statusQueries);
+    }
+
+    @Test
+    void listOrdersByDateRequiresDate() {
+        assertThrows(IllegalArgumentException.class, () -> service.listOrdersByDate(null));
+        assertTrue(orderDAO.requestedDays.isEmpty());
+    }
+
+    private static class FakeOrderDAO extends OrderDAO {
+        private final List<Order> dayOrders = new ArrayList<>();
+        private final List<LocalDate> requestedDays = new ArrayList<>();
+        private int statusQueries;
+        private Order order;
+        private OrderStatus updatedStatus;
+        private int lookups;
+
+        @Override
+        public Optional<Order> getOrderById(int orderId) {
+            lookups++;
+            return Optional.ofNullable(order).filter(candidate -> candidate.getId() == orderId);
+        }
+
+        @Override
+        public void updateStatus(int orderId, OrderStatus status) {
+            updatedStatus = status;
+        }
+
+        @Override
+        public List<Order> getOrdersCreatedOn(LocalDate date) {
+            requestedDays.add(date);
+            return List.copyOf(dayOrders);
+        }
+
+        @Override
+        public List<Order> getOrdersByStatus(OrderStatus status) {
+            statusQueries++;
+            return List.of();
+        }
+    }
+}
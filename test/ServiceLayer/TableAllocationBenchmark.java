@@ -0,0 +1,105 @@
+package ServiceLayer;
+
+import DomainModel.reservation.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confronto tra ricerca esaustiva, programmazione dinamica e risultati in cache.
+ * mvn -Pbench test-compile exec:exec -Dbench=TableAllocationBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableAllocationBenchmark {
+
+    private static final int[] SIZES = {2, 4, 4, 4, 6, 8};
+
+    private final AllocationEngine exhaustive = new ExhaustiveAllocationEngine();
+    private final AllocationEngine seatCount = new SeatCountAllocationEngine();
+    private final TableAllocationService cached = new TableAllocationService(seatCount);
+
+    /** Sale piccole: l'unico caso in cui la ricerca esaustiva termina in tempi utili. */
+    @State(Scope.Benchmark)
+    public static class SmallLayout {
+        @Param({"12", "16", "20"})
+        int tables;
+
+        @Param({"14", "30"})
+        int guests;
+
+        List<Table> layout;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            layout = layout(tables);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class LargeLayout {
+        @Param({"200", "400"})
+        int tables;
+
+        @Param({"14", "30", "60"})
+        int guests;
+
+        List<Table> layout;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            layout = layout(tables);
+        }
+    }
+
+    @Benchmark
+    public List<Table> exhaustiveSmall(SmallLayout state) {
+        return exhaustive.findBestCombination(state.layout, state.guests);
+    }
+
+    @Benchmark
+    public List<Table> seatCountSmall(SmallLayout state) {
+        return seatCount.findBestCombination(state.layout, state.guests);
+    }
+
+    @Benchmark
+    public List<Table> seatCountLarge(LargeLayout state) {
+        return seatCount.findBestCombination(state.layout, state.guests);
+    }
+
+    /** Stessi tavoli liberi e stessi ospiti: dopo la prima ricerca solo impronta e lookup. */
+    @Benchmark
+    public List<Table> cachedLarge(LargeLayout state) {
+        return cached.findBestCombination(state.layout, state.guests);
+    }
+
+    private static List<Table> layout(int count) {
+        Random random = new Random(7);
+        List<Table> tables = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            // Il tavolo più grande è da 8: oltre gli 8 ospiti serve sempre un'unione.
+            Table table = new Table(i, SIZES[random.nextInt(SIZES.length)], random.nextInt(10) > 0, "sala");
+            table.setId(i);
+            tables.add(table);
+        }
+        return tables;
+    }
+}
@@ -2,15 +2,23 @@ package ServiceLayer;
 
 import DomainModel.reservation.Table;
 import ServiceLayer.TableAllocationService;
+import ServiceLayer.TableAvailabilityIndex.FreeTables;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class TableAllocationServiceTest {
 
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
     private TableAllocationService service;
 
     @BeforeEach
@@ -70,9 +78,200 @@ class TableAllocationServiceTest {
         assertEquals(List.of(fourA, fourB), result);
     }
 
+    @Test
+    void findBestCombinationMatchesExhaustiveSearchOnRandomLayouts() {
+        TableAllocationService exhaustive = new TableAllocationService(new ExhaustiveAllocationEngine());
+        Random random = new Random(42);
+        int[] sizes = {2, 4, 4, 6, 8};
+
+        for (int round = 0; round < 300; round++) {
+            List<Table> layout = new ArrayList<>();
+            int count = 1 + random.nextInt(14);
+            for (int i = 1; i <= count; i++) {
+                layout.add(table(i, sizes[random.nextInt(sizes.length)], random.nextInt(5) > 0));
+            }
+            int guests = 1 + random.nextInt(30);
+
+            List<Table> expected = exhaustive.findBestCombination(layout, guests);
+            List<Table> actual = service.findBestCombination(layout, guests);
+
+            if (expected == null) {
+                assertNull(actual, "layout " + layout + " guests " + guests);
+                continue;
+            }
+            assertNotNull(actual, "layout " + layout + " guests " + guests);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(service.effectiveSeats(expected), service.effectiveSeats(actual));
+            assertTrue(service.canHost(actual, guests));
+            assertEquals(actual.size(), actual.stream().distinct().count());
+        }
+    }
+
+    @Test
+    void findBestCombinationHandlesLargeLayouts() {
+        List<Table> layout = new ArrayList<>();
+        for (int i = 1; i <= 250; i++) {
+            layout.add(table(i, i % 3 == 0 ? 6 : 4, true));
+        }
+
+        List<Table> result = service.findBestCombination(layout, 40);
+
+        // 9 tavoli da 6 danno 54 - 16 = 38 posti: ne servono 10, e 9 da 6 + 1 da 4 non sprecano nulla
+        assertEquals(10, result.size());
+        assertEquals(40, service.effectiveSeats(result));
+    }
+
+    @Test
+    void findBestCombinationReturnsNullWhenLayoutIsTooSmall() {
+        List<Table> layout = List.of(table(1, 4, true), table(2, 4, true), table(3, 6, false));
+
+        assertNull(service.findBestCombination(layout, 7));
+    }
+
+    @Test
+    void findBestCombinationReusesResultsForTheSameSlotVersion() {
+        CountingEngine engine = new CountingEngine();
+        TableAllocationService cached = new TableAllocationService(engine);
+        Table two = table(1, 2, true);
+        Table four = table(2, 4, true);
+        FreeTables free = free(DAY, 1, 7, List.of(two, four));
+
+        List<Table> first = cached.findBestCombination(free, 4);
+        List<Table> second = cached.findBestCombination(free, 4);
+        assertNull(cached.findBestCombination(free, 9));
+        assertNull(cached.findBestCombination(free, 9));
+
+        assertEquals(2, engine.searches);
+        assertEquals(List.of(four), first);
+        assertEquals(first, second);
+        TableAllocationService.Stats stats = cached.getStats();
+        assertEquals(1, stats.entries());
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void findBestCombinationSearchesAgainWhenTheSlotVersionChanges() {
+        CountingEngine engine = new CountingEngine();
+        TableAllocationService cached = new TableAllocationService(engine);
+        Table four = table(1, 4, true);
+        Table anotherFour = table(2, 4, true);
+
+        assertEquals(List.of(four), cached.findBestCombination(free(DAY, 1, 1, List.of(four, anotherFour)), 4));
+        // il tavolo 1 è stato occupato: nuova versione, nuova ricerca
+        assertEquals(List.of(anotherFour), cached.findBestCombination(free(DAY, 1, 2, List.of(anotherFour)), 4));
+        // una lettura più vecchia non sostituisce quella più recente
+        cached.findBestCombination(free(DAY, 1, 1, List.of(four, anotherFour)), 4);
+        assertEquals(List.of(anotherFour), cached.findBestCombination(free(DAY, 1, 2, List.of(anotherFour)), 4));
+
+        assertEquals(3, engine.searches);
+        assertEquals(1, cached.getStats().hits());
+    }
+
+    @Test
+    void findBestCombinationKeepsSlotsApartAndEvictsPastDaysFirst() {
+        CountingEngine engine = new CountingEngine();
+        TableAllocationService cached = new TableAllocationService(engine, new TableAllocationService.Settings(2));
+        List<Table> layout = List.of(table(1, 4, true), table(2, 4, true));
+
+        cached.findBestCombination(free(DAY.minusYears(1), 1, 1, layout), 6);
+        cached.findBestCombination(free(DAY, 1, 1, layout), 6);
+        cached.findBestCombination(free(DAY, 2, 1, layout), 6);
+        cached.findBestCombination(free(DAY, 1, 1, layout), 6);
+        cached.findBestCombination(free(DAY, 2, 1, layout), 6);
+
+        assertEquals(3, engine.searches);
+        assertEquals(2, cached.getStats().entries());
+        assertEquals(1, cached.getStats().evictions());
+    }
+
+    @Test
+    void findBestCombinationWithoutCacheAlwaysSearches() {
+        CountingEngine engine = new CountingEngine();
+        TableAllocationService uncached = new TableAllocationService(engine, new TableAllocationService.Settings(0));
+        FreeTables free = free(DAY, 1, 1, List.of(table(1, 4, true)));
+
+        uncached.findBestCombination(free, 2);
+        uncached.findBestCombination(free, 2);
+
+        assertEquals(2, engine.searches);
+        assertEquals(0, uncached.getStats().hits());
+        assertEquals(0, uncached.getStats().entries());
+    }
+
+    @Test
+    void packPartiesSeatsGroupsThatSequentialAllocationCannot() {
+        Table eight = table(1, 8, false);
+        Table four = table(2, 4, true);
+        Table anotherFour = table(3, 4, true);
+        List<Table> layout = List.of(eight, four, anotherFour);
+
+        // uno alla volta il gruppo da 6 prende il tavolo da 8 e quello da 8 resta senza posto
+        List<Table> first = service.findBestCombination(layout, 6);
+        assertEquals(List.of(eight), first);
+        assertNull(service.findBestCombination(List.of(four, anotherFour), 8));
+
+        List<List<Table>> packing = service.packParties(layout, List.of(6, 8));
+        assertEquals(Set.of(four, anotherFour), Set.copyOf(packing.get(0)));
+        assertEquals(List.of(eight), packing.get(1));
+    }
+
+    @Test
+    void packPartiesKeepsRequestOrderAndLeavesUnseatedPartiesNull() {
+        Table four = table(1, 4, false);
+
+        List<List<Table>> packing = service.packParties(List.of(four), List.of(2, 4));
+
+        assertNull(packing.get(0));
+        assertEquals(List.of(four), packing.get(1));
+        assertThrows(IllegalArgumentException.class, () -> service.packParties(List.of(four), List.of(0)));
+    }
+
+    @Test
+    void packPartiesNeverAssignsTheSameTableTwice() {
+        Random random = new Random(7);
+        List<Table> layout = new ArrayList<>();
+        for (int i = 1; i <= 120; i++) {
+            layout.add(table(i, 2 + 2 * random.nextInt(4), random.nextInt(4) != 0));
+        }
+        List<Integer> parties = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            parties.add(1 + random.nextInt(10));
+        }
+
+        List<List<Table>> packing = service.packParties(layout, parties);
+
+        assertEquals(parties.size(), packing.size());
+        Set<Table> used = new HashSet<>();
+        for (int i = 0; i < parties.size(); i++) {
+            List<Table> tables = packing.get(i);
+            if (tables != null) {
+                assertTrue(service.canHost(tables, parties.get(i)));
+                for (Table table : tables) {
+                    assertTrue(used.add(table));
+                }
+            }
+        }
+    }
+
     private Table table(int number, int seats, boolean joinable) {
         Table table = new Table(number, seats, joinable, "sala");
         table.setId(number);
         return table;
     }
+
+    private static FreeTables free(LocalDate date, int slotId, long version, List<Table> tables) {
+        return new FreeTables(date, slotId, version, tables);
+    }
+
+    private static class CountingEngine extends SeatCountAllocationEngine {
+        private int searches;
+
+        @Override
+        public List<Table> findBestCombination(List<Table> candidates, int guests) {
+            searches++;
+            return super.findBestCombination(candidates, guests);
+        }
+    }
 }